@@ -24,6 +24,7 @@ export interface ModelConfig {
   baseUrl: string;
   modelName: string;
   modelType: string; // "CHAT" or "EMBEDDING"
+  modelTier?: string; // 对话模型层级 "DEFAULT" | "FAST" | "REASONING" | "LONG_CONTEXT"
   temperature?: number;
   maxTokens?: number;
   isActive?: boolean;
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.dataagent.aop;
+
+import com.alibaba.cloud.ai.dataagent.service.metrics.GraphMetrics;
+import com.alibaba.cloud.ai.dataagent.service.metrics.MetricTags;
+import com.alibaba.cloud.ai.dataagent.util.StateUtil;
+import com.alibaba.cloud.ai.dataagent.workflow.node.PlannerNode;
+import com.alibaba.cloud.ai.dataagent.workflow.node.PythonGenerateNode;
+import com.alibaba.cloud.ai.dataagent.workflow.node.SqlGenerateNode;
+import com.alibaba.cloud.ai.graph.OverAllState;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.SignalType;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.alibaba.cloud.ai.dataagent.constant.Constant.*;
+
+/**
+ * AOP切面类，记录所有Node的耗时指标。
+ * <p>
+ * 节点的实际工作大多发生在返回的流式生成器被消费时，因此耗时统计到生成器结束为止，并记录首个数据块的到达时间。 同时将节点名称与智能体ID写入生成器的 Reactor
+ * Context，使节点内的 LLM 调用可以归属到具体节点。耗时指标只按节点汇总，智能体ID仅用于 Token 等计数器。
+ */
+@Aspect
+@Component
+@Slf4j
+@AllArgsConstructor
+public class NodeMetricsAspect {
+
+	// 可重试节点及其记录已尝试次数的状态键
+	private static final Map<String, String> RETRY_COUNT_KEYS = Map.of(SqlGenerateNode.class.getSimpleName(),
+			SQL_GENERATE_COUNT, PythonGenerateNode.class.getSimpleName(), PYTHON_TRIES_COUNT,
+			PlannerNode.class.getSimpleName(), PLAN_REPAIR_COUNT);
+
+	private final GraphMetrics metrics;
+
+	@Around("com.alibaba.cloud.ai.dataagent.aop.NodeEntryLoggingAspect.nodeEntry()")
+	public Object recordNodeMetrics(ProceedingJoinPoint joinPoint) throws Throwable {
+		String node = joinPoint.getTarget().getClass().getSimpleName();
+		OverAllState state = joinPoint.getArgs()[0] instanceof OverAllState s ? s : null;
+		String agentId = state == null ? null : StateUtil.getStringValue(state, AGENT_ID, null);
+		recordRetryAttempt(state, node);
+
+		long start = System.nanoTime();
+		Object result;
+		try {
+			result = joinPoint.proceed();
+		}
+		catch (Throwable e) {
+			metrics.recordNodeDuration(node, System.nanoTime() - start, false);
+			throw e;
+		}
+
+		if (!(result instanceof Map<?, ?> output) || output.values().stream().noneMatch(Flux.class::isInstance)) {
+			metrics.recordNodeDuration(node, System.nanoTime() - start, true);
+			return result;
+		}
+
+		// 所有生成器结束后才记录节点耗时
+		AtomicInteger pendingFluxes = new AtomicInteger(
+				(int) output.values().stream().filter(Flux.class::isInstance).count());
+		AtomicBoolean firstChunk = new AtomicBoolean(true);
+		AtomicBoolean failed = new AtomicBoolean(false);
+		Map<Object, Object> instrumented = new HashMap<>(output);
+		instrumented.replaceAll((key, value) -> {
+			if (!(value instanceof Flux<?> flux)) {
+				return value;
+			}
+			return flux.doOnNext(chunk -> {
+				if (firstChunk.compareAndSet(true, false)) {
+					metrics.recordNodeFirstChunk(node, System.nanoTime() - start);
+				}
+			}).doFinally(signal -> {
+				if (signal == SignalType.ON_ERROR) {
+					failed.set(true);
+				}
+				if (pendingFluxes.decrementAndGet() == 0) {
+					metrics.recordNodeDuration(node, System.nanoTime() - start, !failed.get());
+				}
+			})
+				.contextWrite(ctx -> ctx.put(MetricTags.NODE_CONTEXT_KEY, node)
+					.put(MetricTags.AGENT_CONTEXT_KEY, agentId == null ? MetricTags.UNKNOWN : agentId));
+		});
+		return instrumented;
+	}
+
+	private void recordRetryAttempt(OverAllState state, String node) {
+		String countKey = RETRY_COUNT_KEYS.get(node);
+		if (state == null || countKey == null) {
+			return;
+		}
+		try {
+			Integer attempt = StateUtil.getObjectValue(state, countKey, Integer.class, 0);
+			metrics.recordRetryAttempt(node, attempt);
+		}
+		catch (Exception e) {
+			log.debug("Failed to read retry count {} for node {}: {}", countKey, node, e.getMessage());
+		}
+	}
+
+}
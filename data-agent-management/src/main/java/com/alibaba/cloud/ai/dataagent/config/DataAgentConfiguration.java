@@ -25,6 +25,9 @@ import com.alibaba.cloud.ai.dataagent.splitter.ParagraphTextSplitter;
 import com.alibaba.cloud.ai.dataagent.util.McpServerToolUtil;
 import com.alibaba.cloud.ai.dataagent.util.NodeBeanUtil;
 import com.alibaba.cloud.ai.dataagent.service.aimodelconfig.AiModelRegistry;
+import com.alibaba.cloud.ai.dataagent.service.aimodelconfig.QueryEmbeddingCache;
+import com.alibaba.cloud.ai.dataagent.service.metrics.ExecutorMetrics;
+import com.alibaba.cloud.ai.dataagent.service.vectorstore.local.LocalVectorStore;
 import com.alibaba.cloud.ai.dataagent.strategy.EnhancedTokenCountBatchingStrategy;
 import com.alibaba.cloud.ai.dataagent.workflow.dispatcher.*;
 import com.alibaba.cloud.ai.dataagent.workflow.node.*;
@@ -50,6 +53,7 @@ import org.springframework.ai.vectorstore.VectorStore;
 import org.springframework.aop.TargetSource;
 import org.springframework.aop.framework.ProxyFactory;
 import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
@@ -63,8 +67,12 @@ import org.springframework.context.support.GenericApplicationContext;
 import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
 import reactor.netty.http.client.HttpClient;
 
+import java.io.IOException;
+import java.lang.reflect.Method;
 import java.time.Duration;
 import java.util.*;
 import java.util.concurrent.*;
@@ -88,9 +96,14 @@ import static com.alibaba.cloud.ai.graph.action.AsyncEdgeAction.edge_async;
 public class DataAgentConfiguration implements DisposableBean {
 
 	/**
-	 * 专用线程池，用于数据库操作的并行处理
+	 * 按负载类型隔离的线程池，关闭时依次释放
 	 */
-	private ExecutorService dbOperationExecutor;
+	private final Map<String, ExecutorService> managedExecutors = new LinkedHashMap<>();
+
+	/**
+	 * 图执行专用调度器，仅在非共享线程池模式下创建，需要在关闭时释放
+	 */
+	private Scheduler ownedGraphScheduler;
 
 	@Bean
 	@ConditionalOnMissingBean(RestClientCustomizer.class)
@@ -113,8 +126,8 @@ public class DataAgentConfiguration implements DisposableBean {
 	}
 
 	@Bean
-	public StateGraph nl2sqlGraph(NodeBeanUtil nodeBeanUtil, CodeExecutorProperties codeExecutorProperties)
-			throws GraphStateException {
+	public StateGraph nl2sqlGraph(NodeBeanUtil nodeBeanUtil, CodeExecutorProperties codeExecutorProperties,
+			DataAgentProperties dataAgentProperties) throws GraphStateException {
 
 		KeyStrategyFactory keyStrategyFactory = () -> {
 			HashMap<String, KeyStrategy> keyStrategyHashMap = new HashMap<>();
@@ -135,6 +148,9 @@ public class DataAgentConfiguration implements DisposableBean {
 			// schema recall节点输出
 			keyStrategyHashMap.put(TABLE_DOCUMENTS_FOR_SCHEMA_OUTPUT, KeyStrategy.REPLACE);
 			keyStrategyHashMap.put(COLUMN_DOCUMENTS__FOR_SCHEMA_OUTPUT, KeyStrategy.REPLACE);
+			keyStrategyHashMap.put(SCHEMA_RECALL_PREFETCH_ID, KeyStrategy.REPLACE);
+			keyStrategyHashMap.put(SPECULATION_ID, KeyStrategy.REPLACE);
+			keyStrategyHashMap.put(EVIDENCE_STANDALONE_QUERY, KeyStrategy.REPLACE);
 			// table relation节点输出
 			keyStrategyHashMap.put(TABLE_RELATION_OUTPUT, KeyStrategy.REPLACE);
 			keyStrategyHashMap.put(TABLE_RELATION_EXCEPTION_OUTPUT, KeyStrategy.REPLACE);
@@ -157,6 +173,7 @@ public class DataAgentConfiguration implements DisposableBean {
 			keyStrategyHashMap.put(PLAN_VALIDATION_STATUS, KeyStrategy.REPLACE);
 			keyStrategyHashMap.put(PLAN_VALIDATION_ERROR, KeyStrategy.REPLACE);
 			keyStrategyHashMap.put(PLAN_REPAIR_COUNT, KeyStrategy.REPLACE);
+			keyStrategyHashMap.put(PLAN_STREAM_VALIDATION_ERROR, KeyStrategy.REPLACE);
 			// SQL Execute 节点输出
 			keyStrategyHashMap.put(SQL_EXECUTE_NODE_OUTPUT, KeyStrategy.REPLACE);
 			// Python代码运行相关
@@ -169,6 +186,8 @@ public class DataAgentConfiguration implements DisposableBean {
 			keyStrategyHashMap.put(PYTHON_ANALYSIS_NODE_OUTPUT, KeyStrategy.REPLACE);
 			// NL2SQL相关
 			keyStrategyHashMap.put(IS_ONLY_NL2SQL, KeyStrategy.REPLACE);
+			// 查询结果缓存
+			keyStrategyHashMap.put(QUERY_CACHE_HIT, KeyStrategy.REPLACE);
 			// Human Review keys
 			keyStrategyHashMap.put(HUMAN_REVIEW_ENABLED, KeyStrategy.REPLACE);
 			keyStrategyHashMap.put(HUMAN_FEEDBACK_DATA, KeyStrategy.REPLACE);
@@ -178,9 +197,8 @@ public class DataAgentConfiguration implements DisposableBean {
 		};
 
 		StateGraph stateGraph = new StateGraph(NL2SQL_GRAPH_NAME, keyStrategyFactory)
-			.addNode(INTENT_RECOGNITION_NODE, nodeBeanUtil.getNodeBeanAsync(IntentRecognitionNode.class))
 			.addNode(EVIDENCE_RECALL_NODE, nodeBeanUtil.getNodeBeanAsync(EvidenceRecallNode.class))
-			.addNode(QUERY_ENHANCE_NODE, nodeBeanUtil.getNodeBeanAsync(QueryEnhanceNode.class))
+			.addNode(QUERY_CACHE_NODE, nodeBeanUtil.getNodeBeanAsync(QueryCacheNode.class))
 			.addNode(SCHEMA_RECALL_NODE, nodeBeanUtil.getNodeBeanAsync(SchemaRecallNode.class))
 			.addNode(TABLE_RELATION_NODE, nodeBeanUtil.getNodeBeanAsync(TableRelationNode.class))
 			.addNode(FEASIBILITY_ASSESSMENT_NODE, nodeBeanUtil.getNodeBeanAsync(FeasibilityAssessmentNode.class))
@@ -195,12 +213,31 @@ public class DataAgentConfiguration implements DisposableBean {
 			.addNode(SEMANTIC_CONSISTENCY_NODE, nodeBeanUtil.getNodeBeanAsync(SemanticConsistencyNode.class))
 			.addNode(HUMAN_FEEDBACK_NODE, nodeBeanUtil.getNodeBeanAsync(HumanFeedbackNode.class));
 
-		stateGraph.addEdge(START, INTENT_RECOGNITION_NODE)
-			.addConditionalEdges(INTENT_RECOGNITION_NODE, edge_async(new IntentRecognitionDispatcher()),
-					Map.of(EVIDENCE_RECALL_NODE, EVIDENCE_RECALL_NODE, END, END))
-			.addEdge(EVIDENCE_RECALL_NODE, QUERY_ENHANCE_NODE)
-			.addConditionalEdges(QUERY_ENHANCE_NODE, edge_async(new QueryEnhanceDispatcher()),
-					Map.of(SCHEMA_RECALL_NODE, SCHEMA_RECALL_NODE, END, END))
+		if (dataAgentProperties.isFusedPreprocessEnabled()) {
+			// 融合预处理：一次 LLM 调用替代意图识别、证据查询重写与问题增强，证据召回节点只做检索
+			stateGraph.addNode(FUSED_PREPROCESS_NODE, nodeBeanUtil.getNodeBeanAsync(FusedPreprocessNode.class))
+				.addEdge(START, FUSED_PREPROCESS_NODE)
+				.addConditionalEdges(FUSED_PREPROCESS_NODE, edge_async(new IntentRecognitionDispatcher()),
+						Map.of(EVIDENCE_RECALL_NODE, EVIDENCE_RECALL_NODE, END, END))
+				.addConditionalEdges(EVIDENCE_RECALL_NODE, edge_async(new QueryEnhanceDispatcher()),
+						Map.of(QUERY_CACHE_NODE, QUERY_CACHE_NODE, END, END));
+		}
+		else {
+			stateGraph.addNode(INTENT_RECOGNITION_NODE, nodeBeanUtil.getNodeBeanAsync(IntentRecognitionNode.class))
+				.addNode(QUERY_ENHANCE_NODE, nodeBeanUtil.getNodeBeanAsync(QueryEnhanceNode.class))
+				.addEdge(START, INTENT_RECOGNITION_NODE)
+				.addConditionalEdges(INTENT_RECOGNITION_NODE, edge_async(new IntentRecognitionDispatcher()),
+						Map.of(EVIDENCE_RECALL_NODE, EVIDENCE_RECALL_NODE, END, END))
+				.addEdge(EVIDENCE_RECALL_NODE, QUERY_ENHANCE_NODE)
+				.addConditionalEdges(QUERY_ENHANCE_NODE, edge_async(new QueryEnhanceDispatcher()),
+						Map.of(QUERY_CACHE_NODE, QUERY_CACHE_NODE, END, END));
+		}
+
+		stateGraph
+			// 命中查询结果缓存时跳过 Schema 召回到规划之间的节点
+			.addConditionalEdges(QUERY_CACHE_NODE, edge_async(new QueryCacheDispatcher()),
+					Map.of(SCHEMA_RECALL_NODE, SCHEMA_RECALL_NODE, PLAN_EXECUTOR_NODE, PLAN_EXECUTOR_NODE,
+							SQL_EXECUTE_NODE, SQL_EXECUTE_NODE))
 			.addConditionalEdges(SCHEMA_RECALL_NODE, edge_async(new SchemaRecallDispatcher()),
 					Map.of(TABLE_RELATION_NODE, TABLE_RELATION_NODE, END, END))
 
@@ -269,6 +306,19 @@ public class DataAgentConfiguration implements DisposableBean {
 		return SimpleVectorStore.builder(embeddingModel).build();
 	}
 
+	/**
+	 * 本地持久化向量库，数据保存在 spring.ai.alibaba.data-agent.vector-store.local.path 下，重启后无需重新向量化
+	 */
+	@Primary
+	@Bean
+	@ConditionalOnMissingBean(VectorStore.class)
+	@ConditionalOnProperty(name = "spring.ai.vectorstore.type", havingValue = "local")
+	public LocalVectorStore localVectorStore(EmbeddingModel embeddingModel, BatchingStrategy batchingStrategy,
+			DataAgentProperties properties, AiModelRegistry aiModelRegistry) throws IOException {
+		return LocalVectorStore.open(embeddingModel, batchingStrategy, properties.getVectorStore().getLocal(),
+				aiModelRegistry::getEmbeddingModelFingerprint);
+	}
+
 	@Bean
 	@ConditionalOnMissingBean(BatchingStrategy.class)
 	public BatchingStrategy customBatchingStrategy(DataAgentProperties properties) {
@@ -311,10 +361,11 @@ public class DataAgentConfiguration implements DisposableBean {
 	/**
 	 * 动态生成 EmbeddingModel 的代理 Bean。 原理： 1. 这是一个 Bean，Milvus/PgVector Starter 能看到它，启动不会报错。
 	 * 2. 它是动态代理，内部没有写死任何方法。 3. 每次被调用时，它会执行 getTarget() -> registry.getEmbeddingModel()。
+	 * 4. 代理外层包装查询向量缓存，同一查询文本只调用一次嵌入模型。
 	 */
 	@Bean
 	@Primary
-	public EmbeddingModel embeddingModel(AiModelRegistry registry) {
+	public EmbeddingModel embeddingModel(AiModelRegistry registry, QueryEmbeddingCache queryEmbeddingCache) {
 
 		// 1. 定义目标源 (TargetSource)
 		TargetSource targetSource = new TargetSource() {
@@ -347,16 +398,42 @@ public class DataAgentConfiguration implements DisposableBean {
 		// 代理接口
 		proxyFactory.addInterface(EmbeddingModel.class);
 
-		// 3. 返回动态生成的代理对象
-		return (EmbeddingModel) proxyFactory.getProxy();
+		// 3. 返回包装了查询向量缓存的代理对象
+		return queryEmbeddingCache.wrap((EmbeddingModel) proxyFactory.getProxy(),
+				registry::getEmbeddingModelFingerprint);
 	}
 
-	@Bean(name = "dbOperationExecutor")
-	public ExecutorService dbOperationExecutor() {
-		// 初始化专用线程池，用于数据库操作
-		// 线程数量设置为CPU核心数的2倍，但不少于4个，不超过16个
-		int corePoolSize = Math.max(4, Math.min(Runtime.getRuntime().availableProcessors() * 2, 16));
-		log.info("Database operation executor initialized with {} threads", corePoolSize);
+	/**
+	 * 交互式检索线程池，服务在线对话路径（图订阅、混合检索、Schema 召回预取），与批量导入隔离
+	 */
+	@Primary
+	@Bean(name = "interactiveExecutor")
+	public ExecutorService interactiveExecutor(DataAgentProperties properties, ExecutorMetrics metrics) {
+		return newBulkheadExecutor("interactive", properties.getExecutors().getInteractive(), metrics);
+	}
+
+	/**
+	 * 批量导入线程池，服务 Schema 初始化与知识向量化，大批量导入不会占满在线对话的线程
+	 */
+	@Bean(name = "ingestionExecutor")
+	public ExecutorService ingestionExecutor(DataAgentProperties properties, ExecutorMetrics metrics) {
+		return newBulkheadExecutor("ingestion", properties.getExecutors().getIngestion(), metrics);
+	}
+
+	/**
+	 * 后台维护线程池，服务会话标题生成、启动初始化等可延后的任务
+	 */
+	@Bean(name = "maintenanceExecutor")
+	public ExecutorService maintenanceExecutor(DataAgentProperties properties, ExecutorMetrics metrics) {
+		return newBulkheadExecutor("maintenance", properties.getExecutors().getMaintenance(), metrics);
+	}
+
+	private ExecutorService newBulkheadExecutor(String name, DataAgentProperties.ExecutorPool pool,
+			ExecutorMetrics metrics) {
+		int coreSize = pool.resolveCoreSize();
+		int maxSize = pool.resolveMaxSize();
+		log.info("{} executor initialized with {}-{} threads, queue capacity {}, rejection policy {}", name, coreSize,
+				maxSize, pool.getQueueCapacity(), pool.getRejectionPolicy());
 
 		// 自定义线程工厂
 		ThreadFactory threadFactory = new ThreadFactory() {
@@ -364,7 +441,7 @@ public class DataAgentConfiguration implements DisposableBean {
 
 			@Override
 			public Thread newThread(Runnable r) {
-				Thread t = new Thread(r, "db-operation-" + threadNumber.getAndIncrement());
+				Thread t = new Thread(r, name + "-" + threadNumber.getAndIncrement());
 				t.setDaemon(false);
 				if (t.getPriority() != Thread.NORM_PRIORITY) {
 					t.setPriority(Thread.NORM_PRIORITY);
@@ -373,50 +450,118 @@ public class DataAgentConfiguration implements DisposableBean {
 			}
 		};
 
-		// 创建原生线程池
-		this.dbOperationExecutor = new ThreadPoolExecutor(corePoolSize, corePoolSize, 60L, TimeUnit.SECONDS,
-				new LinkedBlockingQueue<>(500), threadFactory, new ThreadPoolExecutor.CallerRunsPolicy());
+		RejectedExecutionHandler policy = switch (pool.getRejectionPolicy()) {
+			case CALLER_RUNS -> new ThreadPoolExecutor.CallerRunsPolicy();
+			case ABORT -> new ThreadPoolExecutor.AbortPolicy();
+			case DISCARD_OLDEST -> new ThreadPoolExecutor.DiscardOldestPolicy();
+		};
+		// 记录拒绝次数后再交给原策略处理
+		RejectedExecutionHandler countingPolicy = (task, executor) -> {
+			metrics.recordExecutorRejection(name);
+			policy.rejectedExecution(task, executor);
+		};
+
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(coreSize, maxSize, 60L, TimeUnit.SECONDS,
+				new LinkedBlockingQueue<>(Math.max(1, pool.getQueueCapacity())), threadFactory, countingPolicy);
+		metrics.bindExecutor(name, executor);
+		managedExecutors.put(name, executor);
+		return executor;
+	}
+
+	/**
+	 * 图订阅使用的调度器。SHARED_POOL 模式下包装交互式检索线程池；其他模式使用专用调度器，避免会话并发数受限于平台线程池。
+	 */
+	@Bean(name = "graphExecutionScheduler")
+	public Scheduler graphExecutionScheduler(DataAgentProperties properties,
+			@Qualifier("interactiveExecutor") ExecutorService interactiveExecutor) {
+		DataAgentProperties.GraphExecution config = properties.getGraphExecution();
+		Scheduler scheduler = switch (config.getMode()) {
+			case SHARED_POOL -> null;
+			case VIRTUAL_THREADS -> newVirtualThreadScheduler(config);
+			case BOUNDED_ELASTIC -> newBoundedElasticScheduler(config);
+		};
+		if (scheduler == null) {
+			log.info("Graph execution uses the shared interactive executor");
+			return Schedulers.fromExecutorService(interactiveExecutor, "graph-shared");
+		}
+		this.ownedGraphScheduler = scheduler;
+		return scheduler;
+	}
 
-		return dbOperationExecutor;
+	/**
+	 * 节点阻塞代码（JDBC、阻塞式 LLM 调用、代码执行等）使用的调度器。SHARED_POOL 模式下在当前线程执行，其他模式转移到图执行调度器上。
+	 */
+	@Bean(name = "nodeBlockingScheduler")
+	public Scheduler nodeBlockingScheduler(@Qualifier("graphExecutionScheduler") Scheduler graphExecutionScheduler) {
+		return ownedGraphScheduler != null ? graphExecutionScheduler : Schedulers.immediate();
+	}
+
+	private Scheduler newVirtualThreadScheduler(DataAgentProperties.GraphExecution config) {
+		try {
+			// 以反射创建，保证在 JDK 17 上编译并运行
+			Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			ExecutorService executor = (ExecutorService) factory.invoke(null);
+			log.info("Graph execution uses virtual threads");
+			return Schedulers.fromExecutorService(executor, "graph-virtual");
+		}
+		catch (ReflectiveOperationException e) {
+			log.warn("Virtual threads are not available on this runtime, falling back to bounded elastic scheduler");
+			return newBoundedElasticScheduler(config);
+		}
+	}
+
+	private Scheduler newBoundedElasticScheduler(DataAgentProperties.GraphExecution config) {
+		int maxThreads = config.getBoundedElasticMaxThreads() > 0 ? config.getBoundedElasticMaxThreads()
+				: Schedulers.DEFAULT_BOUNDED_ELASTIC_SIZE;
+		log.info("Graph execution uses bounded elastic scheduler with {} threads", maxThreads);
+		return Schedulers.newBoundedElastic(maxThreads, config.getBoundedElasticMaxQueuedTasks(), "graph-execution");
 	}
 
 	@Override
 	public void destroy() {
-		if (dbOperationExecutor != null && !dbOperationExecutor.isShutdown()) {
-			log.info("Shutting down database operation executor...");
+		if (ownedGraphScheduler != null) {
+			ownedGraphScheduler.dispose();
+		}
+		managedExecutors.forEach(this::shutdownExecutor);
+	}
 
-			// 记录关闭前的状态，便于排查问题
-			if (dbOperationExecutor instanceof ThreadPoolExecutor tpe) {
-				log.info("Executor Status before shutdown: [Queue Size: {}], [Active Count: {}], [Completed Tasks: {}]",
-						tpe.getQueue().size(), tpe.getActiveCount(), tpe.getCompletedTaskCount());
-			}
+	private void shutdownExecutor(String name, ExecutorService executor) {
+		if (executor.isShutdown()) {
+			return;
+		}
+		log.info("Shutting down {} executor...", name);
+
+		// 记录关闭前的状态，便于排查问题
+		if (executor instanceof ThreadPoolExecutor tpe) {
+			log.info("Executor Status before shutdown: [Queue Size: {}], [Active Count: {}], [Completed Tasks: {}]",
+					tpe.getQueue().size(), tpe.getActiveCount(), tpe.getCompletedTaskCount());
+		}
 
-			// 1. 停止接收新任务
-			dbOperationExecutor.shutdown();
+		// 1. 停止接收新任务
+		executor.shutdown();
 
-			try {
-				// 2. 等待现有任务完成（包括队列中的）
-				if (!dbOperationExecutor.awaitTermination(60, TimeUnit.SECONDS)) {
-					log.warn("Executor did not terminate in 60s. Forcing shutdown...");
+		try {
+			// 2. 等待现有任务完成（包括队列中的）
+			if (!executor.awaitTermination(60, TimeUnit.SECONDS)) {
+				log.warn("Executor {} did not terminate in 60s. Forcing shutdown...", name);
 
-					// 3. 超时强行关闭
-					dbOperationExecutor.shutdownNow();
+				// 3. 超时强行关闭
+				executor.shutdownNow();
 
-					// 4. 再次确认是否关闭
-					if (!dbOperationExecutor.awaitTermination(10, TimeUnit.SECONDS)) {
-						log.error("Executor failed to terminate completely.");
-					}
-				}
-				else {
-					log.info("Database operation executor terminated gracefully.");
+				// 4. 再次确认是否关闭
+				if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+					log.error("Executor {} failed to terminate completely.", name);
 				}
 			}
-			catch (InterruptedException e) {
-				log.warn("Interrupted during executor shutdown. Forcing immediate shutdown.");
-				dbOperationExecutor.shutdownNow();
-				Thread.currentThread().interrupt();
+			else {
+				log.info("{} executor terminated gracefully.", name);
 			}
 		}
+		catch (InterruptedException e) {
+			log.warn("Interrupted during executor shutdown. Forcing immediate shutdown.");
+			executor.shutdownNow();
+			Thread.currentThread().interrupt();
+		}
 	}
 
 	@Bean(name = "token")
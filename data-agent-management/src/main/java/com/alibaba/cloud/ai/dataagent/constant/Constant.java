@@ -50,6 +50,15 @@ public final class Constant {
 
 	public static final String COLUMN_DOCUMENTS__FOR_SCHEMA_OUTPUT = "COLUMN_DOCUMENTS__FOR_SCHEMA_OUTPUT";
 
+	// 并行模式下 Schema 召回预取任务的ID
+	public static final String SCHEMA_RECALL_PREFETCH_ID = "SCHEMA_RECALL_PREFETCH_ID";
+
+	// 推测执行模式下，意图识别期间提前启动的预处理任务的ID
+	public static final String SPECULATION_ID = "SPECULATION_ID";
+
+	// 融合预处理节点输出的证据检索查询，证据召回节点据此直接检索，不再调用 LLM 重写
+	public static final String EVIDENCE_STANDALONE_QUERY = "EVIDENCE_STANDALONE_QUERY";
+
 	public static final String TABLE_RELATION_OUTPUT = "TABLE_RELATION_OUTPUT";
 
 	public static final String TABLE_RELATION_EXCEPTION_OUTPUT = "TABLE_RELATION_EXCEPTION_OUTPUT";
@@ -89,6 +98,9 @@ public final class Constant {
 
 	public static final String PLAN_REPAIR_COUNT = "PLAN_REPAIR_COUNT";
 
+	// 计划流式生成过程中发现的步骤校验错误，为空表示未发现
+	public static final String PLAN_STREAM_VALIDATION_ERROR = "PLAN_STREAM_VALIDATION_ERROR";
+
 	// Node KEY
 	public static final String PLANNER_NODE = "PLANNER_NODE";
 
@@ -100,6 +112,9 @@ public final class Constant {
 
 	public static final String QUERY_ENHANCE_NODE = "QUERY_ENHANCE_NODE";
 
+	// 融合预处理节点，替代意图识别、证据查询重写与查询增强三次 LLM 调用
+	public static final String FUSED_PREPROCESS_NODE = "FUSED_PREPROCESS_NODE";
+
 	public static final String FEASIBILITY_ASSESSMENT_NODE = "FEASIBILITY_ASSESSMENT_NODE";
 
 	public static final String REPORT_GENERATOR_NODE = "REPORT_GENERATOR_NODE";
@@ -116,6 +131,8 @@ public final class Constant {
 
 	public static final String HUMAN_FEEDBACK_NODE = "HUMAN_FEEDBACK_NODE";
 
+	public static final String QUERY_CACHE_NODE = "QUERY_CACHE_NODE";
+
 	// Keys related to Python code execution
 	public static final String PYTHON_GENERATE_NODE = "PYTHON_GENERATE_NODE";
 
@@ -143,6 +160,9 @@ public final class Constant {
 	// nl2sql接口预留相关
 	public static final String IS_ONLY_NL2SQL = "IS_ONLY_NL2SQL";
 
+	// 查询结果缓存是否命中
+	public static final String QUERY_CACHE_HIT = "QUERY_CACHE_HIT";
+
 	// 人类复核相关
 	public static final String HUMAN_REVIEW_ENABLED = "HUMAN_REVIEW_ENABLED";
 
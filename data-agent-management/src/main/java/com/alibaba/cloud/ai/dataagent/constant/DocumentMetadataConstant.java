@@ -52,4 +52,7 @@ public final class DocumentMetadataConstant {
 	// businessTermId
 	public static final String DB_BUSINESS_TERM_ID = "businessTermId";
 
+	// 写入时的召回状态，召回过滤方式为 METADATA 时使用
+	public static final String RECALLED = "recalled";
+
 }
@@ -17,6 +17,7 @@ package com.alibaba.cloud.ai.dataagent.converter;
 
 import com.alibaba.cloud.ai.dataagent.dto.ModelConfigDTO;
 import com.alibaba.cloud.ai.dataagent.entity.ModelConfig;
+import com.alibaba.cloud.ai.dataagent.enums.ModelTier;
 import com.alibaba.cloud.ai.dataagent.enums.ModelType;
 import org.springframework.util.Assert;
 
@@ -41,6 +42,7 @@ public class ModelConfigConverter {
 			.isActive(entity.getIsActive())
 			.apiKey(entity.getApiKey())
 			.modelType(entity.getModelType().getCode())
+			.modelTier(entity.getModelTier() == null ? ModelTier.DEFAULT.getCode() : entity.getModelTier().getCode())
 			.completionsPath(entity.getCompletionsPath())
 			.embeddingsPath(entity.getEmbeddingsPath())
 			.build();
@@ -62,6 +64,7 @@ public class ModelConfigConverter {
 		entity.setTemperature(dto.getTemperature());
 		entity.setMaxTokens(dto.getMaxTokens());
 		entity.setModelType(ModelType.fromCode(dto.getModelType()));
+		entity.setModelTier(ModelTier.fromCode(dto.getModelTier()));
 		entity.setCompletionsPath(dto.getCompletionsPath());
 		entity.setEmbeddingsPath(dto.getEmbeddingsPath());
 		// 默认值处理
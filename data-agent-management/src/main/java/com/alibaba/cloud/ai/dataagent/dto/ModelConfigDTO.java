@@ -16,6 +16,7 @@
 package com.alibaba.cloud.ai.dataagent.dto;
 
 import com.alibaba.cloud.ai.dataagent.annotation.InEnum;
+import com.alibaba.cloud.ai.dataagent.enums.ModelTier;
 import com.alibaba.cloud.ai.dataagent.enums.ModelType;
 import jakarta.validation.constraints.NotBlank;
 import lombok.AllArgsConstructor;
@@ -46,6 +47,10 @@ public class ModelConfigDTO {
 	@InEnum(value = ModelType.class, message = "CHAT/EMBEDDING 之一")
 	private String modelType;
 
+	// 对话模型层级，为空时为 DEFAULT
+	@InEnum(value = ModelTier.class, message = "DEFAULT/FAST/REASONING/LONG_CONTEXT 之一")
+	private String modelTier;
+
 	// 仅当厂商路径非标准时填写，例如 "/custom/chat"
 	private String completionsPath;
 
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.dataagent.dto.prompt;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyDescription;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// 对应 模板fused-preprocess.txt的输出，一次调用同时得到意图识别、检索查询重写与查询增强的结果
+@Data
+@NoArgsConstructor
+public class FusedPreprocessOutputDTO {
+
+	@JsonProperty("classification")
+	@JsonPropertyDescription("意图分类结果，值为：《闲聊或无关指令》或《可能的数据分析请求》")
+	private String classification;
+
+	@JsonProperty("standalone_query")
+	@JsonPropertyDescription("用于检索业务知识的重写后的完整句子")
+	private String standaloneQuery;
+
+	@JsonProperty("canonical_query")
+	@JsonPropertyDescription("对用户最终意图的单一、清晰的重写，包含绝对时间")
+	private String canonicalQuery;
+
+	@JsonProperty("expanded_queries")
+	@JsonPropertyDescription("基于规范化查询的扩展问题表述")
+	private List<String> expandedQueries;
+
+	public IntentRecognitionOutputDTO toIntentRecognitionOutput() {
+		IntentRecognitionOutputDTO output = new IntentRecognitionOutputDTO();
+		output.setClassification(classification);
+		return output;
+	}
+
+	public QueryEnhanceOutputDTO toQueryEnhanceOutput() {
+		QueryEnhanceOutputDTO output = new QueryEnhanceOutputDTO();
+		output.setCanonicalQuery(canonicalQuery);
+		output.setExpandedQueries(expandedQueries);
+		return output;
+	}
+
+}
@@ -39,4 +39,6 @@ public class SqlGenerationDTO {
 
 	private String dialect;
 
+	private String semanticModel;
+
 }
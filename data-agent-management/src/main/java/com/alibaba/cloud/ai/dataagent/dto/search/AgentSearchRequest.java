@@ -19,7 +19,7 @@ import lombok.Builder;
 import lombok.Data;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 public class AgentSearchRequest implements java.io.Serializable {
 
 	@java.io.Serial
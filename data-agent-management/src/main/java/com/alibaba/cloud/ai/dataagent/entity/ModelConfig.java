@@ -15,6 +15,7 @@
  */
 package com.alibaba.cloud.ai.dataagent.entity;
 
+import com.alibaba.cloud.ai.dataagent.enums.ModelTier;
 import com.alibaba.cloud.ai.dataagent.enums.ModelType;
 import com.fasterxml.jackson.annotation.JsonFormat;
 import lombok.Data;
@@ -46,6 +47,10 @@ public class ModelConfig {
 	// 可选值："CHAT", "EMBEDDING"
 	private ModelType modelType;
 
+	// 模型层级，仅对话模型有效
+	// 可选值："DEFAULT", "FAST", "REASONING", "LONG_CONTEXT"
+	private ModelTier modelTier = ModelTier.DEFAULT;
+
 	private String completionsPath;
 
 	private String embeddingsPath;
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.dataagent.enums;
+
+import lombok.Getter;
+
+/**
+ * 对话模型层级枚举。每个层级可以有一个激活的对话模型，节点按配置路由到对应层级，未配置模型的层级回退到默认层级
+ */
+@Getter
+public enum ModelTier {
+
+	/**
+	 * 默认模型，未指定层级的节点均使用该模型
+	 */
+	DEFAULT("DEFAULT"),
+
+	/**
+	 * 快速模型，用于意图识别、一致性校验等简单分类任务
+	 */
+	FAST("FAST"),
+
+	/**
+	 * 推理模型，用于计划生成、报告生成等复杂任务
+	 */
+	REASONING("REASONING"),
+
+	/**
+	 * 长上下文模型，用于输入较长的任务
+	 */
+	LONG_CONTEXT("LONG_CONTEXT");
+
+	private final String code;
+
+	ModelTier(String code) {
+		this.code = code;
+	}
+
+	/**
+	 * 根据代码获取枚举，代码为空时返回默认层级
+	 */
+	public static ModelTier fromCode(String code) {
+		if (code == null || code.isEmpty()) {
+			return DEFAULT;
+		}
+		for (ModelTier tier : values()) {
+			if (tier.getCode().equals(code)) {
+				return tier;
+			}
+		}
+		throw new IllegalArgumentException("未知的模型层级代码: " + code);
+	}
+
+}
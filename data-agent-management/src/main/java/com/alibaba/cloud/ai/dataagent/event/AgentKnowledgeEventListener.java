@@ -21,6 +21,7 @@ import com.alibaba.cloud.ai.dataagent.mapper.AgentKnowledgeMapper;
 import com.alibaba.cloud.ai.dataagent.service.knowledge.AgentKnowledgeResourceManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.event.TransactionPhase;
@@ -37,10 +38,12 @@ public class AgentKnowledgeEventListener {
 
 	private final AgentKnowledgeResourceManager agentKnowledgeResourceManager;
 
+	private final ApplicationEventPublisher eventPublisher;
+
 	/**
 	 * phase = TransactionPhase.AFTER_COMMIT 核心作用：只有当 Service 层的主事务提交成功后，才会执行这个方法。
 	 */
-	@Async("dbOperationExecutor")
+	@Async("ingestionExecutor")
 	@TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
 	public void handleEmbeddingEvent(AgentKnowledgeEmbeddingEvent event) {
 		log.info("Received AgentKnowledgeEmbeddingEvent. agentKnowledgeId: {}", event.getKnowledgeId());
@@ -62,6 +65,8 @@ public class AgentKnowledgeEventListener {
 
 			// 4. 更新状态为 COMPLETED
 			updateStatus(knowledge, EmbeddingStatus.COMPLETED, null);
+			eventPublisher.publishEvent(new AgentRecallScopeChangedEvent(this, String.valueOf(knowledge.getAgentId()),
+					AgentRecallScopeChangedEvent.Scope.AGENT_KNOWLEDGE));
 
 			log.info("Successfully embedded knowledge. Id: {}", id);
 
@@ -85,7 +90,7 @@ public class AgentKnowledgeEventListener {
 		agentKnowledgeMapper.update(knowledge);
 	}
 
-	@Async("dbOperationExecutor")
+	@Async("ingestionExecutor")
 	@TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
 	public void handleDeletionEvent(AgentKnowledgeDeletionEvent event) {
 		Integer id = event.getKnowledgeId();
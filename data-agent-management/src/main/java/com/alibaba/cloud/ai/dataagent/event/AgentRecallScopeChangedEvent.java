@@ -0,0 +1,45 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.dataagent.event;
+
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+import java.time.Clock;
+
+/**
+ * 智能体的召回范围（Schema 向量、业务知识、智能体知识）发生变化时发布的事件，用于失效依赖召回结果的各类缓存。
+ */
+@Getter
+public class AgentRecallScopeChangedEvent extends ApplicationEvent {
+
+	private final String agentId;
+
+	private final Scope scope;
+
+	public AgentRecallScopeChangedEvent(Object source, String agentId, Scope scope) {
+		super(source, Clock.systemDefaultZone());
+		this.agentId = agentId;
+		this.scope = scope;
+	}
+
+	public enum Scope {
+
+		SCHEMA, BUSINESS_KNOWLEDGE, AGENT_KNOWLEDGE
+
+	}
+
+}
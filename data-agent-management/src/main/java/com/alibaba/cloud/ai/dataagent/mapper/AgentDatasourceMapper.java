@@ -69,6 +69,10 @@ public interface AgentDatasourceMapper {
 		return updateRelation(agentId, datasourceId, 1);
 	}
 
+	/** Refresh update_time of all associations of an agent, e.g. after schema init */
+	@Update("UPDATE agent_datasource SET update_time = CURRENT_TIMESTAMP WHERE agent_id = #{agentId}")
+	int touchByAgentId(@Param("agentId") Long agentId);
+
 	@Delete("DELETE FROM agent_datasource WHERE agent_id = #{agentId} AND datasource_id = #{datasourceId}")
 	int removeRelation(@Param("agentId") Long agentId, @Param("datasourceId") Integer datasourceId);
 
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.dataagent.mapper;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 智能体召回范围（Schema、语义模型、业务知识、智能体知识、逻辑外键）的持久化指纹查询
+ */
+@Mapper
+public interface AgentRecallScopeMapper {
+
+	/**
+	 * 按来源统计智能体召回范围内的行数、主键之和与最近更新时间，任一来源的新增、删除或更新都会改变结果
+	 */
+	@Select("""
+			SELECT 'business_knowledge' AS source, COUNT(*) AS row_count, SUM(id) AS id_sum, MAX(updated_time) AS last_update
+			FROM business_knowledge WHERE agent_id = #{agentId}
+			UNION ALL
+			SELECT 'agent_knowledge', COUNT(*), SUM(id), MAX(updated_time)
+			FROM agent_knowledge WHERE agent_id = #{agentId}
+			UNION ALL
+			SELECT 'semantic_model', COUNT(*), SUM(id), MAX(updated_time)
+			FROM semantic_model WHERE agent_id = #{agentId}
+			UNION ALL
+			SELECT 'agent_datasource', COUNT(*), SUM(id), MAX(update_time)
+			FROM agent_datasource WHERE agent_id = #{agentId}
+			UNION ALL
+			SELECT 'agent_datasource_tables', COUNT(*), SUM(t.id), MAX(t.create_time)
+			FROM agent_datasource_tables t JOIN agent_datasource ad ON t.agent_datasource_id = ad.id
+			WHERE ad.agent_id = #{agentId}
+			UNION ALL
+			SELECT 'logical_relation', COUNT(*), SUM(lr.id), MAX(lr.updated_time)
+			FROM logical_relation lr JOIN agent_datasource ad ON lr.datasource_id = ad.datasource_id
+			WHERE ad.agent_id = #{agentId}
+			""")
+	List<Map<String, Object>> selectFingerprintRows(@Param("agentId") Long agentId);
+
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.dataagent.mapper;
+
+import org.apache.ibatis.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Mapper
+public interface GraphThreadStateMapper {
+
+	/**
+	 * Create the thread state table if it does not exist, compatible with MySQL and H2
+	 * (MySQL mode)
+	 */
+	@Update("""
+			CREATE TABLE IF NOT EXISTS graph_thread_state (
+				thread_id VARCHAR(128) NOT NULL,
+				state_type VARCHAR(32) NOT NULL,
+				payload LONGTEXT,
+				update_time DATETIME NOT NULL,
+				PRIMARY KEY (thread_id, state_type),
+				INDEX idx_graph_thread_state_type_update_time (state_type, update_time)
+			)
+			""")
+	void createTableIfNotExists();
+
+	/**
+	 * 旧版本创建的 graph_thread_state 表缺少过期清理索引时返回 1，表不存在或已有该索引时返回 0（仅 MySQL）
+	 */
+	@Select("""
+			SELECT COUNT(*) FROM information_schema.TABLES t
+			WHERE t.TABLE_SCHEMA = DATABASE() AND t.TABLE_NAME = 'graph_thread_state'
+			AND NOT EXISTS (SELECT 1 FROM information_schema.STATISTICS s
+				WHERE s.TABLE_SCHEMA = t.TABLE_SCHEMA AND s.TABLE_NAME = t.TABLE_NAME
+				AND s.INDEX_NAME = 'idx_graph_thread_state_type_update_time')
+			""")
+	int countTablesMissingUpdateTimeIndex();
+
+	@Update("CREATE INDEX idx_graph_thread_state_type_update_time ON graph_thread_state (state_type, update_time)")
+	void addUpdateTimeIndex();
+
+	@Select("""
+			SELECT payload FROM graph_thread_state
+			WHERE thread_id = #{threadId} AND state_type = #{stateType}
+			""")
+	String selectPayload(@Param("threadId") String threadId, @Param("stateType") String stateType);
+
+	@Insert("""
+			INSERT INTO graph_thread_state (thread_id, state_type, payload, update_time)
+			VALUES (#{threadId}, #{stateType}, #{payload}, #{updateTime})
+			ON DUPLICATE KEY UPDATE payload = VALUES(payload), update_time = VALUES(update_time)
+			""")
+	int upsert(@Param("threadId") String threadId, @Param("stateType") String stateType,
+			@Param("payload") String payload, @Param("updateTime") LocalDateTime updateTime);
+
+	@Insert("""
+			INSERT INTO graph_thread_state (thread_id, state_type, payload, update_time)
+			VALUES (#{threadId}, #{stateType}, #{payload}, #{updateTime})
+			""")
+	int insert(@Param("threadId") String threadId, @Param("stateType") String stateType,
+			@Param("payload") String payload, @Param("updateTime") LocalDateTime updateTime);
+
+	@Update("""
+			UPDATE graph_thread_state SET payload = #{payload}, update_time = #{updateTime}
+			WHERE thread_id = #{threadId} AND state_type = #{stateType} AND payload = #{expected}
+			""")
+	int updateIfPayloadMatches(@Param("threadId") String threadId, @Param("stateType") String stateType,
+			@Param("expected") String expected, @Param("payload") String payload,
+			@Param("updateTime") LocalDateTime updateTime);
+
+	@Delete("""
+			DELETE FROM graph_thread_state
+			WHERE thread_id = #{threadId} AND state_type = #{stateType}
+			""")
+	int delete(@Param("threadId") String threadId, @Param("stateType") String stateType);
+
+	@Delete("""
+			DELETE FROM graph_thread_state
+			WHERE state_type = #{stateType} AND update_time < #{expireBefore}
+			""")
+	int deleteExpired(@Param("stateType") String stateType, @Param("expireBefore") LocalDateTime expireBefore);
+
+	@Select("""
+			<script>
+			SELECT thread_id FROM graph_thread_state
+			WHERE state_type = #{stateType} AND thread_id IN
+			<foreach collection="threadIds" item="threadId" open="(" separator="," close=")">
+				#{threadId}
+			</foreach>
+			</script>
+			""")
+	List<String> selectThreadIds(@Param("stateType") String stateType, @Param("threadIds") List<String> threadIds);
+
+}
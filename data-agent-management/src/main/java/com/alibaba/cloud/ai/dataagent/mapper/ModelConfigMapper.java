@@ -23,25 +23,40 @@ import java.util.List;
 @Mapper
 public interface ModelConfigMapper {
 
+	/**
+	 * 旧版本创建的 model_config 表缺少 model_tier 列时返回 1，表不存在或已有该列时返回 0
+	 */
 	@Select("""
-			SELECT id, provider, base_url, api_key, model_name, temperature, is_active, max_tokens, model_type, completions_path, embeddings_path, created_time, updated_time, is_deleted FROM model_config WHERE is_deleted = 0 ORDER BY created_time DESC
+			SELECT COUNT(*) FROM information_schema.TABLES t
+			WHERE t.TABLE_SCHEMA = DATABASE() AND t.TABLE_NAME = 'model_config'
+			AND NOT EXISTS (SELECT 1 FROM information_schema.COLUMNS c
+				WHERE c.TABLE_SCHEMA = t.TABLE_SCHEMA AND c.TABLE_NAME = t.TABLE_NAME AND c.COLUMN_NAME = 'model_tier')
+			""")
+	int countTablesMissingModelTier();
+
+	@Update("ALTER TABLE model_config ADD COLUMN model_tier varchar(32) NOT NULL DEFAULT 'DEFAULT' COMMENT '对话模型层级 (DEFAULT/FAST/REASONING/LONG_CONTEXT)' AFTER model_type")
+	void addModelTierColumn();
+
+	@Select("""
+			SELECT id, provider, base_url, api_key, model_name, temperature, is_active, max_tokens, model_type, model_tier, completions_path, embeddings_path, created_time, updated_time, is_deleted FROM model_config WHERE is_deleted = 0 ORDER BY created_time DESC
 			""")
 	List<ModelConfig> findAll();
 
 	@Select("""
-			SELECT id, provider, base_url, api_key, model_name, temperature, is_active, max_tokens, model_type, completions_path, embeddings_path, created_time, updated_time, is_deleted FROM model_config WHERE id = #{id} AND is_deleted = 0
+			SELECT id, provider, base_url, api_key, model_name, temperature, is_active, max_tokens, model_type, model_tier, completions_path, embeddings_path, created_time, updated_time, is_deleted FROM model_config WHERE id = #{id} AND is_deleted = 0
 			""")
 	ModelConfig findById(Integer id);
 
-	@Select("SELECT id, provider, base_url, api_key, model_name, temperature, is_active, max_tokens, model_type, completions_path, embeddings_path, created_time, updated_time, is_deleted FROM model_config WHERE model_type = #{modelType} AND is_active = 1 AND is_deleted = 0 LIMIT 1")
-	ModelConfig selectActiveByType(@Param("modelType") String modelType);
+	@Select("SELECT id, provider, base_url, api_key, model_name, temperature, is_active, max_tokens, model_type, model_tier, completions_path, embeddings_path, created_time, updated_time, is_deleted FROM model_config WHERE model_type = #{modelType} AND model_tier = #{modelTier} AND is_active = 1 AND is_deleted = 0 LIMIT 1")
+	ModelConfig selectActiveByTypeAndTier(@Param("modelType") String modelType, @Param("modelTier") String modelTier);
 
-	@Update("UPDATE model_config SET is_active = 0 WHERE model_type = #{modelType} AND id != #{currentId} AND is_deleted = 0")
-	void deactivateOthers(@Param("modelType") String modelType, @Param("currentId") Integer currentId);
+	@Update("UPDATE model_config SET is_active = 0 WHERE model_type = #{modelType} AND model_tier = #{modelTier} AND id != #{currentId} AND is_deleted = 0")
+	void deactivateOthers(@Param("modelType") String modelType, @Param("modelTier") String modelTier,
+			@Param("currentId") Integer currentId);
 
 	@Select("""
 			<script>
-				SELECT id, provider, base_url, api_key, model_name, temperature, is_active, max_tokens, model_type, completions_path, embeddings_path, created_time, updated_time, is_deleted FROM model_config
+				SELECT id, provider, base_url, api_key, model_name, temperature, is_active, max_tokens, model_type, model_tier, completions_path, embeddings_path, created_time, updated_time, is_deleted FROM model_config
 				<where>
 					is_deleted = 0
 					<if test='provider != null and provider != ""'>
@@ -70,8 +85,8 @@ public interface ModelConfigMapper {
 			@Param("modelType") String modelType);
 
 	@Insert("""
-			INSERT INTO model_config (provider, base_url, api_key, model_name, temperature, is_active, max_tokens, model_type, completions_path, embeddings_path, created_time, updated_time, is_deleted)
-			VALUES (#{provider}, #{baseUrl}, #{apiKey}, #{modelName}, #{temperature}, #{isActive}, #{maxTokens}, #{modelType}, #{completionsPath}, #{embeddingsPath}, NOW(), NOW(), 0)
+			INSERT INTO model_config (provider, base_url, api_key, model_name, temperature, is_active, max_tokens, model_type, model_tier, completions_path, embeddings_path, created_time, updated_time, is_deleted)
+			VALUES (#{provider}, #{baseUrl}, #{apiKey}, #{modelName}, #{temperature}, #{isActive}, #{maxTokens}, #{modelType}, #{modelTier}, #{completionsPath}, #{embeddingsPath}, NOW(), NOW(), 0)
 			""")
 	@Options(useGeneratedKeys = true, keyProperty = "id", keyColumn = "id")
 	int insert(ModelConfig modelConfig);
@@ -88,6 +103,7 @@ public interface ModelConfigMapper {
 			            <if test='isActive != null'>is_active = #{isActive},</if>
 			            <if test='maxTokens != null'>max_tokens = #{maxTokens},</if>
 			            <if test='modelType != null'>model_type = #{modelType},</if>
+			            <if test='modelTier != null'>model_tier = #{modelTier},</if>
 			            <if test='completionsPath != null'>completions_path = #{completionsPath},</if>
 			            <if test='embeddingsPath != null'>embeddings_path = #{embeddingsPath},</if>
 			            <if test='isDeleted != null'>is_deleted = #{isDeleted},</if>
@@ -0,0 +1,240 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.dataagent.prompt;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * 预编译的提示词模板。模板在首次加载时切分为文本段与变量段，渲染时按顺序写入线程内复用的 StringBuilder，不再每次经过 StringTemplate
+ * 的词法分析与解释执行。
+ * <p>
+ * 渲染结果与 {@link org.springframework.ai.chat.prompt.PromptTemplate} 默认的 StringTemplate
+ * 渲染一致：{name} 为变量，\{ 与 \} 转义花括号，\\ 转义反斜杠；null 渲染为空，集合依次渲染各元素；输出中换行统一为系统换行符并去掉 \r。
+ * 只支持简单变量，模板中出现其他表达式时编译失败。
+ */
+public final class CompiledPromptTemplate {
+
+	private static final Pattern VARIABLE = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*");
+
+	private static final String NEWLINE = System.lineSeparator();
+
+	// 超过该容量的缓冲区用完后不再保留，避免个别超长提示词长期占用内存
+	private static final int MAX_RETAINED_CAPACITY = 256 * 1024;
+
+	private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(8192));
+
+	private final String name;
+
+	// 文本段比变量段多一个：literal[0] var[0] literal[1] ... var[n-1] literal[n]
+	private final String[] literals;
+
+	private final int[] slots;
+
+	private final String[] variableNames;
+
+	private final Map<String, Integer> slotIndex;
+
+	private CompiledPromptTemplate(String name, List<String> literals, List<String> occurrences) {
+		this.name = name;
+		this.literals = literals.toArray(new String[0]);
+		this.variableNames = new LinkedHashSet<>(occurrences).toArray(new String[0]);
+		Map<String, Integer> index = new HashMap<>();
+		for (int i = 0; i < variableNames.length; i++) {
+			index.put(variableNames[i], i);
+		}
+		this.slotIndex = Collections.unmodifiableMap(index);
+		this.slots = occurrences.stream().mapToInt(index::get).toArray();
+	}
+
+	/**
+	 * 编译模板
+	 * @param name 模板名称，用于错误信息
+	 * @param template 模板内容
+	 * @return 编译后的模板
+	 */
+	public static CompiledPromptTemplate compile(String name, String template) {
+		List<String> literals = new ArrayList<>();
+		List<String> occurrences = new ArrayList<>();
+		StringBuilder literal = new StringBuilder();
+		int length = template.length();
+		int i = 0;
+		while (i < length) {
+			char c = template.charAt(i);
+			if (c == '\\' && i + 1 < length) {
+				char next = template.charAt(i + 1);
+				if (next == '\\' || next == '{' || next == '}') {
+					literal.append(next);
+					i += 2;
+					continue;
+				}
+				literal.append(c);
+				i++;
+			}
+			else if (c == '{') {
+				int end = template.indexOf('}', i + 1);
+				if (end < 0) {
+					throw new IllegalArgumentException("Unclosed expression at " + i + " in prompt template " + name);
+				}
+				String variable = template.substring(i + 1, end).trim();
+				if (!VARIABLE.matcher(variable).matches()) {
+					throw new IllegalArgumentException(
+							"Unsupported expression {" + variable + "} in prompt template " + name);
+				}
+				literals.add(literal.toString());
+				literal.setLength(0);
+				occurrences.add(variable);
+				i = end + 1;
+			}
+			else {
+				appendChar(literal, c);
+				i++;
+			}
+		}
+		literals.add(literal.toString());
+		return new CompiledPromptTemplate(name, literals, occurrences);
+	}
+
+	public Set<String> getVariableNames() {
+		return new LinkedHashSet<>(List.of(variableNames));
+	}
+
+	/**
+	 * 按参数表渲染，参数表中多余的键被忽略
+	 * @throws IllegalStateException 缺少模板变量时
+	 */
+	public String render(Map<String, ?> params) {
+		Binding binding = bind();
+		for (int i = 0; i < variableNames.length; i++) {
+			if (params.containsKey(variableNames[i])) {
+				binding.set(i, params.get(variableNames[i]));
+			}
+		}
+		return binding.render();
+	}
+
+	/**
+	 * 创建一次渲染的变量绑定，按变量槽位保存取值，不创建参数表
+	 */
+	public Binding bind() {
+		return new Binding();
+	}
+
+	private String render(Object[] values, boolean[] bound) {
+		List<String> missing = null;
+		for (int i = 0; i < variableNames.length; i++) {
+			if (!bound[i]) {
+				if (missing == null) {
+					missing = new ArrayList<>();
+				}
+				missing.add(variableNames[i]);
+			}
+		}
+		if (missing != null) {
+			throw new IllegalStateException("Not all variables were replaced in the template " + name
+					+ ". Missing variable names are: " + missing);
+		}
+
+		StringBuilder buffer = BUFFER.get();
+		buffer.setLength(0);
+		try {
+			buffer.append(literals[0]);
+			for (int i = 0; i < slots.length; i++) {
+				appendValue(buffer, values[slots[i]]);
+				buffer.append(literals[i + 1]);
+			}
+			return buffer.toString();
+		}
+		finally {
+			if (buffer.capacity() > MAX_RETAINED_CAPACITY) {
+				BUFFER.remove();
+			}
+		}
+	}
+
+	private static void appendValue(StringBuilder buffer, Object value) {
+		if (value == null) {
+			return;
+		}
+		if (value instanceof Iterable<?> iterable) {
+			for (Object element : iterable) {
+				appendValue(buffer, element);
+			}
+			return;
+		}
+		String text = value.toString();
+		if (text.indexOf('\r') < 0 && "\n".equals(NEWLINE)) {
+			buffer.append(text);
+			return;
+		}
+		for (int i = 0; i < text.length(); i++) {
+			appendChar(buffer, text.charAt(i));
+		}
+	}
+
+	private static void appendChar(StringBuilder buffer, char c) {
+		if (c == '\r') {
+			return;
+		}
+		if (c == '\n') {
+			buffer.append(NEWLINE);
+		}
+		else {
+			buffer.append(c);
+		}
+	}
+
+	/**
+	 * 一次渲染的变量绑定
+	 */
+	public final class Binding {
+
+		private final Object[] values = new Object[variableNames.length];
+
+		private final boolean[] bound = new boolean[variableNames.length];
+
+		private Binding() {
+		}
+
+		/**
+		 * 设置变量取值，模板中不存在的变量被忽略
+		 */
+		public Binding set(String variable, Object value) {
+			Integer slot = slotIndex.get(variable);
+			if (slot != null) {
+				set(slot, value);
+			}
+			return this;
+		}
+
+		private void set(int slot, Object value) {
+			values[slot] = value;
+			bound[slot] = true;
+		}
+
+		public String render() {
+			return CompiledPromptTemplate.this.render(values, bound);
+		}
+
+	}
+
+}
@@ -0,0 +1,282 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.dataagent.prompt;
+
+import com.alibaba.cloud.ai.dataagent.dto.schema.ColumnDTO;
+import com.alibaba.cloud.ai.dataagent.dto.schema.SchemaDTO;
+import com.alibaba.cloud.ai.dataagent.dto.schema.TableDTO;
+import com.alibaba.cloud.ai.dataagent.properties.DataAgentProperties;
+import com.alibaba.cloud.ai.dataagent.service.metrics.PromptMetrics;
+import com.knuddels.jtokkit.api.EncodingType;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.ai.tokenizer.JTokkitTokenCountEstimator;
+import org.springframework.ai.tokenizer.TokenCountEstimator;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * 提示词 Token 预算分配器。使用与嵌入批处理相同的 jtokkit 编码计数，为 Schema、业务知识与多轮上下文分配预算，
+ * 超出预算的部分按相关度从低到高裁剪，并上报各部分的预算、原始与裁剪后的 Token 数。
+ */
+@Slf4j
+@Component
+public class PromptBudgetAllocator {
+
+	public static final String SECTION_SCHEMA = "schema";
+
+	public static final String SECTION_EVIDENCE = "evidence";
+
+	public static final String SECTION_MULTI_TURN = "multi_turn";
+
+	private final DataAgentProperties.PromptBudget budgetProperties;
+
+	private final PromptMetrics metrics;
+
+	private final TokenCountEstimator tokenCountEstimator;
+
+	public PromptBudgetAllocator(DataAgentProperties properties, PromptMetrics metrics) {
+		this.budgetProperties = properties.getPromptBudget();
+		this.metrics = metrics;
+		EncodingType encodingType = EncodingType.fromName(properties.getEmbeddingBatch().getEncodingType())
+			.orElse(EncodingType.CL100K_BASE);
+		this.tokenCountEstimator = new JTokkitTokenCountEstimator(encodingType);
+	}
+
+	public int countTokens(String text) {
+		return StringUtils.isEmpty(text) ? 0 : tokenCountEstimator.estimate(text);
+	}
+
+	public boolean isEnabled() {
+		return budgetProperties.isEnabled();
+	}
+
+	/**
+	 * 获取提示词部分的 Token 预算
+	 */
+	public int budget(String section) {
+		return switch (section) {
+			case SECTION_SCHEMA -> budgetProperties.getSchemaTokens();
+			case SECTION_EVIDENCE -> budgetProperties.getEvidenceTokens();
+			case SECTION_MULTI_TURN -> budgetProperties.getMultiTurnTokens();
+			default -> throw new IllegalArgumentException("Unknown prompt section: " + section);
+		};
+	}
+
+	/**
+	 * 上报提示词部分的预算分配结果
+	 */
+	public void report(String section, int originalTokens, int finalTokens) {
+		metrics.recordPromptBudget(section, budget(section), originalTokens, finalTokens);
+		if (finalTokens < originalTokens) {
+			log.info("Compacted prompt section {} from {} to {} tokens (budget {})", section, originalTokens,
+					finalTokens, budget(section));
+		}
+	}
+
+	/**
+	 * 按相关度依次保留条目，直到用尽预算；放不下的条目跳过，后续更短的条目仍可放入
+	 * @param section 提示词部分
+	 * @param rankedItems 按相关度从高到低排列的条目
+	 * @param text 条目在提示词中的文本
+	 * @return 保留的条目，顺序与输入一致
+	 */
+	public <T> List<T> fitRanked(String section, List<T> rankedItems, Function<T, String> text) {
+		if (!isEnabled() || rankedItems.isEmpty()) {
+			return rankedItems;
+		}
+		int budget = budget(section);
+		int original = 0;
+		int used = 0;
+		List<T> kept = new ArrayList<>();
+		for (T item : rankedItems) {
+			int tokens = countTokens(text.apply(item));
+			original += tokens;
+			if (used + tokens <= budget) {
+				kept.add(item);
+				used += tokens;
+			}
+		}
+		report(section, original, used);
+		return kept;
+	}
+
+	/**
+	 * 将 Schema 压缩到预算以内：先按相关度从低到高去掉列的示例值；启用列裁剪时，仍超出预算再去掉低相关的列。 主键、外键两端的列、多张表共有的同名列、名为 id
+	 * 或以 _id 结尾的列以及每张表的第一列始终保留
+	 * @param schema 待压缩的 Schema，原地修改
+	 * @param query 用于计算列相关度的用户问题
+	 */
+	public void compactSchema(SchemaDTO schema, String query) {
+		if (!isEnabled() || schema == null || CollectionUtils.isEmpty(schema.getTable())) {
+			return;
+		}
+		int original = countTokens(PromptHelper.buildMixMacSqlDbPrompt(schema, true));
+		int budget = budget(SECTION_SCHEMA);
+		if (original <= budget) {
+			report(SECTION_SCHEMA, original, original);
+			return;
+		}
+
+		Set<String> foreignKeyColumns = foreignKeyColumns(schema);
+		Set<String> sharedColumnNames = sharedColumnNames(schema);
+		Set<String> queryTerms = queryTerms(query);
+		List<RankedColumn> ranked = new ArrayList<>();
+		for (TableDTO table : schema.getTable()) {
+			table.setColumn(new ArrayList<>(table.getColumn()));
+			List<ColumnDTO> columns = table.getColumn();
+			for (int i = 0; i < columns.size(); i++) {
+				ColumnDTO column = columns.get(i);
+				boolean protectedColumn = i == 0 || isPrimaryKey(table, column)
+						|| foreignKeyColumns.contains(key(table.getName(), column.getName()))
+						|| isRelationColumn(column, sharedColumnNames);
+				ranked.add(new RankedColumn(table, column, protectedColumn, relevance(column, queryTerms), i));
+			}
+		}
+		// 相关度低的排在前面，同分时靠后的列先被裁剪
+		ranked.sort(Comparator.comparingInt(RankedColumn::relevance)
+			.thenComparing(Comparator.comparingInt(RankedColumn::position).reversed()));
+
+		int total = original;
+		for (RankedColumn candidate : ranked) {
+			if (total <= budget) {
+				break;
+			}
+			ColumnDTO column = candidate.column();
+			if (CollectionUtils.isEmpty(column.getData())) {
+				continue;
+			}
+			int before = countTokens(PromptHelper.buildMixMacSqlColumnPrompt(candidate.table(), column, true));
+			column.setData(null);
+			total -= before - countTokens(PromptHelper.buildMixMacSqlColumnPrompt(candidate.table(), column, true));
+		}
+		for (RankedColumn candidate : ranked) {
+			if (total <= budget || !budgetProperties.isSchemaColumnPruningEnabled()) {
+				break;
+			}
+			if (candidate.protectedColumn()) {
+				continue;
+			}
+			total -= countTokens(PromptHelper.buildMixMacSqlColumnPrompt(candidate.table(), candidate.column(), true));
+			candidate.table().getColumn().remove(candidate.column());
+		}
+		report(SECTION_SCHEMA, original, countTokens(PromptHelper.buildMixMacSqlDbPrompt(schema, true)));
+	}
+
+	private static boolean isPrimaryKey(TableDTO table, ColumnDTO column) {
+		return table.getPrimaryKeys() != null && table.getPrimaryKeys().contains(column.getName());
+	}
+
+	/**
+	 * 外键形如 a.x=b.y，多个外键以顿号分隔，提取两端的 表.列；带库名前缀或引号时只取最后的 表.列
+	 */
+	private static Set<String> foreignKeyColumns(SchemaDTO schema) {
+		Set<String> columns = new HashSet<>();
+		if (schema.getForeignKeys() == null) {
+			return columns;
+		}
+		for (String foreignKeys : schema.getForeignKeys()) {
+			for (String foreignKey : foreignKeys.split("、")) {
+				for (String side : foreignKey.split("=")) {
+					String[] parts = side.replaceAll("[`\"\\s]", "").split("\\.");
+					if (parts.length >= 2) {
+						columns.add(key(parts[parts.length - 2], parts[parts.length - 1]));
+					}
+				}
+			}
+		}
+		return columns;
+	}
+
+	/**
+	 * 在多张表中出现的同名列，通常是未声明外键的关联列
+	 */
+	private static Set<String> sharedColumnNames(SchemaDTO schema) {
+		Set<String> seen = new HashSet<>();
+		Set<String> shared = new HashSet<>();
+		for (TableDTO table : schema.getTable()) {
+			Set<String> names = new HashSet<>();
+			for (ColumnDTO column : table.getColumn()) {
+				names.add(StringUtils.defaultString(column.getName()).toLowerCase(Locale.ROOT));
+			}
+			for (String name : names) {
+				if (!seen.add(name)) {
+					shared.add(name);
+				}
+			}
+		}
+		return shared;
+	}
+
+	private static boolean isRelationColumn(ColumnDTO column, Set<String> sharedColumnNames) {
+		String name = StringUtils.defaultString(column.getName()).toLowerCase(Locale.ROOT);
+		return sharedColumnNames.contains(name) || name.equals("id") || name.endsWith("_id");
+	}
+
+	private static String key(String table, String column) {
+		return (table + "." + column).toLowerCase(Locale.ROOT);
+	}
+
+	/**
+	 * 问题的词项：英文按单词切分，中文按相邻两字切分
+	 */
+	private static Set<String> queryTerms(String query) {
+		Set<String> terms = new HashSet<>();
+		if (StringUtils.isBlank(query)) {
+			return terms;
+		}
+		String normalized = query.toLowerCase(Locale.ROOT);
+		for (String word : normalized.split("[^\\p{L}\\p{N}_]+")) {
+			if (word.length() > 1 && word.chars().allMatch(c -> c < 128)) {
+				terms.add(word);
+			}
+		}
+		for (int i = 0; i + 1 < normalized.length(); i++) {
+			char first = normalized.charAt(i);
+			char second = normalized.charAt(i + 1);
+			if (Character.isIdeographic(first) && Character.isIdeographic(second)) {
+				terms.add(normalized.substring(i, i + 2));
+			}
+		}
+		return terms;
+	}
+
+	private static int relevance(ColumnDTO column, Set<String> queryTerms) {
+		String text = (StringUtils.defaultString(column.getName()) + " "
+				+ StringUtils.defaultString(column.getDescription()))
+			.toLowerCase(Locale.ROOT);
+		int score = 0;
+		for (String term : queryTerms) {
+			if (text.contains(term)) {
+				score++;
+			}
+		}
+		return score;
+	}
+
+	private record RankedColumn(TableDTO table, ColumnDTO column, boolean protectedColumn, int relevance,
+			int position) {
+	}
+
+}
@@ -15,8 +15,6 @@
  */
 package com.alibaba.cloud.ai.dataagent.prompt;
 
-import org.springframework.ai.chat.prompt.PromptTemplate;
-
 /**
  * Prompt constant class, dynamically loads prompt files
  *
@@ -25,75 +23,84 @@ import org.springframework.ai.chat.prompt.PromptTemplate;
 public class PromptConstant {
 
 	// intent-recognition
-	public static PromptTemplate getIntentRecognitionPromptTemplate() {
-		return new PromptTemplate(PromptLoader.loadPrompt("intent-recognition"));
+	public static CompiledPromptTemplate getIntentRecognitionPromptTemplate() {
+		return PromptLoader.loadCompiled("intent-recognition");
+	}
+
+	// fused-preprocess
+	public static CompiledPromptTemplate getFusedPreprocessPromptTemplate() {
+		return PromptLoader.loadCompiled("fused-preprocess");
 	}
 
 	// evidence-query-rewrite
-	public static PromptTemplate getEvidenceQueryRewritePromptTemplate() {
-		return new PromptTemplate(PromptLoader.loadPrompt("evidence-query-rewrite"));
+	public static CompiledPromptTemplate getEvidenceQueryRewritePromptTemplate() {
+		return PromptLoader.loadCompiled("evidence-query-rewrite");
 	}
 
 	// agent-knowledge.txt
-	public static PromptTemplate getAgentKnowledgePromptTemplate() {
-		return new PromptTemplate(PromptLoader.loadPrompt("agent-knowledge"));
+	public static CompiledPromptTemplate getAgentKnowledgePromptTemplate() {
+		return PromptLoader.loadCompiled("agent-knowledge");
 	}
 
-	public static PromptTemplate getQueryEnhancementPromptTemplate() {
-		return new PromptTemplate(PromptLoader.loadPrompt("query-enhancement"));
+	public static CompiledPromptTemplate getQueryEnhancementPromptTemplate() {
+		return PromptLoader.loadCompiled("query-enhancement");
 	}
 
 	// feasibility-assessment
-	public static PromptTemplate getFeasibilityAssessmentPromptTemplate() {
-		return new PromptTemplate(PromptLoader.loadPrompt("feasibility-assessment"));
+	public static CompiledPromptTemplate getFeasibilityAssessmentPromptTemplate() {
+		return PromptLoader.loadCompiled("feasibility-assessment");
+	}
+
+	public static CompiledPromptTemplate getMixSelectorPromptTemplate() {
+		return PromptLoader.loadCompiled("mix-selector");
 	}
 
-	public static PromptTemplate getMixSelectorPromptTemplate() {
-		return new PromptTemplate(PromptLoader.loadPrompt("mix-selector"));
+	public static CompiledPromptTemplate getSemanticConsistencyPromptTemplate() {
+		return PromptLoader.loadCompiled("semantic-consistency");
 	}
 
-	public static PromptTemplate getSemanticConsistencyPromptTemplate() {
-		return new PromptTemplate(PromptLoader.loadPrompt("semantic-consistency"));
+	public static CompiledPromptTemplate getSqlContextPrefixPromptTemplate() {
+		return PromptLoader.loadCompiled("sql-context-prefix");
 	}
 
-	public static PromptTemplate getNewSqlGeneratorPromptTemplate() {
-		return new PromptTemplate(PromptLoader.loadPrompt("new-sql-generate"));
+	public static CompiledPromptTemplate getNewSqlGeneratorPromptTemplate() {
+		return PromptLoader.loadCompiled("new-sql-generate");
 	}
 
-	public static PromptTemplate getPlannerPromptTemplate() {
-		return new PromptTemplate(PromptLoader.loadPrompt("planner"));
+	public static CompiledPromptTemplate getPlannerPromptTemplate() {
+		return PromptLoader.loadCompiled("planner");
 	}
 
-	public static PromptTemplate getReportGeneratorPlainPromptTemplate() {
-		return new PromptTemplate(PromptLoader.loadPrompt("report-generator-plain"));
+	public static CompiledPromptTemplate getReportGeneratorPlainPromptTemplate() {
+		return PromptLoader.loadCompiled("report-generator-plain");
 	}
 
-	public static PromptTemplate getSqlErrorFixerPromptTemplate() {
-		return new PromptTemplate(PromptLoader.loadPrompt("sql-error-fixer"));
+	public static CompiledPromptTemplate getSqlErrorFixerPromptTemplate() {
+		return PromptLoader.loadCompiled("sql-error-fixer");
 	}
 
-	public static PromptTemplate getPythonGeneratorPromptTemplate() {
-		return new PromptTemplate(PromptLoader.loadPrompt("python-generator"));
+	public static CompiledPromptTemplate getPythonGeneratorPromptTemplate() {
+		return PromptLoader.loadCompiled("python-generator");
 	}
 
-	public static PromptTemplate getPythonAnalyzePromptTemplate() {
-		return new PromptTemplate(PromptLoader.loadPrompt("python-analyze"));
+	public static CompiledPromptTemplate getPythonAnalyzePromptTemplate() {
+		return PromptLoader.loadCompiled("python-analyze");
 	}
 
-	public static PromptTemplate getBusinessKnowledgePromptTemplate() {
-		return new PromptTemplate(PromptLoader.loadPrompt("business-knowledge"));
+	public static CompiledPromptTemplate getBusinessKnowledgePromptTemplate() {
+		return PromptLoader.loadCompiled("business-knowledge");
 	}
 
-	public static PromptTemplate getSemanticModelPromptTemplate() {
-		return new PromptTemplate(PromptLoader.loadPrompt("semantic-model"));
+	public static CompiledPromptTemplate getSemanticModelPromptTemplate() {
+		return PromptLoader.loadCompiled("semantic-model");
 	}
 
-	public static PromptTemplate getJsonFixPromptTemplate() {
-		return new PromptTemplate(PromptLoader.loadPrompt("json-fix"));
+	public static CompiledPromptTemplate getJsonFixPromptTemplate() {
+		return PromptLoader.loadCompiled("json-fix");
 	}
 
-	public static PromptTemplate getDataViewAnalyzePromptTemplate() {
-		return new PromptTemplate(PromptLoader.loadPrompt("data-view-analyze"));
+	public static CompiledPromptTemplate getDataViewAnalyzePromptTemplate() {
+		return PromptLoader.loadCompiled("data-view-analyze");
 	}
 
 }
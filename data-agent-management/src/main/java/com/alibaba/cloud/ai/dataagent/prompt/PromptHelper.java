@@ -17,6 +17,7 @@ package com.alibaba.cloud.ai.dataagent.prompt;
 
 import com.alibaba.cloud.ai.dataagent.bo.schema.DisplayStyleBO;
 import com.alibaba.cloud.ai.dataagent.dto.prompt.EvidenceQueryRewriteDTO;
+import com.alibaba.cloud.ai.dataagent.dto.prompt.FusedPreprocessOutputDTO;
 import com.alibaba.cloud.ai.dataagent.dto.prompt.IntentRecognitionOutputDTO;
 import com.alibaba.cloud.ai.dataagent.dto.prompt.QueryEnhanceOutputDTO;
 import com.alibaba.cloud.ai.dataagent.dto.prompt.SemanticConsistencyDTO;
@@ -34,6 +35,7 @@ import org.springframework.ai.chat.prompt.PromptTemplate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 import org.springframework.ai.converter.BeanOutputConverter;
 
@@ -41,6 +43,18 @@ import static com.alibaba.cloud.ai.dataagent.util.ReportTemplateUtil.cleanJsonEx
 
 public class PromptHelper {
 
+	// 输出格式说明只与类型有关，JSON Schema 生成与序列化开销较大，按类型缓存
+	private static final Map<Class<?>, String> OUTPUT_FORMATS = new ConcurrentHashMap<>();
+
+	/**
+	 * 获取结构化输出的格式说明，等价于 {@code new BeanOutputConverter<>(type).getFormat()}
+	 * @param type 输出类型
+	 * @return 格式说明
+	 */
+	public static String outputFormat(Class<?> type) {
+		return OUTPUT_FORMATS.computeIfAbsent(type, t -> new BeanOutputConverter<>(t).getFormat());
+	}
+
 	public static String buildMixSelectorPrompt(String evidence, String question, SchemaDTO schemaDTO) {
 		String schemaInfo = buildMixMacSqlDbPrompt(schemaDTO, true);
 		Map<String, Object> params = new HashMap<>();
@@ -81,57 +95,76 @@ public class PromptHelper {
 		sb.append("[\n");
 		List<String> columnLines = new ArrayList<>();
 		for (ColumnDTO columnDTO : tableDTO.getColumn()) {
-			StringBuilder line = new StringBuilder();
-			line.append("(")
-				.append(columnDTO.getName())
-				.append(BooleanUtils.isTrue(withColumnType)
-						? ":" + StringUtils.defaultString(columnDTO.getType(), "").toUpperCase(Locale.ROOT) : "");
-			if (!StringUtils.equals(columnDTO.getDescription(), columnDTO.getName())) {
-				line.append(", ").append(StringUtils.defaultString(columnDTO.getDescription(), ""));
-			}
-			if (CollectionUtils.isNotEmpty(tableDTO.getPrimaryKeys())
-					&& tableDTO.getPrimaryKeys().contains(columnDTO.getName())) {
-				line.append(", Primary Key");
-			}
-			List<String> enumData = Optional.ofNullable(columnDTO.getData())
-				.orElse(new ArrayList<>())
-				.stream()
-				.filter(d -> !StringUtils.isEmpty(d))
-				.collect(Collectors.toList());
-			if (CollectionUtils.isNotEmpty(enumData) && !"id".equals(columnDTO.getName())) {
-				line.append(", Examples: [");
-				List<String> data = new ArrayList<>(enumData.subList(0, Math.min(3, enumData.size())));
-				line.append(StringUtils.join(data, ",")).append("]");
-			}
-
-			line.append(")");
-			columnLines.add(line.toString());
+			columnLines.add(buildMixMacSqlColumnPrompt(tableDTO, columnDTO, withColumnType));
 		}
 		sb.append(StringUtils.join(columnLines, ",\n"));
 		sb.append("\n]");
 		return sb.toString();
 	}
 
-	public static String buildNewSqlGeneratorPrompt(SqlGenerationDTO sqlGenerationDTO) {
+	public static String buildMixMacSqlColumnPrompt(TableDTO tableDTO, ColumnDTO columnDTO, Boolean withColumnType) {
+		StringBuilder line = new StringBuilder();
+		line.append("(")
+			.append(columnDTO.getName())
+			.append(BooleanUtils.isTrue(withColumnType)
+					? ":" + StringUtils.defaultString(columnDTO.getType(), "").toUpperCase(Locale.ROOT) : "");
+		if (!StringUtils.equals(columnDTO.getDescription(), columnDTO.getName())) {
+			line.append(", ").append(StringUtils.defaultString(columnDTO.getDescription(), ""));
+		}
+		if (CollectionUtils.isNotEmpty(tableDTO.getPrimaryKeys())
+				&& tableDTO.getPrimaryKeys().contains(columnDTO.getName())) {
+			line.append(", Primary Key");
+		}
+		List<String> enumData = Optional.ofNullable(columnDTO.getData())
+			.orElse(new ArrayList<>())
+			.stream()
+			.filter(d -> !StringUtils.isEmpty(d))
+			.collect(Collectors.toList());
+		if (CollectionUtils.isNotEmpty(enumData) && !"id".equals(columnDTO.getName())) {
+			line.append(", Examples: [");
+			List<String> data = new ArrayList<>(enumData.subList(0, Math.min(3, enumData.size())));
+			line.append(StringUtils.join(data, ",")).append("]");
+		}
+
+		line.append(")");
+		return line.toString();
+	}
+
+	/**
+	 * 构建 SQL 生成与修复共用的稳定前缀：方言、Schema、业务知识与语义模型。同一次分析的各个步骤与重试中内容逐字节不变， 作为系统消息发送以复用模型侧的前缀缓存
+	 */
+	public static String buildSqlContextPrefix(SqlGenerationDTO sqlGenerationDTO) {
 		String schemaInfo = buildMixMacSqlDbPrompt(sqlGenerationDTO.getSchemaDTO(), true);
-		Map<String, Object> params = new HashMap<>();
-		params.put("dialect", sqlGenerationDTO.getDialect());
-		params.put("question", sqlGenerationDTO.getQuery());
-		params.put("schema_info", schemaInfo);
-		params.put("evidence", sqlGenerationDTO.getEvidence());
-		params.put("execution_description", sqlGenerationDTO.getExecutionDescription());
-		return PromptConstant.getNewSqlGeneratorPromptTemplate().render(params);
+		return PromptConstant.getSqlContextPrefixPromptTemplate()
+			.bind()
+			.set("dialect", sqlGenerationDTO.getDialect())
+			.set("schema_info", schemaInfo)
+			.set("evidence", StringUtils.defaultIfBlank(sqlGenerationDTO.getEvidence(), "无"))
+			.set("semantic_model", StringUtils.defaultIfBlank(sqlGenerationDTO.getSemanticModel(), "无"))
+			.render();
+	}
+
+	/**
+	 * 构建 SQL 生成的任务消息，需与 {@link #buildSqlContextPrefix} 一起发送
+	 */
+	public static String buildNewSqlGeneratorPrompt(SqlGenerationDTO sqlGenerationDTO) {
+		return PromptConstant.getNewSqlGeneratorPromptTemplate()
+			.bind()
+			.set("question", sqlGenerationDTO.getQuery())
+			.set("execution_description", sqlGenerationDTO.getExecutionDescription())
+			.render();
 	}
 
 	public static String buildSemanticConsistenPrompt(SemanticConsistencyDTO semanticConsistencyDTO) {
-		Map<String, Object> params = new HashMap<>();
-		params.put("dialect", semanticConsistencyDTO.getDialect());
-		params.put("execution_description", semanticConsistencyDTO.getExecutionDescription());
-		params.put("user_query", semanticConsistencyDTO.getUserQuery());
-		params.put("evidence", semanticConsistencyDTO.getEvidence());
-		params.put("schema_info", semanticConsistencyDTO.getSchemaInfo());
-		params.put("sql", semanticConsistencyDTO.getSql());
-		return PromptConstant.getSemanticConsistencyPromptTemplate().render(params);
+		return PromptConstant.getSemanticConsistencyPromptTemplate()
+			.bind()
+			.set("dialect", semanticConsistencyDTO.getDialect())
+			.set("execution_description", semanticConsistencyDTO.getExecutionDescription())
+			.set("user_query", semanticConsistencyDTO.getUserQuery())
+			.set("evidence", semanticConsistencyDTO.getEvidence())
+			.set("schema_info", semanticConsistencyDTO.getSchemaInfo())
+			.set("sql", semanticConsistencyDTO.getSql())
+			.render();
 	}
 
 	/**
@@ -158,19 +191,18 @@ public class PromptHelper {
 		return PromptConstant.getReportGeneratorPlainPromptTemplate().render(params);
 	}
 
+	/**
+	 * 构建 SQL 修复的任务消息，需与 {@link #buildSqlContextPrefix} 一起发送
+	 */
 	public static String buildSqlErrorFixerPrompt(SqlGenerationDTO sqlGenerationDTO) {
-		String schemaInfo = buildMixMacSqlDbPrompt(sqlGenerationDTO.getSchemaDTO(), true);
-
-		Map<String, Object> params = new HashMap<>();
-		params.put("dialect", sqlGenerationDTO.getDialect());
-		params.put("question", sqlGenerationDTO.getQuery());
-		params.put("schema_info", schemaInfo);
-		params.put("evidence", sqlGenerationDTO.getEvidence());
-		params.put("error_sql", sqlGenerationDTO.getSql());
-		params.put("error_message", sqlGenerationDTO.getExceptionMessage());
-		params.put("execution_description", sqlGenerationDTO.getExecutionDescription());
-
-		return PromptConstant.getSqlErrorFixerPromptTemplate().render(params);
+		return PromptConstant.getSqlErrorFixerPromptTemplate()
+			.bind()
+			.set("dialect", sqlGenerationDTO.getDialect())
+			.set("question", sqlGenerationDTO.getQuery())
+			.set("error_sql", sqlGenerationDTO.getSql())
+			.set("error_message", sqlGenerationDTO.getExceptionMessage())
+			.set("execution_description", sqlGenerationDTO.getExecutionDescription())
+			.render();
 	}
 
 	public static String buildBusinessKnowledgePrompt(String businessTerms) {
@@ -236,9 +268,7 @@ public class PromptHelper {
 		Map<String, Object> params = new HashMap<>();
 		params.put("multi_turn", multiTurn != null ? multiTurn : "(无)");
 		params.put("latest_query", latestQuery);
-		BeanOutputConverter<IntentRecognitionOutputDTO> beanOutputConverter = new BeanOutputConverter<>(
-				IntentRecognitionOutputDTO.class);
-		params.put("format", beanOutputConverter.getFormat());
+		params.put("format", outputFormat(IntentRecognitionOutputDTO.class));
 		return PromptConstant.getIntentRecognitionPromptTemplate().render(params);
 	}
 
@@ -257,16 +287,28 @@ public class PromptHelper {
 		else
 			params.put("evidence", evidence);
 		params.put("current_time_info", LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")));
-		BeanOutputConverter<QueryEnhanceOutputDTO> beanOutputConverter = new BeanOutputConverter<>(
-				QueryEnhanceOutputDTO.class);
-		params.put("format", beanOutputConverter.getFormat());
+		params.put("format", outputFormat(QueryEnhanceOutputDTO.class));
 		return PromptConstant.getQueryEnhancementPromptTemplate().render(params);
 	}
 
+	/**
+	 * 构建融合预处理提示词，一次调用完成意图识别、检索查询重写与查询增强
+	 * @param multiTurn 多轮对话历史
+	 * @param latestQuery 最新用户输入
+	 * @return 融合预处理提示词
+	 */
+	public static String buildFusedPreprocessPrompt(String multiTurn, String latestQuery) {
+		Map<String, Object> params = new HashMap<>();
+		params.put("multi_turn", multiTurn != null ? multiTurn : "(无)");
+		params.put("latest_query", latestQuery);
+		params.put("current_time_info", LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")));
+		params.put("format", outputFormat(FusedPreprocessOutputDTO.class));
+		return PromptConstant.getFusedPreprocessPromptTemplate().render(params);
+	}
+
 	public static String buildDataViewAnalysisPrompt() {
 		Map<String, Object> params = new HashMap<>();
-		BeanOutputConverter<DisplayStyleBO> beanOutputConverter = new BeanOutputConverter<>(DisplayStyleBO.class);
-		params.put("format", beanOutputConverter.getFormat());
+		params.put("format", outputFormat(DisplayStyleBO.class));
 		return PromptConstant.getDataViewAnalyzePromptTemplate().render(params);
 	}
 
@@ -299,9 +341,7 @@ public class PromptHelper {
 		Map<String, Object> params = new HashMap<>();
 		params.put("multi_turn", multiTurn != null ? multiTurn : "(无)");
 		params.put("latest_query", latestQuery);
-		BeanOutputConverter<EvidenceQueryRewriteDTO> beanOutputConverter = new BeanOutputConverter<>(
-				EvidenceQueryRewriteDTO.class);
-		params.put("format", beanOutputConverter.getFormat());
+		params.put("format", outputFormat(EvidenceQueryRewriteDTO.class));
 		return PromptConstant.getEvidenceQueryRewritePromptTemplate().render(params);
 	}
 
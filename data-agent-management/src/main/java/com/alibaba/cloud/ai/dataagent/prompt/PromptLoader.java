@@ -35,6 +35,8 @@ public class PromptLoader {
 
 	private static final ConcurrentHashMap<String, String> promptCache = new ConcurrentHashMap<>();
 
+	private static final ConcurrentHashMap<String, CompiledPromptTemplate> compiledCache = new ConcurrentHashMap<>();
+
 	/**
 	 * Load prompt template from file
 	 * @param promptName prompt file name (without path and extension)
@@ -54,11 +56,23 @@ public class PromptLoader {
 		});
 	}
 
+	/**
+	 * Load prompt template and compile it once, subsequent calls share the compiled
+	 * template
+	 * @param promptName prompt file name (without path and extension)
+	 * @return compiled prompt template
+	 */
+	public static CompiledPromptTemplate loadCompiled(String promptName) {
+		return compiledCache.computeIfAbsent(promptName,
+				name -> CompiledPromptTemplate.compile(name, loadPrompt(name)));
+	}
+
 	/**
 	 * Clear prompt cache
 	 */
 	public static void clearCache() {
 		promptCache.clear();
+		compiledCache.clear();
 	}
 
 	/**
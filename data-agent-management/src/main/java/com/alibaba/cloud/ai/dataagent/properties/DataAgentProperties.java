@@ -16,11 +16,19 @@
 package com.alibaba.cloud.ai.dataagent.properties;
 
 import com.alibaba.cloud.ai.dataagent.constant.Constant;
+import com.alibaba.cloud.ai.dataagent.enums.ModelTier;
 import com.alibaba.cloud.ai.dataagent.service.llm.LlmServiceEnum;
+import lombok.AllArgsConstructor;
 import lombok.Getter;
+import lombok.NoArgsConstructor;
 import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 @Getter
 @Setter
 @ConfigurationProperties(prefix = Constant.PROJECT_PROPERTIES_PREFIX)
@@ -80,6 +88,97 @@ public class DataAgentProperties {
 	 */
 	private Long enrichSqlResultTimeout = 3000L;
 
+	/**
+	 * 是否启用 Schema 召回并行模式：在证据召回与问题增强的同时，使用原始问题提前召回 Schema
+	 */
+	private boolean schemaRecallParallelEnabled = false;
+
+	/**
+	 * 等待 Schema 召回预取结果的超时时间，默认5000ms，超时后回退为按增强后的问题召回
+	 */
+	private Long schemaRecallPrefetchTimeout = 5000L;
+
+	/**
+	 * 是否启用推测执行：意图识别流式输出数据分析信号后，立即开始证据查询重写与 Schema 召回，意图最终判定为闲聊时取消
+	 */
+	private boolean speculativePreprocessEnabled = false;
+
+	/**
+	 * 是否启用融合预处理：一次 LLM 调用同时完成意图识别、证据查询重写与查询增强。查询增强此时无法参考召回的业务知识， 业务术语由后续节点结合证据处理。 同时启用
+	 * Schema 召回并行模式时，证据召回节点按融合预处理给出的增强后问题预取 Schema；推测执行只作用于非融合模式的意图识别
+	 */
+	private boolean fusedPreprocessEnabled = false;
+
+	/**
+	 * 是否合并相同输入的并发 LLM 调用与向量检索（single-flight），并发的相同请求共享同一次上游调用
+	 */
+	private boolean singleFlightEnabled = true;
+
+	/**
+	 * 是否在计划流式生成过程中逐步校验执行步骤，发现无效步骤时立即停止生成并进入计划修复
+	 */
+	private boolean planStreamValidationEnabled = true;
+
+	/**
+	 * 查询结果语义缓存配置，命中后跳过 Schema 召回、表关系、可行性评估与规划等节点
+	 */
+	private QueryCache queryCache = new QueryCache();
+
+	/**
+	 * 流式输出（SSE）配置
+	 */
+	private StreamOutput streamOutput = new StreamOutput();
+
+	/**
+	 * 图执行线程模型配置
+	 */
+	private GraphExecution graphExecution = new GraphExecution();
+
+	/**
+	 * 按负载类型隔离的线程池配置
+	 */
+	private ExecutorPools executors = new ExecutorPools();
+
+	/**
+	 * 线程状态（检查点、多轮对话、停止信号）存储配置
+	 */
+	private ThreadState threadState = new ThreadState();
+
+	/**
+	 * 确定性提示词的 LLM 响应缓存配置
+	 */
+	private LlmCache llmCache = new LlmCache();
+
+	/**
+	 * 节点到对话模型层级的路由配置
+	 */
+	private ModelRouting modelRouting = new ModelRouting();
+
+	/**
+	 * 模型厂商 HTTP 客户端的连接池与并发限制配置
+	 */
+	private LlmClient llmClient = new LlmClient();
+
+	/**
+	 * LLM 调用的首 Token 超时、对冲请求、整体超时与熔断配置
+	 */
+	private LlmResilience llmResilience = new LlmResilience();
+
+	/**
+	 * 稳定提示词前缀（Schema、业务知识、语义模型）的模型侧缓存与本地 Token 统计配置
+	 */
+	private PromptPrefix promptPrefix = new PromptPrefix();
+
+	/**
+	 * 提示词各部分（Schema、业务知识、多轮上下文）的 Token 预算配置
+	 */
+	private PromptBudget promptBudget = new PromptBudget();
+
+	/**
+	 * 查询文本向量化结果的本地缓存配置
+	 */
+	private EmbeddingCache embeddingCache = new EmbeddingCache();
+
 	@Getter
 	@Setter
 	public static class ReportTemplate {
@@ -290,6 +389,555 @@ public class DataAgentProperties {
 		 */
 		private double elasticsearchMinScore = 0.5;
 
+		/**
+		 * 业务知识与智能体知识的召回过滤方式。IDS：按数据库中启用召回的 ID 列表过滤，ID 列表按智能体缓存；METADATA：按向量元数据中的 recalled
+		 * 标记过滤，过滤条件大小与知识数量无关，切换召回状态时会重新写入对应向量。
+		 * <p>
+		 * 切换为 METADATA 前写入的向量没有 recalled 标记，需要重新向量化后才能被召回。
+		 */
+		private RecallFilterMode recallFilterMode = RecallFilterMode.IDS;
+
+		/**
+		 * IDS 方式下启用召回的 ID 列表的缓存时长（毫秒），小于等于 0
+		 * 时不缓存。本实例内的变更会立即失效缓存，该时长决定多实例部署时其他实例上的变更最迟多久可见
+		 */
+		private long recallIdsTtlMillis = 30000;
+
+		public enum RecallFilterMode {
+
+			IDS, METADATA
+
+		}
+
+		/**
+		 * 本地向量库配置，spring.ai.vectorstore.type 为 local 时生效
+		 */
+		private LocalStore local = new LocalStore();
+
+		@Getter
+		@Setter
+		public static class LocalStore {
+
+			/**
+			 * 数据目录，保存向量文件、元数据日志和 IVF 聚类中心，重启后直接打开无需重新向量化
+			 */
+			private String path = "./data/vector-store";
+
+			/**
+			 * 向量存储精度。FLOAT32：原始精度；INT8：每维 1 字节，占用约为 FLOAT32 的四分之一，相似度误差通常小于 0.01。
+			 * 仅在数据目录为空时生效，已有数据沿用创建时的精度
+			 */
+			private Quantization quantization = Quantization.FLOAT32;
+
+			/**
+			 * 建立倒排索引的元数据字段，过滤条件中对这些字段的等值和 IN 条件会先通过索引缩小候选集
+			 */
+			private List<String> indexedKeys = new ArrayList<>(
+					List.of("agentId", "vectorType", "tableName", "name", "agentKnowledgeId", "businessTermId"));
+
+			/**
+			 * 向量数达到该值后训练 IVF 聚类索引，之前使用精确扫描
+			 */
+			private int ivfMinVectors = 20000;
+
+			/**
+			 * 查询时探查的 IVF 聚类数，越大召回越准、速度越慢
+			 */
+			private int ivfProbes = 8;
+
+			/**
+			 * 过滤后候选数不超过该值时直接精确扫描，不走 IVF
+			 */
+			private int exactScanLimit = 4096;
+
+			/**
+			 * 嵌入模型或向量维度变化时是否清空向量库并由智能体初始化重新向量化；关闭后检测到变化时报错，需要手动清理数据目录
+			 */
+			private boolean rebuildOnEmbeddingChange = true;
+
+			public enum Quantization {
+
+				FLOAT32, INT8
+
+			}
+
+		}
+
+	}
+
+	@Getter
+	@Setter
+	public static class QueryCache {
+
+		/**
+		 * 是否启用查询结果缓存，默认关闭
+		 */
+		private boolean enabled = false;
+
+		/**
+		 * 缓存的最大条目数，超出后按 LRU 淘汰
+		 */
+		private int maxEntries = 500;
+
+		/**
+		 * 缓存条目存活时间（秒）
+		 */
+		private long ttlSeconds = 1800;
+
+		/**
+		 * 是否启用基于向量相似度的近似问题匹配。开启后仅当两个问题中的字面量（数字、日期、编号、引号内的值、相对时间词）完全一致时才接受相似命中
+		 */
+		private boolean similarityEnabled = false;
+
+		/**
+		 * 近似问题匹配的余弦相似度阈值
+		 */
+		private double similarityThreshold = 0.95;
+
+		/**
+		 * 召回范围指纹的本地复用时间（秒）。指纹从数据库中的 Schema/知识更新时间计算，本实例的变更会立即失效，其他实例的变更最迟在该时间后生效
+		 */
+		private long fingerprintRefreshSeconds = 10;
+
+	}
+
+	@Getter
+	@Setter
+	public static class LlmCache {
+
+		/**
+		 * 是否启用 LLM 响应缓存，默认关闭
+		 */
+		private boolean enabled = false;
+
+		/**
+		 * 内存缓存的最大条目数，超出后按 LRU 淘汰
+		 */
+		private int maxEntries = 1000;
+
+		/**
+		 * 是否启用磁盘缓存，内存未命中时从磁盘加载，重启后仍然有效
+		 */
+		private boolean diskEnabled = false;
+
+		/**
+		 * 磁盘缓存目录
+		 */
+		private String diskPath = "./data/llm-cache";
+
+	}
+
+	@Getter
+	@Setter
+	public static class ModelRouting {
+
+		/**
+		 * 是否按节点路由到不同层级的对话模型，关闭时所有节点使用默认模型
+		 */
+		private boolean enabled = true;
+
+		/**
+		 * 节点类名到模型层级的映射，未列出的节点以及没有激活模型的层级使用默认模型
+		 */
+		private Map<String, ModelTier> nodeTiers = new LinkedHashMap<>(
+				Map.of("IntentRecognitionNode", ModelTier.FAST, "SemanticConsistencyNode", ModelTier.FAST,
+						"PlannerNode", ModelTier.REASONING, "ReportGeneratorNode", ModelTier.REASONING));
+
+	}
+
+	@Getter
+	@Setter
+	public static class LlmClient {
+
+		/**
+		 * 每个厂商连接池的最大连接数
+		 */
+		private int maxConnections = 50;
+
+		/**
+		 * 连接池获取连接的最大排队数
+		 */
+		private int pendingAcquireMaxCount = 500;
+
+		/**
+		 * 空闲连接的最长保留时间（秒）
+		 */
+		private int maxIdleTimeSeconds = 60;
+
+		/**
+		 * 连接的最长存活时间（秒），到期后不再复用
+		 */
+		private int maxLifeTimeSeconds = 600;
+
+		/**
+		 * 是否对 HTTPS 厂商启用 HTTP/2（通过 ALPN 协商，不支持时回退到 HTTP/1.1）
+		 */
+		private boolean http2Enabled = true;
+
+		/**
+		 * 建立连接的超时时间（秒）
+		 */
+		private int connectTimeoutSeconds = 30;
+
+		/**
+		 * 等待响应的超时时间（秒）
+		 */
+		private int responseTimeoutSeconds = 600;
+
+		/**
+		 * 每个厂商的最大并发请求数，收到 429 时自动下调，之后逐步恢复
+		 */
+		private int maxConcurrency = 32;
+
+		/**
+		 * 超出并发上限时的最大排队请求数，队列满时直接拒绝
+		 */
+		private int maxQueueSize = 200;
+
+		/**
+		 * 同步调用排队等待的最长时间（毫秒）
+		 */
+		private long queueTimeoutMillis = 60000;
+
+		/**
+		 * 收到 429 且没有 Retry-After 时的默认暂停时间（毫秒）
+		 */
+		private long defaultBackoffMillis = 1000;
+
+		/**
+		 * 按厂商标识覆盖的最大连接数与最大并发数
+		 */
+		private Map<String, ProviderLimits> providers = new LinkedHashMap<>();
+
+	}
+
+	@Getter
+	@Setter
+	public static class ProviderLimits {
+
+		/**
+		 * 最大连接数，为空时使用全局配置
+		 */
+		private Integer maxConnections;
+
+		/**
+		 * 最大并发请求数，为空时使用全局配置
+		 */
+		private Integer maxConcurrency;
+
+	}
+
+	@Getter
+	@Setter
+	public static class LlmResilience {
+
+		/**
+		 * 是否启用 LLM 调用的超时、对冲与熔断控制
+		 */
+		private boolean enabled = true;
+
+		/**
+		 * 首 Token 超时时间（毫秒），超时后发起对冲请求；未启用对冲时直接失败。仅对流式调用生效，llm-service-type 为 block
+		 * 时只受整体超时约束
+		 */
+		private long firstTokenTimeoutMillis = 30000;
+
+		/**
+		 * 是否在首 Token 超时或主模型失败时向备用层级的模型发起对冲请求，先产生输出的请求胜出
+		 */
+		private boolean hedgeEnabled = false;
+
+		/**
+		 * 对冲请求使用的模型层级，该层级没有激活的模型时使用默认模型
+		 */
+		private ModelTier hedgeTier = ModelTier.DEFAULT;
+
+		/**
+		 * 单次 LLM 调用的整体超时时间（毫秒），从发起调用开始计算总耗时
+		 */
+		private long overallTimeoutMillis = 300000;
+
+		/**
+		 * 按节点类名覆盖的整体超时时间（毫秒）
+		 */
+		private Map<String, Long> nodeTimeoutMillis = new LinkedHashMap<>();
+
+		/**
+		 * 连续失败多少次后熔断该模型
+		 */
+		private int circuitFailureThreshold = 5;
+
+		/**
+		 * 熔断持续时间（毫秒），到期后放行一次试探请求
+		 */
+		private long circuitOpenMillis = 30000;
+
+	}
+
+	@Getter
+	@Setter
+	public static class PromptPrefix {
+
+		/**
+		 * 对这些厂商的请求附带 prompt_cache_key，使相同前缀的请求命中同一份模型侧缓存；不支持该参数的厂商不要加入
+		 */
+		private List<String> cacheKeyProviders = new ArrayList<>(List.of("openai"));
+
+		/**
+		 * 本地缓存的前缀 Token 数条目上限
+		 */
+		private int maxEntries = 256;
+
+	}
+
+	@Getter
+	@Setter
+	public static class PromptBudget {
+
+		/**
+		 * 是否按 Token 预算压缩提示词，超出预算的部分按相关度从低到高裁剪
+		 */
+		private boolean enabled = true;
+
+		/**
+		 * Schema 部分的 Token 预算，超出时按相关度从低到高去掉列的示例值
+		 */
+		private int schemaTokens = 8000;
+
+		/**
+		 * 去掉示例值后仍超出 Schema 预算时，是否继续去掉与问题词面不相关的列。词面相关度无法识别同义表达，默认关闭； 主键、外键与多表共有的关联列始终保留
+		 */
+		private boolean schemaColumnPruningEnabled = false;
+
+		/**
+		 * 业务知识与智能体知识部分的 Token 预算，超出时按召回得分保留文档
+		 */
+		private int evidenceTokens = 3000;
+
+		/**
+		 * 多轮对话上下文的 Token 预算，超出时较早的轮次只保留用户问题
+		 */
+		private int multiTurnTokens = 2000;
+
+	}
+
+	@Getter
+	@Setter
+	public static class EmbeddingCache {
+
+		/**
+		 * 是否启用查询向量缓存
+		 */
+		private boolean enabled = true;
+
+		/**
+		 * 缓存的最大条目数，超出后按 LRU 淘汰
+		 */
+		private int maxEntries = 2000;
+
+		/**
+		 * 参与缓存的文本最大长度，更长的文本（如文档切片）直接调用模型
+		 */
+		private int maxTextLength = 2000;
+
+	}
+
+	@Getter
+	@Setter
+	public static class StreamOutput {
+
+		/**
+		 * 每个会话流的最大缓冲数据块数，超出后按溢出策略处理
+		 */
+		private int bufferSize = 4096;
+
+		/**
+		 * 数据块合并窗口（毫秒），窗口内同一节点、同一类型的小数据块合并为一帧发送，0 表示不合并
+		 */
+		private long coalesceWindowMillis = 50;
+
+		/**
+		 * 单帧合并后的最大字符数
+		 */
+		private int coalesceMaxChars = 4096;
+
+		/**
+		 * 内容数据块的缓冲区溢出策略：DISCONNECT 立即停止处理并断开客户端；BLOCK 在专用排空线程上等待客户端消费腾出空间，超过
+		 * blockTimeoutMillis 仍无空间时断开，每个慢客户端最多占用一个排空线程。 内容数据块（SQL、JSON
+		 * 片段等）由前端拼接，任何策略下都不会丢弃，只有标题更新等通知类消息在溢出时丢弃
+		 */
+		private OverflowPolicy overflowPolicy = OverflowPolicy.DISCONNECT;
+
+		/**
+		 * BLOCK 策略下等待缓冲区腾出空间的最长时间（毫秒）
+		 */
+		private long blockTimeoutMillis = 30000;
+
+		public enum OverflowPolicy {
+
+			BLOCK, DISCONNECT
+
+		}
+
+	}
+
+	@Getter
+	@Setter
+	public static class GraphExecution {
+
+		/**
+		 * 图订阅与节点阻塞代码的执行方式，默认沿用共享的交互式检索线程池
+		 */
+		private ExecutionMode mode = ExecutionMode.SHARED_POOL;
+
+		/**
+		 * BOUNDED_ELASTIC 模式下的最大线程数，0 表示使用 Reactor 默认值（CPU核心数的10倍）
+		 */
+		private int boundedElasticMaxThreads = 0;
+
+		/**
+		 * BOUNDED_ELASTIC 模式下所有线程合计的最大排队任务数
+		 */
+		private int boundedElasticMaxQueuedTasks = 100000;
+
+		public enum ExecutionMode {
+
+			/**
+			 * 使用共享的交互式检索线程池，节点阻塞代码在当前线程执行
+			 */
+			SHARED_POOL,
+
+			/**
+			 * 使用虚拟线程，需要 JDK 21 及以上运行时，否则回退为 BOUNDED_ELASTIC
+			 */
+			VIRTUAL_THREADS,
+
+			/**
+			 * 使用专用的 Reactor boundedElastic 调度器
+			 */
+			BOUNDED_ELASTIC
+
+		}
+
+	}
+
+	@Getter
+	@Setter
+	public static class ExecutorPools {
+
+		/**
+		 * 交互式检索：图订阅、混合检索、Schema 召回预取等在线对话路径
+		 */
+		private ExecutorPool interactive = new ExecutorPool(0, 0, 200, RejectionPolicy.CALLER_RUNS);
+
+		/**
+		 * 批量导入：Schema 初始化、知识向量化与删除
+		 */
+		private ExecutorPool ingestion = new ExecutorPool(4, 4, 1000, RejectionPolicy.CALLER_RUNS);
+
+		/**
+		 * 后台维护：会话标题生成、启动初始化等可延后的任务
+		 */
+		private ExecutorPool maintenance = new ExecutorPool(2, 2, 100, RejectionPolicy.ABORT);
+
+	}
+
+	@Getter
+	@Setter
+	@NoArgsConstructor
+	@AllArgsConstructor
+	public static class ExecutorPool {
+
+		/**
+		 * 核心线程数，0 表示按CPU核心数的2倍自动计算（不少于4个，不超过16个）
+		 */
+		private int coreSize;
+
+		/**
+		 * 最大线程数，仅在队列已满时扩容，不大于核心线程数时等于核心线程数
+		 */
+		private int maxSize;
+
+		/**
+		 * 等待队列容量
+		 */
+		private int queueCapacity;
+
+		/**
+		 * 队列已满且线程数达到上限时的拒绝策略
+		 */
+		private RejectionPolicy rejectionPolicy = RejectionPolicy.CALLER_RUNS;
+
+		/**
+		 * 实际使用的核心线程数
+		 */
+		public int resolveCoreSize() {
+			return coreSize > 0 ? coreSize : Math.max(4, Math.min(Runtime.getRuntime().availableProcessors() * 2, 16));
+		}
+
+		/**
+		 * 实际使用的最大线程数
+		 */
+		public int resolveMaxSize() {
+			return Math.max(resolveCoreSize(), maxSize);
+		}
+
+	}
+
+	public enum RejectionPolicy {
+
+		/**
+		 * 由提交任务的线程执行，对提交方形成背压
+		 */
+		CALLER_RUNS,
+
+		/**
+		 * 抛出 RejectedExecutionException
+		 */
+		ABORT,
+
+		/**
+		 * 丢弃队列中最早的任务。被丢弃任务的 Future 永远不会完成，依赖完成回调做清理的任务（如会话标题生成）不能使用该策略
+		 */
+		DISCARD_OLDEST
+
+	}
+
+	@Getter
+	@Setter
+	public static class ThreadState {
+
+		/**
+		 * 存储类型：JDBC 使用管理库，支持多实例共享；MEMORY 仅适用于单实例部署
+		 */
+		private StoreType store = StoreType.JDBC;
+
+		/**
+		 * 轮询其他实例写入的停止信号的间隔（毫秒）
+		 */
+		private long stopSignalPollMillis = 1000;
+
+		/**
+		 * 检查点、进行中轮次、停止信号的保留时长（分钟），超过该时长未更新的将被清理；小于等于 0 时不清理
+		 */
+		private long ttlMinutes = 1440;
+
+		/**
+		 * 多轮对话历史的保留时长（分钟），独立于 ttlMinutes，使隔天继续的会话仍保留上下文；小于等于 0 时不清理
+		 */
+		private long historyTtlMinutes = 43200;
+
+		/**
+		 * 过期线程状态的清理间隔（毫秒）
+		 */
+		private long cleanupIntervalMillis = 600000;
+
+		public enum StoreType {
+
+			JDBC, MEMORY
+
+		}
+
 	}
 
 }
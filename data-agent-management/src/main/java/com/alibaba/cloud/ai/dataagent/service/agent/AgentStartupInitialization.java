@@ -16,6 +16,7 @@
 package com.alibaba.cloud.ai.dataagent.service.agent;
 
 import com.alibaba.cloud.ai.dataagent.entity.Agent;
+import com.alibaba.cloud.ai.dataagent.event.EmbeddingModelChangedEvent;
 import com.alibaba.cloud.ai.dataagent.entity.AgentDatasource;
 import com.alibaba.cloud.ai.dataagent.service.datasource.AgentDatasourceService;
 import com.alibaba.cloud.ai.dataagent.service.vectorstore.AgentVectorStoreService;
@@ -25,9 +26,11 @@ import java.util.concurrent.ExecutorService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.ApplicationArguments;
 import org.springframework.boot.ApplicationRunner;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
 
 @Slf4j
 @Service
@@ -40,6 +43,7 @@ public class AgentStartupInitialization implements ApplicationRunner, Disposable
 
 	private final AgentDatasourceService agentDatasourceService;
 
+	@Qualifier("maintenanceExecutor")
 	private final ExecutorService executorService;
 
 	@Override
@@ -59,6 +63,22 @@ public class AgentStartupInitialization implements ApplicationRunner, Disposable
 		}
 	}
 
+	/**
+	 * 嵌入模型切换后本地向量库会清空旧向量，重新初始化已发布的智能体以重新向量化
+	 */
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onEmbeddingModelChanged(EmbeddingModelChangedEvent event) {
+		CompletableFuture.runAsync(() -> {
+			if (agentVectorStoreService.resetIfEmbeddingModelChanged()) {
+				log.info("Embedding model changed, re-initializing published agents...");
+				initializePublishedAgents();
+			}
+		}, executorService).exceptionally(throwable -> {
+			log.error("Error re-initializing agents after embedding model change: {}", throwable.getMessage());
+			return null;
+		});
+	}
+
 	/** Initialize all published agents */
 	private void initializePublishedAgents() {
 		try {
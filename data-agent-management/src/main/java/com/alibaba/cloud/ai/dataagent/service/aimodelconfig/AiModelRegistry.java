@@ -15,8 +15,12 @@
  */
 package com.alibaba.cloud.ai.dataagent.service.aimodelconfig;
 
+import com.alibaba.cloud.ai.dataagent.enums.ModelTier;
 import com.alibaba.cloud.ai.dataagent.enums.ModelType;
 import com.alibaba.cloud.ai.dataagent.dto.ModelConfigDTO;
+import com.alibaba.cloud.ai.dataagent.event.ChatModelChangedEvent;
+import com.alibaba.cloud.ai.dataagent.event.EmbeddingModelChangedEvent;
+import com.alibaba.cloud.ai.dataagent.properties.DataAgentProperties;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.ai.chat.client.ChatClient;
@@ -25,9 +29,13 @@ import org.springframework.ai.document.Document;
 import org.springframework.ai.embedding.EmbeddingModel;
 import org.springframework.ai.embedding.EmbeddingRequest;
 import org.springframework.ai.embedding.EmbeddingResponse;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Slf4j
 @Component
@@ -38,40 +46,122 @@ public class AiModelRegistry {
 
 	private final ModelConfigDataService modelConfigDataService;
 
-	// 缓存对象 (volatile 保证可见性)
-	private volatile ChatClient currentChatClient;
+	private final ApplicationEventPublisher eventPublisher;
+
+	private final DataAgentProperties properties;
+
+	// 各层级对话模型的缓存，空值表示该层级没有激活的模型
+	private final Map<ModelTier, Optional<TieredChatModel>> chatModels = new ConcurrentHashMap<>();
 
+	// 缓存对象 (volatile 保证可见性)
 	private volatile EmbeddingModel currentEmbeddingModel;
 
+	// 当前嵌入模型的配置标识，兜底的哑巴模型为 null
+	private volatile String currentEmbeddingFingerprint;
+
 	// =========================================================
 	// 1. 获取 ChatClient (懒加载 + 缓存)
 	// =========================================================
 	public ChatClient getChatClient() {
-		if (currentChatClient == null) {
-			synchronized (this) {
-				if (currentChatClient == null) {
-					log.info("Initializing global ChatClient...");
-					try {
-						ModelConfigDTO config = modelConfigDataService.getActiveConfigByType(ModelType.CHAT);
-						if (config != null) {
-							ChatModel chatModel = modelFactory.createChatModel(config);
-							// 核心：基于新 Model 创建新 Client，彻底消除旧参数缓存
-							currentChatClient = ChatClient.builder(chatModel).build();
-						}
-					}
-					catch (Exception e) {
-						log.error("Failed to initialize ChatClient: {}", e.getMessage(), e);
-					}
+		return getChatClient(ModelTier.DEFAULT);
+	}
 
-					// 兜底：如果还没初始化成功，抛出运行时异常，提示用户配置
-					if (currentChatClient == null) {
-						throw new RuntimeException(
-								"No active CHAT model configured. Please configure it in the dashboard.");
-					}
+	/**
+	 * 获取指定层级的 ChatClient，该层级没有激活的模型时使用默认模型
+	 */
+	public ChatClient getChatClient(ModelTier tier) {
+		return resolveChatModel(tier).chatClient();
+	}
+
+	/**
+	 * 获取默认对话模型配置的指纹（厂商、地址、模型名与生成参数），未初始化时先初始化对话模型
+	 */
+	public String getChatModelFingerprint() {
+		return getChatModelFingerprint(ModelTier.DEFAULT);
+	}
+
+	/**
+	 * 获取指定层级实际使用的对话模型配置的指纹
+	 */
+	public String getChatModelFingerprint(ModelTier tier) {
+		return resolveChatModel(tier).fingerprint();
+	}
+
+	/**
+	 * 获取指定层级实际使用的对话模型的厂商
+	 */
+	public String getChatModelProvider(ModelTier tier) {
+		return resolveChatModel(tier).provider();
+	}
+
+	/**
+	 * 按节点路由配置解析节点使用的模型层级。路由关闭、节点未配置或该层级没有激活的模型时返回默认层级
+	 * @param node 节点类名
+	 * @return 实际使用的模型层级
+	 */
+	public ModelTier resolveTier(String node) {
+		DataAgentProperties.ModelRouting routing = properties.getModelRouting();
+		if (!routing.isEnabled() || node == null) {
+			return ModelTier.DEFAULT;
+		}
+		return resolveAvailableTier(routing.getNodeTiers().getOrDefault(node, ModelTier.DEFAULT));
+	}
+
+	/**
+	 * 层级有激活的模型时返回该层级，否则返回默认层级
+	 */
+	public ModelTier resolveAvailableTier(ModelTier tier) {
+		if (tier == null || tier == ModelTier.DEFAULT || loadChatModel(tier).isEmpty()) {
+			return ModelTier.DEFAULT;
+		}
+		return tier;
+	}
+
+	private TieredChatModel resolveChatModel(ModelTier tier) {
+		Optional<TieredChatModel> model = loadChatModel(tier);
+		if (model.isPresent()) {
+			return model.get();
+		}
+		if (tier != ModelTier.DEFAULT) {
+			return resolveChatModel(ModelTier.DEFAULT);
+		}
+		// 兜底：如果还没初始化成功，抛出运行时异常，提示用户配置
+		throw new RuntimeException("No active CHAT model configured. Please configure it in the dashboard.");
+	}
+
+	private Optional<TieredChatModel> loadChatModel(ModelTier tier) {
+		Optional<TieredChatModel> cached = chatModels.get(tier);
+		if (cached != null) {
+			return cached;
+		}
+		synchronized (this) {
+			cached = chatModels.get(tier);
+			if (cached != null) {
+				return cached;
+			}
+			log.info("Initializing ChatClient for tier {}...", tier);
+			Optional<TieredChatModel> model = Optional.empty();
+			try {
+				ModelConfigDTO config = modelConfigDataService.getActiveConfig(ModelType.CHAT, tier);
+				if (config != null) {
+					ChatModel chatModel = modelFactory.createChatModel(config);
+					// 核心：基于新 Model 创建新 Client，彻底消除旧参数缓存
+					String fingerprint = String.join("|", config.getProvider(), config.getBaseUrl(),
+							String.valueOf(config.getCompletionsPath()), config.getModelName(),
+							String.valueOf(config.getTemperature()), String.valueOf(config.getMaxTokens()));
+					model = Optional.of(new TieredChatModel(ChatClient.builder(chatModel).build(), fingerprint,
+							config.getProvider()));
 				}
 			}
+			catch (Exception e) {
+				log.error("Failed to initialize ChatClient for tier {}: {}", tier, e.getMessage(), e);
+			}
+			// 默认层级初始化失败时不缓存，下次调用重试；其他层级缓存结果，避免每次调用都查询数据库
+			if (model.isPresent() || tier != ModelTier.DEFAULT) {
+				chatModels.put(tier, model);
+			}
+			return model;
 		}
-		return currentChatClient;
 	}
 
 	// =========================================================
@@ -86,6 +176,8 @@ public class AiModelRegistry {
 						ModelConfigDTO config = modelConfigDataService.getActiveConfigByType(ModelType.EMBEDDING);
 						if (config != null) {
 							currentEmbeddingModel = modelFactory.createEmbeddingModel(config);
+							currentEmbeddingFingerprint = String.join("|", String.valueOf(config.getId()),
+									config.getProvider(), config.getModelName());
 						}
 					}
 					catch (Exception e) {
@@ -104,18 +196,34 @@ public class AiModelRegistry {
 		return currentEmbeddingModel;
 	}
 
+	/**
+	 * 当前嵌入模型的配置标识（配置ID、厂商与模型名），未配置嵌入模型时返回 null
+	 */
+	public String getEmbeddingModelFingerprint() {
+		getEmbeddingModel();
+		return currentEmbeddingFingerprint;
+	}
+
 	// =========================================================
 	// 3. 刷新/重置缓存 (用于热切换)
 	// =========================================================
 
 	public void refreshChat() {
-		this.currentChatClient = null;
+		chatModels.clear();
 		log.info("Chat cache cleared.");
+		eventPublisher.publishEvent(new ChatModelChangedEvent(this));
 	}
 
 	public void refreshEmbedding() {
-		this.currentEmbeddingModel = null;
+		synchronized (this) {
+			this.currentEmbeddingModel = null;
+			this.currentEmbeddingFingerprint = null;
+		}
 		log.info("Embedding cache cleared.");
+		eventPublisher.publishEvent(new EmbeddingModelChangedEvent(this));
+	}
+
+	private record TieredChatModel(ChatClient chatClient, String fingerprint, String provider) {
 	}
 
 	// =========================================================
@@ -16,6 +16,7 @@
 package com.alibaba.cloud.ai.dataagent.service.aimodelconfig;
 
 import com.alibaba.cloud.ai.dataagent.dto.ModelConfigDTO;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.ai.chat.model.ChatModel;
 import org.springframework.ai.document.MetadataMode;
@@ -32,8 +33,11 @@ import org.springframework.util.StringUtils;
 
 @Slf4j
 @Service
+@RequiredArgsConstructor
 public class DynamicModelFactory {
 
+	private final ProviderHttpClients providerHttpClients;
+
 	/**
 	 * 统一使用 OpenAiChatModel，通过 baseUrl 实现多厂商兼容
 	 */
@@ -46,7 +50,11 @@ public class DynamicModelFactory {
 
 		// 2. 构建 OpenAiApi (核心通讯对象)
 		String apiKey = StringUtils.hasText(config.getApiKey()) ? config.getApiKey() : "";
-		OpenAiApi.Builder apiBuilder = OpenAiApi.builder().apiKey(apiKey).baseUrl(config.getBaseUrl());
+		OpenAiApi.Builder apiBuilder = OpenAiApi.builder()
+			.apiKey(apiKey)
+			.baseUrl(config.getBaseUrl())
+			.restClientBuilder(providerHttpClients.restClientBuilder(config))
+			.webClientBuilder(providerHttpClients.webClientBuilder(config));
 
 		if (StringUtils.hasText(config.getCompletionsPath())) {
 			apiBuilder.completionsPath(config.getCompletionsPath());
@@ -80,7 +88,10 @@ public class DynamicModelFactory {
 		checkBasic(config);
 
 		String apiKey = StringUtils.hasText(config.getApiKey()) ? config.getApiKey() : "";
-		OpenAiApi.Builder apiBuilder = OpenAiApi.builder().apiKey(apiKey).baseUrl(config.getBaseUrl());
+		OpenAiApi.Builder apiBuilder = OpenAiApi.builder()
+			.apiKey(apiKey)
+			.baseUrl(config.getBaseUrl())
+			.restClientBuilder(providerHttpClients.restClientBuilder(config));
 
 		if (StringUtils.hasText(config.getEmbeddingsPath())) {
 			apiBuilder.embeddingsPath(config.getEmbeddingsPath());
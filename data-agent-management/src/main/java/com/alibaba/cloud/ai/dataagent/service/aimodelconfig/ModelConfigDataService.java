@@ -15,6 +15,7 @@
  */
 package com.alibaba.cloud.ai.dataagent.service.aimodelconfig;
 
+import com.alibaba.cloud.ai.dataagent.enums.ModelTier;
 import com.alibaba.cloud.ai.dataagent.enums.ModelType;
 import com.alibaba.cloud.ai.dataagent.dto.ModelConfigDTO;
 import com.alibaba.cloud.ai.dataagent.entity.ModelConfig;
@@ -25,7 +26,7 @@ public interface ModelConfigDataService {
 
 	ModelConfig findById(Integer id);
 
-	void switchActiveStatus(Integer id, ModelType type);
+	void switchActiveStatus(Integer id, ModelType type, ModelTier tier);
 
 	List<ModelConfigDTO> listConfigs();
 
@@ -37,4 +38,6 @@ public interface ModelConfigDataService {
 
 	ModelConfigDTO getActiveConfigByType(ModelType modelType);
 
+	ModelConfigDTO getActiveConfig(ModelType modelType, ModelTier modelTier);
+
 }
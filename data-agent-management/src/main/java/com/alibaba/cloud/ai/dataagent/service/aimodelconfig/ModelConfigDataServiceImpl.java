@@ -15,15 +15,18 @@
  */
 package com.alibaba.cloud.ai.dataagent.service.aimodelconfig;
 
+import com.alibaba.cloud.ai.dataagent.enums.ModelTier;
 import com.alibaba.cloud.ai.dataagent.enums.ModelType;
 import com.alibaba.cloud.ai.dataagent.converter.ModelConfigConverter;
 import com.alibaba.cloud.ai.dataagent.dto.ModelConfigDTO;
 import com.alibaba.cloud.ai.dataagent.entity.ModelConfig;
 import com.alibaba.cloud.ai.dataagent.mapper.ModelConfigMapper;
+import jakarta.annotation.PostConstruct;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -39,6 +42,20 @@ public class ModelConfigDataServiceImpl implements ModelConfigDataService {
 
 	private final ModelConfigMapper modelConfigMapper;
 
+	@PostConstruct
+	public void upgradeSchema() {
+		// 管理库默认不自动执行 schema.sql，旧版本的 model_config 表没有 model_tier 列，所有模型配置查询都会失败
+		try {
+			if (modelConfigMapper.countTablesMissingModelTier() > 0) {
+				modelConfigMapper.addModelTierColumn();
+				log.info("Added column model_tier to table model_config");
+			}
+		}
+		catch (Exception e) {
+			log.error("Failed to add column model_tier to table model_config, please run sql/upgrade.sql manually", e);
+		}
+	}
+
 	@Override
 	public ModelConfig findById(Integer id) {
 		return modelConfigMapper.findById(id);
@@ -46,9 +63,9 @@ public class ModelConfigDataServiceImpl implements ModelConfigDataService {
 
 	@Transactional(rollbackFor = Exception.class)
 	@Override
-	public void switchActiveStatus(Integer id, ModelType type) {
-		// 1. 禁用同类型其他配置
-		modelConfigMapper.deactivateOthers(type.getCode(), id);
+	public void switchActiveStatus(Integer id, ModelType type, ModelTier tier) {
+		// 1. 禁用同类型、同层级的其他配置
+		modelConfigMapper.deactivateOthers(type.getCode(), tier.getCode(), id);
 
 		// 2. 启用当前配置
 		ModelConfig entity = modelConfigMapper.findById(id);
@@ -81,6 +98,10 @@ public class ModelConfigDataServiceImpl implements ModelConfigDataService {
 		if (dto.getEmbeddingsPath() != null) {
 			dto.setEmbeddingsPath(dto.getEmbeddingsPath().trim());
 		}
+		// 只有对话模型区分层级
+		if (!ModelType.CHAT.getCode().equals(dto.getModelType()) || !StringUtils.hasText(dto.getModelTier())) {
+			dto.setModelTier(ModelTier.DEFAULT.getCode());
+		}
 	}
 
 	/**
@@ -100,6 +121,11 @@ public class ModelConfigDataServiceImpl implements ModelConfigDataService {
 		if (!entity.getModelType().getCode().equals(dto.getModelType()))
 			throw new RuntimeException("模型类型不允许修改");
 
+		// 激活中的配置修改层级会导致同一层级出现多个激活配置
+		if (Boolean.TRUE.equals(entity.getIsActive()) && entity.getModelTier() != null
+				&& !entity.getModelTier().getCode().equals(dto.getModelTier()))
+			throw new RuntimeException("激活中的配置不允许修改模型层级");
+
 		// 2. 合并字段
 		mergeDtoToEntity(dto, entity);
 		entity.setUpdatedTime(LocalDateTime.now());
@@ -114,6 +140,7 @@ public class ModelConfigDataServiceImpl implements ModelConfigDataService {
 		oldEntity.setProvider(dto.getProvider());
 		oldEntity.setBaseUrl(dto.getBaseUrl());
 		oldEntity.setModelName(dto.getModelName());
+		oldEntity.setModelTier(ModelTier.fromCode(dto.getModelTier()));
 		oldEntity.setTemperature(dto.getTemperature());
 		oldEntity.setMaxTokens(dto.getMaxTokens()); // 新增字段
 		oldEntity.setCompletionsPath(dto.getCompletionsPath()); // 路径字段
@@ -150,9 +177,15 @@ public class ModelConfigDataServiceImpl implements ModelConfigDataService {
 
 	@Override
 	public ModelConfigDTO getActiveConfigByType(ModelType modelType) {
-		ModelConfig entity = modelConfigMapper.selectActiveByType(modelType.getCode());
+		return getActiveConfig(modelType, ModelTier.DEFAULT);
+	}
+
+	@Override
+	public ModelConfigDTO getActiveConfig(ModelType modelType, ModelTier modelTier) {
+		ModelConfig entity = modelConfigMapper.selectActiveByTypeAndTier(modelType.getCode(), modelTier.getCode());
 		if (entity == null) {
-			log.warn("Activation model configuration of type [{}] not found, attempting to downgrade...", modelType);
+			log.warn("Activation model configuration of type [{}] and tier [{}] not found, attempting to downgrade...",
+					modelType, modelTier);
 			return null;
 		}
 		return toDTO(entity);
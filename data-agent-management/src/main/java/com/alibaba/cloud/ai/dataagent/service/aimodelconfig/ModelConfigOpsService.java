@@ -81,7 +81,7 @@ public class ModelConfigOpsService {
 		refreshMemoryModel(entity.getModelType());
 
 		// 3. 更新数据库状态 (调用数据层)
-		modelConfigDataService.switchActiveStatus(id, entity.getModelType());
+		modelConfigDataService.switchActiveStatus(id, entity.getModelType(), entity.getModelTier());
 
 		log.info("Config ID={} activated successfully.", id);
 	}
@@ -0,0 +1,229 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.dataagent.service.aimodelconfig;
+
+import com.alibaba.cloud.ai.dataagent.exception.LlmConcurrencyLimitException;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 单个模型厂商的自适应并发限制器。
+ * <ul>
+ * <li>并发数超过当前上限的请求按到达顺序排队（公平队列），队列已满时直接拒绝</li>
+ * <li>收到 429 时并发上限减半，并按 Retry-After 暂停放行；连续成功后逐步恢复上限（AIMD）</li>
+ * </ul>
+ */
+@Slf4j
+public class ProviderConcurrencyLimiter {
+
+	private final String provider;
+
+	private final int maxLimit;
+
+	private final int maxQueueSize;
+
+	private final Duration defaultBackoff;
+
+	private final Scheduler scheduler = Schedulers.parallel();
+
+	private final Deque<MonoSink<Permit>> waiters = new ArrayDeque<>();
+
+	private final AtomicLong throttledCount = new AtomicLong();
+
+	private final AtomicLong rejectedCount = new AtomicLong();
+
+	private int limit;
+
+	private int active;
+
+	private int successesSinceIncrease;
+
+	private long pausedUntilMillis;
+
+	private boolean drainScheduled;
+
+	public ProviderConcurrencyLimiter(String provider, int maxLimit, int maxQueueSize, Duration defaultBackoff) {
+		this.provider = provider;
+		this.maxLimit = Math.max(1, maxLimit);
+		this.maxQueueSize = maxQueueSize;
+		this.defaultBackoff = defaultBackoff;
+		this.limit = this.maxLimit;
+	}
+
+	/**
+	 * 获取一个并发许可，没有可用许可时排队等待。订阅被取消时自动出队，已获得的许可随之释放
+	 */
+	public Mono<Permit> acquire() {
+		return Mono.<Permit>create(sink -> {
+			Permit granted = null;
+			synchronized (this) {
+				if (waiters.isEmpty() && canAdmit()) {
+					active++;
+					granted = new Permit();
+				}
+				else if (waiters.size() >= maxQueueSize) {
+					rejectedCount.incrementAndGet();
+					sink.error(new LlmConcurrencyLimitException(
+							"Too many pending requests for model provider " + provider + ", please retry later"));
+					return;
+				}
+				else {
+					waiters.addLast(sink);
+					sink.onCancel(() -> removeWaiter(sink));
+					scheduleDrainIfPaused();
+				}
+			}
+			if (granted != null) {
+				sink.success(granted);
+			}
+		}).doOnDiscard(Permit.class, Permit::release);
+	}
+
+	/**
+	 * 阻塞获取并发许可，用于同步客户端
+	 * @param timeout 最长排队时间
+	 */
+	public Permit acquireBlocking(Duration timeout) {
+		Permit permit = acquire().timeout(timeout, Mono.error(() -> new LlmConcurrencyLimitException(
+				"Timed out waiting for a free slot of model provider " + provider)))
+			.block();
+		if (permit == null) {
+			throw new LlmConcurrencyLimitException("No permit granted for model provider " + provider);
+		}
+		return permit;
+	}
+
+	/**
+	 * 请求成功，按加性增长逐步恢复并发上限
+	 */
+	public void onSuccess() {
+		synchronized (this) {
+			if (limit < maxLimit && ++successesSinceIncrease >= limit) {
+				limit++;
+				successesSinceIncrease = 0;
+			}
+		}
+		drain();
+	}
+
+	/**
+	 * 请求被限流（429），并发上限减半并暂停放行
+	 * @param retryAfter 厂商返回的 Retry-After，为空时使用默认退避时间
+	 */
+	public void onThrottled(Duration retryAfter) {
+		Duration backoff = retryAfter != null ? retryAfter : defaultBackoff;
+		throttledCount.incrementAndGet();
+		int newLimit;
+		synchronized (this) {
+			limit = Math.max(1, limit / 2);
+			newLimit = limit;
+			successesSinceIncrease = 0;
+			pausedUntilMillis = Math.max(pausedUntilMillis, System.currentTimeMillis() + backoff.toMillis());
+		}
+		log.warn("Model provider {} throttled the request, concurrency limit lowered to {}, paused for {} ms", provider,
+				newLimit, backoff.toMillis());
+	}
+
+	public synchronized int getLimit() {
+		return limit;
+	}
+
+	public synchronized int getActive() {
+		return active;
+	}
+
+	public synchronized int getQueued() {
+		return waiters.size();
+	}
+
+	public long getThrottledCount() {
+		return throttledCount.get();
+	}
+
+	public long getRejectedCount() {
+		return rejectedCount.get();
+	}
+
+	private boolean canAdmit() {
+		return active < limit && System.currentTimeMillis() >= pausedUntilMillis;
+	}
+
+	private synchronized void removeWaiter(MonoSink<Permit> sink) {
+		waiters.remove(sink);
+	}
+
+	private void release() {
+		synchronized (this) {
+			active--;
+		}
+		drain();
+	}
+
+	private void drain() {
+		List<MonoSink<Permit>> admitted = new ArrayList<>();
+		synchronized (this) {
+			while (!waiters.isEmpty() && canAdmit()) {
+				admitted.add(waiters.pollFirst());
+				active++;
+			}
+			scheduleDrainIfPaused();
+		}
+		admitted.forEach(sink -> sink.success(new Permit()));
+	}
+
+	// 暂停期间没有请求结束，需要在暂停结束时主动放行排队的请求
+	private void scheduleDrainIfPaused() {
+		long delay = pausedUntilMillis - System.currentTimeMillis();
+		if (waiters.isEmpty() || delay <= 0 || drainScheduled) {
+			return;
+		}
+		drainScheduled = true;
+		scheduler.schedule(() -> {
+			synchronized (this) {
+				drainScheduled = false;
+			}
+			drain();
+		}, delay, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * 并发许可，请求结束后释放，重复释放无副作用
+	 */
+	public class Permit {
+
+		private final AtomicBoolean released = new AtomicBoolean();
+
+		public void release() {
+			if (released.compareAndSet(false, true)) {
+				ProviderConcurrencyLimiter.this.release();
+			}
+		}
+
+	}
+
+}
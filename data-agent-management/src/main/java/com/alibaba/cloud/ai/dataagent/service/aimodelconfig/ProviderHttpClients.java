@@ -0,0 +1,196 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.dataagent.service.aimodelconfig;
+
+import com.alibaba.cloud.ai.dataagent.dto.ModelConfigDTO;
+import com.alibaba.cloud.ai.dataagent.properties.DataAgentProperties;
+import com.alibaba.cloud.ai.dataagent.service.metrics.LlmMetrics;
+import io.netty.channel.ChannelOption;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.ReactorClientHttpRequestFactory;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 按模型厂商复用的 HTTP 客户端。同一厂商（厂商标识与主机相同）的模型共享一个 reactor-netty 连接池和一个并发限制器， 模型热切换时不会重建连接。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProviderHttpClients {
+
+	private static final int TOO_MANY_REQUESTS = 429;
+
+	private final DataAgentProperties properties;
+
+	private final LlmMetrics metrics;
+
+	private final Map<String, ProviderClient> clients = new ConcurrentHashMap<>();
+
+	/**
+	 * 创建使用厂商连接池与并发限制的 RestClient.Builder，用于同步调用
+	 */
+	public RestClient.Builder restClientBuilder(ModelConfigDTO config) {
+		ProviderClient client = getClient(config);
+		DataAgentProperties.LlmClient clientProperties = properties.getLlmClient();
+		ReactorClientHttpRequestFactory requestFactory = new ReactorClientHttpRequestFactory(client.httpClient());
+		requestFactory.setReadTimeout(Duration.ofSeconds(clientProperties.getResponseTimeoutSeconds()));
+		return RestClient.builder()
+			.requestFactory(requestFactory)
+			.requestInterceptor(
+					limitingInterceptor(client.limiter(), Duration.ofMillis(clientProperties.getQueueTimeoutMillis())));
+	}
+
+	/**
+	 * 创建使用厂商连接池与并发限制的 WebClient.Builder，用于流式调用
+	 */
+	public WebClient.Builder webClientBuilder(ModelConfigDTO config) {
+		ProviderClient client = getClient(config);
+		return WebClient.builder()
+			.clientConnector(new ReactorClientHttpConnector(client.httpClient()))
+			.filter(limitingFilter(client.limiter()));
+	}
+
+	@PreDestroy
+	public void destroy() {
+		clients.values().forEach(client -> client.connectionProvider().dispose());
+		clients.clear();
+	}
+
+	private ProviderClient getClient(ModelConfigDTO config) {
+		String host = UriComponentsBuilder.fromUriString(config.getBaseUrl()).build().getHost();
+		String provider = StringUtils.hasText(config.getProvider()) ? config.getProvider() : "custom";
+		return clients.computeIfAbsent(provider + "@" + host, key -> createClient(key, provider, config.getBaseUrl()));
+	}
+
+	private ProviderClient createClient(String key, String provider, String baseUrl) {
+		DataAgentProperties.LlmClient clientProperties = properties.getLlmClient();
+		DataAgentProperties.ProviderLimits limits = clientProperties.getProviders()
+			.getOrDefault(provider, new DataAgentProperties.ProviderLimits());
+		int maxConnections = limits.getMaxConnections() != null ? limits.getMaxConnections()
+				: clientProperties.getMaxConnections();
+		int maxConcurrency = limits.getMaxConcurrency() != null ? limits.getMaxConcurrency()
+				: clientProperties.getMaxConcurrency();
+		log.info("Creating HTTP client for model provider {}, maxConnections={}, maxConcurrency={}", key,
+				maxConnections, maxConcurrency);
+
+		ConnectionProvider connectionProvider = ConnectionProvider.builder("dataagent-llm-" + key)
+			.maxConnections(maxConnections)
+			.pendingAcquireMaxCount(clientProperties.getPendingAcquireMaxCount())
+			.maxIdleTime(Duration.ofSeconds(clientProperties.getMaxIdleTimeSeconds()))
+			.maxLifeTime(Duration.ofSeconds(clientProperties.getMaxLifeTimeSeconds()))
+			.evictInBackground(Duration.ofSeconds(30))
+			.metrics(true)
+			.build();
+		HttpClient httpClient = HttpClient.create(connectionProvider)
+			.option(ChannelOption.CONNECT_TIMEOUT_MILLIS, clientProperties.getConnectTimeoutSeconds() * 1000)
+			.option(ChannelOption.SO_KEEPALIVE, true)
+			.keepAlive(true)
+			.responseTimeout(Duration.ofSeconds(clientProperties.getResponseTimeoutSeconds()));
+		// HTTP/2 依赖 TLS ALPN 协商，明文地址保持 HTTP/1.1
+		if (clientProperties.isHttp2Enabled() && baseUrl.startsWith("https")) {
+			httpClient = httpClient.protocol(HttpProtocol.H2, HttpProtocol.HTTP11).secure();
+		}
+
+		ProviderConcurrencyLimiter limiter = new ProviderConcurrencyLimiter(key, maxConcurrency,
+				clientProperties.getMaxQueueSize(), Duration.ofMillis(clientProperties.getDefaultBackoffMillis()));
+		metrics.bindLlmLimiter(key, limiter);
+		return new ProviderClient(connectionProvider, httpClient, limiter);
+	}
+
+	private static ClientHttpRequestInterceptor limitingInterceptor(ProviderConcurrencyLimiter limiter,
+			Duration queueTimeout) {
+		return (request, body, execution) -> {
+			ProviderConcurrencyLimiter.Permit permit = limiter.acquireBlocking(queueTimeout);
+			try {
+				ClientHttpResponse response = execution.execute(request, body);
+				onResponse(limiter, response.getStatusCode(), response.getHeaders());
+				return response;
+			}
+			finally {
+				permit.release();
+			}
+		};
+	}
+
+	private static ExchangeFilterFunction limitingFilter(ProviderConcurrencyLimiter limiter) {
+		// 流式响应在响应体结束（或取消、出错）后才释放许可
+		return (request, next) -> limiter.acquire()
+			.flatMap(permit -> next.exchange(request)
+				.doOnError(e -> permit.release())
+				.doOnCancel(permit::release)
+				.map(response -> {
+					onResponse(limiter, response.statusCode(), response.headers().asHttpHeaders());
+					return response.mutate().body(body -> body.doFinally(signal -> permit.release())).build();
+				}));
+	}
+
+	private static void onResponse(ProviderConcurrencyLimiter limiter, HttpStatusCode status, HttpHeaders headers) {
+		if (status.value() == TOO_MANY_REQUESTS) {
+			limiter.onThrottled(parseRetryAfter(headers.getFirst(HttpHeaders.RETRY_AFTER)));
+		}
+		else if (status.is2xxSuccessful()) {
+			limiter.onSuccess();
+		}
+	}
+
+	/**
+	 * 解析 Retry-After 头，支持秒数与 HTTP 日期两种格式，无法解析时返回 null
+	 */
+	static Duration parseRetryAfter(String value) {
+		if (!StringUtils.hasText(value)) {
+			return null;
+		}
+		try {
+			return Duration.ofSeconds(Long.parseLong(value.trim()));
+		}
+		catch (NumberFormatException e) {
+			try {
+				ZonedDateTime retryAt = ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+				Duration delay = Duration.between(ZonedDateTime.now(retryAt.getZone()), retryAt);
+				return delay.isNegative() ? Duration.ZERO : delay;
+			}
+			catch (Exception ignored) {
+				return null;
+			}
+		}
+	}
+
+	private record ProviderClient(ConnectionProvider connectionProvider, HttpClient httpClient,
+			ProviderConcurrencyLimiter limiter) {
+	}
+
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.dataagent.service.aimodelconfig;
+
+import com.alibaba.cloud.ai.dataagent.event.EmbeddingModelChangedEvent;
+import com.alibaba.cloud.ai.dataagent.properties.DataAgentProperties;
+import com.alibaba.cloud.ai.dataagent.service.metrics.CacheMetrics;
+import com.alibaba.cloud.ai.dataagent.util.SingleFlight;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.BatchingStrategy;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingOptions;
+import org.springframework.ai.embedding.EmbeddingRequest;
+import org.springframework.ai.embedding.EmbeddingResponse;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * 查询文本向量的本地缓存。一次提问会在表召回、业务知识、智能体知识与混合检索中多次向量化几乎相同的查询文本，缓存后只调用一次嵌入模型。
+ * <p>
+ * 键为嵌入模型配置标识与规整后的文本（去掉首尾空白、合并连续空白），值为 float[]，按 LRU 淘汰。只缓存单条文本的
+ * {@link EmbeddingModel#embed(String)}，批量向量化（文档入库）直接调用模型。嵌入模型切换时清空缓存。
+ */
+@Slf4j
+@Component
+public class QueryEmbeddingCache {
+
+	private final DataAgentProperties.EmbeddingCache cacheProperties;
+
+	private final CacheMetrics metrics;
+
+	private final Map<String, float[]> entries;
+
+	// 并行检索同一查询时，合并同时未命中的向量化调用
+	private final SingleFlight<String, float[]> embedFlight;
+
+	public QueryEmbeddingCache(DataAgentProperties properties, CacheMetrics metrics) {
+		this.cacheProperties = properties.getEmbeddingCache();
+		this.metrics = metrics;
+		this.embedFlight = new SingleFlight<>(() -> metrics.recordSingleFlightCoalesced("embedding"));
+		this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, float[]> eldest) {
+				return size() > cacheProperties.getMaxEntries();
+			}
+		};
+	}
+
+	/**
+	 * 在嵌入模型外包装一层缓存
+	 * @param delegate 实际的嵌入模型（通常为按注册表动态解析的代理）
+	 * @param fingerprint 当前嵌入模型配置标识，返回 null 时不缓存
+	 * @return 带缓存的嵌入模型
+	 */
+	public EmbeddingModel wrap(EmbeddingModel delegate, Supplier<String> fingerprint) {
+		return new CachingEmbeddingModel(delegate, fingerprint);
+	}
+
+	public int size() {
+		synchronized (entries) {
+			return entries.size();
+		}
+	}
+
+	public void clear() {
+		synchronized (entries) {
+			entries.clear();
+		}
+	}
+
+	@EventListener
+	public void onEmbeddingModelChanged(EmbeddingModelChangedEvent event) {
+		clear();
+		log.info("Embedding model changed, query embedding cache cleared");
+	}
+
+	float[] embed(EmbeddingModel delegate, String fingerprint, String text) {
+		if (!cacheProperties.isEnabled() || fingerprint == null || text == null
+				|| text.length() > cacheProperties.getMaxTextLength()) {
+			return delegate.embed(text);
+		}
+		String key = fingerprint + '\u0000' + normalize(text);
+		float[] cached;
+		synchronized (entries) {
+			cached = entries.get(key);
+		}
+		if (cached != null) {
+			metrics.recordEmbeddingCache("hit");
+			return cached.clone();
+		}
+		metrics.recordEmbeddingCache("miss");
+		float[] embedding = embedFlight.call(key, () -> {
+			float[] result = delegate.embed(text);
+			if (result != null && result.length > 0) {
+				synchronized (entries) {
+					entries.put(key, result.clone());
+				}
+			}
+			return result;
+		});
+		return embedding == null ? null : embedding.clone();
+	}
+
+	static String normalize(String text) {
+		return text.strip().replaceAll("\\s+", " ");
+	}
+
+	private class CachingEmbeddingModel implements EmbeddingModel {
+
+		private final EmbeddingModel delegate;
+
+		private final Supplier<String> fingerprint;
+
+		private CachingEmbeddingModel(EmbeddingModel delegate, Supplier<String> fingerprint) {
+			this.delegate = delegate;
+			this.fingerprint = fingerprint;
+		}
+
+		@Override
+		public float[] embed(String text) {
+			return QueryEmbeddingCache.this.embed(delegate, fingerprint.get(), text);
+		}
+
+		@Override
+		public EmbeddingResponse call(EmbeddingRequest request) {
+			return delegate.call(request);
+		}
+
+		@Override
+		public float[] embed(Document document) {
+			return delegate.embed(document);
+		}
+
+		@Override
+		public List<float[]> embed(List<String> texts) {
+			return delegate.embed(texts);
+		}
+
+		@Override
+		public List<float[]> embed(List<Document> documents, EmbeddingOptions options,
+				BatchingStrategy batchingStrategy) {
+			return delegate.embed(documents, options, batchingStrategy);
+		}
+
+		@Override
+		public EmbeddingResponse embedForResponse(List<String> texts) {
+			return delegate.embedForResponse(texts);
+		}
+
+		@Override
+		public int dimensions() {
+			return delegate.dimensions();
+		}
+
+	}
+
+}
@@ -23,12 +23,16 @@ import com.alibaba.cloud.ai.dataagent.converter.BusinessKnowledgeConverter;
 import com.alibaba.cloud.ai.dataagent.dto.knowledge.businessknowledge.CreateBusinessKnowledgeDTO;
 import com.alibaba.cloud.ai.dataagent.dto.knowledge.businessknowledge.UpdateBusinessKnowledgeDTO;
 import com.alibaba.cloud.ai.dataagent.entity.BusinessKnowledge;
+import com.alibaba.cloud.ai.dataagent.event.AgentRecallScopeChangedEvent;
+import com.alibaba.cloud.ai.dataagent.properties.DataAgentProperties;
+import com.alibaba.cloud.ai.dataagent.properties.DataAgentProperties.VectorStoreProperties.RecallFilterMode;
 import com.alibaba.cloud.ai.dataagent.mapper.BusinessKnowledgeMapper;
 import com.alibaba.cloud.ai.dataagent.service.vectorstore.AgentVectorStoreService;
 import com.alibaba.cloud.ai.dataagent.vo.BusinessKnowledgeVO;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.ai.document.Document;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.CollectionUtils;
@@ -50,6 +54,10 @@ public class BusinessKnowledgeServiceImpl implements BusinessKnowledgeService {
 
 	private final BusinessKnowledgeConverter businessKnowledgeConverter;
 
+	private final ApplicationEventPublisher eventPublisher;
+
+	private final DataAgentProperties dataAgentProperties;
+
 	@Override
 	public List<BusinessKnowledgeVO> getKnowledge(Long agentId) {
 		List<BusinessKnowledge> businessKnowledges = businessKnowledgeMapper.selectByAgentId(agentId);
@@ -110,6 +118,7 @@ public class BusinessKnowledgeServiceImpl implements BusinessKnowledgeService {
 			businessKnowledgeMapper.updateById(entity);
 			log.error("Failed to add knowledge to vector store for id: {}, error: {}", entity.getId(), errorMsg);
 		}
+		publishRecallScopeChanged(entity.getAgentId().toString());
 		return businessKnowledgeConverter.toVo(entity);
 	}
 
@@ -150,6 +159,7 @@ public class BusinessKnowledgeServiceImpl implements BusinessKnowledgeService {
 			businessKnowledgeMapper.updateById(knowledge);
 			log.error("Failed to update vector store for knowledge id: {}, error: {}", id, errorMsg);
 		}
+		publishRecallScopeChanged(knowledge.getAgentId().toString());
 		return businessKnowledgeConverter.toVo(knowledge);
 	}
 
@@ -185,6 +195,7 @@ public class BusinessKnowledgeServiceImpl implements BusinessKnowledgeService {
 					List.of(DocumentConverterUtil.convertBusinessKnowledgeToDocument(knowledge)));
 			throw new RuntimeException("Failed to logically delete knowledge from database");
 		}
+		publishRecallScopeChanged(knowledge.getAgentId().toString());
 	}
 
 	private void doDelVector(BusinessKnowledge knowledge) {
@@ -204,9 +215,18 @@ public class BusinessKnowledgeServiceImpl implements BusinessKnowledgeService {
 			throw new RuntimeException("Knowledge not found with id: " + id);
 		}
 
-		// 更新数据库即可，不需要更新向量库，混合检索的的时候DynamicFilterService会根据 isRecall 字段过滤了
+		// IDS 过滤方式下更新数据库即可，检索时DynamicFilterService会根据 isRecall 字段过滤
 		knowledge.setIsRecall(isRecall ? 1 : 0);
 		businessKnowledgeMapper.updateById(knowledge);
+		// METADATA 过滤方式下需要把召回状态写入向量元数据，向量库支持时原地更新，否则重新写入
+		if (dataAgentProperties.getVectorStore().getRecallFilterMode() == RecallFilterMode.METADATA
+				&& !agentVectorStoreService.updateMetadata(knowledge.getAgentId().toString(),
+						Map.of(DocumentMetadataConstant.VECTOR_TYPE, DocumentMetadataConstant.BUSINESS_TERM,
+								DocumentMetadataConstant.DB_BUSINESS_TERM_ID, knowledge.getId()),
+						Map.of(DocumentMetadataConstant.RECALLED, isRecall))) {
+			syncToVectorStore(knowledge);
+		}
+		publishRecallScopeChanged(knowledge.getAgentId().toString());
 
 	}
 
@@ -229,6 +249,12 @@ public class BusinessKnowledgeServiceImpl implements BusinessKnowledgeService {
 				.toList();
 			agentVectorStoreService.addDocuments(agentId, documents);
 		}
+		publishRecallScopeChanged(agentId);
+	}
+
+	private void publishRecallScopeChanged(String agentId) {
+		eventPublisher.publishEvent(
+				new AgentRecallScopeChangedEvent(this, agentId, AgentRecallScopeChangedEvent.Scope.BUSINESS_KNOWLEDGE));
 	}
 
 	@Override
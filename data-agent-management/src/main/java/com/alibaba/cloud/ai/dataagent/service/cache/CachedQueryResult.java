@@ -0,0 +1,58 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.dataagent.service.cache;
+
+import com.alibaba.cloud.ai.dataagent.dto.schema.SchemaDTO;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 查询结果缓存中保存的图状态快照，覆盖 QueryEnhanceNode 之后到规划完成为止各节点的产出。
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CachedQueryResult {
+
+	/**
+	 * TableRelationNode 产出的 Schema
+	 */
+	private SchemaDTO schema;
+
+	/**
+	 * 语义模型提示词
+	 */
+	private String semanticModelPrompt;
+
+	/**
+	 * 数据库方言
+	 */
+	private String dialectType;
+
+	/**
+	 * PlannerNode 产出的执行计划（JSON）
+	 */
+	private String plan;
+
+	/**
+	 * 仅 NL2SQL 模式下最终生成的 SQL
+	 */
+	private String sql;
+
+}
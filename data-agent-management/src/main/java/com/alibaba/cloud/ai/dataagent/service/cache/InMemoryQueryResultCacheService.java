@@ -0,0 +1,288 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.dataagent.service.cache;
+
+import com.alibaba.cloud.ai.dataagent.event.AgentRecallScopeChangedEvent;
+import com.alibaba.cloud.ai.dataagent.mapper.AgentRecallScopeMapper;
+import com.alibaba.cloud.ai.dataagent.properties.DataAgentProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 基于内存的查询结果缓存，LRU + TTL 淘汰。
+ * <p>
+ * 每个条目记录写入时智能体召回范围的指纹，指纹由数据库中 Schema、语义模型、业务知识与智能体知识的行数和更新时间计算，
+ * 指纹变化后旧条目即视为失效，因此重启或其他实例修改知识后也不会命中过期结果。指纹在本地复用一小段时间，本实例发出的召回范围变更事件会立即丢弃它。
+ * 精确匹配未命中时，使用问题的向量与同一智能体下的已有条目计算余弦相似度，以匹配措辞不同的相同问题。
+ * 只差字面量的问题（如“2023年销售额”与“2024年销售额”）向量相似度很高但 SQL 不同，因此相似命中还要求两个问题的字面量完全一致。
+ */
+@Slf4j
+@Service
+public class InMemoryQueryResultCacheService implements QueryResultCacheService {
+
+	// 未命中时计算出的向量与指纹最多保留的数量，供同一次请求写入缓存时复用
+	private static final int MAX_PENDING_LOOKUPS = 256;
+
+	// 引号内的值、含数字的词（年份、日期、金额、客户编号等）、中文数字以及相对时间词
+	private static final Pattern LITERAL_PATTERN = Pattern.compile("'[^']*'|\"[^\"]*\"|“[^”]*”|‘[^’]*’|「[^」]*」"
+			+ "|[a-z_]*\\d[a-z\\d_.:/-]*|[零〇一二三四五六七八九十百千万亿两]+" + "|[今去前明]年|[本上下这][个]?(?:月|周|季度)|[今昨前明]天");
+
+	private final DataAgentProperties.QueryCache cacheProperties;
+
+	private final EmbeddingModel embeddingModel;
+
+	private final AgentRecallScopeMapper agentRecallScopeMapper;
+
+	private final Map<String, Fingerprint> fingerprints = new ConcurrentHashMap<>();
+
+	private final Map<String, CacheEntry> entries;
+
+	private final Map<String, PendingLookup> pendingLookups;
+
+	public InMemoryQueryResultCacheService(DataAgentProperties properties, EmbeddingModel embeddingModel,
+			AgentRecallScopeMapper agentRecallScopeMapper) {
+		this.cacheProperties = properties.getQueryCache();
+		this.embeddingModel = embeddingModel;
+		this.agentRecallScopeMapper = agentRecallScopeMapper;
+		this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, CacheEntry> eldest) {
+				return size() > cacheProperties.getMaxEntries();
+			}
+		};
+		this.pendingLookups = new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, PendingLookup> eldest) {
+				return size() > MAX_PENDING_LOOKUPS;
+			}
+		};
+	}
+
+	@Override
+	public Optional<CachedQueryResult> get(String agentId, String canonicalQuery, boolean nl2sqlOnly) {
+		if (!cacheProperties.isEnabled() || !StringUtils.hasText(agentId) || !StringUtils.hasText(canonicalQuery)) {
+			return Optional.empty();
+		}
+		String version = currentVersion(agentId);
+		if (version == null) {
+			return Optional.empty();
+		}
+		String key = buildKey(agentId, canonicalQuery, nl2sqlOnly);
+		long now = System.currentTimeMillis();
+
+		synchronized (entries) {
+			CacheEntry entry = entries.get(key);
+			if (entry != null) {
+				if (isValid(entry, version, now)) {
+					log.info("Query cache hit for agent {}, query: {}", agentId, canonicalQuery);
+					return Optional.of(entry.result());
+				}
+				entries.remove(key);
+			}
+		}
+
+		float[] embedding = cacheProperties.isSimilarityEnabled() ? embed(canonicalQuery) : null;
+		synchronized (entries) {
+			pendingLookups.put(key, new PendingLookup(embedding, version));
+			if (embedding == null) {
+				return Optional.empty();
+			}
+			CacheEntry best = null;
+			double bestScore = cacheProperties.getSimilarityThreshold();
+			List<String> literals = extractLiterals(canonicalQuery);
+			for (CacheEntry entry : entries.values()) {
+				if (!entry.agentId().equals(agentId) || entry.nl2sqlOnly() != nl2sqlOnly || entry.embedding() == null
+						|| !isValid(entry, version, now) || !entry.literals().equals(literals)) {
+					continue;
+				}
+				double score = cosineSimilarity(embedding, entry.embedding());
+				if (score >= bestScore) {
+					best = entry;
+					bestScore = score;
+				}
+			}
+			if (best == null) {
+				return Optional.empty();
+			}
+			// 刷新 LRU 顺序
+			entries.get(best.key());
+			log.info("Query cache similarity hit for agent {}, query: {}, score: {}", agentId, canonicalQuery,
+					bestScore);
+			return Optional.of(best.result());
+		}
+	}
+
+	@Override
+	public void put(String agentId, String canonicalQuery, boolean nl2sqlOnly, CachedQueryResult result) {
+		if (!cacheProperties.isEnabled() || result == null || !StringUtils.hasText(agentId)
+				|| !StringUtils.hasText(canonicalQuery)) {
+			return;
+		}
+		String key = buildKey(agentId, canonicalQuery, nl2sqlOnly);
+		String currentVersion = currentVersion(agentId);
+
+		PendingLookup pending;
+		synchronized (entries) {
+			pending = pendingLookups.remove(key);
+		}
+		// 以查找时的指纹为准，避免执行期间发生的变更被新写入的旧结果覆盖
+		if (currentVersion == null || pending != null && !pending.version().equals(currentVersion)) {
+			log.debug("Recall scope of agent {} changed during execution, skip caching query: {}", agentId,
+					canonicalQuery);
+			return;
+		}
+		float[] embedding = pending != null ? pending.embedding() : null;
+		if (embedding == null && cacheProperties.isSimilarityEnabled()) {
+			embedding = embed(canonicalQuery);
+		}
+
+		synchronized (entries) {
+			entries.put(key, new CacheEntry(key, agentId, nl2sqlOnly, result, embedding,
+					extractLiterals(canonicalQuery), currentVersion, System.currentTimeMillis()));
+		}
+		log.debug("Cached query result for agent {}, query: {}", agentId, canonicalQuery);
+	}
+
+	@Override
+	public void invalidate(String agentId) {
+		if (!StringUtils.hasText(agentId)) {
+			return;
+		}
+		fingerprints.remove(agentId);
+		synchronized (entries) {
+			entries.values().removeIf(entry -> entry.agentId().equals(agentId));
+		}
+		log.info("Invalidated query cache for agent {}", agentId);
+	}
+
+	@Override
+	public void invalidateAll() {
+		fingerprints.clear();
+		synchronized (entries) {
+			entries.clear();
+			pendingLookups.clear();
+		}
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onRecallScopeChanged(AgentRecallScopeChangedEvent event) {
+		log.debug("Recall scope {} changed for agent {}", event.getScope(), event.getAgentId());
+		invalidate(event.getAgentId());
+	}
+
+	/**
+	 * 获取智能体召回范围的当前指纹，查询失败时返回 null，此时既不读取也不写入缓存
+	 */
+	private String currentVersion(String agentId) {
+		long now = System.currentTimeMillis();
+		Fingerprint cached = fingerprints.get(agentId);
+		if (cached != null && now - cached.loadedAt() < cacheProperties.getFingerprintRefreshSeconds() * 1000L) {
+			return cached.value();
+		}
+		try {
+			String value = String.valueOf(agentRecallScopeMapper.selectFingerprintRows(Long.valueOf(agentId)));
+			fingerprints.put(agentId, new Fingerprint(value, now));
+			return value;
+		}
+		catch (Exception e) {
+			log.warn("Failed to load recall scope fingerprint for agent {}, bypass query cache: {}", agentId,
+					e.getMessage());
+			return null;
+		}
+	}
+
+	private boolean isValid(CacheEntry entry, String version, long now) {
+		if (!entry.version().equals(version)) {
+			return false;
+		}
+		long ttlMillis = cacheProperties.getTtlSeconds() * 1000L;
+		return ttlMillis <= 0 || now - entry.createdAt() <= ttlMillis;
+	}
+
+	private float[] embed(String text) {
+		try {
+			return embeddingModel.embed(text);
+		}
+		catch (Exception e) {
+			log.warn("Failed to embed query for cache lookup, fall back to exact match: {}", e.getMessage());
+			return null;
+		}
+	}
+
+	private static String buildKey(String agentId, String canonicalQuery, boolean nl2sqlOnly) {
+		return agentId + ":" + (nl2sqlOnly ? "nl2sql" : "plan") + ":" + normalize(canonicalQuery);
+	}
+
+	private static String normalize(String query) {
+		return query.trim().toLowerCase(Locale.ROOT).replaceAll("\\s+", " ").replaceAll("[?？。.!！\\s]+$", "");
+	}
+
+	/**
+	 * 提取问题中的字面量，按出现顺序排序后返回，用于判断相似问题是否指向相同的数据
+	 */
+	static List<String> extractLiterals(String query) {
+		List<String> literals = new ArrayList<>();
+		Matcher matcher = LITERAL_PATTERN.matcher(normalize(query));
+		while (matcher.find()) {
+			literals.add(matcher.group());
+		}
+		Collections.sort(literals);
+		return literals;
+	}
+
+	static double cosineSimilarity(float[] a, float[] b) {
+		if (a.length != b.length) {
+			return 0;
+		}
+		double dot = 0;
+		double normA = 0;
+		double normB = 0;
+		for (int i = 0; i < a.length; i++) {
+			dot += a[i] * b[i];
+			normA += a[i] * a[i];
+			normB += b[i] * b[i];
+		}
+		if (normA == 0 || normB == 0) {
+			return 0;
+		}
+		return dot / (Math.sqrt(normA) * Math.sqrt(normB));
+	}
+
+	private record CacheEntry(String key, String agentId, boolean nl2sqlOnly, CachedQueryResult result,
+			float[] embedding, List<String> literals, String version, long createdAt) {
+	}
+
+	private record PendingLookup(float[] embedding, String version) {
+	}
+
+	private record Fingerprint(String value, long loadedAt) {
+	}
+
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.dataagent.service.cache;
+
+import java.util.Optional;
+
+/**
+ * NL2SQL 图的查询结果缓存。以智能体ID、增强后的规范化问题以及智能体召回范围的持久化指纹作为键， 命中后可跳过 Schema 召回、表关系、可行性评估与规划等节点。
+ */
+public interface QueryResultCacheService {
+
+	/**
+	 * 查找缓存，精确匹配未命中时按配置尝试向量相似度匹配
+	 * @param agentId 智能体ID
+	 * @param canonicalQuery QueryEnhanceNode 产出的规范化问题
+	 * @param nl2sqlOnly 是否为仅NL2SQL模式
+	 * @return 命中的缓存结果
+	 */
+	Optional<CachedQueryResult> get(String agentId, String canonicalQuery, boolean nl2sqlOnly);
+
+	/**
+	 * 写入缓存
+	 */
+	void put(String agentId, String canonicalQuery, boolean nl2sqlOnly, CachedQueryResult result);
+
+	/**
+	 * 失效指定智能体的全部缓存
+	 */
+	void invalidate(String agentId);
+
+	/**
+	 * 清空全部缓存
+	 */
+	void invalidateAll();
+
+}
@@ -15,7 +15,9 @@
  */
 package com.alibaba.cloud.ai.dataagent.service.chat;
 
+import com.alibaba.cloud.ai.dataagent.service.stream.StreamOutputSupport;
 import com.alibaba.cloud.ai.dataagent.vo.SessionUpdateEvent;
+import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.stereotype.Service;
@@ -32,14 +34,19 @@ import java.util.concurrent.atomic.AtomicInteger;
  */
 @Slf4j
 @Service
+@AllArgsConstructor
 public class SessionEventPublisher {
 
 	private final Map<Integer, AgentSessionSink> sinks = new ConcurrentHashMap<>();
 
+	private final StreamOutputSupport streamOutputSupport;
+
 	public Flux<ServerSentEvent<SessionUpdateEvent>> register(Integer agentId) {
-		AgentSessionSink sink = sinks.computeIfAbsent(agentId, id -> new AgentSessionSink());
+		AgentSessionSink sink = sinks.computeIfAbsent(agentId,
+				id -> new AgentSessionSink(streamOutputSupport.newMulticastSink()));
 		sink.increment();
-		return sink.sink.asFlux().doFinally(signalType -> cleanup(agentId, sink, signalType));
+		return streamOutputSupport.countEmitted(sink.sink.asFlux(), StreamOutputSupport.SESSION_STREAM)
+			.doFinally(signalType -> cleanup(agentId, sink, signalType));
 	}
 
 	public void publishTitleUpdated(Integer agentId, String sessionId, String title) {
@@ -52,10 +59,10 @@ public class SessionEventPublisher {
 			log.debug("No active subscribers for agent {}, skip pushing session title update", agentId);
 			return;
 		}
-		Sinks.EmitResult result = sink.sink.tryEmitNext(ServerSentEvent.builder(event).event(event.getType()).build());
-		if (result.isFailure()) {
-			log.warn("Failed to emit session title update for agent {}, session {}, reason {}", agentId, sessionId,
-					result);
+		// 标题更新可丢弃，缓冲区溢出时不断开同一智能体下的其他订阅者
+		if (!streamOutputSupport.emitDroppable(sink.sink, ServerSentEvent.builder(event).event(event.getType()).build(),
+				StreamOutputSupport.SESSION_STREAM)) {
+			log.warn("Failed to emit session title update for agent {}, session {}", agentId, sessionId);
 		}
 	}
 
@@ -72,9 +79,11 @@ public class SessionEventPublisher {
 
 		private final AtomicInteger subscribers = new AtomicInteger(0);
 
-		private final Sinks.Many<ServerSentEvent<SessionUpdateEvent>> sink = Sinks.many()
-			.multicast()
-			.onBackpressureBuffer();
+		private final Sinks.Many<ServerSentEvent<SessionUpdateEvent>> sink;
+
+		private AgentSessionSink(Sinks.Many<ServerSentEvent<SessionUpdateEvent>> sink) {
+			this.sink = sink;
+		}
 
 		private void increment() {
 			subscribers.incrementAndGet();
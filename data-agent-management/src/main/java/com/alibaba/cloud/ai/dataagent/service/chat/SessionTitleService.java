@@ -29,6 +29,7 @@ import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * Generate session titles asynchronously via LLM and push results to frontend.
@@ -46,7 +47,7 @@ public class SessionTitleService {
 
 	private final LlmService llmService;
 
-	@Qualifier("dbOperationExecutor")
+	@Qualifier("maintenanceExecutor")
 	private final ExecutorService executorService;
 
 	private final Set<String> runningTasks = ConcurrentHashMap.newKeySet();
@@ -58,8 +59,15 @@ public class SessionTitleService {
 		if (!runningTasks.add(sessionId)) {
 			return;
 		}
-		CompletableFuture.runAsync(() -> generateAndPersist(sessionId, userMessage), executorService)
-			.whenComplete((unused, throwable) -> runningTasks.remove(sessionId));
+		try {
+			CompletableFuture.runAsync(() -> generateAndPersist(sessionId, userMessage), executorService)
+				.whenComplete((unused, throwable) -> runningTasks.remove(sessionId));
+		}
+		catch (RejectedExecutionException e) {
+			// 任务未提交，完成回调不会执行，需要在此移除标记，下一条消息可以重新触发标题生成
+			runningTasks.remove(sessionId);
+			log.warn("Maintenance executor is busy, skip generating title for session {}", sessionId);
+		}
 	}
 
 	private void generateAndPersist(String sessionId, String userMessage) {
@@ -15,33 +15,56 @@
  */
 package com.alibaba.cloud.ai.dataagent.service.graph.Context;
 
+import com.alibaba.cloud.ai.dataagent.prompt.PromptBudgetAllocator;
 import com.alibaba.cloud.ai.dataagent.properties.DataAgentProperties;
+import com.alibaba.cloud.ai.dataagent.service.graph.state.ThreadStateStore;
+import com.alibaba.cloud.ai.dataagent.service.graph.state.ThreadStateType;
+import com.alibaba.cloud.ai.dataagent.util.JsonUtil;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.stereotype.Component;
 
-import java.util.ArrayDeque;
-import java.util.Deque;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 /**
  * Manages multi-turn dialogue context for each thread. The context keeps a lightweight
  * history of user questions and the corresponding planner outputs so downstream prompts
- * can reference prior turns.
+ * can reference prior turns. History and pending turns (question and planner output so
+ * far) are kept in the {@link ThreadStateStore} so any instance can continue a thread;
+ * history updates use an optimistic compare-and-set so concurrent requests on the same
+ * thread do not overwrite each other.
  */
 @Slf4j
 @Component
 @AllArgsConstructor
 public class MultiTurnContextManager {
 
+	private static final TypeReference<List<ConversationTurn>> HISTORY_TYPE = new TypeReference<>() {
+	};
+
 	private final DataAgentProperties properties;
 
-	// todo：考虑持久化存储
-	private final Map<String, Deque<ConversationTurn>> history = new ConcurrentHashMap<>();
+	private final ThreadStateStore threadStateStore;
+
+	private final PromptBudgetAllocator promptBudgetAllocator;
+
+	// 并发修改多轮历史时的最大重试次数
+	private static final int MAX_HISTORY_UPDATE_ATTEMPTS = 10;
 
+	// 进行中轮次的规划输出写入线程状态存储的最小间隔，避免每个流式数据块都写一次
+	private static final long PENDING_FLUSH_INTERVAL_MILLIS = 1000;
+
+	// 进行中轮次在本实例内的写缓冲，问题与已累积的规划输出定期写入线程状态存储
 	private final Map<String, PendingTurn> pendingTurns = new ConcurrentHashMap<>();
 
 	/**
@@ -53,7 +76,9 @@ public class MultiTurnContextManager {
 		if (StringUtils.isAnyBlank(threadId, userQuestion)) {
 			return;
 		}
-		pendingTurns.put(threadId, new PendingTurn(userQuestion.trim()));
+		PendingTurn pending = new PendingTurn(userQuestion.trim(), "");
+		pendingTurns.put(threadId, pending);
+		flush(threadId, pending);
 	}
 
 	/**
@@ -65,9 +90,18 @@ public class MultiTurnContextManager {
 		if (StringUtils.isAnyBlank(threadId, chunk)) {
 			return;
 		}
-		PendingTurn pending = pendingTurns.get(threadId);
-		if (pending != null) {
+		// 轮次可能由其他实例开启，从存储中接续
+		PendingTurn pending = pendingTurns.computeIfAbsent(threadId, k -> loadPending(k).orElse(null));
+		if (pending == null) {
+			return;
+		}
+		synchronized (pending) {
+			boolean first = pending.planBuilder.isEmpty();
 			pending.planBuilder.append(chunk);
+			// 首个数据块立即写入，之后按间隔写入
+			if (first || System.currentTimeMillis() - pending.flushedAt >= PENDING_FLUSH_INTERVAL_MILLIS) {
+				flush(threadId, pending);
+			}
 		}
 	}
 
@@ -76,24 +110,30 @@ public class MultiTurnContextManager {
 	 * @param threadId conversation thread id
 	 */
 	public void finishTurn(String threadId) {
-		PendingTurn pending = pendingTurns.remove(threadId);
-		if (pending == null) {
+		PendingTurn local = pendingTurns.remove(threadId);
+		Optional<PendingTurn> pending = local != null ? Optional.of(local) : loadPending(threadId);
+		threadStateStore.remove(threadId, ThreadStateType.PENDING_TURN);
+		if (pending.isEmpty()) {
 			return;
 		}
-		String plan = StringUtils.trimToEmpty(pending.planBuilder.toString());
+		String plan;
+		synchronized (pending.get()) {
+			plan = StringUtils.trimToEmpty(pending.get().planBuilder.toString());
+		}
 		if (StringUtils.isBlank(plan)) {
 			log.debug("No planner output recorded for thread {}, skipping history update", threadId);
 			return;
 		}
 
-		String trimmedPlan = StringUtils.abbreviate(plan, properties.getMaxplanlength());
-		Deque<ConversationTurn> deque = history.computeIfAbsent(threadId, k -> new ArrayDeque<>());
-		synchronized (deque) {
-			while (deque.size() >= properties.getMaxturnhistory()) {
-				deque.pollFirst();
+		ConversationTurn turn = new ConversationTurn(pending.get().userQuestion,
+				StringUtils.abbreviate(plan, properties.getMaxplanlength()));
+		updateHistory(threadId, turns -> {
+			while (!turns.isEmpty() && turns.size() >= properties.getMaxturnhistory()) {
+				turns.remove(0);
 			}
-			deque.addLast(new ConversationTurn(pending.userQuestion, trimmedPlan));
-		}
+			turns.add(turn);
+			return true;
+		});
 	}
 
 	/**
@@ -103,6 +143,7 @@ public class MultiTurnContextManager {
 	 */
 	public void discardPending(String threadId) {
 		pendingTurns.remove(threadId);
+		threadStateStore.remove(threadId, ThreadStateType.PENDING_TURN);
 	}
 
 	/**
@@ -111,16 +152,18 @@ public class MultiTurnContextManager {
 	 * @param threadId conversation thread id
 	 */
 	public void restartLastTurn(String threadId) {
-		Deque<ConversationTurn> deque = history.get(threadId);
-		if (deque == null || deque.isEmpty()) {
-			return;
-		}
-		ConversationTurn lastTurn;
-		synchronized (deque) {
-			lastTurn = deque.pollLast();
-		}
-		if (lastTurn != null) {
-			pendingTurns.put(threadId, new PendingTurn(lastTurn.userQuestion()));
+		ConversationTurn[] lastTurn = new ConversationTurn[1];
+		updateHistory(threadId, turns -> {
+			if (turns.isEmpty()) {
+				return false;
+			}
+			lastTurn[0] = turns.remove(turns.size() - 1);
+			return true;
+		});
+		if (lastTurn[0] != null) {
+			PendingTurn pending = new PendingTurn(lastTurn[0].userQuestion(), "");
+			pendingTurns.put(threadId, pending);
+			flush(threadId, pending);
 		}
 	}
 
@@ -130,26 +173,133 @@ public class MultiTurnContextManager {
 	 * @return formatted history string
 	 */
 	public String buildContext(String threadId) {
-		Deque<ConversationTurn> deque = history.get(threadId);
-		if (deque == null || deque.isEmpty()) {
+		List<ConversationTurn> turns = loadHistory(threadId);
+		if (turns.isEmpty()) {
 			return "(无)";
 		}
-		return deque.stream()
+		List<String> lines = turns.stream()
 			.map(turn -> "用户: " + turn.userQuestion() + "\nAI计划: " + turn.plan())
-			.collect(Collectors.joining("\n"));
+			.collect(Collectors.toList());
+		if (!promptBudgetAllocator.isEnabled()) {
+			return String.join("\n", lines);
+		}
+		return compact(turns, lines);
+	}
+
+	/**
+	 * 按多轮上下文的 Token 预算从最近的轮次往前保留，放不下完整计划的较早轮次只保留用户问题
+	 */
+	private String compact(List<ConversationTurn> turns, List<String> lines) {
+		int budget = promptBudgetAllocator.budget(PromptBudgetAllocator.SECTION_MULTI_TURN);
+		int original = 0;
+		int used = 0;
+		boolean full = true;
+		LinkedList<String> kept = new LinkedList<>();
+		for (int i = turns.size() - 1; i >= 0; i--) {
+			int tokens = promptBudgetAllocator.countTokens(lines.get(i));
+			original += tokens;
+			if (full && used + tokens <= budget) {
+				kept.addFirst(lines.get(i));
+				used += tokens;
+				continue;
+			}
+			// 一旦有轮次被摘要，更早的轮次也只保留问题，保持时间顺序上的连贯
+			full = false;
+			String summary = "用户: " + turns.get(i).userQuestion() + "\nAI计划: (较早轮次，已省略)";
+			int summaryTokens = promptBudgetAllocator.countTokens(summary);
+			if (used + summaryTokens <= budget) {
+				kept.addFirst(summary);
+				used += summaryTokens;
+			}
+		}
+		promptBudgetAllocator.report(PromptBudgetAllocator.SECTION_MULTI_TURN, original, used);
+		return kept.isEmpty() ? "(无)" : String.join("\n", kept);
 	}
 
-	private record ConversationTurn(String userQuestion, String plan) {
+	private List<ConversationTurn> loadHistory(String threadId) {
+		if (StringUtils.isBlank(threadId)) {
+			return new ArrayList<>();
+		}
+		return threadStateStore.get(threadId, ThreadStateType.HISTORY)
+			.map(payload -> parseHistory(threadId, payload))
+			.orElseGet(ArrayList::new);
+	}
+
+	private List<ConversationTurn> parseHistory(String threadId, String payload) {
+		try {
+			return new ArrayList<>(JsonUtil.getObjectMapper().readValue(payload, HISTORY_TYPE));
+		}
+		catch (JsonProcessingException e) {
+			log.warn("Failed to parse multi-turn history of thread {}, starting from empty history", threadId, e);
+			return new ArrayList<>();
+		}
+	}
+
+	/**
+	 * 以读取时的历史作为期望值写回，期间历史被其他请求或实例修改时重新读取并重试
+	 * @param update 原地修改历史，返回 false 表示无需写回
+	 */
+	private void updateHistory(String threadId, Predicate<List<ConversationTurn>> update) {
+		for (int attempt = 0; attempt < MAX_HISTORY_UPDATE_ATTEMPTS; attempt++) {
+			String expected = threadStateStore.get(threadId, ThreadStateType.HISTORY).orElse(null);
+			List<ConversationTurn> turns = expected == null ? new ArrayList<>() : parseHistory(threadId, expected);
+			if (!update.test(turns)) {
+				return;
+			}
+			try {
+				if (threadStateStore.compareAndSet(threadId, ThreadStateType.HISTORY, expected,
+						JsonUtil.getObjectMapper().writeValueAsString(turns))) {
+					return;
+				}
+			}
+			catch (JsonProcessingException e) {
+				log.warn("Failed to save multi-turn history of thread {}", threadId, e);
+				return;
+			}
+			log.debug("Multi-turn history of thread {} changed concurrently, retrying", threadId);
+		}
+		log.warn("Gave up updating multi-turn history of thread {} after {} concurrent modifications", threadId,
+				MAX_HISTORY_UPDATE_ATTEMPTS);
+	}
+
+	private void flush(String threadId, PendingTurn pending) {
+		try {
+			threadStateStore.put(threadId, ThreadStateType.PENDING_TURN, JsonUtil.getObjectMapper()
+				.writeValueAsString(new ConversationTurn(pending.userQuestion, pending.planBuilder.toString())));
+			pending.flushedAt = System.currentTimeMillis();
+		}
+		catch (JsonProcessingException e) {
+			log.warn("Failed to save pending turn of thread {}", threadId, e);
+		}
+	}
+
+	private Optional<PendingTurn> loadPending(String threadId) {
+		return threadStateStore.get(threadId, ThreadStateType.PENDING_TURN).map(payload -> {
+			try {
+				ConversationTurn stored = JsonUtil.getObjectMapper().readValue(payload, ConversationTurn.class);
+				return new PendingTurn(stored.userQuestion(), StringUtils.defaultString(stored.plan()));
+			}
+			catch (JsonProcessingException e) {
+				// 旧版本只保存了问题文本
+				return new PendingTurn(payload, "");
+			}
+		});
+	}
+
+	record ConversationTurn(String userQuestion, String plan) {
 	}
 
 	private static class PendingTurn {
 
 		private final String userQuestion;
 
-		private final StringBuilder planBuilder = new StringBuilder();
+		private final StringBuilder planBuilder;
+
+		private long flushedAt;
 
-		private PendingTurn(String userQuestion) {
+		private PendingTurn(String userQuestion, String plan) {
 			this.userQuestion = userQuestion;
+			this.planBuilder = new StringBuilder(plan);
 		}
 
 	}
@@ -17,28 +17,37 @@ package com.alibaba.cloud.ai.dataagent.service.graph;
 
 import com.alibaba.cloud.ai.dataagent.enums.TextType;
 import com.alibaba.cloud.ai.dataagent.workflow.node.PlannerNode;
+import com.alibaba.cloud.ai.dataagent.workflow.node.QueryCacheNode;
 import com.alibaba.cloud.ai.dataagent.dto.GraphRequest;
 import com.alibaba.cloud.ai.dataagent.service.graph.Context.MultiTurnContextManager;
 import com.alibaba.cloud.ai.dataagent.service.graph.Context.StreamContext;
+import com.alibaba.cloud.ai.dataagent.service.graph.state.ThreadStateCheckpointSaver;
+import com.alibaba.cloud.ai.dataagent.service.graph.state.ThreadStateStore;
+import com.alibaba.cloud.ai.dataagent.service.graph.state.ThreadStateType;
+import com.alibaba.cloud.ai.dataagent.service.stream.StreamOutputSupport;
 import com.alibaba.cloud.ai.dataagent.vo.GraphNodeResponse;
 import com.alibaba.cloud.ai.graph.*;
+import com.alibaba.cloud.ai.graph.checkpoint.config.SaverConfig;
 import com.alibaba.cloud.ai.graph.exception.GraphRunnerException;
 import com.alibaba.cloud.ai.graph.exception.GraphStateException;
 import com.alibaba.cloud.ai.graph.streaming.StreamingOutput;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 import reactor.core.Disposable;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Scheduler;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
-import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ExecutorService;
 
 import static com.alibaba.cloud.ai.dataagent.constant.Constant.*;
 
@@ -48,26 +57,48 @@ public class GraphServiceImpl implements GraphService {
 
 	private final CompiledGraph compiledGraph;
 
-	private final ExecutorService executor;
+	private final Scheduler scheduler;
 
 	private final ConcurrentHashMap<String, StreamContext> streamContextMap = new ConcurrentHashMap<>();
 
 	private final MultiTurnContextManager multiTurnContextManager;
 
-	public GraphServiceImpl(StateGraph stateGraph, ExecutorService executorService,
-			MultiTurnContextManager multiTurnContextManager) throws GraphStateException {
-		this.compiledGraph = stateGraph.compile(CompileConfig.builder().interruptBefore(HUMAN_FEEDBACK_NODE).build());
-		this.executor = executorService;
+	private final StreamOutputSupport streamOutputSupport;
+
+	private final ThreadStateStore threadStateStore;
+
+	private final ThreadStateCheckpointSaver checkpointSaver;
+
+	public GraphServiceImpl(StateGraph stateGraph, @Qualifier("graphExecutionScheduler") Scheduler scheduler,
+			MultiTurnContextManager multiTurnContextManager, StreamOutputSupport streamOutputSupport,
+			ThreadStateStore threadStateStore) throws GraphStateException {
+		// 检查点写入线程状态存储，人工反馈恢复可以由任意实例处理
+		this.checkpointSaver = new ThreadStateCheckpointSaver(threadStateStore, stateGraph.getStateSerializer(),
+				List.of(HUMAN_FEEDBACK_NODE));
+		SaverConfig saverConfig = SaverConfig.builder().register(checkpointSaver).build();
+		this.compiledGraph = stateGraph
+			.compile(CompileConfig.builder().saverConfig(saverConfig).interruptBefore(HUMAN_FEEDBACK_NODE).build());
+		this.threadStateStore = threadStateStore;
+		this.scheduler = scheduler;
 		this.multiTurnContextManager = multiTurnContextManager;
+		this.streamOutputSupport = streamOutputSupport;
 	}
 
 	@Override
 	public String nl2sql(String naturalQuery, String agentId) throws GraphRunnerException {
-		OverAllState state = compiledGraph
-			.invoke(Map.of(IS_ONLY_NL2SQL, true, INPUT_KEY, naturalQuery, AGENT_ID, agentId),
-					RunnableConfig.builder().build())
-			.orElseThrow();
-		return state.value(SQL_GENERATE_OUTPUT, "");
+		// 每次调用使用独立的线程ID，并发调用不会共享同一个检查点；调用结束后不需要恢复，直接清理检查点
+		String threadId = "nl2sql-" + UUID.randomUUID();
+		try {
+			OverAllState state = compiledGraph
+				.invoke(Map.of(IS_ONLY_NL2SQL, true, INPUT_KEY, naturalQuery, AGENT_ID, agentId),
+						RunnableConfig.builder().threadId(threadId).build())
+				.orElseThrow();
+			return state.value(SQL_GENERATE_OUTPUT, "");
+		}
+		finally {
+			checkpointSaver.evict(threadId);
+			threadStateStore.remove(threadId, ThreadStateType.CHECKPOINT);
+		}
 	}
 
 	@Override
@@ -76,6 +107,8 @@ public class GraphServiceImpl implements GraphService {
 			graphRequest.setThreadId(UUID.randomUUID().toString());
 		}
 		String threadId = graphRequest.getThreadId();
+		// 清除上一次运行遗留的停止信号
+		threadStateStore.remove(threadId, ThreadStateType.STOP_SIGNAL);
 		// 创建或获取 StreamContext
 		StreamContext context = streamContextMap.computeIfAbsent(threadId, k -> new StreamContext());
 		context.setSink(sink);
@@ -101,8 +134,35 @@ public class GraphServiceImpl implements GraphService {
 		StreamContext context = streamContextMap.remove(threadId);
 		if (context != null) {
 			context.cleanup();
+			checkpointSaver.evict(threadId);
 			log.info("Cleaned up stream context for threadId: {}", threadId);
 		}
+		else {
+			// 流式上下文不在本实例，写入停止信号由持有该线程的实例停止处理
+			threadStateStore.put(threadId, ThreadStateType.STOP_SIGNAL, String.valueOf(System.currentTimeMillis()));
+		}
+	}
+
+	/**
+	 * 轮询其他实例写入的停止信号，停止本实例持有的对应线程
+	 */
+	@Scheduled(fixedDelayString = "${spring.ai.alibaba.data-agent.thread-state.stop-signal-poll-millis:1000}")
+	public void pollStopSignals() {
+		if (streamContextMap.isEmpty()) {
+			return;
+		}
+		try {
+			Set<String> stopped = threadStateStore.findThreadIds(ThreadStateType.STOP_SIGNAL,
+					streamContextMap.keySet());
+			for (String threadId : stopped) {
+				log.info("Received stop signal for threadId: {}", threadId);
+				threadStateStore.remove(threadId, ThreadStateType.STOP_SIGNAL);
+				stopStreamProcessing(threadId);
+			}
+		}
+		catch (Exception e) {
+			log.warn("Failed to poll stop signals: {}", e.getMessage());
+		}
 	}
 
 	private void handleNewProcess(GraphRequest graphRequest) {
@@ -182,15 +242,17 @@ public class GraphServiceImpl implements GraphService {
 	 */
 	private void subscribeToFlux(StreamContext context, Flux<NodeOutput> nodeOutputFlux, GraphRequest graphRequest,
 			String agentId, String threadId) {
-		CompletableFuture.runAsync(() -> {
+		scheduler.schedule(() -> {
 			// 在订阅之前检查上下文是否仍然有效
 			if (context.isCleaned()) {
 				log.debug("StreamContext cleaned before subscription for threadId: {}", threadId);
 				return;
 			}
-			Disposable disposable = nodeOutputFlux.subscribe(output -> handleNodeOutput(graphRequest, output),
-					error -> handleStreamError(agentId, threadId, error),
-					() -> handleStreamComplete(agentId, threadId));
+			// BLOCK 溢出策略下在专用排空线程上写入，等待慢客户端时不占用图执行线程，并将背压传递给上游
+			Disposable disposable = streamOutputSupport.drainOn(nodeOutputFlux)
+				.subscribe(output -> handleNodeOutput(graphRequest, output),
+						error -> handleStreamError(agentId, threadId, error),
+						() -> handleStreamComplete(agentId, threadId));
 			// 原子性地设置 Disposable，如果已经清理则立即释放
 			synchronized (context) {
 				if (context.isCleaned()) {
@@ -204,7 +266,7 @@ public class GraphServiceImpl implements GraphService {
 					context.setDisposable(disposable);
 				}
 			}
-		}, executor);
+		});
 	}
 
 	/**
@@ -212,6 +274,7 @@ public class GraphServiceImpl implements GraphService {
 	 */
 	private void handleStreamError(String agentId, String threadId, Throwable error) {
 		log.error("Error in stream processing for threadId: {}: ", threadId, error);
+		checkpointSaver.evict(threadId);
 		StreamContext context = streamContextMap.remove(threadId);
 		if (context != null && !context.isCleaned() && context.getSink() != null) {
 			// 检查 sink 是否还有订阅者
@@ -235,6 +298,8 @@ public class GraphServiceImpl implements GraphService {
 	private void handleStreamComplete(String agentId, String threadId) {
 		log.info("Stream processing completed successfully for threadId: {}", threadId);
 		multiTurnContextManager.finishTurn(threadId);
+		// 本次执行结束（含中断等待人工反馈），检查点已持久化，释放内存中的状态
+		checkpointSaver.evict(threadId);
 		StreamContext context = streamContextMap.remove(threadId);
 		if (context != null && !context.isCleaned() && context.getSink() != null) {
 			if (context.getSink().currentSubscriberCount() > 0) {
@@ -294,7 +359,8 @@ public class GraphServiceImpl implements GraphService {
 		}
 		// 文本标记符号不返回给前端
 		if (!isTypeSign) {
-			if (PlannerNode.class.getSimpleName().equals(node)) {
+			if (PlannerNode.class.getSimpleName().equals(node)
+					|| (QueryCacheNode.class.getSimpleName().equals(node) && textType == TextType.JSON)) {
 				multiTurnContextManager.appendPlannerChunk(threadId, chunk);
 			}
 			GraphNodeResponse response = GraphNodeResponse.builder()
@@ -304,11 +370,10 @@ public class GraphServiceImpl implements GraphService {
 				.text(chunk)
 				.textType(textType)
 				.build();
-			// 检查发送是否成功，如果失败说明客户端已断开
-			Sinks.EmitResult result = context.getSink().tryEmitNext(ServerSentEvent.builder(response).build());
-			if (result.isFailure()) {
-				log.warn("Failed to emit data to sink for threadId: {}, result: {}. Stopping stream processing.",
-						threadId, result);
+			// 检查发送是否成功，失败说明客户端已断开或缓冲区溢出且策略为断开
+			if (!streamOutputSupport.emit(context.getSink(), ServerSentEvent.builder(response).build(),
+					StreamOutputSupport.GRAPH_STREAM)) {
+				log.warn("Failed to emit data to sink for threadId: {}. Stopping stream processing.", threadId);
 				// 如果发送失败，停止处理
 				stopStreamProcessing(threadId);
 			}
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.dataagent.service.graph;
+
+import com.alibaba.cloud.ai.dataagent.prompt.PromptHelper;
+import com.alibaba.cloud.ai.dataagent.properties.DataAgentProperties;
+import com.alibaba.cloud.ai.dataagent.service.llm.LlmService;
+import com.alibaba.cloud.ai.dataagent.service.metrics.GraphMetrics;
+import com.alibaba.cloud.ai.dataagent.service.metrics.MetricTags;
+import com.alibaba.cloud.ai.dataagent.service.schema.SchemaRecallPrefetchService;
+import com.alibaba.cloud.ai.dataagent.workflow.node.EvidenceRecallNode;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 推测执行服务。意图识别流式输出中出现数据分析信号时，提前启动证据查询重写（LLM 调用）， 由 EvidenceRecallNode 接管结果；意图最终判定为闲聊时取消。
+ * 查询重写只依赖用户问题与多轮上下文，与 EvidenceRecallNode 使用的提示词一致，因此推测结果与串行执行等价。
+ * <p>
+ * Schema 召回只在并行模式下随推测执行提前启动：并行模式本身就按用户原始问题预取 Schema，推测执行只是把同一次召回提前； 非并行模式下
+ * SchemaRecallNode 按增强后的问题召回，原始问题的召回结果可能不同，因此不做预取。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SpeculativePreprocessService {
+
+	public static final String OUTCOME_STARTED = "started";
+
+	public static final String OUTCOME_USED = "used";
+
+	public static final String OUTCOME_CANCELLED = "cancelled";
+
+	// 未被接管的推测任务的最长保留时间，超出后取消，避免流程提前结束时的泄漏
+	private static final long STALE_SPECULATION_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+	private final LlmService llmService;
+
+	private final SchemaRecallPrefetchService schemaRecallPrefetchService;
+
+	private final DataAgentProperties properties;
+
+	private final GraphMetrics metrics;
+
+	private final Map<String, Speculation> speculations = new ConcurrentHashMap<>();
+
+	/**
+	 * 启动一次推测执行，同一ID重复调用只启动一次
+	 * @param speculationId 推测任务ID
+	 * @param agentId 智能体ID
+	 * @param question 用户问题
+	 * @param multiTurn 多轮上下文
+	 */
+	public void start(String speculationId, String agentId, String question, String multiTurn) {
+		purgeStaleSpeculations();
+		speculations.computeIfAbsent(speculationId, id -> launch(id, agentId, question, multiTurn));
+	}
+
+	/**
+	 * 接管并移除推测执行结果
+	 * @param speculationId 推测任务ID
+	 * @return 推测结果，未启动或已取消时返回空
+	 */
+	public Optional<Speculation> take(String speculationId) {
+		if (!StringUtils.hasText(speculationId)) {
+			return Optional.empty();
+		}
+		Speculation speculation = speculations.remove(speculationId);
+		if (speculation != null) {
+			metrics.recordSpeculation(OUTCOME_USED);
+			log.info("Speculative pre-processing {} taken over after {} ms", speculationId,
+					System.currentTimeMillis() - speculation.startedAt());
+		}
+		return Optional.ofNullable(speculation);
+	}
+
+	/**
+	 * 取消推测执行，释放 LLM 调用与 Schema 召回
+	 * @param speculationId 推测任务ID
+	 */
+	public void cancel(String speculationId) {
+		if (!StringUtils.hasText(speculationId)) {
+			return;
+		}
+		Speculation speculation = speculations.remove(speculationId);
+		if (speculation != null) {
+			discard(speculation);
+			log.info("Cancelled speculative pre-processing {}", speculationId);
+		}
+	}
+
+	private Speculation launch(String speculationId, String agentId, String question, String multiTurn) {
+		String prompt = PromptHelper.buildEvidenceQueryRewritePrompt(multiTurn, question);
+		// 重放全部数据块，EvidenceRecallNode 接管时可以从头消费
+		Sinks.Many<ChatResponse> rewriteSink = Sinks.many().replay().all();
+		Disposable rewrite = llmService.callUser(prompt)
+			.contextWrite(ctx -> ctx.put(MetricTags.NODE_CONTEXT_KEY, EvidenceRecallNode.class.getSimpleName())
+				.put(MetricTags.AGENT_CONTEXT_KEY, agentId))
+			.subscribe(rewriteSink::tryEmitNext, rewriteSink::tryEmitError, rewriteSink::tryEmitComplete);
+		String schemaPrefetchId = properties.isSchemaRecallParallelEnabled()
+				? schemaRecallPrefetchService.submit(agentId, question) : null;
+		metrics.recordSpeculation(OUTCOME_STARTED);
+		log.info("Started speculative pre-processing {} for agent {}", speculationId, agentId);
+		return new Speculation(question, rewriteSink, rewrite, schemaPrefetchId, System.currentTimeMillis());
+	}
+
+	private void discard(Speculation speculation) {
+		speculation.rewrite().dispose();
+		speculation.rewriteSink().tryEmitError(new CancellationException("Speculative pre-processing cancelled"));
+		schemaRecallPrefetchService.cancel(speculation.schemaPrefetchId());
+		metrics.recordSpeculation(OUTCOME_CANCELLED);
+	}
+
+	private void purgeStaleSpeculations() {
+		long now = System.currentTimeMillis();
+		speculations.entrySet().removeIf(entry -> {
+			if (now - entry.getValue().startedAt() > STALE_SPECULATION_MILLIS) {
+				discard(entry.getValue());
+				return true;
+			}
+			return false;
+		});
+	}
+
+	/**
+	 * 推测执行结果
+	 *
+	 * @param question 推测执行使用的用户问题
+	 * @param rewriteSink 证据查询重写的 LLM 输出
+	 * @param rewrite 证据查询重写调用的订阅
+	 * @param schemaPrefetchId Schema 召回预取ID，未启用并行模式时为空
+	 * @param startedAt 启动时间
+	 */
+	public record Speculation(String question, Sinks.Many<ChatResponse> rewriteSink, Disposable rewrite,
+			String schemaPrefetchId, long startedAt) {
+
+		public Flux<ChatResponse> rewriteFlux() {
+			// 接管方取消订阅时一并取消底层 LLM 调用
+			return rewriteSink.asFlux().doOnCancel(rewrite::dispose);
+		}
+
+	}
+
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.dataagent.service.graph.state;
+
+import com.alibaba.cloud.ai.dataagent.constant.Constant;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * 进程内的线程状态存储，仅适用于单实例部署
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = Constant.PROJECT_PROPERTIES_PREFIX, name = "thread-state.store", havingValue = "memory")
+public class InMemoryThreadStateStore implements ThreadStateStore {
+
+	private final Map<ThreadStateType, Map<String, Entry>> states = new ConcurrentHashMap<>();
+
+	public InMemoryThreadStateStore() {
+		log.info("Using in-memory thread state store, human feedback and stop requests must reach the same instance");
+	}
+
+	@Override
+	public Optional<String> get(String threadId, ThreadStateType type) {
+		return Optional.ofNullable(statesOf(type).get(threadId)).map(Entry::payload);
+	}
+
+	@Override
+	public void put(String threadId, ThreadStateType type, String payload) {
+		statesOf(type).put(threadId, new Entry(payload, LocalDateTime.now()));
+	}
+
+	@Override
+	public boolean compareAndSet(String threadId, ThreadStateType type, String expected, String payload) {
+		Entry updated = new Entry(payload, LocalDateTime.now());
+		if (expected == null) {
+			return statesOf(type).putIfAbsent(threadId, updated) == null;
+		}
+		boolean[] swapped = new boolean[1];
+		statesOf(type).computeIfPresent(threadId, (key, current) -> {
+			swapped[0] = expected.equals(current.payload());
+			return swapped[0] ? updated : current;
+		});
+		return swapped[0];
+	}
+
+	@Override
+	public void remove(String threadId, ThreadStateType type) {
+		statesOf(type).remove(threadId);
+	}
+
+	@Override
+	public Set<String> findThreadIds(ThreadStateType type, Collection<String> threadIds) {
+		Map<String, Entry> typed = statesOf(type);
+		return threadIds.stream().filter(typed::containsKey).collect(Collectors.toSet());
+	}
+
+	@Override
+	public int removeExpired(ThreadStateType type, LocalDateTime expireBefore) {
+		Map<String, Entry> typed = statesOf(type);
+		int before = typed.size();
+		typed.values().removeIf(entry -> entry.updateTime().isBefore(expireBefore));
+		return before - typed.size();
+	}
+
+	private Map<String, Entry> statesOf(ThreadStateType type) {
+		return states.computeIfAbsent(type, k -> new ConcurrentHashMap<>());
+	}
+
+	private record Entry(String payload, LocalDateTime updateTime) {
+	}
+
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.dataagent.service.graph.state;
+
+import com.alibaba.cloud.ai.dataagent.constant.Constant;
+import com.alibaba.cloud.ai.dataagent.mapper.GraphThreadStateMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * 基于管理库（MySQL/H2）的线程状态存储，多个实例共享同一份状态
+ */
+@Slf4j
+@Component
+@AllArgsConstructor
+@ConditionalOnProperty(prefix = Constant.PROJECT_PROPERTIES_PREFIX, name = "thread-state.store", havingValue = "jdbc",
+		matchIfMissing = true)
+public class JdbcThreadStateStore implements ThreadStateStore {
+
+	// 单次 IN 查询的最大 threadId 数量
+	private static final int MAX_IDS_PER_QUERY = 500;
+
+	private final GraphThreadStateMapper mapper;
+
+	@PostConstruct
+	public void init() {
+		// 管理库默认不自动执行 schema.sql，启动时确保状态表存在
+		mapper.createTableIfNotExists();
+		upgradeSchema();
+	}
+
+	/**
+	 * 旧版本的状态表没有 (state_type, update_time) 索引，过期清理会全表扫描
+	 */
+	private void upgradeSchema() {
+		int missing;
+		try {
+			missing = mapper.countTablesMissingUpdateTimeIndex();
+		}
+		catch (Exception e) {
+			// H2 等没有 information_schema.STATISTICS 的数据库，建表语句已包含该索引
+			log.debug("Skip checking index of table graph_thread_state: {}", e.getMessage());
+			return;
+		}
+		try {
+			if (missing > 0) {
+				mapper.addUpdateTimeIndex();
+				log.info("Added index idx_graph_thread_state_type_update_time to table graph_thread_state");
+			}
+		}
+		catch (Exception e) {
+			log.error("Failed to add index to table graph_thread_state, please run sql/upgrade.sql manually", e);
+		}
+	}
+
+	@Override
+	public Optional<String> get(String threadId, ThreadStateType type) {
+		return Optional.ofNullable(mapper.selectPayload(threadId, type.name()));
+	}
+
+	@Override
+	public void put(String threadId, ThreadStateType type, String payload) {
+		mapper.upsert(threadId, type.name(), payload, LocalDateTime.now());
+	}
+
+	@Override
+	public boolean compareAndSet(String threadId, ThreadStateType type, String expected, String payload) {
+		LocalDateTime now = LocalDateTime.now();
+		if (expected != null) {
+			return mapper.updateIfPayloadMatches(threadId, type.name(), expected, payload, now) > 0;
+		}
+		try {
+			return mapper.insert(threadId, type.name(), payload, now) > 0;
+		}
+		catch (DuplicateKeyException e) {
+			return false;
+		}
+	}
+
+	@Override
+	public void remove(String threadId, ThreadStateType type) {
+		mapper.delete(threadId, type.name());
+	}
+
+	@Override
+	public Set<String> findThreadIds(ThreadStateType type, Collection<String> threadIds) {
+		if (threadIds.isEmpty()) {
+			return Set.of();
+		}
+		List<String> ids = List.copyOf(threadIds);
+		Set<String> result = new HashSet<>();
+		for (int i = 0; i < ids.size(); i += MAX_IDS_PER_QUERY) {
+			result.addAll(
+					mapper.selectThreadIds(type.name(), ids.subList(i, Math.min(ids.size(), i + MAX_IDS_PER_QUERY))));
+		}
+		return result;
+	}
+
+	@Override
+	public int removeExpired(ThreadStateType type, LocalDateTime expireBefore) {
+		return mapper.deleteExpired(type.name(), expireBefore);
+	}
+
+}
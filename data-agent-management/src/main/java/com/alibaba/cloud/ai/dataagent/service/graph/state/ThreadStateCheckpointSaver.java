@@ -0,0 +1,165 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.dataagent.service.graph.state;
+
+import com.alibaba.cloud.ai.dataagent.util.JsonUtil;
+import com.alibaba.cloud.ai.graph.RunnableConfig;
+import com.alibaba.cloud.ai.graph.StateGraph;
+import com.alibaba.cloud.ai.graph.checkpoint.BaseCheckpointSaver;
+import com.alibaba.cloud.ai.graph.checkpoint.Checkpoint;
+import com.alibaba.cloud.ai.graph.checkpoint.savers.MemorySaver;
+import com.alibaba.cloud.ai.graph.serializer.StateSerializer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 基于 {@link ThreadStateStore} 的检查点保存器。
+ * <p>
+ * 只在恢复执行需要的位置持久化检查点：下一个节点是中断点（等待人工反馈）或图执行结束，中间节点的检查点只保存在内存中，避免每个节点都同步序列化并写库。
+ * 每个线程只持久化最新的检查点，状态经序列化后 GZIP 压缩存储；线程本次执行结束（完成、中断等待人工反馈或停止）后调用 {@link #evict(String)}
+ * 释放内存中的检查点，下次访问（如人工反馈恢复）时再从存储中按需加载。因此等待审核的计划数量不会增加堆内存占用， 且恢复可以在任意实例上执行。过期的检查点由
+ * {@link ThreadStateExpirationTask} 清理。
+ */
+@Slf4j
+public class ThreadStateCheckpointSaver extends MemorySaver {
+
+	private final ThreadStateStore threadStateStore;
+
+	private final StateSerializer stateSerializer;
+
+	// 需要持久化检查点的下一个节点：中断点和结束节点
+	private final Set<String> persistentNextNodeIds;
+
+	/**
+	 * @param threadStateStore 线程状态存储
+	 * @param stateSerializer 状态序列化器
+	 * @param interruptNodeIds 图编译时配置的中断节点
+	 */
+	public ThreadStateCheckpointSaver(ThreadStateStore threadStateStore, StateSerializer stateSerializer,
+			Collection<String> interruptNodeIds) {
+		this.threadStateStore = threadStateStore;
+		this.stateSerializer = stateSerializer;
+		Set<String> nextNodeIds = new HashSet<>(interruptNodeIds);
+		nextNodeIds.add(StateGraph.END);
+		this.persistentNextNodeIds = Set.copyOf(nextNodeIds);
+	}
+
+	/**
+	 * 释放线程在内存中的检查点，已持久化的检查点不受影响
+	 * @param threadId 线程ID
+	 */
+	public void evict(String threadId) {
+		try {
+			loadOrInitCheckpoints(RunnableConfig.builder().threadId(threadId).build(), checkpoints -> remove(threadId));
+		}
+		catch (Exception e) {
+			log.warn("Failed to evict checkpoints of thread {}", threadId, e);
+		}
+	}
+
+	@Override
+	protected LinkedList<Checkpoint> loadedCheckpoints(RunnableConfig config, LinkedList<Checkpoint> checkpoints)
+			throws Exception {
+		if (checkpoints.isEmpty()) {
+			String threadId = threadId(config);
+			threadStateStore.get(threadId, ThreadStateType.CHECKPOINT).ifPresent(payload -> {
+				try {
+					checkpoints.add(decode(payload));
+					log.debug("Rehydrated checkpoint of thread {} from thread state store", threadId);
+				}
+				catch (Exception e) {
+					log.warn("Failed to decode checkpoint of thread {}, ignoring stored state", threadId, e);
+				}
+			});
+		}
+		return checkpoints;
+	}
+
+	@Override
+	protected void insertedCheckpoint(RunnableConfig config, LinkedList<Checkpoint> checkpoints, Checkpoint checkpoint)
+			throws Exception {
+		persistLatest(config, checkpoints);
+	}
+
+	@Override
+	protected void updatedCheckpoint(RunnableConfig config, LinkedList<Checkpoint> checkpoints, Checkpoint checkpoint)
+			throws Exception {
+		persistLatest(config, checkpoints);
+	}
+
+	@Override
+	protected void releasedCheckpoints(RunnableConfig config, LinkedList<Checkpoint> checkpoints, Tag releaseTag)
+			throws Exception {
+		threadStateStore.remove(threadId(config), ThreadStateType.CHECKPOINT);
+	}
+
+	// 恢复执行只依赖最新的检查点（链表头部），历史检查点和中间节点的检查点不落库
+	private void persistLatest(RunnableConfig config, LinkedList<Checkpoint> checkpoints) throws Exception {
+		Checkpoint latest = checkpoints.getFirst();
+		if (persistentNextNodeIds.contains(latest.getNextNodeId())) {
+			threadStateStore.put(threadId(config), ThreadStateType.CHECKPOINT, encode(latest));
+		}
+	}
+
+	private String encode(Checkpoint checkpoint) throws Exception {
+		String state = Base64.getEncoder().encodeToString(compress(stateSerializer.dataToBytes(checkpoint.getState())));
+		return JsonUtil.getObjectMapper()
+			.writeValueAsString(new StoredCheckpoint(checkpoint.getId(), checkpoint.getNodeId(),
+					checkpoint.getNextNodeId(), state));
+	}
+
+	private Checkpoint decode(String payload) throws Exception {
+		StoredCheckpoint stored = JsonUtil.getObjectMapper().readValue(payload, StoredCheckpoint.class);
+		return Checkpoint.builder()
+			.id(stored.id())
+			.nodeId(stored.nodeId())
+			.nextNodeId(stored.nextNodeId())
+			.state(stateSerializer.dataFromBytes(decompress(Base64.getDecoder().decode(stored.state()))))
+			.build();
+	}
+
+	private static byte[] compress(byte[] data) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(32, data.length / 4));
+		try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+			gzip.write(data);
+		}
+		return out.toByteArray();
+	}
+
+	private static byte[] decompress(byte[] data) throws IOException {
+		try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(data))) {
+			return gzip.readAllBytes();
+		}
+	}
+
+	private static String threadId(RunnableConfig config) {
+		return config.threadId().orElse(BaseCheckpointSaver.THREAD_ID_DEFAULT);
+	}
+
+	record StoredCheckpoint(String id, String nodeId, String nextNodeId, String state) {
+	}
+
+}
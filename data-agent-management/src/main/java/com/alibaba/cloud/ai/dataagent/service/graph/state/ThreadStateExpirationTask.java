@@ -0,0 +1,65 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.dataagent.service.graph.state;
+
+import com.alibaba.cloud.ai.dataagent.properties.DataAgentProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * 定期清理超过保留时长未更新的线程状态，避免长期无人处理的待审核计划在存储中堆积。 对话历史使用单独的、更长的保留时长，其余状态类型使用 ttl-minutes
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ThreadStateExpirationTask {
+
+	private final ThreadStateStore threadStateStore;
+
+	private final DataAgentProperties properties;
+
+	@Scheduled(fixedDelayString = "${spring.ai.alibaba.data-agent.thread-state.cleanup-interval-millis:600000}")
+	public void removeExpiredStates() {
+		LocalDateTime now = LocalDateTime.now();
+		for (ThreadStateType type : ThreadStateType.values()) {
+			long ttlMinutes = ttlMinutes(type);
+			if (ttlMinutes <= 0) {
+				continue;
+			}
+			LocalDateTime expireBefore = now.minusMinutes(ttlMinutes);
+			try {
+				int removed = threadStateStore.removeExpired(type, expireBefore);
+				if (removed > 0) {
+					log.info("Removed {} expired thread states of type {}", removed, type);
+				}
+			}
+			catch (Exception e) {
+				// 单个类型失败不影响其他类型，等下个周期再试
+				log.error("Failed to remove expired thread states of type {}", type, e);
+			}
+		}
+	}
+
+	private long ttlMinutes(ThreadStateType type) {
+		DataAgentProperties.ThreadState config = properties.getThreadState();
+		return type == ThreadStateType.HISTORY ? config.getHistoryTtlMinutes() : config.getTtlMinutes();
+	}
+
+}
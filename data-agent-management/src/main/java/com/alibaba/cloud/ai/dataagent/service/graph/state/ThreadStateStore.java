@@ -0,0 +1,55 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.dataagent.service.graph.state;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * 按 threadId 保存图执行相关状态（检查点、多轮对话历史、进行中的轮次与停止信号）的存储。
+ * <p>
+ * 使用共享存储时，人工反馈恢复与停止请求可以由任意实例处理，无需会话粘滞。
+ */
+public interface ThreadStateStore {
+
+	Optional<String> get(String threadId, ThreadStateType type);
+
+	void put(String threadId, ThreadStateType type, String payload);
+
+	void remove(String threadId, ThreadStateType type);
+
+	/**
+	 * 当前状态与 expected 一致时才写入，用于多个实例并发修改同一状态时的乐观并发控制
+	 * @param expected 期望的当前状态，为空表示状态不存在
+	 * @param payload 新状态
+	 * @return 是否写入成功
+	 */
+	boolean compareAndSet(String threadId, ThreadStateType type, String expected, String payload);
+
+	/**
+	 * 在给定的 threadId 中筛选出存在指定类型状态的 threadId
+	 */
+	Set<String> findThreadIds(ThreadStateType type, Collection<String> threadIds);
+
+	/**
+	 * 删除指定类型中更新时间早于 expireBefore 的状态
+	 * @return 删除的条数
+	 */
+	int removeExpired(ThreadStateType type, LocalDateTime expireBefore);
+
+}
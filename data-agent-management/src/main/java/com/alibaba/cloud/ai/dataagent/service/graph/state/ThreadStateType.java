@@ -0,0 +1,43 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.dataagent.service.graph.state;
+
+/**
+ * 线程状态存储中的状态类型
+ */
+public enum ThreadStateType {
+
+	/**
+	 * 多轮对话历史
+	 */
+	HISTORY,
+
+	/**
+	 * 进行中的对话轮次
+	 */
+	PENDING_TURN,
+
+	/**
+	 * 停止信号，由未持有该线程流式上下文的实例写入，持有者轮询后停止处理
+	 */
+	STOP_SIGNAL,
+
+	/**
+	 * 图执行检查点
+	 */
+	CHECKPOINT
+
+}
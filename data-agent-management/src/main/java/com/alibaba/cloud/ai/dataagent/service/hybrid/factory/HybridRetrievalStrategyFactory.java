@@ -24,6 +24,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.ai.vectorstore.VectorStore;
 import org.springframework.beans.factory.FactoryBean;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
@@ -45,6 +46,7 @@ public class HybridRetrievalStrategyFactory implements FactoryBean<HybridRetriev
 	private String elasticsearchIndexName;
 
 	@Autowired
+	@Qualifier("interactiveExecutor")
 	private ExecutorService executorService;
 
 	@Autowired
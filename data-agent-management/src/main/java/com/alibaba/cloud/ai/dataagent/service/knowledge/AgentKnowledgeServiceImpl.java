@@ -15,6 +15,7 @@
  */
 package com.alibaba.cloud.ai.dataagent.service.knowledge;
 
+import com.alibaba.cloud.ai.dataagent.constant.DocumentMetadataConstant;
 import com.alibaba.cloud.ai.dataagent.enums.EmbeddingStatus;
 import com.alibaba.cloud.ai.dataagent.enums.KnowledgeType;
 import com.alibaba.cloud.ai.dataagent.converter.AgentKnowledgeConverter;
@@ -25,8 +26,12 @@ import com.alibaba.cloud.ai.dataagent.dto.knowledge.agentknowledge.UpdateKnowled
 import com.alibaba.cloud.ai.dataagent.entity.AgentKnowledge;
 import com.alibaba.cloud.ai.dataagent.event.AgentKnowledgeDeletionEvent;
 import com.alibaba.cloud.ai.dataagent.event.AgentKnowledgeEmbeddingEvent;
+import com.alibaba.cloud.ai.dataagent.event.AgentRecallScopeChangedEvent;
+import com.alibaba.cloud.ai.dataagent.properties.DataAgentProperties;
+import com.alibaba.cloud.ai.dataagent.properties.DataAgentProperties.VectorStoreProperties.RecallFilterMode;
 import com.alibaba.cloud.ai.dataagent.mapper.AgentKnowledgeMapper;
 import com.alibaba.cloud.ai.dataagent.service.file.FileStorageService;
+import com.alibaba.cloud.ai.dataagent.service.vectorstore.AgentVectorStoreService;
 import com.alibaba.cloud.ai.dataagent.vo.AgentKnowledgeVO;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -37,6 +42,7 @@ import org.springframework.util.StringUtils;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 @Slf4j
 @Service
@@ -53,6 +59,10 @@ public class AgentKnowledgeServiceImpl implements AgentKnowledgeService {
 
 	private final ApplicationEventPublisher eventPublisher;
 
+	private final DataAgentProperties dataAgentProperties;
+
+	private final AgentVectorStoreService agentVectorStoreService;
+
 	@Override
 	public AgentKnowledgeVO getKnowledgeById(Integer id) {
 		AgentKnowledge agentKnowledge = agentKnowledgeMapper.selectById(id);
@@ -154,6 +164,7 @@ public class AgentKnowledgeServiceImpl implements AgentKnowledgeService {
 
 		if (agentKnowledgeMapper.update(knowledge) > 0) {
 			eventPublisher.publishEvent(new AgentKnowledgeDeletionEvent(this, id));
+			publishRecallScopeChanged(knowledge);
 			return true;
 		}
 		return false;
@@ -179,6 +190,7 @@ public class AgentKnowledgeServiceImpl implements AgentKnowledgeService {
 	}
 
 	@Override
+	@Transactional
 	public AgentKnowledgeVO updateKnowledgeRecallStatus(Integer id, Boolean recalled) {
 		// 查询知识
 		AgentKnowledge knowledge = agentKnowledgeMapper.selectById(id);
@@ -188,6 +200,12 @@ public class AgentKnowledgeServiceImpl implements AgentKnowledgeService {
 
 		// 更新召回状态
 		knowledge.setIsRecall(recalled ? 1 : 0);
+		// METADATA 过滤方式下需要把召回状态写入向量元数据，无法原地更新时重新向量化
+		boolean reembed = dataAgentProperties.getVectorStore().getRecallFilterMode() == RecallFilterMode.METADATA
+				&& !updateRecalledInPlace(knowledge, recalled);
+		if (reembed) {
+			knowledge.setEmbeddingStatus(EmbeddingStatus.PENDING);
+		}
 
 		// 更新数据库
 		boolean res = agentKnowledgeMapper.update(knowledge) > 0;
@@ -195,9 +213,33 @@ public class AgentKnowledgeServiceImpl implements AgentKnowledgeService {
 			log.error("Failed to update knowledge with id: {}", knowledge.getId());
 			throw new RuntimeException("Failed to update knowledge in database.");
 		}
+		if (reembed) {
+			eventPublisher
+				.publishEvent(new AgentKnowledgeEmbeddingEvent(this, knowledge.getId(), knowledge.getSplitterType()));
+		}
+		publishRecallScopeChanged(knowledge);
 		return agentKnowledgeConverter.toVo(knowledge);
 	}
 
+	/**
+	 * 已向量化完成的知识直接更新向量元数据中的召回标记，不重新向量化
+	 * @return 是否已原地更新
+	 */
+	private boolean updateRecalledInPlace(AgentKnowledge knowledge, boolean recalled) {
+		if (!EmbeddingStatus.COMPLETED.equals(knowledge.getEmbeddingStatus())) {
+			return false;
+		}
+		return agentVectorStoreService.updateMetadata(String.valueOf(knowledge.getAgentId()),
+				Map.of(DocumentMetadataConstant.VECTOR_TYPE, DocumentMetadataConstant.AGENT_KNOWLEDGE,
+						DocumentMetadataConstant.DB_AGENT_KNOWLEDGE_ID, knowledge.getId()),
+				Map.of(DocumentMetadataConstant.RECALLED, recalled));
+	}
+
+	private void publishRecallScopeChanged(AgentKnowledge knowledge) {
+		eventPublisher.publishEvent(new AgentRecallScopeChangedEvent(this, String.valueOf(knowledge.getAgentId()),
+				AgentRecallScopeChangedEvent.Scope.AGENT_KNOWLEDGE));
+	}
+
 	@Override
 	@Transactional
 	public void retryEmbedding(Integer id) {
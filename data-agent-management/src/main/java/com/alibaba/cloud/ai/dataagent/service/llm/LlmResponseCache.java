@@ -0,0 +1,177 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.dataagent.service.llm;
+
+import com.alibaba.cloud.ai.dataagent.event.ChatModelChangedEvent;
+import com.alibaba.cloud.ai.dataagent.properties.DataAgentProperties;
+import com.alibaba.cloud.ai.dataagent.util.JsonUtil;
+import com.fasterxml.jackson.core.type.TypeReference;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * 按内容寻址的 LLM 响应缓存。键为模型配置指纹、系统提示词与用户提示词的 SHA-256，值为响应的各个文本分片，命中时按分片重放以保持流式输出。
+ * <p>
+ * 内存层按 LRU 淘汰；启用磁盘层时每个条目保存为一个 JSON 文件，内存未命中时从磁盘加载。对话模型切换时清空两层缓存。
+ */
+@Slf4j
+@Component
+public class LlmResponseCache {
+
+	private static final TypeReference<List<String>> CHUNKS_TYPE = new TypeReference<>() {
+	};
+
+	private final DataAgentProperties.LlmCache cacheProperties;
+
+	private final Map<String, List<String>> entries;
+
+	public LlmResponseCache(DataAgentProperties properties) {
+		this.cacheProperties = properties.getLlmCache();
+		this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, List<String>> eldest) {
+				return size() > cacheProperties.getMaxEntries();
+			}
+		};
+	}
+
+	public boolean isEnabled() {
+		return cacheProperties.isEnabled();
+	}
+
+	/**
+	 * 计算缓存键
+	 * @param modelFingerprint 模型配置指纹
+	 * @param system 系统提示词，可为空
+	 * @param user 用户提示词，可为空
+	 * @return SHA-256 十六进制字符串
+	 */
+	public String key(String modelFingerprint, String system, String user) {
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			for (String part : new String[] { modelFingerprint, system, user }) {
+				digest.update((part == null ? "" : part).getBytes(StandardCharsets.UTF_8));
+				// 分隔符，避免不同切分方式得到相同的拼接结果
+				digest.update((byte) 0);
+			}
+			return HexFormat.of().formatHex(digest.digest());
+		}
+		catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 not available", e);
+		}
+	}
+
+	public Optional<List<String>> get(String key) {
+		synchronized (entries) {
+			List<String> chunks = entries.get(key);
+			if (chunks != null) {
+				return Optional.of(chunks);
+			}
+		}
+		if (!cacheProperties.isDiskEnabled()) {
+			return Optional.empty();
+		}
+		Path file = entryFile(key);
+		if (!Files.isRegularFile(file)) {
+			return Optional.empty();
+		}
+		try {
+			List<String> chunks = List.copyOf(JsonUtil.getObjectMapper().readValue(file.toFile(), CHUNKS_TYPE));
+			synchronized (entries) {
+				entries.put(key, chunks);
+			}
+			return Optional.of(chunks);
+		}
+		catch (IOException e) {
+			log.warn("Failed to read LLM cache entry {}, ignoring: {}", file, e.getMessage());
+			return Optional.empty();
+		}
+	}
+
+	public void put(String key, List<String> chunks) {
+		List<String> value = List.copyOf(chunks);
+		synchronized (entries) {
+			entries.put(key, value);
+		}
+		if (!cacheProperties.isDiskEnabled()) {
+			return;
+		}
+		try {
+			Path file = entryFile(key);
+			Files.createDirectories(file.getParent());
+			// 先写临时文件再原子替换，避免并发读到半个文件
+			Path tmp = Files.createTempFile(file.getParent(), key, ".tmp");
+			JsonUtil.getObjectMapper().writeValue(tmp.toFile(), value);
+			Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}
+		catch (IOException e) {
+			log.warn("Failed to write LLM cache entry {}: {}", key, e.getMessage());
+		}
+	}
+
+	public void clear() {
+		synchronized (entries) {
+			entries.clear();
+		}
+		if (!cacheProperties.isDiskEnabled()) {
+			return;
+		}
+		Path dir = Paths.get(cacheProperties.getDiskPath());
+		if (!Files.isDirectory(dir)) {
+			return;
+		}
+		try (Stream<Path> files = Files.list(dir)) {
+			files.filter(path -> path.getFileName().toString().endsWith(".json")).forEach(path -> {
+				try {
+					Files.deleteIfExists(path);
+				}
+				catch (IOException e) {
+					log.warn("Failed to delete LLM cache entry {}: {}", path, e.getMessage());
+				}
+			});
+		}
+		catch (IOException e) {
+			log.warn("Failed to clear LLM disk cache {}: {}", dir, e.getMessage());
+		}
+	}
+
+	@EventListener
+	public void onChatModelChanged(ChatModelChangedEvent event) {
+		clear();
+		log.info("Chat model changed, LLM response cache cleared");
+	}
+
+	private Path entryFile(String key) {
+		return Paths.get(cacheProperties.getDiskPath(), key + ".json");
+	}
+
+}
@@ -19,6 +19,8 @@ import com.alibaba.cloud.ai.dataagent.util.ChatResponseUtil;
 import org.springframework.ai.chat.model.ChatResponse;
 import reactor.core.publisher.Flux;
 
+import java.util.function.Predicate;
+
 public interface LlmService {
 
 	Flux<ChatResponse> call(String system, String user);
@@ -27,6 +29,14 @@ public interface LlmService {
 
 	Flux<ChatResponse> callUser(String user);
 
+	/**
+	 * 返回启用响应缓存的视图，仅用于输出完全由提示词决定的调用。相同提示词与模型配置的调用直接重放缓存的响应，未启用缓存时返回自身
+	 * @param validator 校验完整的响应文本，通过校验的响应才会写入缓存
+	 */
+	default LlmService cacheable(Predicate<String> validator) {
+		return this;
+	}
+
 	@Deprecated
 	default String blockToString(Flux<ChatResponse> responseFlux) {
 		return toStringFlux(responseFlux).collect(StringBuilder::new, StringBuilder::append)
@@ -17,7 +17,12 @@ package com.alibaba.cloud.ai.dataagent.service.llm;
 
 import com.alibaba.cloud.ai.dataagent.properties.DataAgentProperties;
 import com.alibaba.cloud.ai.dataagent.service.aimodelconfig.AiModelRegistry;
+import com.alibaba.cloud.ai.dataagent.service.metrics.CacheMetrics;
+import com.alibaba.cloud.ai.dataagent.service.metrics.LlmMetrics;
 import com.alibaba.cloud.ai.dataagent.service.llm.impls.BlockLlmService;
+import com.alibaba.cloud.ai.dataagent.service.llm.impls.CachingLlmService;
+import com.alibaba.cloud.ai.dataagent.service.llm.impls.MeteredLlmService;
+import com.alibaba.cloud.ai.dataagent.service.llm.impls.SingleFlightLlmService;
 import com.alibaba.cloud.ai.dataagent.service.llm.impls.StreamLlmService;
 import lombok.AllArgsConstructor;
 import org.springframework.beans.factory.FactoryBean;
@@ -31,14 +36,32 @@ public class LlmServiceFactory implements FactoryBean<LlmService> {
 
 	private final AiModelRegistry aiModelRegistry;
 
+	private final LlmMetrics metrics;
+
+	private final CacheMetrics cacheMetrics;
+
+	private final LlmResponseCache llmResponseCache;
+
+	private final ResilientLlmExecutor resilientLlmExecutor;
+
+	private final PromptPrefixCache promptPrefixCache;
+
 	@Override
 	public LlmService getObject() {
+		LlmService llmService;
 		if (LlmServiceEnum.BLOCK.equals(properties.getLlmServiceType())) {
-			return new BlockLlmService(aiModelRegistry);
+			llmService = new BlockLlmService(aiModelRegistry, metrics, resilientLlmExecutor, promptPrefixCache);
 		}
 		else {
-			return new StreamLlmService(aiModelRegistry);
+			llmService = new StreamLlmService(aiModelRegistry, metrics, resilientLlmExecutor, promptPrefixCache);
+		}
+		llmService = new MeteredLlmService(llmService, metrics);
+		// 合并在计量之外，被合并的请求不重复计入 LLM 耗时与 Token 用量
+		if (properties.isSingleFlightEnabled()) {
+			llmService = new SingleFlightLlmService(llmService, cacheMetrics);
 		}
+		// 缓存在最外层，命中缓存的调用不会发起上游请求
+		return new CachingLlmService(llmService, llmResponseCache, aiModelRegistry, metrics);
 	}
 
 	@Override
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.dataagent.service.llm;
+
+import com.alibaba.cloud.ai.dataagent.prompt.PromptBudgetAllocator;
+import com.alibaba.cloud.ai.dataagent.properties.DataAgentProperties;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 稳定提示词前缀的本地缓存。前缀以系统消息发送且在重试与多个步骤间逐字节不变，按内容哈希作为模型侧的 prompt_cache_key， 并缓存前缀的 Token
+ * 数，重试时不再重复计算。
+ */
+@Component
+public class PromptPrefixCache {
+
+	private final DataAgentProperties.PromptPrefix prefixProperties;
+
+	private final PromptBudgetAllocator promptBudgetAllocator;
+
+	private final Map<String, Integer> tokenCounts;
+
+	public PromptPrefixCache(DataAgentProperties properties, PromptBudgetAllocator promptBudgetAllocator) {
+		this.prefixProperties = properties.getPromptPrefix();
+		this.promptBudgetAllocator = promptBudgetAllocator;
+		this.tokenCounts = new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Integer> eldest) {
+				return size() > prefixProperties.getMaxEntries();
+			}
+		};
+	}
+
+	/**
+	 * 前缀内容的 SHA-256，用作模型侧的 prompt_cache_key
+	 */
+	public String cacheKey(String prefix) {
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			return HexFormat.of().formatHex(digest.digest(prefix.getBytes(StandardCharsets.UTF_8)));
+		}
+		catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 not available", e);
+		}
+	}
+
+	/**
+	 * 前缀的 Token 数，相同前缀只计算一次
+	 */
+	public int tokenCount(String prefix) {
+		String key = cacheKey(prefix);
+		synchronized (tokenCounts) {
+			Integer cached = tokenCounts.get(key);
+			if (cached != null) {
+				return cached;
+			}
+		}
+		int count = promptBudgetAllocator.countTokens(prefix);
+		synchronized (tokenCounts) {
+			tokenCounts.put(key, count);
+		}
+		return count;
+	}
+
+	/**
+	 * 判断模型厂商是否支持 prompt_cache_key 参数
+	 */
+	public boolean supportsCacheKey(String provider) {
+		return provider != null && prefixProperties.getCacheKeyProviders()
+			.stream()
+			.anyMatch(supported -> supported.equalsIgnoreCase(provider));
+	}
+
+}
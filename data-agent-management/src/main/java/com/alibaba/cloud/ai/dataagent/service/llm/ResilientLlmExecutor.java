@@ -0,0 +1,201 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.dataagent.service.llm;
+
+import com.alibaba.cloud.ai.dataagent.enums.ModelTier;
+import com.alibaba.cloud.ai.dataagent.exception.LlmCircuitOpenException;
+import com.alibaba.cloud.ai.dataagent.properties.DataAgentProperties;
+import com.alibaba.cloud.ai.dataagent.service.aimodelconfig.AiModelRegistry;
+import com.alibaba.cloud.ai.dataagent.service.metrics.LlmMetrics;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * LLM 调用的尾延迟控制：
+ * <ul>
+ * <li>首 Token 超时：未启用对冲时直接失败；启用对冲时向备用层级的模型发起对冲请求，先产生输出的请求胜出，另一个被取消。 非流式调用在整个回答完成后才有输出，首
+ * Token 时间即完整耗时，因此不做首 Token 超时和按时间触发的对冲</li>
+ * <li>主模型在首 Token 前失败时立即发起对冲请求（故障转移）</li>
+ * <li>按节点的整体超时，限制整个调用的总耗时而不是数据块之间的间隔</li>
+ * <li>按模型配置的熔断，主模型熔断时直接使用备用模型</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ResilientLlmExecutor {
+
+	private final AiModelRegistry registry;
+
+	private final DataAgentProperties properties;
+
+	private final LlmMetrics metrics;
+
+	// 按模型配置指纹维护的熔断器
+	private final Map<String, ModelCircuitBreaker> breakers = new ConcurrentHashMap<>();
+
+	/**
+	 * 执行一次 LLM 调用
+	 * @param node 调用节点
+	 * @param tier 节点路由到的模型层级
+	 * @param attempt 使用指定层级模型发起调用
+	 * @return 响应流
+	 */
+	public Flux<ChatResponse> execute(String node, ModelTier tier, Function<ModelTier, Flux<ChatResponse>> attempt) {
+		return execute(node, tier, true, attempt);
+	}
+
+	/**
+	 * 执行一次 LLM 调用
+	 * @param node 调用节点
+	 * @param tier 节点路由到的模型层级
+	 * @param streaming 响应是否流式输出；非流式调用只受整体超时约束
+	 * @param attempt 使用指定层级模型发起调用
+	 * @return 响应流
+	 */
+	public Flux<ChatResponse> execute(String node, ModelTier tier, boolean streaming,
+			Function<ModelTier, Flux<ChatResponse>> attempt) {
+		DataAgentProperties.LlmResilience resilience = properties.getLlmResilience();
+		if (!resilience.isEnabled()) {
+			return attempt.apply(tier);
+		}
+		ModelTier hedgeTier = resilience.isHedgeEnabled() ? registry.resolveAvailableTier(resilience.getHedgeTier())
+				: null;
+		Duration firstTokenTimeout = streaming ? Duration.ofMillis(resilience.getFirstTokenTimeoutMillis()) : null;
+
+		Flux<ChatResponse> result;
+		ModelCircuitBreaker primaryBreaker = breaker(tier);
+		if (!primaryBreaker.tryAcquire()) {
+			if (hedgeTier == null || hedgeTier == tier || !breaker(hedgeTier).tryAcquire()) {
+				return Flux.error(new LlmCircuitOpenException(
+						"Model of tier " + tier + " is temporarily unavailable after repeated failures"));
+			}
+			log.warn("Circuit of model tier {} is open, failing over to tier {} for node {}", tier, hedgeTier, node);
+			metrics.recordLlmHedge(node, "failover");
+			result = tracked(hedgeTier, breaker(hedgeTier), attempt, firstTokenTimeout);
+		}
+		else if (hedgeTier == null) {
+			result = tracked(tier, primaryBreaker, attempt, firstTokenTimeout);
+		}
+		else {
+			result = hedged(node, tier, primaryBreaker, hedgeTier, attempt, firstTokenTimeout);
+		}
+		long overallTimeout = resilience.getNodeTimeoutMillis()
+			.getOrDefault(node, resilience.getOverallTimeoutMillis());
+		return withDeadline(result, node, overallTimeout);
+	}
+
+	/**
+	 * 整体超时从订阅开始计时，对整个调用生效，持续输出的流不会因收到新的数据块而重新计时
+	 */
+	private Flux<ChatResponse> withDeadline(Flux<ChatResponse> result, String node, long overallTimeout) {
+		return Flux.defer(() -> {
+			Mono<Long> deadline = Mono.delay(Duration.ofMillis(overallTimeout)).cache();
+			return result.timeout(deadline, response -> deadline, Flux.error(() -> new TimeoutException(
+					"LLM call of node " + node + " did not complete within " + overallTimeout + " ms")));
+		});
+	}
+
+	private Flux<ChatResponse> hedged(String node, ModelTier tier, ModelCircuitBreaker primaryBreaker,
+			ModelTier hedgeTier, Function<ModelTier, Flux<ChatResponse>> attempt, Duration firstTokenTimeout) {
+		// 主请求在首 Token 前失败时立即触发对冲
+		Sinks.Empty<Void> primaryFailed = Sinks.empty();
+		AtomicBoolean hedgeStarted = new AtomicBoolean();
+		AtomicBoolean decided = new AtomicBoolean();
+		Flux<ChatResponse> primary = tracked(tier, primaryBreaker, attempt, null)
+			.doOnError(e -> primaryFailed.tryEmitEmpty())
+			.doOnNext(response -> {
+				if (hedgeStarted.get() && decided.compareAndSet(false, true)) {
+					metrics.recordLlmHedge(node, "primary_won");
+				}
+			});
+		// 非流式调用只在主请求失败时触发对冲
+		Mono<Void> trigger = firstTokenTimeout == null ? primaryFailed.asMono()
+				: Mono.firstWithSignal(Mono.delay(firstTokenTimeout).then(), primaryFailed.asMono());
+		Flux<ChatResponse> hedge = trigger.thenMany(Flux.defer(() -> {
+			ModelCircuitBreaker hedgeBreaker = breaker(hedgeTier);
+			if (!hedgeBreaker.tryAcquire()) {
+				return Flux.error(new LlmCircuitOpenException("Hedge model of tier " + hedgeTier + " is open"));
+			}
+			hedgeStarted.set(true);
+			log.info("No token from model tier {} for node {}, sending hedged request to tier {}", tier, node,
+					hedgeTier);
+			metrics.recordLlmHedge(node, "started");
+			return tracked(hedgeTier, hedgeBreaker, attempt, null).doOnNext(response -> {
+				if (decided.compareAndSet(false, true)) {
+					metrics.recordLlmHedge(node, "hedge_won");
+				}
+			});
+		}));
+		return Flux.firstWithValue(primary, hedge);
+	}
+
+	/**
+	 * 发起一次调用并记录熔断结果
+	 */
+	private Flux<ChatResponse> tracked(ModelTier tier, ModelCircuitBreaker breaker,
+			Function<ModelTier, Flux<ChatResponse>> attempt, Duration firstTokenTimeout) {
+		return Flux.defer(() -> {
+			AtomicBoolean firstToken = new AtomicBoolean(true);
+			Flux<ChatResponse> call = Flux.defer(() -> attempt.apply(tier)).subscribeOn(Schedulers.boundedElastic());
+			if (firstTokenTimeout != null) {
+				call = call.timeout(Mono.delay(firstTokenTimeout), response -> Mono.never(),
+						Flux.error(() -> new TimeoutException("No token received from model tier " + tier + " within "
+								+ firstTokenTimeout.toMillis() + " ms")));
+			}
+			return call.doOnNext(response -> {
+				if (firstToken.compareAndSet(true, false)) {
+					transition(tier, breaker, breaker::onSuccess);
+				}
+			}).doOnError(e -> transition(tier, breaker, breaker::onFailure)).doOnCancel(() -> {
+				if (firstToken.get()) {
+					breaker.onCancel();
+				}
+			});
+		});
+	}
+
+	private void transition(ModelTier tier, ModelCircuitBreaker breaker, Runnable event) {
+		ModelCircuitBreaker.State before = breaker.getState();
+		event.run();
+		ModelCircuitBreaker.State after = breaker.getState();
+		if (before != after) {
+			log.warn("Circuit of model tier {} changed from {} to {}", tier, before, after);
+			metrics.recordLlmCircuitTransition(tier.getCode(), after.name());
+		}
+	}
+
+	private ModelCircuitBreaker breaker(ModelTier tier) {
+		DataAgentProperties.LlmResilience resilience = properties.getLlmResilience();
+		return breakers.computeIfAbsent(registry.getChatModelFingerprint(tier),
+				key -> new ModelCircuitBreaker(resilience.getCircuitFailureThreshold(),
+						resilience.getCircuitOpenMillis()));
+	}
+
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.dataagent.service.llm.impls;
+
+import com.alibaba.cloud.ai.dataagent.enums.ModelTier;
+import com.alibaba.cloud.ai.dataagent.service.aimodelconfig.AiModelRegistry;
+import com.alibaba.cloud.ai.dataagent.service.llm.LlmService;
+import com.alibaba.cloud.ai.dataagent.service.llm.PromptPrefixCache;
+import com.alibaba.cloud.ai.dataagent.service.llm.ResilientLlmExecutor;
+import com.alibaba.cloud.ai.dataagent.service.metrics.LlmMetrics;
+import com.alibaba.cloud.ai.dataagent.service.metrics.MetricTags;
+import lombok.AllArgsConstructor;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.openai.OpenAiChatOptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.SignalType;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * 按调用节点路由到对应层级对话模型的基类。节点名称取自订阅方写入的 Reactor Context，并记录路由决策与各层级的调用耗时； 首 Token 超时、对冲与熔断由
+ * {@link ResilientLlmExecutor} 负责。
+ * <p>
+ * 系统消息作为稳定前缀放在最前面，模型厂商支持时附带按前缀内容计算的 prompt_cache_key，使重试与多个步骤复用模型侧的前缀缓存。
+ */
+@AllArgsConstructor
+public abstract class AbstractRoutedLlmService implements LlmService {
+
+	/**
+	 * 每次调用尝试的首个响应在元数据中记录实际作答的模型层级，对冲或故障转移时可能与节点路由到的层级不同
+	 */
+	public static final String MODEL_TIER_METADATA_KEY = "data_agent_model_tier";
+
+	protected final AiModelRegistry registry;
+
+	protected final LlmMetrics metrics;
+
+	protected final ResilientLlmExecutor executor;
+
+	protected final PromptPrefixCache promptPrefixCache;
+
+	/**
+	 * 响应是否流式输出，非流式实现在完整回答生成后才产生输出，不能使用首 Token 超时
+	 */
+	protected boolean isStreaming() {
+		return true;
+	}
+
+	protected Flux<ChatResponse> routed(Function<ChatClient, Flux<ChatResponse>> call) {
+		return routed((client, tier) -> call.apply(client));
+	}
+
+	/**
+	 * 以系统消息为前缀发起调用
+	 * @param system 稳定的系统消息前缀
+	 * @param call 在已设置前缀的请求上补充用户消息并发起调用
+	 */
+	protected Flux<ChatResponse> prefixed(String system,
+			Function<ChatClient.ChatClientRequestSpec, Flux<ChatResponse>> call) {
+		return routed((client, tier) -> {
+			ChatClient.ChatClientRequestSpec spec = client.prompt().system(system);
+			if (promptPrefixCache.supportsCacheKey(registry.getChatModelProvider(tier))) {
+				spec = spec
+					.options(OpenAiChatOptions.builder().promptCacheKey(promptPrefixCache.cacheKey(system)).build());
+			}
+			return call.apply(spec);
+		});
+	}
+
+	private Flux<ChatResponse> routed(BiFunction<ChatClient, ModelTier, Flux<ChatResponse>> call) {
+		return Flux.deferContextual(ctx -> {
+			String node = ctx.getOrDefault(MetricTags.NODE_CONTEXT_KEY, MetricTags.UNKNOWN);
+			ModelTier tier = registry.resolveTier(node);
+			metrics.recordLlmRoute(node, tier.getCode());
+			return executor.execute(node, tier, isStreaming(), attemptTier -> Flux.defer(() -> {
+				long start = System.nanoTime();
+				AtomicBoolean first = new AtomicBoolean(true);
+				return call.apply(registry.getChatClient(attemptTier), attemptTier)
+					.map(response -> first.compareAndSet(true, false) ? withTier(response, attemptTier) : response)
+					.doFinally(signal -> metrics.recordLlmTierCall(attemptTier.getCode(), System.nanoTime() - start,
+							signal != SignalType.ON_ERROR));
+			}));
+		});
+	}
+
+	private static ChatResponse withTier(ChatResponse response, ModelTier tier) {
+		return ChatResponse.builder().from(response).metadata(MODEL_TIER_METADATA_KEY, tier.getCode()).build();
+	}
+
+}
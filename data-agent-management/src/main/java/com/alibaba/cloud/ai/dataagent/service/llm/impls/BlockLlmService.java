@@ -16,32 +16,38 @@
 package com.alibaba.cloud.ai.dataagent.service.llm.impls;
 
 import com.alibaba.cloud.ai.dataagent.service.aimodelconfig.AiModelRegistry;
-import com.alibaba.cloud.ai.dataagent.service.llm.LlmService;
-import lombok.AllArgsConstructor;
+import com.alibaba.cloud.ai.dataagent.service.llm.PromptPrefixCache;
+import com.alibaba.cloud.ai.dataagent.service.llm.ResilientLlmExecutor;
+import com.alibaba.cloud.ai.dataagent.service.metrics.LlmMetrics;
 import org.springframework.ai.chat.model.ChatResponse;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
-@AllArgsConstructor
-public class BlockLlmService implements LlmService {
+public class BlockLlmService extends AbstractRoutedLlmService {
 
-	private final AiModelRegistry registry;
+	public BlockLlmService(AiModelRegistry registry, LlmMetrics metrics, ResilientLlmExecutor executor,
+			PromptPrefixCache promptPrefixCache) {
+		super(registry, metrics, executor, promptPrefixCache);
+	}
+
+	@Override
+	protected boolean isStreaming() {
+		return false;
+	}
 
 	@Override
 	public Flux<ChatResponse> call(String system, String user) {
-		return Mono
-			.fromCallable(() -> registry.getChatClient().prompt().system(system).user(user).call().chatResponse())
-			.flux();
+		return prefixed(system, spec -> Mono.fromCallable(() -> spec.user(user).call().chatResponse()).flux());
 	}
 
 	@Override
 	public Flux<ChatResponse> callSystem(String system) {
-		return Mono.fromCallable(() -> registry.getChatClient().prompt().system(system).call().chatResponse()).flux();
+		return prefixed(system, spec -> Mono.fromCallable(() -> spec.call().chatResponse()).flux());
 	}
 
 	@Override
 	public Flux<ChatResponse> callUser(String user) {
-		return Mono.fromCallable(() -> registry.getChatClient().prompt().user(user).call().chatResponse()).flux();
+		return routed(client -> Mono.fromCallable(() -> client.prompt().user(user).call().chatResponse()).flux());
 	}
 
 }
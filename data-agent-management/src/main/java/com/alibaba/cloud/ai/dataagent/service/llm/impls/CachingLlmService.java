@@ -0,0 +1,153 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.dataagent.service.llm.impls;
+
+import com.alibaba.cloud.ai.dataagent.enums.ModelTier;
+import com.alibaba.cloud.ai.dataagent.service.aimodelconfig.AiModelRegistry;
+import com.alibaba.cloud.ai.dataagent.service.llm.LlmResponseCache;
+import com.alibaba.cloud.ai.dataagent.service.llm.LlmService;
+import com.alibaba.cloud.ai.dataagent.service.metrics.LlmMetrics;
+import com.alibaba.cloud.ai.dataagent.service.metrics.MetricTags;
+import com.alibaba.cloud.ai.dataagent.util.ChatResponseUtil;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.chat.model.ChatResponse;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * 为确定性提示词提供响应缓存的装饰器。普通调用直接委托，只有通过 {@link #cacheable(Predicate)} 发起的调用才会读写
+ * {@link LlmResponseCache}， 命中时按原分片重放为 {@code Flux<ChatResponse>}。
+ * <p>
+ * 只缓存通过调用方校验、且由节点路由到的模型层级作答的完整响应；对冲或故障转移由其他层级作答的响应不写入缓存。
+ */
+@Slf4j
+@AllArgsConstructor
+public class CachingLlmService implements LlmService {
+
+	private final LlmService delegate;
+
+	private final LlmResponseCache cache;
+
+	private final AiModelRegistry aiModelRegistry;
+
+	private final LlmMetrics metrics;
+
+	@Override
+	public Flux<ChatResponse> call(String system, String user) {
+		return delegate.call(system, user);
+	}
+
+	@Override
+	public Flux<ChatResponse> callSystem(String system) {
+		return delegate.callSystem(system);
+	}
+
+	@Override
+	public Flux<ChatResponse> callUser(String user) {
+		return delegate.callUser(user);
+	}
+
+	@Override
+	public LlmService cacheable(Predicate<String> validator) {
+		return new CachedView(validator);
+	}
+
+	private Flux<ChatResponse> cached(String system, String user, Predicate<String> validator,
+			Supplier<Flux<ChatResponse>> call) {
+		if (!cache.isEnabled()) {
+			return call.get();
+		}
+		return Flux.deferContextual(ctx -> {
+			String node = ctx.getOrDefault(MetricTags.NODE_CONTEXT_KEY, MetricTags.UNKNOWN);
+			String agentId = ctx.getOrDefault(MetricTags.AGENT_CONTEXT_KEY, MetricTags.UNKNOWN);
+			// 按节点实际路由到的模型区分缓存
+			ModelTier tier = aiModelRegistry.resolveTier(node);
+			String fingerprint = aiModelRegistry.getChatModelFingerprint(tier);
+			if (fingerprint == null) {
+				return call.get();
+			}
+			String key = cache.key(fingerprint, system, user);
+			Optional<List<String>> hit = cache.get(key);
+			if (hit.isPresent()) {
+				metrics.recordLlmCache(agentId, node, "hit");
+				log.debug("LLM response cache hit for node {}", node);
+				return Flux.fromIterable(hit.get()).map(ChatResponseUtil::createPureResponse);
+			}
+			metrics.recordLlmCache(agentId, node, "miss");
+			// 只缓存完整结束的响应，出错或被取消时不写入
+			List<String> chunks = new ArrayList<>();
+			AtomicBoolean otherTier = new AtomicBoolean();
+			return call.get().doOnNext(response -> {
+				String answeredTier = response.getMetadata().get(AbstractRoutedLlmService.MODEL_TIER_METADATA_KEY);
+				if (answeredTier != null && !answeredTier.equals(tier.getCode())) {
+					otherTier.set(true);
+				}
+				String text = ChatResponseUtil.getText(response);
+				if (!text.isEmpty()) {
+					chunks.add(text);
+				}
+			}).doOnComplete(() -> {
+				if (chunks.isEmpty()) {
+					return;
+				}
+				if (otherTier.get()) {
+					log.debug("Response of node {} was answered by another model tier, skipping cache", node);
+					return;
+				}
+				if (!validator.test(String.join("", chunks))) {
+					log.debug("Response of node {} failed validation, skipping cache", node);
+					return;
+				}
+				cache.put(key, chunks);
+			});
+		});
+	}
+
+	@AllArgsConstructor
+	private class CachedView implements LlmService {
+
+		private final Predicate<String> validator;
+
+		@Override
+		public Flux<ChatResponse> call(String system, String user) {
+			return cached(system, user, validator, () -> delegate.call(system, user));
+		}
+
+		@Override
+		public Flux<ChatResponse> callSystem(String system) {
+			return cached(system, null, validator, () -> delegate.callSystem(system));
+		}
+
+		@Override
+		public Flux<ChatResponse> callUser(String user) {
+			return cached(null, user, validator, () -> delegate.callUser(user));
+		}
+
+		@Override
+		public LlmService cacheable(Predicate<String> validator) {
+			return new CachedView(validator);
+		}
+
+	}
+
+}
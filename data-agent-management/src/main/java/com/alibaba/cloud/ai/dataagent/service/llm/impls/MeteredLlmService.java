@@ -0,0 +1,94 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.dataagent.service.llm.impls;
+
+import com.alibaba.cloud.ai.dataagent.service.llm.LlmService;
+import com.alibaba.cloud.ai.dataagent.service.metrics.LlmMetrics;
+import com.alibaba.cloud.ai.dataagent.service.metrics.MetricTags;
+import lombok.AllArgsConstructor;
+import org.springframework.ai.chat.metadata.Usage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.openai.api.OpenAiApi;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.SignalType;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 记录 LLM 调用耗时与 Token 用量的装饰器。节点名称与智能体ID取自订阅方写入的 Reactor Context， 不在节点生成器内的调用记为 unknown。
+ */
+@AllArgsConstructor
+public class MeteredLlmService implements LlmService {
+
+	private final LlmService delegate;
+
+	private final LlmMetrics metrics;
+
+	@Override
+	public Flux<ChatResponse> call(String system, String user) {
+		return metered(() -> delegate.call(system, user));
+	}
+
+	@Override
+	public Flux<ChatResponse> callSystem(String system) {
+		return metered(() -> delegate.callSystem(system));
+	}
+
+	@Override
+	public Flux<ChatResponse> callUser(String user) {
+		return metered(() -> delegate.callUser(user));
+	}
+
+	private Flux<ChatResponse> metered(Supplier<Flux<ChatResponse>> call) {
+		return Flux.deferContextual(ctx -> {
+			String node = ctx.getOrDefault(MetricTags.NODE_CONTEXT_KEY, MetricTags.UNKNOWN);
+			String agentId = ctx.getOrDefault(MetricTags.AGENT_CONTEXT_KEY, MetricTags.UNKNOWN);
+			long start = System.nanoTime();
+			// 流式响应中用量通常只出现在最后一个分片，取各分片中的最大值
+			AtomicLong promptTokens = new AtomicLong();
+			AtomicLong completionTokens = new AtomicLong();
+			AtomicLong cachedTokens = new AtomicLong();
+			return call.get().doOnNext(response -> {
+				Usage usage = response.getMetadata() == null ? null : response.getMetadata().getUsage();
+				if (usage != null) {
+					promptTokens.accumulateAndGet(toLong(usage.getPromptTokens()), Math::max);
+					completionTokens.accumulateAndGet(toLong(usage.getCompletionTokens()), Math::max);
+					cachedTokens.accumulateAndGet(cachedTokens(usage), Math::max);
+				}
+			}).doFinally(signal -> {
+				metrics.recordLlmCall(node, System.nanoTime() - start, signal != SignalType.ON_ERROR);
+				metrics.recordLlmTokens(agentId, node, promptTokens.get(), completionTokens.get(), cachedTokens.get());
+			});
+		});
+	}
+
+	/**
+	 * 模型侧前缀缓存命中的提示词 Token 数，仅 OpenAI 兼容协议返回
+	 */
+	private static long cachedTokens(Usage usage) {
+		if (usage.getNativeUsage() instanceof OpenAiApi.Usage nativeUsage
+				&& nativeUsage.promptTokensDetails() != null) {
+			return toLong(nativeUsage.promptTokensDetails().cachedTokens());
+		}
+		return 0L;
+	}
+
+	private static long toLong(Integer value) {
+		return value == null ? 0L : value;
+	}
+
+}
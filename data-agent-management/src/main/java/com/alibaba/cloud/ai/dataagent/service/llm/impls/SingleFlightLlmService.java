@@ -0,0 +1,66 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.dataagent.service.llm.impls;
+
+import com.alibaba.cloud.ai.dataagent.service.llm.LlmService;
+import com.alibaba.cloud.ai.dataagent.service.metrics.CacheMetrics;
+import com.alibaba.cloud.ai.dataagent.service.metrics.MetricTags;
+import com.alibaba.cloud.ai.dataagent.util.SingleFlight;
+import org.springframework.ai.chat.model.ChatResponse;
+import reactor.core.publisher.Flux;
+
+import java.util.function.Supplier;
+
+/**
+ * 合并相同提示词的并发 LLM 调用的装饰器，并发的相同请求订阅同一个上游响应流。不同节点可能路由到不同的模型，只合并同一节点的调用。
+ */
+public class SingleFlightLlmService implements LlmService {
+
+	private final LlmService delegate;
+
+	private final SingleFlight<CallKey, ChatResponse> singleFlight;
+
+	public SingleFlightLlmService(LlmService delegate, CacheMetrics metrics) {
+		this.delegate = delegate;
+		this.singleFlight = new SingleFlight<>(() -> metrics.recordSingleFlightCoalesced("llm"));
+	}
+
+	@Override
+	public Flux<ChatResponse> call(String system, String user) {
+		return coalesced(system, user, () -> delegate.call(system, user));
+	}
+
+	@Override
+	public Flux<ChatResponse> callSystem(String system) {
+		return coalesced(system, null, () -> delegate.callSystem(system));
+	}
+
+	@Override
+	public Flux<ChatResponse> callUser(String user) {
+		return coalesced(null, user, () -> delegate.callUser(user));
+	}
+
+	private Flux<ChatResponse> coalesced(String system, String user, Supplier<Flux<ChatResponse>> call) {
+		return Flux.deferContextual(ctx -> {
+			String node = ctx.getOrDefault(MetricTags.NODE_CONTEXT_KEY, MetricTags.UNKNOWN);
+			return singleFlight.flux(new CallKey(node, system, user), call);
+		});
+	}
+
+	private record CallKey(String node, String system, String user) {
+	}
+
+}
@@ -16,29 +16,32 @@
 package com.alibaba.cloud.ai.dataagent.service.llm.impls;
 
 import com.alibaba.cloud.ai.dataagent.service.aimodelconfig.AiModelRegistry;
-import com.alibaba.cloud.ai.dataagent.service.llm.LlmService;
-import lombok.AllArgsConstructor;
+import com.alibaba.cloud.ai.dataagent.service.llm.PromptPrefixCache;
+import com.alibaba.cloud.ai.dataagent.service.llm.ResilientLlmExecutor;
+import com.alibaba.cloud.ai.dataagent.service.metrics.LlmMetrics;
 import org.springframework.ai.chat.model.ChatResponse;
 import reactor.core.publisher.Flux;
 
-@AllArgsConstructor
-public class StreamLlmService implements LlmService {
+public class StreamLlmService extends AbstractRoutedLlmService {
 
-	private final AiModelRegistry registry;
+	public StreamLlmService(AiModelRegistry registry, LlmMetrics metrics, ResilientLlmExecutor executor,
+			PromptPrefixCache promptPrefixCache) {
+		super(registry, metrics, executor, promptPrefixCache);
+	}
 
 	@Override
 	public Flux<ChatResponse> call(String system, String user) {
-		return registry.getChatClient().prompt().system(system).user(user).stream().chatResponse();
+		return prefixed(system, spec -> spec.user(user).stream().chatResponse());
 	}
 
 	@Override
 	public Flux<ChatResponse> callSystem(String system) {
-		return registry.getChatClient().prompt().system(system).stream().chatResponse();
+		return prefixed(system, spec -> spec.stream().chatResponse());
 	}
 
 	@Override
 	public Flux<ChatResponse> callUser(String user) {
-		return registry.getChatClient().prompt().user(user).stream().chatResponse();
+		return routed(client -> client.prompt().user(user).stream().chatResponse());
 	}
 
 }
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.dataagent.service.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import static com.alibaba.cloud.ai.dataagent.service.metrics.MetricTags.*;
+
+/**
+ * 查询向量缓存与单飞合并相关指标。
+ */
+@Component
+@AllArgsConstructor
+public class CacheMetrics {
+
+	public static final String EMBEDDING_CACHE_REQUESTS = "dataagent.embedding.cache.requests";
+
+	public static final String SINGLE_FLIGHT_COALESCED = "dataagent.singleflight.coalesced";
+
+	private final MeterRegistry meterRegistry;
+
+	/**
+	 * 记录查询向量缓存的命中情况（hit/miss），命中率为 hit / (hit + miss)
+	 */
+	public void recordEmbeddingCache(String outcome) {
+		Counter.builder(EMBEDDING_CACHE_REQUESTS)
+			.description("Query embedding lookups by outcome (hit/miss)")
+			.tags(TAG_OUTCOME, outcome)
+			.register(meterRegistry)
+			.increment();
+	}
+
+	public void recordSingleFlightCoalesced(String target) {
+		Counter.builder(SINGLE_FLIGHT_COALESCED)
+			.description("Requests that joined an identical in-flight upstream call instead of issuing their own")
+			.tags(TAG_TARGET, target)
+			.register(meterRegistry)
+			.increment();
+	}
+
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.dataagent.service.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ExecutorService;
+
+import static com.alibaba.cloud.ai.dataagent.service.metrics.MetricTags.*;
+
+/**
+ * 隔离线程池相关指标。
+ */
+@Component
+@AllArgsConstructor
+public class ExecutorMetrics {
+
+	public static final String EXECUTOR_REJECTED = "dataagent.executor.rejected";
+
+	private final MeterRegistry meterRegistry;
+
+	/**
+	 * 绑定线程池的队列深度、活跃线程数、线程数与完成任务数指标（executor.* ，name 标签为 dataagent.{pool}）
+	 */
+	public void bindExecutor(String pool, ExecutorService executor) {
+		new ExecutorServiceMetrics(executor, "dataagent." + pool, Tags.of(TAG_POOL, pool)).bindTo(meterRegistry);
+	}
+
+	public void recordExecutorRejection(String pool) {
+		Counter.builder(EXECUTOR_REJECTED)
+			.description("Tasks rejected by a saturated executor before the rejection policy applied")
+			.tags(TAG_POOL, pool)
+			.register(meterRegistry)
+			.increment();
+	}
+
+}
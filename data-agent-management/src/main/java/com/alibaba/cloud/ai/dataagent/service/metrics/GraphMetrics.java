@@ -0,0 +1,112 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.dataagent.service.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.alibaba.cloud.ai.dataagent.service.metrics.MetricTags.*;
+
+/**
+ * 图执行相关指标：节点耗时、首包时间、重试次数，以及并行预处理与投机执行的结果。
+ */
+@Component
+@AllArgsConstructor
+public class GraphMetrics {
+
+	public static final String NODE_DURATION = "dataagent.node.duration";
+
+	public static final String NODE_FIRST_CHUNK = "dataagent.node.first.chunk";
+
+	public static final String NODE_RETRY_ATTEMPTS = "dataagent.node.retry.attempts";
+
+	public static final String SPECULATIONS = "dataagent.speculations";
+
+	public static final String PREPROCESS_BRANCH_DURATION = "dataagent.preprocess.branch.duration";
+
+	public static final String SCHEMA_PREFETCHES = "dataagent.schema.prefetches";
+
+	private final MeterRegistry meterRegistry;
+
+	public void recordNodeDuration(String node, long nanos, boolean success) {
+		Timer.builder(NODE_DURATION)
+			.description("Wall time of a graph node, including its streaming output")
+			.tags(TAG_NODE, node, TAG_OUTCOME, outcome(success))
+			.publishPercentiles(PERCENTILES)
+			.publishPercentileHistogram()
+			.register(meterRegistry)
+			.record(nanos, TimeUnit.NANOSECONDS);
+	}
+
+	public void recordNodeFirstChunk(String node, long nanos) {
+		Timer.builder(NODE_FIRST_CHUNK)
+			.description("Time from node entry to its first streamed chunk")
+			.tags(TAG_NODE, node)
+			.publishPercentiles(PERCENTILES)
+			.register(meterRegistry)
+			.record(nanos, TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * 记录重试类节点进入时的已尝试次数，大于0即为一次重试
+	 */
+	public void recordRetryAttempt(String node, int attempt) {
+		DistributionSummary.builder(NODE_RETRY_ATTEMPTS)
+			.description("Attempt number observed when entering a retryable node")
+			.tags(TAG_NODE, node)
+			.register(meterRegistry)
+			.record(attempt);
+	}
+
+	public void recordSpeculation(String outcome) {
+		Counter.builder(SPECULATIONS)
+			.description("Speculative pre-processing runs started during intent recognition, by outcome")
+			.tags(TAG_OUTCOME, outcome)
+			.register(meterRegistry)
+			.increment();
+	}
+
+	/**
+	 * 记录并行预处理各分支的耗时，branch 为 schema_recall（Schema 召回预取）或
+	 * evidence_query_enhance（证据召回与问题增强）
+	 */
+	public void recordPreprocessBranch(String branch, long nanos) {
+		Timer.builder(PREPROCESS_BRANCH_DURATION)
+			.description("Latency of each parallel pre-processing branch before they join at schema recall")
+			.tags(TAG_BRANCH, branch)
+			.publishPercentiles(PERCENTILES)
+			.register(meterRegistry)
+			.record(nanos, TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * 记录 Schema 召回预取的汇合结果，outcome 为 exact（问题一致直接采用）、merged（与规范化问题的召回合并）、timeout 或 failed
+	 */
+	public void recordSchemaPrefetch(String outcome) {
+		Counter.builder(SCHEMA_PREFETCHES)
+			.description("Schema recall prefetches joined at schema recall, by outcome")
+			.tags(TAG_OUTCOME, outcome)
+			.register(meterRegistry)
+			.increment();
+	}
+
+}
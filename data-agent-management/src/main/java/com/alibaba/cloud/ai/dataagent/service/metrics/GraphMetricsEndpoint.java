@@ -0,0 +1,135 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.dataagent.service.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.search.Search;
+import lombok.AllArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static com.alibaba.cloud.ai.dataagent.service.metrics.GraphMetrics.*;
+import static com.alibaba.cloud.ai.dataagent.service.metrics.LlmMetrics.*;
+import static com.alibaba.cloud.ai.dataagent.service.metrics.MetricTags.*;
+import static com.alibaba.cloud.ai.dataagent.service.metrics.SqlMetrics.*;
+
+/**
+ * 图执行指标的 Actuator 端点，按节点汇总耗时分位数、首包时间、重试次数与SQL执行耗时，并按智能体汇总 Token 用量与缓存命中。
+ * <p>
+ * GET /actuator/graphmetrics 查看全部指标。耗时类指标不携带智能体标签，GET /actuator/graphmetrics/{agentId}
+ * 只返回该智能体的计数器（Token 用量与 LLM 缓存命中）。
+ */
+@Component
+@Endpoint(id = "graphmetrics")
+@AllArgsConstructor
+public class GraphMetricsEndpoint {
+
+	private final MeterRegistry meterRegistry;
+
+	@ReadOperation
+	public Map<String, Object> graphMetrics() {
+		Map<String, Object> summary = new LinkedHashMap<>();
+		summary.put("nodeDuration", timers(NODE_DURATION));
+		summary.put("nodeFirstChunk", timers(NODE_FIRST_CHUNK));
+		summary.put("llmCallDuration", timers(LLM_CALL_DURATION));
+		summary.put("sqlExecutionDuration", timers(SQL_EXECUTION_DURATION));
+		summary.put("retryAttempts", retryAttempts());
+		summary.putAll(agentCounters(null));
+		return summary;
+	}
+
+	@ReadOperation
+	public Map<String, Object> agentGraphMetrics(@Selector String agentId) {
+		return agentCounters(agentId);
+	}
+
+	private Map<String, Object> agentCounters(String agentId) {
+		Map<String, Object> summary = new LinkedHashMap<>();
+		summary.put("llmTokens", counters(LLM_TOKENS, agentId, "tokens"));
+		summary.put("llmCacheRequests", counters(LLM_CACHE_REQUESTS, agentId, "requests"));
+		return summary;
+	}
+
+	private List<Map<String, Object>> timers(String name) {
+		List<Map<String, Object>> result = new ArrayList<>();
+		for (Timer timer : meterRegistry.find(name).timers()) {
+			Map<String, Object> item = tags(timer.getId().getTags());
+			HistogramSnapshot snapshot = timer.takeSnapshot();
+			item.put("count", snapshot.count());
+			item.put("meanMs", snapshot.mean(TimeUnit.MILLISECONDS));
+			item.put("maxMs", snapshot.max(TimeUnit.MILLISECONDS));
+			for (ValueAtPercentile percentile : snapshot.percentileValues()) {
+				item.put(percentileName(percentile.percentile()), percentile.value(TimeUnit.MILLISECONDS));
+			}
+			result.add(item);
+		}
+		result.sort(Comparator.comparing(item -> String.valueOf(item.get(TAG_NODE))));
+		return result;
+	}
+
+	private List<Map<String, Object>> retryAttempts() {
+		List<Map<String, Object>> result = new ArrayList<>();
+		for (DistributionSummary summary : meterRegistry.find(NODE_RETRY_ATTEMPTS).summaries()) {
+			Map<String, Object> item = tags(summary.getId().getTags());
+			item.put("entries", summary.count());
+			item.put("totalAttempts", summary.totalAmount());
+			item.put("maxAttempt", summary.max());
+			result.add(item);
+		}
+		return result;
+	}
+
+	private List<Map<String, Object>> counters(String name, String agentId, String valueKey) {
+		List<Map<String, Object>> result = new ArrayList<>();
+		for (Counter counter : search(name, agentId).counters()) {
+			Map<String, Object> item = tags(counter.getId().getTags());
+			item.put(valueKey, counter.count());
+			result.add(item);
+		}
+		return result;
+	}
+
+	private Search search(String name, String agentId) {
+		Search search = meterRegistry.find(name);
+		return agentId == null ? search : search.tag(TAG_AGENT, agentId);
+	}
+
+	private static Map<String, Object> tags(Iterable<Tag> tags) {
+		Map<String, Object> item = new LinkedHashMap<>();
+		tags.forEach(tag -> item.put(tag.getKey(), tag.getValue()));
+		return item;
+	}
+
+	private static String percentileName(double percentile) {
+		return "p" + Math.round(percentile * 100) + "Ms";
+	}
+
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.dataagent.service.metrics;
+
+import com.alibaba.cloud.ai.dataagent.service.aimodelconfig.ProviderConcurrencyLimiter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.alibaba.cloud.ai.dataagent.service.metrics.MetricTags.*;
+
+/**
+ * LLM 调用相关指标：调用耗时、Token 用量、响应缓存、模型路由、对冲与熔断、供应商并发限制以及 JSON 修复。
+ * <p>
+ * 只有 Token 与缓存计数器按智能体拆分，耗时类指标按节点与模型层级汇总。
+ */
+@Component
+@AllArgsConstructor
+public class LlmMetrics {
+
+	public static final String LLM_CALL_DURATION = "dataagent.llm.call.duration";
+
+	public static final String LLM_TOKENS = "dataagent.llm.tokens";
+
+	public static final String LLM_CACHE_REQUESTS = "dataagent.llm.cache.requests";
+
+	public static final String LLM_ROUTES = "dataagent.llm.routes";
+
+	public static final String LLM_TIER_DURATION = "dataagent.llm.tier.duration";
+
+	public static final String LLM_LIMITER = "dataagent.llm.limiter";
+
+	public static final String LLM_HEDGES = "dataagent.llm.hedges";
+
+	public static final String LLM_CIRCUIT_TRANSITIONS = "dataagent.llm.circuit.transitions";
+
+	public static final String JSON_REPAIRS = "dataagent.json.repairs";
+
+	private final MeterRegistry meterRegistry;
+
+	public void recordLlmCall(String node, long nanos, boolean success) {
+		Timer.builder(LLM_CALL_DURATION)
+			.description("Duration of an LLM call until its stream completes")
+			.tags(TAG_NODE, tagValue(node), TAG_OUTCOME, outcome(success))
+			.publishPercentiles(PERCENTILES)
+			.register(meterRegistry)
+			.record(nanos, TimeUnit.NANOSECONDS);
+	}
+
+	public void recordLlmTokens(String agentId, String node, long promptTokens, long completionTokens) {
+		recordLlmTokens(agentId, node, promptTokens, completionTokens, 0);
+	}
+
+	/**
+	 * 记录 Token 用量，cachedTokens 为提示词中命中模型侧前缀缓存的部分（已包含在 promptTokens 中）
+	 */
+	public void recordLlmTokens(String agentId, String node, long promptTokens, long completionTokens,
+			long cachedTokens) {
+		if (promptTokens > 0) {
+			tokenCounter(agentId, node, "prompt").increment(promptTokens);
+		}
+		if (completionTokens > 0) {
+			tokenCounter(agentId, node, "completion").increment(completionTokens);
+		}
+		if (cachedTokens > 0) {
+			tokenCounter(agentId, node, "cached").increment(cachedTokens);
+		}
+	}
+
+	public void recordLlmCache(String agentId, String node, String outcome) {
+		Counter.builder(LLM_CACHE_REQUESTS)
+			.description("Cacheable LLM calls by outcome (hit/miss)")
+			.tags(TAG_AGENT, tagValue(agentId), TAG_NODE, tagValue(node), TAG_OUTCOME, outcome)
+			.register(meterRegistry)
+			.increment();
+	}
+
+	public void recordLlmRoute(String node, String tier) {
+		Counter.builder(LLM_ROUTES)
+			.description("LLM calls routed to each model tier, by node")
+			.tags(TAG_NODE, tagValue(node), TAG_TIER, tier)
+			.register(meterRegistry)
+			.increment();
+	}
+
+	public void recordLlmTierCall(String tier, long nanos, boolean success) {
+		Timer.builder(LLM_TIER_DURATION)
+			.description("LLM call latency per model tier")
+			.tags(TAG_TIER, tier, TAG_OUTCOME, outcome(success))
+			.publishPercentiles(PERCENTILES)
+			.register(meterRegistry)
+			.record(nanos, TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * 记录对冲请求，outcome 为 started（发起对冲）、primary_won、hedge_won 或 failover（主模型熔断直接转移）
+	 */
+	public void recordLlmHedge(String node, String outcome) {
+		Counter.builder(LLM_HEDGES)
+			.description("Hedged LLM requests and which attempt produced the first token")
+			.tags(TAG_NODE, tagValue(node), TAG_OUTCOME, outcome)
+			.register(meterRegistry)
+			.increment();
+	}
+
+	public void recordLlmCircuitTransition(String tier, String state) {
+		Counter.builder(LLM_CIRCUIT_TRANSITIONS)
+			.description("State transitions of per-model circuit breakers")
+			.tags(TAG_TIER, tier, TAG_STATE, state)
+			.register(meterRegistry)
+			.increment();
+	}
+
+	public void bindLlmLimiter(String provider, ProviderConcurrencyLimiter limiter) {
+		Tags tags = Tags.of(TAG_PROVIDER, provider);
+		Gauge.builder(LLM_LIMITER + ".limit", limiter, ProviderConcurrencyLimiter::getLimit)
+			.description("Current adaptive concurrency limit of the model provider")
+			.tags(tags)
+			.register(meterRegistry);
+		Gauge.builder(LLM_LIMITER + ".active", limiter, ProviderConcurrencyLimiter::getActive)
+			.description("In-flight requests to the model provider")
+			.tags(tags)
+			.register(meterRegistry);
+		Gauge.builder(LLM_LIMITER + ".queued", limiter, ProviderConcurrencyLimiter::getQueued)
+			.description("Requests waiting for a free slot of the model provider")
+			.tags(tags)
+			.register(meterRegistry);
+		FunctionCounter.builder(LLM_LIMITER + ".throttled", limiter, ProviderConcurrencyLimiter::getThrottledCount)
+			.description("Responses with HTTP 429 from the model provider")
+			.tags(tags)
+			.register(meterRegistry);
+		FunctionCounter.builder(LLM_LIMITER + ".rejected", limiter, ProviderConcurrencyLimiter::getRejectedCount)
+			.description("Requests rejected because the provider queue was full")
+			.tags(tags)
+			.register(meterRegistry);
+	}
+
+	public void recordJsonRepair(String method, boolean success) {
+		Counter.builder(JSON_REPAIRS)
+			.description("Malformed JSON outputs repaired locally or by an LLM fix call")
+			.tags(TAG_METHOD, method, TAG_OUTCOME, outcome(success))
+			.register(meterRegistry)
+			.increment();
+	}
+
+	private Counter tokenCounter(String agentId, String node, String type) {
+		return Counter.builder(LLM_TOKENS)
+			.description("LLM tokens consumed")
+			.tags(TAG_AGENT, tagValue(agentId), TAG_NODE, tagValue(node), TAG_TYPE, type)
+			.register(meterRegistry);
+	}
+
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.dataagent.service.metrics;
+
+import org.springframework.util.StringUtils;
+
+/**
+ * DataAgent 各领域指标共用的标签键、Reactor Context 键与标签取值规则。
+ * <p>
+ * 智能体ID的取值没有上限，只允许出现在计数器上，耗时与分布类指标不携带 agent 标签。
+ */
+public final class MetricTags {
+
+	/**
+	 * Reactor Context 中保存当前节点名称的键，由节点指标切面写入，供下游的 LLM 调用归属节点
+	 */
+	public static final String NODE_CONTEXT_KEY = "dataagent.node";
+
+	/**
+	 * Reactor Context 中保存当前智能体ID的键
+	 */
+	public static final String AGENT_CONTEXT_KEY = "dataagent.agent";
+
+	public static final String TAG_BRANCH = "branch";
+
+	public static final String TAG_PROMPT = "prompt";
+
+	public static final String TAG_SECTION = "section";
+
+	public static final String TAG_STATE = "state";
+
+	public static final String TAG_TARGET = "target";
+
+	public static final String TAG_PROVIDER = "provider";
+
+	public static final String TAG_TIER = "tier";
+
+	public static final String TAG_METHOD = "method";
+
+	public static final String TAG_AGENT = "agent";
+
+	public static final String TAG_NODE = "node";
+
+	public static final String TAG_OUTCOME = "outcome";
+
+	public static final String TAG_STREAM = "stream";
+
+	public static final String TAG_POOL = "pool";
+
+	public static final String TAG_TYPE = "type";
+
+	public static final String UNKNOWN = "unknown";
+
+	static final double[] PERCENTILES = { 0.5, 0.95, 0.99 };
+
+	private MetricTags() {
+	}
+
+	static String outcome(boolean success) {
+		return success ? "success" : "error";
+	}
+
+	static String tagValue(String value) {
+		return StringUtils.hasText(value) ? value : UNKNOWN;
+	}
+
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.dataagent.service.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import static com.alibaba.cloud.ai.dataagent.service.metrics.MetricTags.*;
+
+/**
+ * 提示词相关指标：各部分的 Token 预算与压缩情况，以及可被模型侧缓存的稳定前缀长度。
+ */
+@Component
+@AllArgsConstructor
+public class PromptMetrics {
+
+	public static final String PROMPT_BUDGET_TOKENS = "dataagent.prompt.budget.tokens";
+
+	public static final String PROMPT_COMPACTIONS = "dataagent.prompt.compactions";
+
+	public static final String LLM_PROMPT_PREFIX_TOKENS = "dataagent.llm.prompt.prefix.tokens";
+
+	private final MeterRegistry meterRegistry;
+
+	/**
+	 * 记录提示词部分的 Token 预算分配，type 为 budget（分配的预算）、original（压缩前）或 final（压缩后）
+	 */
+	public void recordPromptBudget(String section, int budget, int originalTokens, int finalTokens) {
+		promptBudgetSummary(section, "budget").record(budget);
+		promptBudgetSummary(section, "original").record(originalTokens);
+		promptBudgetSummary(section, "final").record(finalTokens);
+		if (finalTokens < originalTokens) {
+			Counter.builder(PROMPT_COMPACTIONS)
+				.description("Prompt sections compacted to fit their token budget")
+				.tags(TAG_SECTION, section)
+				.register(meterRegistry)
+				.increment();
+		}
+	}
+
+	/**
+	 * 记录稳定前缀的 Token 数，结合 type=cached 的 Token 用量可估算模型侧前缀缓存的命中情况
+	 */
+	public void recordPromptPrefixTokens(String prompt, int tokens) {
+		DistributionSummary.builder(LLM_PROMPT_PREFIX_TOKENS)
+			.description("Tokens in the stable, cacheable prompt prefix sent with each call")
+			.tags(TAG_PROMPT, prompt)
+			.register(meterRegistry)
+			.record(tokens);
+	}
+
+	private DistributionSummary promptBudgetSummary(String section, String type) {
+		return DistributionSummary.builder(PROMPT_BUDGET_TOKENS)
+			.description("Token budget of a prompt section and its size before and after compaction")
+			.tags(TAG_SECTION, section, TAG_TYPE, type)
+			.register(meterRegistry);
+	}
+
+}
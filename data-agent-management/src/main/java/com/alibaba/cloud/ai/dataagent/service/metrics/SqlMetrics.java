@@ -0,0 +1,47 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.dataagent.service.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.alibaba.cloud.ai.dataagent.service.metrics.MetricTags.*;
+
+/**
+ * SQL 执行相关指标。
+ */
+@Component
+@AllArgsConstructor
+public class SqlMetrics {
+
+	public static final String SQL_EXECUTION_DURATION = "dataagent.sql.execution.duration";
+
+	private final MeterRegistry meterRegistry;
+
+	public void recordSqlExecution(long nanos, boolean success) {
+		Timer.builder(SQL_EXECUTION_DURATION)
+			.description("Duration of SQL execution against the agent datasource")
+			.tags(TAG_OUTCOME, outcome(success))
+			.publishPercentiles(PERCENTILES)
+			.register(meterRegistry)
+			.record(nanos, TimeUnit.NANOSECONDS);
+	}
+
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.dataagent.service.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import static com.alibaba.cloud.ai.dataagent.service.metrics.MetricTags.*;
+
+/**
+ * 流式输出相关指标。
+ */
+@Component
+@AllArgsConstructor
+public class StreamMetrics {
+
+	public static final String STREAM_FRAMES = "dataagent.stream.frames";
+
+	private final MeterRegistry meterRegistry;
+
+	/**
+	 * 记录流式输出的数据块数量，outcome 为 received（写入缓冲）、emitted（合并后实际发送的帧）或 dropped（溢出丢弃）
+	 */
+	public void recordStreamFrames(String stream, String outcome, long count) {
+		Counter.builder(STREAM_FRAMES)
+			.description("Streaming output chunks received, frames emitted and chunks dropped")
+			.tags(TAG_STREAM, stream, TAG_OUTCOME, outcome)
+			.register(meterRegistry)
+			.increment(count);
+	}
+
+}
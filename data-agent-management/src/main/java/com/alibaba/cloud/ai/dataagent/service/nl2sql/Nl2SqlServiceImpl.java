@@ -21,6 +21,8 @@ import com.alibaba.cloud.ai.dataagent.dto.prompt.SqlGenerationDTO;
 import com.alibaba.cloud.ai.dataagent.dto.schema.SchemaDTO;
 import com.alibaba.cloud.ai.dataagent.prompt.PromptHelper;
 import com.alibaba.cloud.ai.dataagent.service.llm.LlmService;
+import com.alibaba.cloud.ai.dataagent.service.llm.PromptPrefixCache;
+import com.alibaba.cloud.ai.dataagent.service.metrics.PromptMetrics;
 import com.alibaba.cloud.ai.dataagent.util.*;
 import com.fasterxml.jackson.core.type.TypeReference;
 import lombok.AllArgsConstructor;
@@ -33,6 +35,7 @@ import reactor.core.publisher.Flux;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
@@ -48,11 +51,17 @@ public class Nl2SqlServiceImpl implements Nl2SqlService {
 
 	private final JsonParseUtil jsonParseUtil;
 
+	private final PromptPrefixCache promptPrefixCache;
+
+	private final PromptMetrics metrics;
+
 	@Override
 	public Flux<ChatResponse> performSemanticConsistency(SemanticConsistencyDTO semanticConsistencyDTO) {
 		String semanticConsistencyPrompt = PromptHelper.buildSemanticConsistenPrompt(semanticConsistencyDTO);
 		log.debug("semanticConsistencyPrompt as follows \n {} \n", semanticConsistencyPrompt);
-		return llmService.callUser(semanticConsistencyPrompt);
+		// 只缓存给出明确结论的校验结果
+		return llmService.cacheable(result -> result.startsWith("通过") || result.startsWith("不通过"))
+			.callUser(semanticConsistencyPrompt);
 	}
 
 	@Override
@@ -61,13 +70,19 @@ public class Nl2SqlServiceImpl implements Nl2SqlService {
 		log.info("Generating SQL for query: {}, hasExistingSql: {}, dialect: {}",
 				sqlGenerationDTO.getExecutionDescription(), StringUtils.hasText(sql), sqlGenerationDTO.getDialect());
 
+		// Schema、业务知识与语义模型作为稳定前缀，生成与各次修复之间保持一致以复用模型侧的前缀缓存
+		String prefix = PromptHelper.buildSqlContextPrefix(sqlGenerationDTO);
+		int prefixTokens = promptPrefixCache.tokenCount(prefix);
+		metrics.recordPromptPrefixTokens("sql", prefixTokens);
+		log.debug("SQL context prefix: {} tokens", prefixTokens);
+
 		Flux<String> newSqlFlux;
 		if (sql != null && !sql.isEmpty()) {
 			// Use professional SQL error repair prompt
 			log.debug("Using SQL error fixer for existing SQL: {}", sql);
 			String errorFixerPrompt = PromptHelper.buildSqlErrorFixerPrompt(sqlGenerationDTO);
 			log.debug("SQL error fixer prompt as follows \n {} \n", errorFixerPrompt);
-			newSqlFlux = llmService.toStringFlux(llmService.callUser(errorFixerPrompt));
+			newSqlFlux = llmService.toStringFlux(llmService.call(prefix, errorFixerPrompt));
 			log.info("SQL error fixing completed");
 		}
 		else {
@@ -75,7 +90,7 @@ public class Nl2SqlServiceImpl implements Nl2SqlService {
 			log.debug("Generating new SQL from scratch");
 			String prompt = PromptHelper.buildNewSqlGeneratorPrompt(sqlGenerationDTO);
 			log.debug("New SQL generator prompt as follows \n {} \n", prompt);
-			newSqlFlux = llmService.toStringFlux(llmService.callSystem(prompt));
+			newSqlFlux = llmService.toStringFlux(llmService.call(prefix, prompt));
 			log.info("New SQL generation completed");
 		}
 
@@ -129,8 +144,19 @@ public class Nl2SqlServiceImpl implements Nl2SqlService {
 		log.debug("Built schema fine selection prompt as follows \n {} \n", prompt);
 
 		Set<String> selectedTables = new HashSet<>();
+		// 流式解析选中的表名，输出为合法的 JSON 数组时无需再次解析完整内容；重试或对冲会重新订阅，每次订阅使用新的解析器
+		AtomicReference<StreamingJsonParser<String>> tableParser = new AtomicReference<>();
+		Flux<ChatResponse> selectFlux = Flux.defer(() -> {
+			StreamingJsonParser<String> parser = new StreamingJsonParser<>(null, String.class,
+					table -> log.debug("Table selected while streaming: {}", table));
+			tableParser.set(parser);
+			return parser.tap(llmService
+				.cacheable(content -> jsonParseUtil.isParsable(content, new TypeReference<List<String>>() {
+				}))
+				.callUser(prompt));
+		});
 
-		return FluxUtil.<ChatResponse, String>cascadeFlux(llmService.callUser(prompt), content -> {
+		return FluxUtil.<ChatResponse, String>cascadeFlux(selectFlux, content -> {
 			Flux<ChatResponse> nextFlux;
 			if (sqlGenerateSchemaMissingAdvice != null) {
 				log.debug("Adding tables from schema missing advice");
@@ -144,8 +170,10 @@ public class Nl2SqlServiceImpl implements Nl2SqlService {
 					String jsonContent = MarkdownParserUtil.extractText(content);
 					List<String> tableList;
 					try {
-						tableList = jsonParseUtil.tryConvertToObject(jsonContent, new TypeReference<List<String>>() {
-						});
+						StreamingJsonParser<String> parser = tableParser.get();
+						tableList = parser != null && parser.isCompleted() ? parser.getElements()
+								: jsonParseUtil.tryConvertToObject(jsonContent, new TypeReference<List<String>>() {
+								});
 					}
 					catch (Exception e) {
 						// Some scenarios may prompt exceptions, such as:
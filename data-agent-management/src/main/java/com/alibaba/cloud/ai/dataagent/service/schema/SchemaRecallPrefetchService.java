@@ -0,0 +1,207 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.dataagent.service.schema;
+
+import com.alibaba.cloud.ai.dataagent.properties.DataAgentProperties;
+import com.alibaba.cloud.ai.dataagent.service.metrics.GraphMetrics;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.document.Document;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Schema 召回预取服务。并行模式下，在证据召回与问题增强（两次 LLM 调用）进行的同时， 使用用户原始问题提前完成表与列的向量召回，由 SchemaRecallNode
+ * 汇合结果。
+ * <p>
+ * 预取使用的原始问题与问题增强产出的规范化问题一致时直接采用预取结果；不一致时以规范化问题重新召回表，已预取的列按表名复用， 只为新召回的表补充列，保证汇合结果与串行召回一致。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SchemaRecallPrefetchService {
+
+	// 未被消费的预取任务的最长保留时间，超出后清理，避免流程提前结束时的泄漏
+	private static final long STALE_PREFETCH_NANOS = TimeUnit.MINUTES.toNanos(5);
+
+	static final String SCHEMA_RECALL_BRANCH = "schema_recall";
+
+	static final String EVIDENCE_BRANCH = "evidence_query_enhance";
+
+	static final String EXACT = "exact";
+
+	static final String MERGED = "merged";
+
+	static final String TIMEOUT = "timeout";
+
+	static final String FAILED = "failed";
+
+	private final SchemaService schemaService;
+
+	@Qualifier("interactiveExecutor")
+	private final ExecutorService interactiveExecutor;
+
+	private final DataAgentProperties properties;
+
+	private final GraphMetrics metrics;
+
+	private final Map<String, Prefetch> prefetches = new ConcurrentHashMap<>();
+
+	/**
+	 * 提交一次 Schema 召回预取
+	 * @param agentId 智能体ID
+	 * @param query 用于召回的问题
+	 * @return 预取ID，用于后续获取结果
+	 */
+	public String submit(String agentId, String query) {
+		purgeStalePrefetches();
+		String prefetchId = UUID.randomUUID().toString();
+		long submittedAt = System.nanoTime();
+		CompletableFuture<SchemaRecallResult> future = CompletableFuture
+			.supplyAsync(() -> recall(agentId, query, submittedAt), interactiveExecutor);
+		prefetches.put(prefetchId, new Prefetch(future, agentId, query, submittedAt));
+		log.debug("Submitted schema recall prefetch {} for agent {}, query: {}", prefetchId, agentId, query);
+		return prefetchId;
+	}
+
+	/**
+	 * 获取并移除预取结果，超时或失败时返回空
+	 * @param prefetchId 预取ID
+	 * @param canonicalQuery 问题增强产出的规范化问题，与预取问题不一致时以它重新召回表
+	 * @return 与按规范化问题串行召回一致的结果
+	 */
+	public Optional<SchemaRecallResult> await(String prefetchId, String canonicalQuery) {
+		if (!StringUtils.hasText(prefetchId)) {
+			return Optional.empty();
+		}
+		Prefetch prefetch = prefetches.remove(prefetchId);
+		if (prefetch == null) {
+			return Optional.empty();
+		}
+		try {
+			metrics.recordPreprocessBranch(EVIDENCE_BRANCH, System.nanoTime() - prefetch.submittedAt());
+			SchemaRecallResult result = prefetch.future()
+				.get(properties.getSchemaRecallPrefetchTimeout(), TimeUnit.MILLISECONDS);
+			metrics.recordPreprocessBranch(SCHEMA_RECALL_BRANCH, result.elapsedNanos());
+			if (prefetch.query().trim().equals(canonicalQuery == null ? null : canonicalQuery.trim())) {
+				metrics.recordSchemaPrefetch(EXACT);
+				return Optional.of(result);
+			}
+			metrics.recordSchemaPrefetch(MERGED);
+			return Optional.of(mergeWithCanonicalRecall(prefetch.agentId(), canonicalQuery, result));
+		}
+		catch (TimeoutException e) {
+			log.warn("Schema recall prefetch {} timed out after {} ms", prefetchId,
+					properties.getSchemaRecallPrefetchTimeout());
+			prefetch.future().cancel(true);
+			metrics.recordSchemaPrefetch(TIMEOUT);
+			return Optional.empty();
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return Optional.empty();
+		}
+		catch (Exception e) {
+			log.warn("Schema recall prefetch {} failed: {}", prefetchId, e.getMessage());
+			metrics.recordSchemaPrefetch(FAILED);
+			return Optional.empty();
+		}
+	}
+
+	/**
+	 * 以规范化问题召回表，预取中已有的表直接复用其列，只为新出现的表查询列
+	 */
+	private SchemaRecallResult mergeWithCanonicalRecall(String agentId, String canonicalQuery,
+			SchemaRecallResult prefetched) {
+		long start = System.nanoTime();
+		List<Document> tableDocuments = new ArrayList<>(
+				schemaService.getTableDocumentsForAgent(agentId, canonicalQuery));
+		List<String> tableNames = tableNames(tableDocuments);
+		Set<String> prefetchedTables = Set.copyOf(tableNames(prefetched.tableDocuments()));
+		List<Document> columnDocuments = new ArrayList<>(prefetched.columnDocuments()
+			.stream()
+			.filter(document -> tableNames.contains((String) document.getMetadata().get("tableName")))
+			.toList());
+		List<String> missingTables = tableNames.stream().filter(name -> !prefetchedTables.contains(name)).toList();
+		if (!missingTables.isEmpty()) {
+			columnDocuments.addAll(schemaService.getColumnDocumentsByTableName(agentId, missingTables));
+		}
+		log.debug("Merged schema recall prefetch with canonical recall, reused columns of {} tables, fetched {} tables",
+				tableNames.size() - missingTables.size(), missingTables.size());
+		return new SchemaRecallResult(tableDocuments, columnDocuments, System.nanoTime() - start);
+	}
+
+	/**
+	 * 取消并移除一次未被消费的预取
+	 * @param prefetchId 预取ID
+	 */
+	public void cancel(String prefetchId) {
+		if (!StringUtils.hasText(prefetchId)) {
+			return;
+		}
+		Prefetch prefetch = prefetches.remove(prefetchId);
+		if (prefetch != null) {
+			prefetch.future().cancel(true);
+			log.debug("Cancelled schema recall prefetch {}", prefetchId);
+		}
+	}
+
+	private SchemaRecallResult recall(String agentId, String query, long submittedAt) {
+		List<Document> tableDocuments = new ArrayList<>(schemaService.getTableDocumentsForAgent(agentId, query));
+		List<Document> columnDocuments = schemaService.getColumnDocumentsByTableName(agentId,
+				tableNames(tableDocuments));
+		return new SchemaRecallResult(tableDocuments, columnDocuments, System.nanoTime() - submittedAt);
+	}
+
+	private static List<String> tableNames(List<Document> tableDocuments) {
+		return tableDocuments.stream()
+			.map(document -> (String) document.getMetadata().get("name"))
+			.filter(StringUtils::hasText)
+			.toList();
+	}
+
+	private void purgeStalePrefetches() {
+		long now = System.nanoTime();
+		prefetches.entrySet().removeIf(entry -> {
+			if (now - entry.getValue().submittedAt() > STALE_PREFETCH_NANOS) {
+				entry.getValue().future().cancel(true);
+				return true;
+			}
+			return false;
+		});
+	}
+
+	public record SchemaRecallResult(List<Document> tableDocuments, List<Document> columnDocuments, long elapsedNanos) {
+	}
+
+	private record Prefetch(CompletableFuture<SchemaRecallResult> future, String agentId, String query,
+			long submittedAt) {
+	}
+
+}
@@ -29,6 +29,8 @@ import com.alibaba.cloud.ai.dataagent.dto.datasource.SchemaInitRequest;
 import com.alibaba.cloud.ai.dataagent.dto.schema.ColumnDTO;
 import com.alibaba.cloud.ai.dataagent.dto.schema.SchemaDTO;
 import com.alibaba.cloud.ai.dataagent.dto.schema.TableDTO;
+import com.alibaba.cloud.ai.dataagent.event.AgentRecallScopeChangedEvent;
+import com.alibaba.cloud.ai.dataagent.mapper.AgentDatasourceMapper;
 import com.alibaba.cloud.ai.dataagent.service.vectorstore.AgentVectorStoreService;
 import com.alibaba.cloud.ai.dataagent.service.vectorstore.DynamicFilterService;
 import com.fasterxml.jackson.core.type.TypeReference;
@@ -39,6 +41,8 @@ import org.apache.commons.lang3.StringUtils;
 import org.springframework.ai.document.Document;
 import org.springframework.ai.embedding.BatchingStrategy;
 import org.springframework.ai.vectorstore.filter.Filter;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.util.Assert;
 
@@ -61,7 +65,8 @@ import static com.alibaba.cloud.ai.dataagent.util.DocumentConverterUtil.convertT
 @AllArgsConstructor
 public class SchemaServiceImpl implements SchemaService {
 
-	private final ExecutorService dbOperationExecutor;
+	@Qualifier("ingestionExecutor")
+	private final ExecutorService ingestionExecutor;
 
 	private final AccessorFactory accessorFactory;
 
@@ -78,6 +83,10 @@ public class SchemaServiceImpl implements SchemaService {
 	 */
 	private final AgentVectorStoreService agentVectorStoreService;
 
+	private final ApplicationEventPublisher eventPublisher;
+
+	private final AgentDatasourceMapper agentDatasourceMapper;
+
 	@Override
 	public void buildSchemaFromDocuments(String agentId, List<Document> currentColumnDocuments,
 			List<Document> tableDocuments, SchemaDTO schemaDTO) {
@@ -171,6 +180,24 @@ public class SchemaServiceImpl implements SchemaService {
 			log.error("Failed to process schema for agent: {}", agentId, e);
 			return false;
 		}
+		finally {
+			// 旧的Schema向量已被清理，无论成功与否都需要失效依赖Schema的缓存
+			touchAgentDatasource(agentId);
+			eventPublisher.publishEvent(
+					new AgentRecallScopeChangedEvent(this, agentId, AgentRecallScopeChangedEvent.Scope.SCHEMA));
+		}
+	}
+
+	/**
+	 * Schema 向量不在数据库中，刷新智能体数据源关联的更新时间，使其他实例基于持久化指纹的查询缓存也能感知 Schema 变化
+	 */
+	private void touchAgentDatasource(String agentId) {
+		try {
+			agentDatasourceMapper.touchByAgentId(Long.valueOf(agentId));
+		}
+		catch (Exception e) {
+			log.warn("Failed to refresh agent datasource update time for agent {}: {}", agentId, e.getMessage());
+		}
 	}
 
 	/**
@@ -205,7 +232,7 @@ public class SchemaServiceImpl implements SchemaService {
 				log.error("Failed to process batch of tables", e);
 				throw new CompletionException(e);
 			}
-		}, dbOperationExecutor)).toList();
+		}, ingestionExecutor)).toList();
 
 		// 等待所有任务完成，并处理异常
 		try {
@@ -0,0 +1,300 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.dataagent.service.stream;
+
+import com.alibaba.cloud.ai.dataagent.properties.DataAgentProperties;
+import com.alibaba.cloud.ai.dataagent.properties.DataAgentProperties.StreamOutput.OverflowPolicy;
+import com.alibaba.cloud.ai.dataagent.service.metrics.StreamMetrics;
+import com.alibaba.cloud.ai.dataagent.vo.GraphNodeResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.concurrent.Queues;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 流式输出支持：创建有界的 Sink、按溢出策略写入数据块，并将细碎的 LLM 数据块按时间窗口合并为较少的 SSE 帧。
+ * <p>
+ * 所有 Sink 的缓冲上限由 {@code spring.ai.alibaba.data-agent.stream-output.buffer-size}
+ * 控制，避免慢客户端导致堆内存无限增长。内容数据块溢出时等待或断开，不会被丢弃；只有通过 {@link #emitDroppable} 写入的通知类消息在溢出时丢弃。
+ * <p>
+ * BLOCK 策略下的等待只发生在专用的排空线程上（见 {@link #drainOn}），不会占用交互式检索等共享线程池。
+ */
+@Slf4j
+@Component
+public class StreamOutputSupport implements DisposableBean {
+
+	public static final String GRAPH_STREAM = "graph";
+
+	public static final String SESSION_STREAM = "session";
+
+	public static final String EVIDENCE_STREAM = "evidence";
+
+	public static final String RECEIVED = "received";
+
+	public static final String EMITTED = "emitted";
+
+	public static final String DROPPED = "dropped";
+
+	public static final String BLOCKED = "blocked";
+
+	public static final String DISCONNECTED = "disconnected";
+
+	// BLOCK 策略下重试写入的最大间隔
+	private static final long MAX_BLOCK_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+	// 单个合并窗口内最多收集的数据块数，达到后立即合并发送
+	private static final int MAX_CHUNKS_PER_WINDOW = 256;
+
+	private final DataAgentProperties properties;
+
+	private final StreamMetrics metrics;
+
+	/**
+	 * BLOCK 策略下写入内容数据块的专用线程，慢客户端只会占用这些线程
+	 */
+	private final Scheduler drainScheduler;
+
+	public StreamOutputSupport(DataAgentProperties properties, StreamMetrics metrics) {
+		this.properties = properties;
+		this.metrics = metrics;
+		this.drainScheduler = Schedulers.newBoundedElastic(Schedulers.DEFAULT_BOUNDED_ELASTIC_SIZE,
+				Schedulers.DEFAULT_BOUNDED_ELASTIC_QUEUESIZE, new DrainThreadFactory(), 60);
+	}
+
+	/**
+	 * BLOCK 策略下将下游的写入转移到排空线程，使等待慢客户端时不占用上游（图执行、Netty 等）的线程
+	 */
+	public <T> Flux<T> drainOn(Flux<T> flux) {
+		return properties.getStreamOutput().getOverflowPolicy() == OverflowPolicy.BLOCK ? flux.publishOn(drainScheduler)
+				: flux;
+	}
+
+	/**
+	 * 创建单订阅者的有界 Sink
+	 */
+	public <T> Sinks.Many<T> newUnicastSink() {
+		return Sinks.many().unicast().onBackpressureBuffer(Queues.<T>get(bufferSize()).get());
+	}
+
+	/**
+	 * 创建单订阅者的无界 Sink，仅用于写入条数本身有上限、且可能在订阅前写完的场景（如证据展示）
+	 */
+	public <T> Sinks.Many<T> newUnboundedUnicastSink() {
+		return Sinks.many().unicast().onBackpressureBuffer();
+	}
+
+	/**
+	 * 创建多订阅者的有界 Sink，缓冲区大小受最慢的订阅者约束
+	 */
+	public <T> Sinks.Many<T> newMulticastSink() {
+		return Sinks.many().multicast().onBackpressureBuffer(bufferSize(), false);
+	}
+
+	/**
+	 * 按配置的溢出策略写入内容数据块
+	 * @return 是否应继续当前流，false 表示调用方应停止处理
+	 */
+	public <T> boolean emit(Sinks.Many<T> sink, T value, String stream) {
+		return emit(sink, value, stream, properties.getStreamOutput().getOverflowPolicy());
+	}
+
+	/**
+	 * 按指定的溢出策略写入内容数据块
+	 * @return 是否应继续当前流，false 表示调用方应停止处理
+	 */
+	public <T> boolean emit(Sinks.Many<T> sink, T value, String stream, OverflowPolicy policy) {
+		Sinks.EmitResult result = sink.tryEmitNext(value);
+		if (result.isSuccess()) {
+			metrics.recordStreamFrames(stream, RECEIVED, 1);
+			return true;
+		}
+		if (!isOverflow(result)) {
+			return false;
+		}
+		// 只在排空线程上等待，其他线程（事件循环、共享线程池）上直接断开
+		if (policy == OverflowPolicy.BLOCK && Thread.currentThread() instanceof DrainThread) {
+			metrics.recordStreamFrames(stream, BLOCKED, 1);
+			long deadline = System.nanoTime()
+					+ TimeUnit.MILLISECONDS.toNanos(properties.getStreamOutput().getBlockTimeoutMillis());
+			long parkNanos = TimeUnit.MILLISECONDS.toNanos(1);
+			while (System.nanoTime() < deadline && !Thread.currentThread().isInterrupted()) {
+				LockSupport.parkNanos(parkNanos);
+				parkNanos = Math.min(parkNanos * 2, MAX_BLOCK_PARK_NANOS);
+				result = sink.tryEmitNext(value);
+				if (result.isSuccess()) {
+					metrics.recordStreamFrames(stream, RECEIVED, 1);
+					return true;
+				}
+				if (!isOverflow(result)) {
+					return false;
+				}
+			}
+		}
+		metrics.recordStreamFrames(stream, DISCONNECTED, 1);
+		log.warn("Stream buffer of {} is full, policy {}, disconnecting", stream, policy);
+		return false;
+	}
+
+	/**
+	 * 写入可丢弃的通知类消息（如标题更新），缓冲区溢出时丢弃该消息，不影响流本身
+	 * @return 流是否仍然有效，false 表示订阅已取消或流已结束
+	 */
+	public <T> boolean emitDroppable(Sinks.Many<T> sink, T value, String stream) {
+		Sinks.EmitResult result = sink.tryEmitNext(value);
+		if (result.isSuccess()) {
+			metrics.recordStreamFrames(stream, RECEIVED, 1);
+			return true;
+		}
+		if (isOverflow(result)) {
+			metrics.recordStreamFrames(stream, DROPPED, 1);
+			log.debug("Stream buffer of {} is full, dropping notification", stream);
+			return true;
+		}
+		return false;
+	}
+
+	@Override
+	public void destroy() {
+		drainScheduler.dispose();
+	}
+
+	// 尚无订阅者时缓冲区写满返回 FAIL_ZERO_SUBSCRIBER，同样按溢出处理
+	private static boolean isOverflow(Sinks.EmitResult result) {
+		return result == Sinks.EmitResult.FAIL_OVERFLOW || result == Sinks.EmitResult.FAIL_ZERO_SUBSCRIBER;
+	}
+
+	/**
+	 * 统计实际发送给客户端的帧数
+	 */
+	public <T> Flux<T> countEmitted(Flux<T> flux, String stream) {
+		return flux.doOnNext(frame -> metrics.recordStreamFrames(stream, EMITTED, 1));
+	}
+
+	/**
+	 * 将合并窗口内同一节点、同一文本类型的连续数据块合并为一帧，complete、error 等事件帧保持原样
+	 */
+	public Flux<ServerSentEvent<GraphNodeResponse>> coalesce(Flux<ServerSentEvent<GraphNodeResponse>> flux) {
+		DataAgentProperties.StreamOutput config = properties.getStreamOutput();
+		if (config.getCoalesceWindowMillis() <= 0) {
+			return countEmitted(flux, GRAPH_STREAM);
+		}
+		Flux<ServerSentEvent<GraphNodeResponse>> frames = flux
+			.bufferTimeout(MAX_CHUNKS_PER_WINDOW, Duration.ofMillis(config.getCoalesceWindowMillis()), true)
+			.concatMapIterable(chunks -> merge(chunks, config.getCoalesceMaxChars()));
+		return countEmitted(frames, GRAPH_STREAM);
+	}
+
+	static List<ServerSentEvent<GraphNodeResponse>> merge(List<ServerSentEvent<GraphNodeResponse>> chunks,
+			int maxChars) {
+		List<ServerSentEvent<GraphNodeResponse>> frames = new ArrayList<>(chunks.size());
+		ServerSentEvent<GraphNodeResponse> pending = null;
+		StringBuilder text = new StringBuilder();
+		int merged = 0;
+		for (ServerSentEvent<GraphNodeResponse> chunk : chunks) {
+			if (pending != null && isSameFrame(pending, chunk)
+					&& text.length() + chunk.data().getText().length() <= maxChars) {
+				text.append(chunk.data().getText());
+				merged++;
+				continue;
+			}
+			if (pending != null) {
+				frames.add(merged == 1 ? pending : withText(pending, text.toString()));
+				pending = null;
+			}
+			if (isMergeable(chunk)) {
+				pending = chunk;
+				text.setLength(0);
+				text.append(chunk.data().getText());
+				merged = 1;
+			}
+			else {
+				frames.add(chunk);
+			}
+		}
+		if (pending != null) {
+			frames.add(merged == 1 ? pending : withText(pending, text.toString()));
+		}
+		return frames;
+	}
+
+	private static boolean isMergeable(ServerSentEvent<GraphNodeResponse> sse) {
+		GraphNodeResponse data = sse.data();
+		return sse.event() == null && sse.id() == null && data != null && data.getText() != null && !data.isError()
+				&& !data.isComplete();
+	}
+
+	private static boolean isSameFrame(ServerSentEvent<GraphNodeResponse> pending,
+			ServerSentEvent<GraphNodeResponse> chunk) {
+		if (!isMergeable(chunk)) {
+			return false;
+		}
+		GraphNodeResponse a = pending.data();
+		GraphNodeResponse b = chunk.data();
+		return Objects.equals(a.getNodeName(), b.getNodeName()) && a.getTextType() == b.getTextType()
+				&& Objects.equals(a.getThreadId(), b.getThreadId()) && Objects.equals(a.getAgentId(), b.getAgentId());
+	}
+
+	private static ServerSentEvent<GraphNodeResponse> withText(ServerSentEvent<GraphNodeResponse> sse, String text) {
+		GraphNodeResponse data = sse.data();
+		GraphNodeResponse merged = GraphNodeResponse.builder()
+			.agentId(data.getAgentId())
+			.threadId(data.getThreadId())
+			.nodeName(data.getNodeName())
+			.textType(data.getTextType())
+			.text(text)
+			.build();
+		return ServerSentEvent.builder(merged).build();
+	}
+
+	private int bufferSize() {
+		return Math.max(1, properties.getStreamOutput().getBufferSize());
+	}
+
+	private static final class DrainThread extends Thread {
+
+		private DrainThread(Runnable task, String name) {
+			super(task, name);
+			setDaemon(true);
+		}
+
+	}
+
+	private static final class DrainThreadFactory implements ThreadFactory {
+
+		private final AtomicInteger counter = new AtomicInteger();
+
+		@Override
+		public Thread newThread(Runnable task) {
+			return new DrainThread(task, "stream-drain-" + counter.incrementAndGet());
+		}
+
+	}
+
+}
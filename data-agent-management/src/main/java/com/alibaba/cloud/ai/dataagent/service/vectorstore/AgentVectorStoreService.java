@@ -16,6 +16,7 @@
 package com.alibaba.cloud.ai.dataagent.service.vectorstore;
 
 import com.alibaba.cloud.ai.dataagent.dto.search.AgentSearchRequest;
+import com.alibaba.cloud.ai.dataagent.dto.search.VectorSearchSpec;
 import org.springframework.ai.document.Document;
 import org.springframework.ai.vectorstore.filter.Filter;
 
@@ -33,6 +34,14 @@ public interface AgentVectorStoreService {
 
 	Boolean deleteDocumentsByMetedata(String agentId, Map<String, Object> metadata);
 
+	/**
+	 * 原地更新匹配文档的元数据，不重新向量化
+	 * @param metadata 匹配条件，会自动加上 agentId
+	 * @param updates 需要写入的元数据
+	 * @return 向量库是否支持原地更新，不支持时调用方需要重新写入文档
+	 */
+	boolean updateMetadata(String agentId, Map<String, Object> metadata, Map<String, Object> updates);
+
 	/**
 	 * Get documents for specified agent
 	 */
@@ -40,11 +49,23 @@ public interface AgentVectorStoreService {
 
 	List<Document> getDocumentsForAgent(String agentId, String query, String vectorType, int topK, double threshold);
 
+	/**
+	 * 同一查询在多个向量类型上的批量检索，查询只向量化一次
+	 * @return 按向量类型分组的检索结果，顺序与 specs 一致，没有结果的类型对应空列表
+	 */
+	Map<String, List<Document>> searchBatch(String agentId, String query, List<VectorSearchSpec> specs);
+
 	// 通过元数据过滤精确查找
 	List<Document> getDocumentsOnlyByFilter(Filter.Expression filterExpression, Integer topK);
 
 	boolean hasDocuments(String agentId);
 
+	/**
+	 * 嵌入模型切换后清空由旧模型生成、已无法使用的向量
+	 * @return 是否清空了向量，清空后需要重新向量化
+	 */
+	boolean resetIfEmbeddingModelChanged();
+
 	void addDocuments(String agentId, List<Document> documents);
 
 }
@@ -20,19 +20,30 @@ import com.alibaba.cloud.ai.dataagent.constant.DocumentMetadataConstant;
 import com.alibaba.cloud.ai.dataagent.properties.DataAgentProperties;
 import com.alibaba.cloud.ai.dataagent.dto.search.AgentSearchRequest;
 import com.alibaba.cloud.ai.dataagent.dto.search.HybridSearchRequest;
+import com.alibaba.cloud.ai.dataagent.dto.search.VectorSearchSpec;
 import com.alibaba.cloud.ai.dataagent.service.hybrid.retrieval.HybridRetrievalStrategy;
+import com.alibaba.cloud.ai.dataagent.service.metrics.CacheMetrics;
+import com.alibaba.cloud.ai.dataagent.service.vectorstore.local.LocalVectorStore;
+import com.alibaba.cloud.ai.dataagent.util.SingleFlight;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.ai.document.Document;
 import org.springframework.ai.vectorstore.SearchRequest;
 import org.springframework.ai.vectorstore.SimpleVectorStore;
 import org.springframework.ai.vectorstore.VectorStore;
 import org.springframework.ai.vectorstore.filter.Filter;
+import org.springframework.ai.vectorstore.filter.FilterExpressionBuilder;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 import org.springframework.util.Assert;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
 
 import static com.alibaba.cloud.ai.dataagent.service.vectorstore.DynamicFilterService.buildFilterExpressionString;
+import static com.alibaba.cloud.ai.dataagent.service.vectorstore.DynamicFilterService.combineWithAnd;
+import static com.alibaba.cloud.ai.dataagent.service.vectorstore.DynamicFilterService.combineWithOr;
 
 @Slf4j
 @Service
@@ -48,13 +59,21 @@ public class AgentVectorStoreServiceImpl implements AgentVectorStoreService {
 
 	private final DynamicFilterService dynamicFilterService;
 
+	private final ExecutorService interactiveExecutor;
+
+	// 合并相同检索条件的并发检索
+	private final SingleFlight<AgentSearchRequest, List<Document>> searchFlight;
+
 	public AgentVectorStoreServiceImpl(VectorStore vectorStore,
 			Optional<HybridRetrievalStrategy> hybridRetrievalStrategy, DataAgentProperties dataAgentProperties,
-			DynamicFilterService dynamicFilterService) {
+			DynamicFilterService dynamicFilterService, CacheMetrics metrics,
+			@Qualifier("interactiveExecutor") ExecutorService interactiveExecutor) {
 		this.vectorStore = vectorStore;
 		this.hybridRetrievalStrategy = hybridRetrievalStrategy;
 		this.dataAgentProperties = dataAgentProperties;
 		this.dynamicFilterService = dynamicFilterService;
+		this.interactiveExecutor = interactiveExecutor;
+		this.searchFlight = new SingleFlight<>(() -> metrics.recordSingleFlightCoalesced("vector"));
 		log.info("VectorStore type: {}", vectorStore.getClass().getSimpleName());
 	}
 
@@ -62,6 +81,15 @@ public class AgentVectorStoreServiceImpl implements AgentVectorStoreService {
 	public List<Document> search(AgentSearchRequest searchRequest) {
 		Assert.hasText(searchRequest.getAgentId(), "AgentId cannot be empty");
 		Assert.hasText(searchRequest.getDocVectorType(), "DocVectorType cannot be empty");
+		if (!dataAgentProperties.isSingleFlightEnabled()) {
+			return doSearch(searchRequest);
+		}
+		// 请求对象在检索期间可能被调用方修改，以副本作为键；每个调用方拿到独立的结果列表
+		AgentSearchRequest key = searchRequest.toBuilder().build();
+		return new ArrayList<>(searchFlight.call(key, () -> doSearch(key)));
+	}
+
+	private List<Document> doSearch(AgentSearchRequest searchRequest) {
 
 		Filter.Expression filter = dynamicFilterService.buildDynamicFilter(searchRequest.getAgentId(),
 				searchRequest.getDocVectorType());
@@ -73,22 +101,145 @@ public class AgentVectorStoreServiceImpl implements AgentVectorStoreService {
 			return Collections.emptyList();
 		}
 
+		return searchWithFilter(searchRequest.getQuery(), searchRequest.getDocVectorType(), searchRequest.getTopK(),
+				searchRequest.getSimilarityThreshold(), filter);
+
+	}
+
+	private List<Document> searchWithFilter(String query, String vectorType, Integer topK, Double threshold,
+			Filter.Expression filter) {
 		HybridSearchRequest hybridRequest = HybridSearchRequest.builder()
-			.query(searchRequest.getQuery())
-			.topK(searchRequest.getTopK())
-			.similarityThreshold(searchRequest.getSimilarityThreshold())
+			.query(query)
+			.topK(topK)
+			.similarityThreshold(threshold)
 			.filterExpression(filter)
 			.build();
 
-		if (dataAgentProperties.getVectorStore().isEnableHybridSearch() && hybridRetrievalStrategy.isPresent()) {
+		if (isHybridSearchEnabled()) {
 			return hybridRetrievalStrategy.get().retrieve(hybridRequest);
 		}
 		log.debug("Hybrid search is not enabled. use vector-search only");
 		List<Document> results = vectorStore.similaritySearch(hybridRequest.toVectorSearchRequest());
-		log.debug("Search completed with vectorType: {}, found {} documents for SearchRequest: {}",
-				searchRequest.getDocVectorType(), results.size(), searchRequest);
+		log.debug("Search completed with vectorType: {}, found {} documents for query: {}", vectorType, results.size(),
+				query);
+		return results;
+	}
+
+	private boolean isHybridSearchEnabled() {
+		return dataAgentProperties.getVectorStore().isEnableHybridSearch() && hybridRetrievalStrategy.isPresent();
+	}
+
+	@Override
+	public Map<String, List<Document>> searchBatch(String agentId, String query, List<VectorSearchSpec> specs) {
+		Assert.hasText(agentId, "AgentId cannot be empty");
+		Assert.notEmpty(specs, "Search specs cannot be empty");
+
+		Map<String, List<Document>> results = new LinkedHashMap<>();
+		List<VectorSearchSpec> activeSpecs = new ArrayList<>();
+		List<Filter.Expression> filters = new ArrayList<>();
+		for (VectorSearchSpec spec : specs) {
+			results.put(spec.getVectorType(), Collections.emptyList());
+			Filter.Expression filter = dynamicFilterService.buildDynamicFilter(agentId, spec.getVectorType());
+			if (filter == null) {
+				log.warn("Dynamic filter returned null (no valid ids), skipping. AgentId: {}, VectorType: {}", agentId,
+						spec.getVectorType());
+				continue;
+			}
+			activeSpecs.add(spec);
+			filters.add(filter);
+		}
+
+		if (activeSpecs.size() == 1) {
+			VectorSearchSpec spec = activeSpecs.get(0);
+			results.put(spec.getVectorType(), searchWithFilter(query, spec.getVectorType(), spec.getTopK(),
+					spec.getSimilarityThreshold(), filters.get(0)));
+		}
+		else if (activeSpecs.size() > 1) {
+			List<List<Document>> documents = isHybridSearchEnabled() ? searchInParallel(query, activeSpecs, filters)
+					: searchCombined(query, activeSpecs, filters);
+			for (int i = 0; i < activeSpecs.size(); i++) {
+				results.put(activeSpecs.get(i).getVectorType(), documents.get(i));
+			}
+		}
+		return results;
+	}
+
+	/**
+	 * 混合检索包含关键词检索，无法合并为一次向量检索，各类型并行检索，第一个类型在调用线程执行
+	 */
+	private List<List<Document>> searchInParallel(String query, List<VectorSearchSpec> specs,
+			List<Filter.Expression> filters) {
+		List<CompletableFuture<List<Document>>> futures = new ArrayList<>();
+		for (int i = 1; i < specs.size(); i++) {
+			VectorSearchSpec spec = specs.get(i);
+			Filter.Expression filter = filters.get(i);
+			futures.add(CompletableFuture.supplyAsync(() -> searchWithFilter(query, spec.getVectorType(),
+					spec.getTopK(), spec.getSimilarityThreshold(), filter), interactiveExecutor));
+		}
+		VectorSearchSpec first = specs.get(0);
+		List<List<Document>> results = new ArrayList<>();
+		results.add(searchWithFilter(query, first.getVectorType(), first.getTopK(), first.getSimilarityThreshold(),
+				filters.get(0)));
+		try {
+			futures.forEach(future -> results.add(future.join()));
+		}
+		catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException runtimeException) {
+				throw runtimeException;
+			}
+			throw e;
+		}
 		return results;
+	}
+
+	/**
+	 * 以 OR 组合各类型的过滤条件做一次向量检索，再按向量类型拆分，并按各自的阈值与数量截取。
+	 * <p>
+	 * 合并检索的结果被占满时，候选不足的类型可能被得分更高的其他类型挤出，这些类型再单独补查一次。
+	 */
+	private List<List<Document>> searchCombined(String query, List<VectorSearchSpec> specs,
+			List<Filter.Expression> filters) {
+		int combinedTopK = specs.stream().mapToInt(VectorSearchSpec::getTopK).sum();
+		double minThreshold = specs.stream().mapToDouble(VectorSearchSpec::getSimilarityThreshold).min().orElse(0.0);
+		List<Document> documents = vectorStore.similaritySearch(SearchRequest.builder()
+			.query(query)
+			.topK(combinedTopK)
+			.similarityThreshold(minThreshold)
+			.filterExpression(combineWithOr(filters))
+			.build());
+
+		Map<String, Integer> specIndex = new HashMap<>();
+		List<List<Document>> results = new ArrayList<>();
+		for (int i = 0; i < specs.size(); i++) {
+			specIndex.put(specs.get(i).getVectorType(), i);
+			results.add(new ArrayList<>());
+		}
+		for (Document document : documents) {
+			Integer index = specIndex
+				.get(String.valueOf(document.getMetadata().get(DocumentMetadataConstant.VECTOR_TYPE)));
+			if (index == null) {
+				continue;
+			}
+			VectorSearchSpec spec = specs.get(index);
+			List<Document> partition = results.get(index);
+			if (partition.size() < spec.getTopK()
+					&& (document.getScore() == null || document.getScore() >= spec.getSimilarityThreshold())) {
+				partition.add(document);
+			}
+		}
 
+		boolean saturated = documents.size() >= combinedTopK;
+		for (int i = 0; saturated && i < specs.size(); i++) {
+			VectorSearchSpec spec = specs.get(i);
+			if (results.get(i).size() < spec.getTopK()) {
+				log.debug("Combined search saturated, searching vectorType {} separately", spec.getVectorType());
+				results.set(i, searchWithFilter(query, spec.getVectorType(), spec.getTopK(),
+						spec.getSimilarityThreshold(), filters.get(i)));
+			}
+		}
+		log.debug("Combined search over {} vector types found {} documents for query: {}", specs.size(),
+				documents.size(), query);
+		return results;
 	}
 
 	@Override
@@ -137,6 +288,27 @@ public class AgentVectorStoreServiceImpl implements AgentVectorStoreService {
 		return true;
 	}
 
+	@Override
+	public boolean updateMetadata(String agentId, Map<String, Object> metadata, Map<String, Object> updates) {
+		Assert.hasText(agentId, "AgentId cannot be empty.");
+		Assert.notNull(metadata, "Metadata cannot be null.");
+		// 外部向量库没有通用的元数据更新接口，由调用方重新写入文档
+		if (!(vectorStore instanceof LocalVectorStore localVectorStore)) {
+			return false;
+		}
+		FilterExpressionBuilder b = new FilterExpressionBuilder();
+		List<Filter.Expression> conditions = new ArrayList<>();
+		conditions.add(b.eq(Constant.AGENT_ID, agentId).build());
+		metadata.forEach((key, value) -> {
+			if (!Constant.AGENT_ID.equals(key)) {
+				conditions.add(b.eq(key, value).build());
+			}
+		});
+		int updated = localVectorStore.updateMetadata(combineWithAnd(conditions), updates);
+		log.debug("Updated metadata of {} documents for agent {}: {}", updated, agentId, updates);
+		return true;
+	}
+
 	private void batchDelDocumentsWithFilter(String filterExpression) {
 		Set<String> seenDocumentIds = new HashSet<>();
 		// 分批获取，因为Milvus等向量数据库的topK有限制
@@ -203,6 +375,10 @@ public class AgentVectorStoreServiceImpl implements AgentVectorStoreService {
 		Assert.notNull(filterExpression, "filterExpression cannot be null.");
 		if (topK == null)
 			topK = dataAgentProperties.getVectorStore().getDefaultTopkLimit();
+		// 本地向量库直接在 (agentId, vectorType) 分区和元数据索引上查找，不需要向量化默认查询
+		if (vectorStore instanceof LocalVectorStore localVectorStore) {
+			return localVectorStore.findByFilter(filterExpression, topK);
+		}
 		SearchRequest searchRequest = SearchRequest.builder()
 			.query(DEFAULT)
 			.topK(topK)
@@ -214,6 +390,11 @@ public class AgentVectorStoreServiceImpl implements AgentVectorStoreService {
 
 	@Override
 	public boolean hasDocuments(String agentId) {
+		if (vectorStore instanceof LocalVectorStore localVectorStore) {
+			return !localVectorStore
+				.findByFilter(new FilterExpressionBuilder().eq(Constant.AGENT_ID, agentId).build(), 1)
+				.isEmpty();
+		}
 		// 类似 MySQL 的 LIMIT 1,只检查是否存在文档
 		List<Document> docs = vectorStore.similaritySearch(org.springframework.ai.vectorstore.SearchRequest.builder()
 			.query(DEFAULT)// 使用默认的查询字符串，因为有的嵌入模型不支持空字符串
@@ -224,4 +405,13 @@ public class AgentVectorStoreServiceImpl implements AgentVectorStoreService {
 		return !docs.isEmpty();
 	}
 
+	@Override
+	public boolean resetIfEmbeddingModelChanged() {
+		// 外部向量库的集合维度由其自身管理，这里只处理本地向量库
+		if (vectorStore instanceof LocalVectorStore localVectorStore) {
+			return localVectorStore.resetIfEmbeddingModelChanged();
+		}
+		return false;
+	}
+
 }
@@ -17,28 +17,57 @@ package com.alibaba.cloud.ai.dataagent.service.vectorstore;
 
 import com.alibaba.cloud.ai.dataagent.constant.Constant;
 import com.alibaba.cloud.ai.dataagent.constant.DocumentMetadataConstant;
+import com.alibaba.cloud.ai.dataagent.event.AgentRecallScopeChangedEvent;
 import com.alibaba.cloud.ai.dataagent.mapper.AgentKnowledgeMapper;
 import com.alibaba.cloud.ai.dataagent.mapper.BusinessKnowledgeMapper;
-import lombok.AllArgsConstructor;
+import com.alibaba.cloud.ai.dataagent.properties.DataAgentProperties;
+import com.alibaba.cloud.ai.dataagent.properties.DataAgentProperties.VectorStoreProperties.RecallFilterMode;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.ai.vectorstore.filter.Filter;
 import org.springframework.ai.vectorstore.filter.FilterExpressionBuilder;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
+/**
+ * 构建向量检索的动态过滤条件。
+ * <p>
+ * 业务知识与智能体知识需要按数据库中的召回状态过滤。IDS 方式下，每个智能体缓存据启用召回的 ID 构建好的 IN 条件及 ID
+ * 数量；知识增删、召回状态变更与向量化完成时发布的 {@link AgentRecallScopeChangedEvent} 在事务提交后失效对应缓存。METADATA
+ * 方式下直接按向量元数据中的 recalled 标记过滤，不查询数据库。
+ * <p>
+ * 事件只在本实例内传播。多实例部署时，其他实例上的变更要等缓存按 recall-ids-ttl-millis 过期后才可见；对一致性要求高时可将其设为 0 关闭缓存。
+ */
 @Slf4j
 @Component
-@AllArgsConstructor
 public class DynamicFilterService {
 
 	private final AgentKnowledgeMapper agentKnowledgeMapper;
 
 	private final BusinessKnowledgeMapper businessKnowledgeMapper;
 
+	private final DataAgentProperties.VectorStoreProperties vectorStoreProperties;
+
+	// 键为 agentId + vectorType
+	private final Map<String, CachedIds> recalledIdsCache = new ConcurrentHashMap<>();
+
+	// 每个智能体的失效版本号，加载期间发生失效时不写入旧结果
+	private final Map<String, AtomicLong> agentVersions = new ConcurrentHashMap<>();
+
+	public DynamicFilterService(AgentKnowledgeMapper agentKnowledgeMapper,
+			BusinessKnowledgeMapper businessKnowledgeMapper, DataAgentProperties properties) {
+		this.agentKnowledgeMapper = agentKnowledgeMapper;
+		this.businessKnowledgeMapper = businessKnowledgeMapper;
+		this.vectorStoreProperties = properties.getVectorStore();
+	}
+
 	public Filter.Expression buildDynamicFilter(String agentId, String vectorType) {
 		FilterExpressionBuilder b = new FilterExpressionBuilder();
 		List<Filter.Expression> conditions = new ArrayList<>();
@@ -50,34 +79,19 @@ public class DynamicFilterService {
 		switch (vectorType) {
 
 			case DocumentMetadataConstant.AGENT_KNOWLEDGE:
-				// 场景 A: 知识库文档 -> 需要查 MySQL 获取启用状态
-				List<Integer> validIds = agentKnowledgeMapper.selectRecalledKnowledgeIds(Integer.valueOf(agentId));
-
-				if (validIds.isEmpty()) {
-					log.warn("Agent {} has no recalled knowledge documents. Returning empty filter signal.", agentId);
-					return null;
-				}
-				else {
-					// 加入 ID 过滤
-					conditions.add(b.in(DocumentMetadataConstant.DB_AGENT_KNOWLEDGE_ID, validIds.toArray()).build());
-				}
-				break;
-
 			case DocumentMetadataConstant.BUSINESS_TERM:
-				// 场景 B: 业务知识 -> 查 business_knowledge 表的需要召回的
-				List<Long> recalledBusinessKnowledgeIds = businessKnowledgeMapper
-					.selectRecalledKnowledgeIds(Long.valueOf(agentId));
-
-				if (recalledBusinessKnowledgeIds.isEmpty()) {
-					log.warn("Agent {} has no recalled business terms. Returning empty filter signal.", agentId);
-					return null;
+				if (vectorStoreProperties.getRecallFilterMode() == RecallFilterMode.METADATA) {
+					conditions.add(b.eq(DocumentMetadataConstant.RECALLED, true).build());
+					break;
 				}
-				else {
-					// 添加 ID 过滤
-					conditions
-						.add(b.in(DocumentMetadataConstant.DB_BUSINESS_TERM_ID, recalledBusinessKnowledgeIds.toArray())
-							.build());
+				// 场景 A: 知识库文档 / 场景 B: 业务知识 -> 按数据库中需要召回的 ID 过滤
+				RecalledIds recalledIds = getRecalledIds(agentId, vectorType);
+				if (recalledIds.isEmpty()) {
+					log.warn("Agent {} has no recalled {} documents. Returning empty filter signal.", agentId,
+							vectorType);
+					return null;
 				}
+				conditions.add(recalledIds.filter());
 				break;
 
 			default:
@@ -90,6 +104,84 @@ public class DynamicFilterService {
 		return combineWithAnd(conditions);
 	}
 
+	/**
+	 * 智能体某类知识中启用召回的 ID，按智能体缓存
+	 */
+	RecalledIds getRecalledIds(String agentId, String vectorType) {
+		long ttlMillis = vectorStoreProperties.getRecallIdsTtlMillis();
+		if (ttlMillis <= 0) {
+			return loadRecalledIds(agentId, vectorType);
+		}
+		String key = agentId + ':' + vectorType;
+		CachedIds cached = recalledIdsCache.get(key);
+		if (cached != null) {
+			if (System.nanoTime() - cached.loadedAtNanos() < TimeUnit.MILLISECONDS.toNanos(ttlMillis)) {
+				return cached.ids();
+			}
+			recalledIdsCache.remove(key, cached);
+		}
+		AtomicLong version = agentVersions.computeIfAbsent(agentId, id -> new AtomicLong());
+		long loadedAt = version.get();
+		CachedIds loaded = new CachedIds(loadRecalledIds(agentId, vectorType), System.nanoTime());
+		if (version.get() == loadedAt) {
+			recalledIdsCache.put(key, loaded);
+			// 写入后再次校验，写入期间发生的失效同样生效
+			if (version.get() != loadedAt) {
+				recalledIdsCache.remove(key, loaded);
+			}
+		}
+		return loaded.ids();
+	}
+
+	private RecalledIds loadRecalledIds(String agentId, String vectorType) {
+		if (DocumentMetadataConstant.AGENT_KNOWLEDGE.equals(vectorType)) {
+			return RecalledIds.of(DocumentMetadataConstant.DB_AGENT_KNOWLEDGE_ID,
+					agentKnowledgeMapper.selectRecalledKnowledgeIds(Integer.valueOf(agentId)));
+		}
+		return RecalledIds.of(DocumentMetadataConstant.DB_BUSINESS_TERM_ID,
+				businessKnowledgeMapper.selectRecalledKnowledgeIds(Long.valueOf(agentId)));
+	}
+
+	/**
+	 * 清空某个智能体缓存的召回 ID
+	 */
+	public void invalidate(String agentId) {
+		agentVersions.computeIfAbsent(agentId, id -> new AtomicLong()).incrementAndGet();
+		recalledIdsCache.keySet().removeIf(key -> key.startsWith(agentId + ':'));
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onRecallScopeChanged(AgentRecallScopeChangedEvent event) {
+		if (event.getScope() == AgentRecallScopeChangedEvent.Scope.SCHEMA) {
+			return;
+		}
+		log.debug("Recall scope {} changed for agent {}, recalled ids evicted", event.getScope(), event.getAgentId());
+		invalidate(event.getAgentId());
+	}
+
+	private record CachedIds(RecalledIds ids, long loadedAtNanos) {
+	}
+
+	/**
+	 * 启用召回的 ID 构建的 IN 条件，ID 本身只保留数量，不另存一份数组
+	 */
+	record RecalledIds(int count, Filter.Expression filter) {
+
+		private static final RecalledIds EMPTY = new RecalledIds(0, null);
+
+		static RecalledIds of(String idKey, List<? extends Number> ids) {
+			if (ids.isEmpty()) {
+				return EMPTY;
+			}
+			return new RecalledIds(ids.size(), new FilterExpressionBuilder().in(idKey, ids.toArray()).build());
+		}
+
+		boolean isEmpty() {
+			return count == 0;
+		}
+
+	}
+
 	/**
 	 * 将多个过滤条件用 AND 连接起来
 	 * @param conditions 条件列表
@@ -125,6 +217,22 @@ public class DynamicFilterService {
 		return result;
 	}
 
+	/**
+	 * 将多个过滤条件用 OR 连接起来
+	 * @param conditions 条件列表
+	 * @return 组合后的 Expression
+	 */
+	public static Filter.Expression combineWithOr(List<Filter.Expression> conditions) {
+		if (conditions == null || conditions.isEmpty()) {
+			return null;
+		}
+		Filter.Expression result = conditions.get(0);
+		for (int i = 1; i < conditions.size(); i++) {
+			result = new Filter.Expression(Filter.ExpressionType.OR, result, conditions.get(i));
+		}
+		return result;
+	}
+
 	public static String buildFilterExpressionString(Map<String, Object> filterMap) {
 		if (filterMap == null || filterMap.isEmpty()) {
 			return null;
@@ -0,0 +1,208 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.dataagent.service.vectorstore.local;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.IntConsumer;
+
+/**
+ * IVF 倒排聚类索引：用球面 k-means 把单位向量分成若干簇，查询时只扫描与查询向量最近的几个簇。
+ * <p>
+ * 簇内只保存槽位号，删除时不做物理移除，由调用方在扫描时校验槽位当前是否仍属于该簇，压缩时重建。非线程安全，由调用方加锁。
+ */
+final class IvfIndex {
+
+	private static final int TRAIN_ITERATIONS = 10;
+
+	private static final int SAMPLES_PER_LIST = 64;
+
+	private final float[][] centroids;
+
+	private final int[][] lists;
+
+	private final int[] sizes;
+
+	private IvfIndex(float[][] centroids) {
+		this.centroids = centroids;
+		this.lists = new int[centroids.length][];
+		this.sizes = new int[centroids.length];
+		Arrays.setAll(lists, i -> new int[16]);
+	}
+
+	/**
+	 * 聚类数取 sqrt(n)，训练样本最多为每簇 {@value #SAMPLES_PER_LIST} 条
+	 */
+	static int listCount(int vectors) {
+		return Math.max(1, Math.min(4096, (int) Math.sqrt(vectors)));
+	}
+
+	static int sampleSize(int listCount) {
+		return listCount * SAMPLES_PER_LIST;
+	}
+
+	static IvfIndex train(List<float[]> samples, int listCount, long seed) {
+		Random random = new Random(seed);
+		int dims = samples.get(0).length;
+		int k = Math.min(listCount, samples.size());
+		float[][] centroids = new float[k][];
+		int[] order = random.ints(0, samples.size()).distinct().limit(k).toArray();
+		for (int i = 0; i < k; i++) {
+			centroids[i] = samples.get(order[i]).clone();
+		}
+		int[] assignment = new int[samples.size()];
+		for (int iter = 0; iter < TRAIN_ITERATIONS; iter++) {
+			float[][] sums = new float[k][dims];
+			for (int s = 0; s < samples.size(); s++) {
+				float[] v = samples.get(s);
+				int best = nearest(centroids, v);
+				assignment[s] = best;
+				for (int d = 0; d < dims; d++) {
+					sums[best][d] += v[d];
+				}
+			}
+			for (int c = 0; c < k; c++) {
+				// 空簇保留原中心，非空簇取均值后归一化
+				if (normalize(sums[c])) {
+					centroids[c] = sums[c];
+				}
+			}
+		}
+		return new IvfIndex(centroids);
+	}
+
+	int listCount() {
+		return centroids.length;
+	}
+
+	int assign(float[] vector) {
+		return nearest(centroids, vector);
+	}
+
+	void add(int list, int slot) {
+		if (sizes[list] == lists[list].length) {
+			lists[list] = Arrays.copyOf(lists[list], lists[list].length * 2);
+		}
+		lists[list][sizes[list]++] = slot;
+	}
+
+	void clearLists() {
+		Arrays.fill(sizes, 0);
+	}
+
+	/**
+	 * 返回与查询向量最相近的 probes 个簇
+	 */
+	int[] probe(float[] query, int probes) {
+		int n = Math.min(probes, centroids.length);
+		Integer[] order = new Integer[centroids.length];
+		float[] scores = new float[centroids.length];
+		for (int c = 0; c < centroids.length; c++) {
+			order[c] = c;
+			scores[c] = dot(centroids[c], query);
+		}
+		Arrays.sort(order, (a, b) -> Float.compare(scores[b], scores[a]));
+		int[] result = new int[n];
+		for (int i = 0; i < n; i++) {
+			result[i] = order[i];
+		}
+		return result;
+	}
+
+	void forEachSlot(int list, IntConsumer consumer) {
+		int[] slots = lists[list];
+		for (int i = 0; i < sizes[list]; i++) {
+			consumer.accept(slots[i]);
+		}
+	}
+
+	void save(Path file) throws IOException {
+		Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+		try (OutputStream os = Files.newOutputStream(tmp); DataOutputStream out = new DataOutputStream(os)) {
+			out.writeInt(centroids.length);
+			out.writeInt(centroids[0].length);
+			for (float[] centroid : centroids) {
+				for (float v : centroid) {
+					out.writeFloat(v);
+				}
+			}
+		}
+		Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	static IvfIndex load(Path file) throws IOException {
+		try (InputStream is = Files.newInputStream(file); DataInputStream in = new DataInputStream(is)) {
+			int k = in.readInt();
+			int dims = in.readInt();
+			float[][] centroids = new float[k][dims];
+			for (float[] centroid : centroids) {
+				for (int d = 0; d < dims; d++) {
+					centroid[d] = in.readFloat();
+				}
+			}
+			return new IvfIndex(centroids);
+		}
+	}
+
+	static float dot(float[] a, float[] b) {
+		float sum = 0f;
+		for (int i = 0; i < a.length; i++) {
+			sum += a[i] * b[i];
+		}
+		return sum;
+	}
+
+	/**
+	 * 原地归一化为单位向量，零向量返回 false
+	 */
+	static boolean normalize(float[] vector) {
+		double norm = 0;
+		for (float v : vector) {
+			norm += v * v;
+		}
+		if (norm == 0) {
+			return false;
+		}
+		float inv = (float) (1.0 / Math.sqrt(norm));
+		for (int i = 0; i < vector.length; i++) {
+			vector[i] *= inv;
+		}
+		return true;
+	}
+
+	private static int nearest(float[][] centroids, float[] vector) {
+		int best = 0;
+		float bestScore = Float.NEGATIVE_INFINITY;
+		for (int c = 0; c < centroids.length; c++) {
+			float score = dot(centroids[c], vector);
+			if (score > bestScore) {
+				bestScore = score;
+				best = c;
+			}
+		}
+		return best;
+	}
+
+}
@@ -0,0 +1,832 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.dataagent.service.vectorstore.local;
+
+import com.alibaba.cloud.ai.dataagent.constant.Constant;
+import com.alibaba.cloud.ai.dataagent.constant.DocumentMetadataConstant;
+import com.alibaba.cloud.ai.dataagent.properties.DataAgentProperties.VectorStoreProperties.LocalStore;
+import com.alibaba.cloud.ai.dataagent.properties.DataAgentProperties.VectorStoreProperties.LocalStore.Quantization;
+import com.alibaba.cloud.ai.dataagent.util.JsonUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.document.DocumentMetadata;
+import org.springframework.ai.embedding.BatchingStrategy;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingOptions;
+import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.ai.vectorstore.filter.Filter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * 基于本地文件的持久化向量库，替代 SimpleVectorStore 作为未接入外部向量库时的默认实现。
+ * <p>
+ * <ul>
+ * <li>向量归一化后写入内存映射文件，支持 FLOAT32 与 INT8 两种精度，相似度即点积</li>
+ * <li>文本与元数据写入追加日志，重启时回放日志、映射向量文件即可恢复，无需重新向量化</li>
+ * <li>按 (agentId, vectorType) 分区，并对 tableName 等常用过滤字段维护倒排索引，等值/IN
+ * 条件先缩小候选集，再对候选做完整过滤和打分</li>
+ * <li>仅按元数据过滤的查找通过 {@link #findByFilter} 直接在分区和索引上完成，不需要向量化查询</li>
+ * <li>向量数达到阈值后训练 IVF 聚类索引，候选集较大时只扫描最近的若干簇，结果不足 topK 时回退精确扫描</li>
+ * <li>按过滤条件删除直接在索引上执行，不需要先做一次相似度搜索</li>
+ * <li>清单文件记录向量维度和嵌入模型标识，切换嵌入模型后旧向量不再可用，默认清空向量库，由智能体初始化重新向量化</li>
+ * </ul>
+ * 读写通过读写锁隔离，搜索可以并发执行。
+ */
+@Slf4j
+public class LocalVectorStore implements VectorStore, Closeable {
+
+	private static final String VECTORS_FILE = "vectors.bin";
+
+	private static final String RECORDS_FILE = "records.jsonl";
+
+	private static final String CENTROIDS_FILE = "ivf-centroids.bin";
+
+	private static final String MANIFEST_FILE = "manifest.json";
+
+	/**
+	 * 日志行数超过该值且超过存活文档数的两倍时压缩
+	 */
+	private static final int COMPACT_MIN_LINES = 1000;
+
+	private static final long IVF_SEED = 42L;
+
+	private static final Set<String> PARTITION_KEYS = Set.of(Constant.AGENT_ID, DocumentMetadataConstant.VECTOR_TYPE);
+
+	private final EmbeddingModel embeddingModel;
+
+	private final BatchingStrategy batchingStrategy;
+
+	private final LocalStore properties;
+
+	private final Path directory;
+
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+	private final Map<String, StoredRecord> byId = new HashMap<>();
+
+	private final List<StoredRecord> bySlot = new ArrayList<>();
+
+	private final BitSet usedSlots = new BitSet();
+
+	/**
+	 * 元数据倒排索引：字段名 -> 规范化取值 -> 槽位集合
+	 */
+	private final Map<String, Map<String, BitSet>> keyIndex = new HashMap<>();
+
+	/**
+	 * 按 (agentId, vectorType) 划分的分区，过滤条件同时限定两者时直接以分区作为候选集，不会扫描其他智能体的文档
+	 */
+	private final Map<String, BitSet> partitions = new HashMap<>();
+
+	private final RecordLog recordLog;
+
+	private final Quantization quantization;
+
+	/**
+	 * 当前嵌入模型的标识，未配置嵌入模型时返回 null
+	 */
+	private final Supplier<String> fingerprintSupplier;
+
+	/**
+	 * 已有向量所用嵌入模型的标识，旧版本清单中没有该字段时为 null
+	 */
+	private String embeddingFingerprint;
+
+	private MappedVectorFile vectors;
+
+	private IvfIndex ivf;
+
+	/**
+	 * 是否有线程正在锁外训练 IVF
+	 */
+	private final AtomicBoolean ivfTraining = new AtomicBoolean(false);
+
+	private LocalVectorStore(EmbeddingModel embeddingModel, BatchingStrategy batchingStrategy, LocalStore properties,
+			Supplier<String> fingerprintSupplier) throws IOException {
+		this.embeddingModel = embeddingModel;
+		this.batchingStrategy = batchingStrategy;
+		this.properties = properties;
+		this.fingerprintSupplier = fingerprintSupplier;
+		this.directory = Paths.get(properties.getPath()).toAbsolutePath();
+		Files.createDirectories(directory);
+
+		Manifest manifest = readManifest();
+		if (manifest != null && manifest.quantization() != properties.getQuantization()) {
+			log.warn("Local vector store at {} was created with {} quantization, ignoring configured {}", directory,
+					manifest.quantization(), properties.getQuantization());
+		}
+		this.quantization = manifest != null ? manifest.quantization() : properties.getQuantization();
+
+		Map<String, RecordLog.Entry> live = new LinkedHashMap<>();
+		this.recordLog = RecordLog.open(directory.resolve(RECORDS_FILE), live);
+		if (manifest == null && !live.isEmpty()) {
+			throw new IllegalStateException("Local vector store manifest is missing in " + directory);
+		}
+		if (manifest != null) {
+			this.vectors = new MappedVectorFile(directory.resolve(VECTORS_FILE), manifest.dimensions(), quantization);
+			this.embeddingFingerprint = manifest.embeddingFingerprint();
+		}
+		Path centroids = directory.resolve(CENTROIDS_FILE);
+		if (vectors != null && Files.exists(centroids)) {
+			this.ivf = IvfIndex.load(centroids);
+		}
+		for (RecordLog.Entry entry : live.values()) {
+			int list = entry.list() == null ? -1 : entry.list();
+			if (ivf != null && (list < 0 || list >= ivf.listCount())) {
+				list = ivf.assign(vectors.read(entry.slot()));
+			}
+			register(new StoredRecord(entry.id(), entry.slot(), list, entry.text(),
+					entry.metadata() == null ? new HashMap<>() : entry.metadata()));
+		}
+		log.info("Opened local vector store at {} with {} documents, quantization: {}, ivf lists: {}", directory,
+				byId.size(), quantization, ivf == null ? 0 : ivf.listCount());
+	}
+
+	public static LocalVectorStore open(EmbeddingModel embeddingModel, BatchingStrategy batchingStrategy,
+			LocalStore properties) throws IOException {
+		return open(embeddingModel, batchingStrategy, properties, () -> null);
+	}
+
+	/**
+	 * @param fingerprintSupplier 当前嵌入模型的标识，与清单中记录的不一致时视为已切换嵌入模型
+	 */
+	public static LocalVectorStore open(EmbeddingModel embeddingModel, BatchingStrategy batchingStrategy,
+			LocalStore properties, Supplier<String> fingerprintSupplier) throws IOException {
+		return new LocalVectorStore(embeddingModel, batchingStrategy, properties, fingerprintSupplier);
+	}
+
+	@Override
+	public void add(List<Document> documents) {
+		if (documents == null || documents.isEmpty()) {
+			return;
+		}
+		// 向量化在锁外进行，避免远程调用期间阻塞搜索
+		List<float[]> embeddings = embeddingModel.embed(documents, EmbeddingOptions.builder().build(),
+				batchingStrategy);
+		String fingerprint = fingerprintSupplier.get();
+		IvfTraining training;
+		lock.writeLock().lock();
+		try {
+			if (!embeddings.isEmpty()) {
+				resetIfStale(embeddings.get(0).length, fingerprint);
+				if (vectors != null && embeddingFingerprint == null && fingerprint != null) {
+					// 旧版本清单中没有嵌入模型标识，维度一致时补记当前模型
+					writeManifest(vectors.dimensions(), fingerprint);
+				}
+			}
+			List<RecordLog.Entry> entries = new ArrayList<>(documents.size());
+			List<Integer> released = new ArrayList<>();
+			for (int i = 0; i < documents.size(); i++) {
+				Document document = documents.get(i);
+				float[] vector = embeddings.get(i).clone();
+				IvfIndex.normalize(vector);
+				ensureVectorFile(vector.length, fingerprint);
+				StoredRecord existing = byId.get(document.getId());
+				if (existing != null) {
+					unregister(existing);
+					released.add(existing.slot);
+				}
+				int slot = usedSlots.nextClearBit(0);
+				vectors.write(slot, vector);
+				int list = ivf != null ? ivf.assign(vector) : -1;
+				StoredRecord record = new StoredRecord(document.getId(), slot, list, document.getText(),
+						new HashMap<>(document.getMetadata()));
+				register(record);
+				entries.add(RecordLog.put(record.id, slot, list, record.text, record.metadata));
+			}
+			// 先落盘向量再写日志，日志中的记录总是指向已写入的向量
+			vectors.force();
+			recordLog.append(entries);
+			// 被覆盖文档的槽位在日志写入后才释放，避免同一批次内复用导致崩溃后日志指向错误的向量
+			released.forEach(usedSlots::clear);
+			maybeCompact();
+			training = prepareIvfTraining();
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException("Failed to add documents to local vector store", e);
+		}
+		finally {
+			lock.writeLock().unlock();
+		}
+		if (training != null) {
+			trainIvf(training);
+		}
+	}
+
+	@Override
+	public void delete(List<String> idList) {
+		lock.writeLock().lock();
+		try {
+			List<StoredRecord> records = idList.stream().map(byId::get).filter(r -> r != null).toList();
+			deleteRecords(records);
+		}
+		finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public void delete(Filter.Expression filterExpression) {
+		lock.writeLock().lock();
+		try {
+			List<StoredRecord> records = new ArrayList<>();
+			forEachMatch(filterExpression, records::add);
+			deleteRecords(records);
+		}
+		finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * 原地更新匹配文档的元数据，向量与簇分配保持不变，不需要重新向量化
+	 * @return 更新的文档数
+	 */
+	public int updateMetadata(Filter.Expression filterExpression, Map<String, Object> updates) {
+		lock.writeLock().lock();
+		try {
+			List<StoredRecord> records = new ArrayList<>();
+			forEachMatch(filterExpression, records::add);
+			if (records.isEmpty()) {
+				return 0;
+			}
+			List<RecordLog.Entry> entries = new ArrayList<>(records.size());
+			for (StoredRecord record : records) {
+				unregister(record);
+				record.metadata.putAll(updates);
+				register(record);
+				entries.add(RecordLog.put(record.id, record.slot, record.list, record.text, record.metadata));
+			}
+			recordLog.append(entries);
+			maybeCompact();
+			return records.size();
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException("Failed to update document metadata in local vector store", e);
+		}
+		finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public List<Document> similaritySearch(SearchRequest request) {
+		float[] query = embeddingModel.embed(request.getQuery()).clone();
+		IvfIndex.normalize(query);
+		String fingerprint = fingerprintSupplier.get();
+		Filter.Expression filter = request.hasFilterExpression() ? request.getFilterExpression() : null;
+		lock.readLock().lock();
+		try {
+			if (vectors == null || byId.isEmpty()) {
+				return List.of();
+			}
+			if (isStale(query.length, fingerprint)) {
+				// 已有向量来自其他嵌入模型，无法参与相似度计算。读路径不清空数据，由嵌入模型切换事件或下一次写入完成清空
+				if (!properties.isRebuildOnEmbeddingChange()) {
+					throw new IllegalStateException(staleMessage(query.length, fingerprint));
+				}
+				return List.of();
+			}
+			return search(query, filter, request);
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * 嵌入模型切换后清空由旧模型生成的向量，之后需要重新向量化
+	 * @return 是否清空了向量库
+	 */
+	public boolean resetIfEmbeddingModelChanged() {
+		String fingerprint = fingerprintSupplier.get();
+		lock.writeLock().lock();
+		try {
+			if (vectors == null || embeddingFingerprint == null || fingerprint == null
+					|| embeddingFingerprint.equals(fingerprint)) {
+				return false;
+			}
+			if (!properties.isRebuildOnEmbeddingChange()) {
+				log.warn(staleMessage(vectors.dimensions(), fingerprint));
+				return false;
+			}
+			reset(vectors.dimensions(), fingerprint);
+			return true;
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException("Failed to reset local vector store", e);
+		}
+		finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	private List<Document> search(float[] query, Filter.Expression filter, SearchRequest request) {
+		BitSet candidates = candidates(filter);
+		int candidateCount = candidates != null ? candidates.cardinality() : byId.size();
+		if (ivf != null && candidateCount > properties.getExactScanLimit()) {
+			TopK approximate = new TopK(request.getTopK(), request.getSimilarityThreshold());
+			for (int list : ivf.probe(query, properties.getIvfProbes())) {
+				ivf.forEachSlot(list, slot -> {
+					StoredRecord record = recordAt(slot);
+					// 簇内的槽位可能已被删除或复用到其他簇
+					if (record != null && record.list == list && (candidates == null || candidates.get(slot))) {
+						score(record, query, filter, approximate);
+					}
+				});
+			}
+			if (approximate.size() >= request.getTopK()) {
+				return approximate.toDocuments();
+			}
+		}
+		TopK exact = new TopK(request.getTopK(), request.getSimilarityThreshold());
+		scanExact(candidates, query, filter, exact);
+		return exact.toDocuments();
+	}
+
+	/**
+	 * 仅按元数据过滤查找文档，不向量化查询、不计算相似度，结果按写入位置排序且不带分数
+	 * @param limit 最多返回的文档数
+	 */
+	public List<Document> findByFilter(Filter.Expression filter, int limit) {
+		lock.readLock().lock();
+		try {
+			BitSet slots = candidates(filter);
+			if (slots == null) {
+				slots = usedSlots;
+			}
+			List<Document> documents = new ArrayList<>();
+			for (int slot = slots.nextSetBit(0); slot >= 0
+					&& documents.size() < limit; slot = slots.nextSetBit(slot + 1)) {
+				StoredRecord record = recordAt(slot);
+				if (record != null && (filter == null || MetadataFilters.matches(filter, record.metadata))) {
+					documents.add(Document.builder()
+						.id(record.id)
+						.text(record.text)
+						.metadata(new HashMap<>(record.metadata))
+						.build());
+				}
+			}
+			return documents;
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * 当前存活的文档数
+	 */
+	public int size() {
+		lock.readLock().lock();
+		try {
+			return byId.size();
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		lock.writeLock().lock();
+		try {
+			recordLog.close();
+			if (vectors != null) {
+				vectors.close();
+				// 关闭后仍在锁外训练的 IVF 不再替换索引
+				vectors = null;
+			}
+		}
+		finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	private void scanExact(BitSet candidates, float[] query, Filter.Expression filter, TopK topK) {
+		BitSet slots = candidates != null ? candidates : usedSlots;
+		for (int slot = slots.nextSetBit(0); slot >= 0; slot = slots.nextSetBit(slot + 1)) {
+			StoredRecord record = recordAt(slot);
+			if (record != null) {
+				score(record, query, filter, topK);
+			}
+		}
+	}
+
+	private void score(StoredRecord record, float[] query, Filter.Expression filter, TopK topK) {
+		if (filter != null && !MetadataFilters.matches(filter, record.metadata)) {
+			return;
+		}
+		topK.offer(record, vectors.dot(record.slot, query));
+	}
+
+	private void forEachMatch(Filter.Expression filter, Consumer<StoredRecord> consumer) {
+		BitSet slots = candidates(filter);
+		if (slots == null) {
+			slots = usedSlots;
+		}
+		for (int slot = slots.nextSetBit(0); slot >= 0; slot = slots.nextSetBit(slot + 1)) {
+			StoredRecord record = recordAt(slot);
+			if (record != null && MetadataFilters.matches(filter, record.metadata)) {
+				consumer.accept(record);
+			}
+		}
+	}
+
+	private BitSet candidates(Filter.Expression filter) {
+		if (filter == null) {
+			return null;
+		}
+		Map<String, Object> pinned = MetadataFilters.pinnedValues(filter);
+		Object agentId = pinned.get(Constant.AGENT_ID);
+		Object vectorType = pinned.get(DocumentMetadataConstant.VECTOR_TYPE);
+		BitSet candidates;
+		if (agentId != null && vectorType != null) {
+			BitSet partition = partitions.get(partitionKey(agentId, vectorType));
+			if (partition == null) {
+				return new BitSet();
+			}
+			candidates = (BitSet) partition.clone();
+			BitSet rest = MetadataFilters.candidates(filter, keyIndex, PARTITION_KEYS);
+			if (rest != null) {
+				candidates.and(rest);
+			}
+		}
+		else {
+			candidates = MetadataFilters.candidates(filter, keyIndex);
+		}
+		if (candidates != null) {
+			candidates.and(usedSlots);
+		}
+		return candidates;
+	}
+
+	private void deleteRecords(Collection<StoredRecord> records) {
+		if (records.isEmpty()) {
+			return;
+		}
+		try {
+			List<RecordLog.Entry> entries = new ArrayList<>(records.size());
+			for (StoredRecord record : records) {
+				unregister(record);
+				entries.add(RecordLog.del(record.id));
+			}
+			recordLog.append(entries);
+			records.forEach(record -> usedSlots.clear(record.slot));
+			maybeCompact();
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException("Failed to delete documents from local vector store", e);
+		}
+	}
+
+	private void ensureVectorFile(int dimensions, String fingerprint) throws IOException {
+		if (vectors == null) {
+			writeManifest(dimensions, fingerprint);
+			vectors = new MappedVectorFile(directory.resolve(VECTORS_FILE), dimensions, quantization);
+		}
+		else if (vectors.dimensions() != dimensions) {
+			throw new IllegalStateException("Embedding dimension " + dimensions
+					+ " does not match local vector store dimension " + vectors.dimensions());
+		}
+	}
+
+	private void writeManifest(int dimensions, String fingerprint) throws IOException {
+		JsonUtil.getObjectMapper()
+			.writeValue(directory.resolve(MANIFEST_FILE).toFile(), new Manifest(dimensions, quantization, fingerprint));
+		embeddingFingerprint = fingerprint;
+	}
+
+	/**
+	 * 已有向量是否由其他嵌入模型生成：维度不同，或两侧都有模型标识且不一致
+	 */
+	private boolean isStale(int dimensions, String fingerprint) {
+		if (dimensions == 0) {
+			throw new IllegalStateException("No active embedding model, configure one before using the vector store");
+		}
+		return vectors != null && (vectors.dimensions() != dimensions
+				|| (embeddingFingerprint != null && fingerprint != null && !embeddingFingerprint.equals(fingerprint)));
+	}
+
+	/**
+	 * 调用方需持有写锁
+	 */
+	private void resetIfStale(int dimensions, String fingerprint) throws IOException {
+		if (!isStale(dimensions, fingerprint)) {
+			return;
+		}
+		if (!properties.isRebuildOnEmbeddingChange()) {
+			throw new IllegalStateException(staleMessage(dimensions, fingerprint));
+		}
+		reset(dimensions, fingerprint);
+	}
+
+	private void reset(int dimensions, String fingerprint) throws IOException {
+		log.warn(
+				"Embedding model changed from {} ({} dimensions) to {} ({} dimensions), clearing {} documents in "
+						+ "local vector store at {}, re-initialize agents to re-embed",
+				embeddingFingerprint, vectors.dimensions(), fingerprint, dimensions, byId.size(), directory);
+		// 先清空日志，中途失败时不会留下没有清单的记录
+		recordLog.rewrite(List.of());
+		byId.clear();
+		bySlot.clear();
+		usedSlots.clear();
+		keyIndex.clear();
+		partitions.clear();
+		ivf = null;
+		vectors.close();
+		vectors = null;
+		embeddingFingerprint = null;
+		Files.deleteIfExists(directory.resolve(MANIFEST_FILE));
+		Files.deleteIfExists(directory.resolve(VECTORS_FILE));
+		Files.deleteIfExists(directory.resolve(CENTROIDS_FILE));
+	}
+
+	private String staleMessage(int dimensions, String fingerprint) {
+		return "Local vector store at " + directory + " was built with embedding model " + embeddingFingerprint + " ("
+				+ vectors.dimensions() + " dimensions) but the current model is " + fingerprint + " (" + dimensions
+				+ " dimensions). Enable spring.ai.alibaba.data-agent.vector-store.local.rebuild-on-embedding-change "
+				+ "or clear the directory, then re-initialize agents to re-embed";
+	}
+
+	/**
+	 * 首次达到阈值时训练 IVF；之后数据量增长到聚类数需要翻倍时重新训练，保持每簇大小稳定。
+	 * <p>
+	 * 调用方需持有写锁。这里只复制训练样本，k-means 由调用方释放写锁后执行，同一时刻只有一个线程训练
+	 * @return 需要训练时返回样本快照，否则返回 null
+	 */
+	private IvfTraining prepareIvfTraining() {
+		int size = byId.size();
+		if (ivf == null ? size < properties.getIvfMinVectors() : IvfIndex.listCount(size) < 2 * ivf.listCount()) {
+			return null;
+		}
+		if (!ivfTraining.compareAndSet(false, true)) {
+			return null;
+		}
+		int listCount = IvfIndex.listCount(size);
+		int stride = Math.max(1, size / IvfIndex.sampleSize(listCount));
+		List<float[]> samples = new ArrayList<>();
+		int index = 0;
+		for (int slot = usedSlots.nextSetBit(0); slot >= 0; slot = usedSlots.nextSetBit(slot + 1)) {
+			if (recordAt(slot) != null && index++ % stride == 0) {
+				samples.add(vectors.read(slot));
+			}
+		}
+		return new IvfTraining(vectors, ivf, listCount, samples);
+	}
+
+	/**
+	 * 在锁外基于样本快照训练聚类中心，再在写锁内重新分配簇并替换索引。训练期间向量库被清空时丢弃训练结果
+	 */
+	private void trainIvf(IvfTraining training) {
+		try {
+			long start = System.currentTimeMillis();
+			IvfIndex trained = IvfIndex.train(training.samples(), training.listCount(), IVF_SEED);
+			lock.writeLock().lock();
+			try {
+				if (vectors != training.vectors() || ivf != training.previous()) {
+					return;
+				}
+				for (StoredRecord record : byId.values()) {
+					record.list = trained.assign(vectors.read(record.slot));
+				}
+				ivf = trained;
+				ivf.save(directory.resolve(CENTROIDS_FILE));
+				// 重写日志以持久化新的簇分配，同时重建簇列表
+				rewriteLog();
+				log.info("Trained IVF index with {} lists over {} vectors in {}ms", ivf.listCount(), byId.size(),
+						System.currentTimeMillis() - start);
+			}
+			finally {
+				lock.writeLock().unlock();
+			}
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException("Failed to train IVF index of local vector store", e);
+		}
+		finally {
+			ivfTraining.set(false);
+		}
+	}
+
+	private void maybeCompact() throws IOException {
+		if (recordLog.lines() > COMPACT_MIN_LINES && recordLog.lines() > 2L * byId.size()) {
+			rewriteLog();
+		}
+	}
+
+	private void rewriteLog() throws IOException {
+		List<RecordLog.Entry> live = new ArrayList<>(byId.size());
+		if (ivf != null) {
+			ivf.clearLists();
+		}
+		for (int slot = usedSlots.nextSetBit(0); slot >= 0; slot = usedSlots.nextSetBit(slot + 1)) {
+			StoredRecord record = recordAt(slot);
+			if (record == null) {
+				continue;
+			}
+			live.add(RecordLog.put(record.id, record.slot, record.list, record.text, record.metadata));
+			if (ivf != null) {
+				ivf.add(record.list, record.slot);
+			}
+		}
+		recordLog.rewrite(live);
+	}
+
+	private void register(StoredRecord record) {
+		byId.put(record.id, record);
+		while (bySlot.size() <= record.slot) {
+			bySlot.add(null);
+		}
+		bySlot.set(record.slot, record);
+		usedSlots.set(record.slot);
+		for (String key : properties.getIndexedKeys()) {
+			Object value = record.metadata.get(key);
+			if (value != null) {
+				keyIndex.computeIfAbsent(key, k -> new HashMap<>())
+					.computeIfAbsent(MetadataFilters.indexKey(value), v -> new BitSet())
+					.set(record.slot);
+			}
+		}
+		String partition = partitionKey(record.metadata);
+		if (partition != null) {
+			partitions.computeIfAbsent(partition, k -> new BitSet()).set(record.slot);
+		}
+		if (ivf != null && record.list >= 0) {
+			ivf.add(record.list, record.slot);
+		}
+	}
+
+	/**
+	 * 从内存结构中移除记录，槽位由调用方在日志写入后释放
+	 */
+	private void unregister(StoredRecord record) {
+		byId.remove(record.id);
+		bySlot.set(record.slot, null);
+		for (String key : properties.getIndexedKeys()) {
+			Object value = record.metadata.get(key);
+			Map<String, BitSet> values = value == null ? null : keyIndex.get(key);
+			if (values == null) {
+				continue;
+			}
+			String indexKey = MetadataFilters.indexKey(value);
+			BitSet slots = values.get(indexKey);
+			if (slots != null) {
+				slots.clear(record.slot);
+				if (slots.isEmpty()) {
+					values.remove(indexKey);
+				}
+			}
+		}
+		String partition = partitionKey(record.metadata);
+		BitSet slots = partition == null ? null : partitions.get(partition);
+		if (slots != null) {
+			slots.clear(record.slot);
+			if (slots.isEmpty()) {
+				partitions.remove(partition);
+			}
+		}
+	}
+
+	private static String partitionKey(Map<String, Object> metadata) {
+		Object agentId = metadata.get(Constant.AGENT_ID);
+		Object vectorType = metadata.get(DocumentMetadataConstant.VECTOR_TYPE);
+		return agentId == null || vectorType == null ? null : partitionKey(agentId, vectorType);
+	}
+
+	private static String partitionKey(Object agentId, Object vectorType) {
+		return MetadataFilters.indexKey(agentId) + '\0' + MetadataFilters.indexKey(vectorType);
+	}
+
+	private StoredRecord recordAt(int slot) {
+		return slot < bySlot.size() ? bySlot.get(slot) : null;
+	}
+
+	private Manifest readManifest() throws IOException {
+		Path file = directory.resolve(MANIFEST_FILE);
+		return Files.exists(file) ? JsonUtil.getObjectMapper().readValue(file.toFile(), Manifest.class) : null;
+	}
+
+	record Manifest(int dimensions, Quantization quantization, String embeddingFingerprint) {
+	}
+
+	/**
+	 * IVF 训练的样本快照，vectors 与 previous 用于在替换前确认训练期间向量库未被清空或重新训练
+	 */
+	private record IvfTraining(MappedVectorFile vectors, IvfIndex previous, int listCount, List<float[]> samples) {
+	}
+
+	private static final class StoredRecord {
+
+		private final String id;
+
+		private final int slot;
+
+		private int list;
+
+		private final String text;
+
+		private final Map<String, Object> metadata;
+
+		private StoredRecord(String id, int slot, int list, String text, Map<String, Object> metadata) {
+			this.id = id;
+			this.slot = slot;
+			this.list = list;
+			this.text = text;
+			this.metadata = metadata;
+		}
+
+	}
+
+	private record Scored(StoredRecord record, float score) {
+	}
+
+	/**
+	 * 固定容量的小顶堆，保留相似度最高的 k 条
+	 */
+	private static final class TopK {
+
+		private final int k;
+
+		private final double threshold;
+
+		private final PriorityQueue<Scored> heap;
+
+		private TopK(int k, double threshold) {
+			this.k = k;
+			this.threshold = threshold;
+			this.heap = new PriorityQueue<>(Math.max(1, k), Comparator.comparingDouble(Scored::score));
+		}
+
+		private void offer(StoredRecord record, float score) {
+			if (score < threshold || k <= 0) {
+				return;
+			}
+			if (heap.size() < k) {
+				heap.add(new Scored(record, score));
+			}
+			else if (score > heap.peek().score()) {
+				heap.poll();
+				heap.add(new Scored(record, score));
+			}
+		}
+
+		private int size() {
+			return heap.size();
+		}
+
+		private List<Document> toDocuments() {
+			List<Scored> sorted = new ArrayList<>(heap);
+			sorted.sort(Comparator.comparingDouble(Scored::score).reversed());
+			List<Document> documents = new ArrayList<>(sorted.size());
+			for (Scored scored : sorted) {
+				Map<String, Object> metadata = new HashMap<>(scored.record().metadata);
+				metadata.put(DocumentMetadata.DISTANCE.value(), 1.0 - scored.score());
+				documents.add(Document.builder()
+					.id(scored.record().id)
+					.text(scored.record().text)
+					.metadata(metadata)
+					.score((double) scored.score())
+					.build());
+			}
+			return documents;
+		}
+
+	}
+
+}
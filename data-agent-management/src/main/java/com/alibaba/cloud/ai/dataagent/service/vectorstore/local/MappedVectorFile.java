@@ -0,0 +1,179 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.dataagent.service.vectorstore.local;
+
+import com.alibaba.cloud.ai.dataagent.properties.DataAgentProperties.VectorStoreProperties.LocalStore.Quantization;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 内存映射的定长向量文件，每个槽位保存一条单位向量。
+ * <p>
+ * FLOAT32 每维 4 字节；INT8 每条向量先存 4 字节缩放系数，再按对称量化每维 1 字节，内存与磁盘占用约为 FLOAT32 的四分之一。
+ * 文件按段映射，单段不超过 1GB，随写入按需扩展。非线程安全，由调用方加锁。
+ */
+final class MappedVectorFile implements Closeable {
+
+	private static final long MAX_SEGMENT_BYTES = 1L << 30;
+
+	private static final int MIN_SEGMENT_SLOTS = 1024;
+
+	private final FileChannel channel;
+
+	private final int dimensions;
+
+	private final Quantization quantization;
+
+	private final int slotBytes;
+
+	private final int slotsPerSegment;
+
+	private final List<MappedByteBuffer> segments = new ArrayList<>();
+
+	MappedVectorFile(Path file, int dimensions, Quantization quantization) throws IOException {
+		this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE);
+		this.dimensions = dimensions;
+		this.quantization = quantization;
+		this.slotBytes = quantization == Quantization.FLOAT32 ? dimensions * Float.BYTES : dimensions + Float.BYTES;
+		this.slotsPerSegment = (int) Math.max(1, MAX_SEGMENT_BYTES / slotBytes);
+		ensureCapacity((int) (channel.size() / slotBytes));
+	}
+
+	int dimensions() {
+		return dimensions;
+	}
+
+	/**
+	 * 写入单位向量
+	 */
+	void write(int slot, float[] vector) throws IOException {
+		ensureCapacity(slot + 1);
+		MappedByteBuffer buffer = segments.get(slot / slotsPerSegment);
+		int offset = (slot % slotsPerSegment) * slotBytes;
+		if (quantization == Quantization.FLOAT32) {
+			for (int i = 0; i < dimensions; i++) {
+				buffer.putFloat(offset + i * Float.BYTES, vector[i]);
+			}
+			return;
+		}
+		float max = 0f;
+		for (float v : vector) {
+			max = Math.max(max, Math.abs(v));
+		}
+		float scale = max == 0f ? 0f : max / 127f;
+		buffer.putFloat(offset, scale);
+		for (int i = 0; i < dimensions; i++) {
+			buffer.put(offset + Float.BYTES + i, scale == 0f ? 0 : (byte) Math.round(vector[i] / scale));
+		}
+	}
+
+	/**
+	 * 计算槽位中的向量与查询向量的点积，两者均为单位向量时即余弦相似度
+	 */
+	float dot(int slot, float[] query) {
+		MappedByteBuffer buffer = segments.get(slot / slotsPerSegment);
+		int offset = (slot % slotsPerSegment) * slotBytes;
+		float sum = 0f;
+		if (quantization == Quantization.FLOAT32) {
+			for (int i = 0; i < dimensions; i++) {
+				sum += buffer.getFloat(offset + i * Float.BYTES) * query[i];
+			}
+			return sum;
+		}
+		float scale = buffer.getFloat(offset);
+		int base = offset + Float.BYTES;
+		for (int i = 0; i < dimensions; i++) {
+			sum += buffer.get(base + i) * query[i];
+		}
+		return sum * scale;
+	}
+
+	float[] read(int slot) {
+		MappedByteBuffer buffer = segments.get(slot / slotsPerSegment);
+		int offset = (slot % slotsPerSegment) * slotBytes;
+		float[] vector = new float[dimensions];
+		if (quantization == Quantization.FLOAT32) {
+			for (int i = 0; i < dimensions; i++) {
+				vector[i] = buffer.getFloat(offset + i * Float.BYTES);
+			}
+			return vector;
+		}
+		float scale = buffer.getFloat(offset);
+		for (int i = 0; i < dimensions; i++) {
+			vector[i] = buffer.get(offset + Float.BYTES + i) * scale;
+		}
+		return vector;
+	}
+
+	/**
+	 * 把修改过的页刷到磁盘
+	 */
+	void force() {
+		segments.forEach(MappedByteBuffer::force);
+	}
+
+	@Override
+	public void close() throws IOException {
+		force();
+		channel.close();
+	}
+
+	private void ensureCapacity(int slots) throws IOException {
+		if (slots <= capacity()) {
+			return;
+		}
+		// 最后一段未满时按倍数扩大映射，避免一次映射整段在磁盘上占用 1GB
+		while (capacity() < slots) {
+			int last = segments.size() - 1;
+			int lastSlots = last < 0 ? slotsPerSegment : segments.get(last).capacity() / slotBytes;
+			if (lastSlots < slotsPerSegment) {
+				int needed = slots - last * slotsPerSegment;
+				int newSlots = Math.min(slotsPerSegment, Math.max(needed, lastSlots * 2));
+				segments.set(last, map(last, newSlots));
+			}
+			else {
+				int needed = slots - segments.size() * slotsPerSegment;
+				int newSlots = Math.min(slotsPerSegment, Math.max(needed, MIN_SEGMENT_SLOTS));
+				segments.add(map(segments.size(), newSlots));
+			}
+		}
+	}
+
+	private MappedByteBuffer map(int segment, int slots) throws IOException {
+		long position = (long) segment * slotsPerSegment * slotBytes;
+		MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, position, (long) slots * slotBytes);
+		buffer.order(ByteOrder.LITTLE_ENDIAN);
+		return buffer;
+	}
+
+	private int capacity() {
+		if (segments.isEmpty()) {
+			return 0;
+		}
+		int last = segments.size() - 1;
+		return last * slotsPerSegment + segments.get(last).capacity() / slotBytes;
+	}
+
+}
@@ -0,0 +1,231 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.dataagent.service.vectorstore.local;
+
+import org.springframework.ai.vectorstore.filter.Filter;
+
+import java.math.BigDecimal;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.IntPredicate;
+
+/**
+ * 在文档元数据上求值 {@link Filter.Expression}，并利用元数据倒排索引计算候选槽位。
+ */
+final class MetadataFilters {
+
+	private MetadataFilters() {
+	}
+
+	static boolean matches(Filter.Operand operand, Map<String, Object> metadata) {
+		if (operand instanceof Filter.Group group) {
+			return matches(group.content(), metadata);
+		}
+		if (!(operand instanceof Filter.Expression expression)) {
+			throw new IllegalArgumentException("Unsupported filter operand: " + operand);
+		}
+		return switch (expression.type()) {
+			case AND -> matches(expression.left(), metadata) && matches(expression.right(), metadata);
+			case OR -> matches(expression.left(), metadata) || matches(expression.right(), metadata);
+			case NOT -> !matches(expression.left(), metadata);
+			case EQ -> valueEquals(actual(expression, metadata), expected(expression));
+			case NE -> !valueEquals(actual(expression, metadata), expected(expression));
+			case IN -> expectedList(expression).stream().anyMatch(v -> valueEquals(actual(expression, metadata), v));
+			case NIN -> expectedList(expression).stream().noneMatch(v -> valueEquals(actual(expression, metadata), v));
+			case GT -> compareSatisfies(expression, metadata, c -> c > 0);
+			case GTE -> compareSatisfies(expression, metadata, c -> c >= 0);
+			case LT -> compareSatisfies(expression, metadata, c -> c < 0);
+			case LTE -> compareSatisfies(expression, metadata, c -> c <= 0);
+			default -> throw new IllegalArgumentException("Unsupported filter expression type: " + expression.type());
+		};
+	}
+
+	/**
+	 * 根据索引字段上的等值/IN 条件计算候选槽位。返回 null 表示索引无法缩小范围，需要扫描全部文档；返回的 BitSet 是新建的副本，可以修改。
+	 * <p>
+	 * 候选集是结果的超集，调用方仍需对每个候选调用 {@link #matches} 做完整求值。
+	 */
+	static BitSet candidates(Filter.Operand operand, Map<String, Map<String, BitSet>> index) {
+		return candidates(operand, index, Set.of());
+	}
+
+	/**
+	 * 同 {@link #candidates(Filter.Operand, Map)}，忽略 skippedKeys
+	 * 上的条件，用于调用方已按这些字段确定了候选范围的情况
+	 */
+	static BitSet candidates(Filter.Operand operand, Map<String, Map<String, BitSet>> index, Set<String> skippedKeys) {
+		if (operand instanceof Filter.Group group) {
+			return candidates(group.content(), index, skippedKeys);
+		}
+		if (!(operand instanceof Filter.Expression expression)) {
+			return null;
+		}
+		switch (expression.type()) {
+			case AND -> {
+				BitSet left = candidates(expression.left(), index, skippedKeys);
+				BitSet right = candidates(expression.right(), index, skippedKeys);
+				if (left == null || right == null) {
+					return left == null ? right : left;
+				}
+				left.and(right);
+				return left;
+			}
+			case OR -> {
+				BitSet left = candidates(expression.left(), index, skippedKeys);
+				BitSet right = candidates(expression.right(), index, skippedKeys);
+				if (left == null || right == null) {
+					return null;
+				}
+				left.or(right);
+				return left;
+			}
+			case EQ, IN -> {
+				String key = key(expression);
+				Map<String, BitSet> values = skippedKeys.contains(key) ? null : index.get(key);
+				if (values == null) {
+					return null;
+				}
+				List<Object> expected = expression.type() == Filter.ExpressionType.EQ
+						? Collections.singletonList(expected(expression)) : expectedList(expression);
+				BitSet result = new BitSet();
+				for (Object value : expected) {
+					BitSet slots = values.get(indexKey(value));
+					if (slots != null) {
+						result.or(slots);
+					}
+				}
+				return result;
+			}
+			default -> {
+				return null;
+			}
+		}
+	}
+
+	/**
+	 * 提取顶层 AND 链上的等值条件，即所有匹配文档都必须满足的字段取值
+	 */
+	static Map<String, Object> pinnedValues(Filter.Operand operand) {
+		Map<String, Object> pinned = new HashMap<>();
+		collectPinned(operand, pinned);
+		return pinned;
+	}
+
+	private static void collectPinned(Filter.Operand operand, Map<String, Object> pinned) {
+		if (operand instanceof Filter.Group group) {
+			collectPinned(group.content(), pinned);
+		}
+		else if (operand instanceof Filter.Expression expression) {
+			if (expression.type() == Filter.ExpressionType.AND) {
+				collectPinned(expression.left(), pinned);
+				collectPinned(expression.right(), pinned);
+			}
+			else if (expression.type() == Filter.ExpressionType.EQ && expression.left() instanceof Filter.Key) {
+				pinned.put(key(expression), expected(expression));
+			}
+		}
+	}
+
+	/**
+	 * 索引中使用的规范化取值，数值 1、1L、1.0 映射为同一个键
+	 */
+	static String indexKey(Object value) {
+		if (value instanceof Number number) {
+			return "n:" + normalizeNumber(number).toPlainString();
+		}
+		if (value instanceof Boolean) {
+			return "b:" + value;
+		}
+		return "s:" + value;
+	}
+
+	private static Object actual(Filter.Expression expression, Map<String, Object> metadata) {
+		return metadata.get(key(expression));
+	}
+
+	private static String key(Filter.Expression expression) {
+		if (!(expression.left() instanceof Filter.Key key)) {
+			throw new IllegalArgumentException("Filter expression left operand must be a key: " + expression);
+		}
+		String name = key.key();
+		// 文本过滤表达式中带引号的字段名
+		if (name.length() >= 2
+				&& (name.startsWith("'") && name.endsWith("'") || name.startsWith("\"") && name.endsWith("\""))) {
+			return name.substring(1, name.length() - 1);
+		}
+		return name;
+	}
+
+	private static Object expected(Filter.Expression expression) {
+		if (!(expression.right() instanceof Filter.Value value)) {
+			throw new IllegalArgumentException("Filter expression right operand must be a value: " + expression);
+		}
+		return unwrap(value.value());
+	}
+
+	private static List<Object> expectedList(Filter.Expression expression) {
+		Object value = expected(expression);
+		if (value instanceof Collection<?> collection) {
+			return collection.stream().map(MetadataFilters::unwrap).toList();
+		}
+		return Collections.singletonList(value);
+	}
+
+	private static Object unwrap(Object value) {
+		return value instanceof Filter.Value wrapped ? wrapped.value() : value;
+	}
+
+	private static boolean valueEquals(Object actual, Object expected) {
+		if (actual instanceof Number a && expected instanceof Number b) {
+			return normalizeNumber(a).compareTo(normalizeNumber(b)) == 0;
+		}
+		return Objects.equals(actual, expected);
+	}
+
+	private static boolean compareSatisfies(Filter.Expression expression, Map<String, Object> metadata,
+			IntPredicate predicate) {
+		Object actual = actual(expression, metadata);
+		Object expected = expected(expression);
+		// 缺失字段不满足任何范围条件
+		if (actual == null || expected == null) {
+			return false;
+		}
+		return predicate.test(compare(actual, expected));
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private static int compare(Object actual, Object expected) {
+		if (actual instanceof Number a && expected instanceof Number b) {
+			return normalizeNumber(a).compareTo(normalizeNumber(b));
+		}
+		if (actual instanceof Comparable comparable && actual.getClass() == expected.getClass()) {
+			return comparable.compareTo(expected);
+		}
+		return actual.toString().compareTo(expected.toString());
+	}
+
+	private static BigDecimal normalizeNumber(Number number) {
+		BigDecimal decimal = number instanceof BigDecimal bd ? bd : new BigDecimal(number.toString());
+		return decimal.stripTrailingZeros();
+	}
+
+}
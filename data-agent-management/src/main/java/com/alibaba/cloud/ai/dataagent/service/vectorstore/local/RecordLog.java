@@ -0,0 +1,144 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.dataagent.service.vectorstore.local;
+
+import com.alibaba.cloud.ai.dataagent.util.JsonUtil;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 文档元数据的追加日志，每行一个 JSON 操作（put/del）。
+ * <p>
+ * 打开时按顺序回放得到当前的文档集合，末尾写了一半的行会被忽略。失效行数超过存活文档数时由调用方触发 {@link #rewrite} 压缩。非线程安全，由调用方加锁。
+ */
+@Slf4j
+final class RecordLog implements Closeable {
+
+	static final String OP_PUT = "put";
+
+	static final String OP_DEL = "del";
+
+	private final Path file;
+
+	private BufferedWriter writer;
+
+	private long lines;
+
+	private RecordLog(Path file, long lines) throws IOException {
+		this.file = file;
+		this.lines = lines;
+		this.writer = openWriter();
+	}
+
+	/**
+	 * 回放日志，把存活记录按写入顺序放入 live
+	 */
+	static RecordLog open(Path file, Map<String, Entry> live) throws IOException {
+		long lines = 0;
+		if (Files.exists(file)) {
+			List<String> content = Files.readAllLines(file, StandardCharsets.UTF_8);
+			for (int i = 0; i < content.size(); i++) {
+				String line = content.get(i);
+				if (line.isBlank()) {
+					continue;
+				}
+				Entry entry;
+				try {
+					entry = JsonUtil.getObjectMapper().readValue(line, Entry.class);
+				}
+				catch (IOException e) {
+					// 进程中断时最后一行可能只写了一半
+					log.warn("Skip malformed vector store log line {} in {}: {}", i + 1, file, e.getMessage());
+					continue;
+				}
+				lines++;
+				if (OP_DEL.equals(entry.op())) {
+					live.remove(entry.id());
+				}
+				else {
+					live.put(entry.id(), entry);
+				}
+			}
+		}
+		return new RecordLog(file, lines);
+	}
+
+	void append(List<Entry> entries) throws IOException {
+		for (Entry entry : entries) {
+			writer.write(JsonUtil.getObjectMapper().writeValueAsString(entry));
+			writer.newLine();
+		}
+		writer.flush();
+		lines += entries.size();
+	}
+
+	long lines() {
+		return lines;
+	}
+
+	/**
+	 * 用存活记录重写日志，先写临时文件再原子替换
+	 */
+	void rewrite(Collection<Entry> live) throws IOException {
+		Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+		try (BufferedWriter out = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+			for (Entry entry : live) {
+				out.write(JsonUtil.getObjectMapper().writeValueAsString(entry));
+				out.newLine();
+			}
+		}
+		writer.close();
+		Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		writer = openWriter();
+		lines = live.size();
+	}
+
+	@Override
+	public void close() throws IOException {
+		writer.close();
+	}
+
+	private BufferedWriter openWriter() throws IOException {
+		return Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+				StandardOpenOption.APPEND);
+	}
+
+	static Entry put(String id, int slot, int list, String text, Map<String, Object> metadata) {
+		return new Entry(OP_PUT, id, slot, list, text, new LinkedHashMap<>(metadata));
+	}
+
+	static Entry del(String id) {
+		return new Entry(OP_DEL, id, null, null, null, null);
+	}
+
+	@JsonInclude(JsonInclude.Include.NON_NULL)
+	record Entry(String op, String id, Integer slot, Integer list, String text, Map<String, Object> metadata) {
+	}
+
+}
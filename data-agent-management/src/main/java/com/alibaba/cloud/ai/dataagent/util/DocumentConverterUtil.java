@@ -115,6 +115,7 @@ public class DocumentConverterUtil {
 		metadata.put(DocumentMetadataConstant.VECTOR_TYPE, DocumentMetadataConstant.BUSINESS_TERM);
 		metadata.put(Constant.AGENT_ID, businessKnowledge.getAgentId().toString());
 		metadata.put(DocumentMetadataConstant.DB_BUSINESS_TERM_ID, businessKnowledge.getId());
+		metadata.put(DocumentMetadataConstant.RECALLED, isRecalled(businessKnowledge.getIsRecall()));
 
 		return new Document(content, metadata);
 	}
@@ -123,11 +124,12 @@ public class DocumentConverterUtil {
 		// 使用question作为Document的content字段
 		String content = knowledge.getQuestion();
 		Map<String, Object> metadata = new HashMap<>();
-		// answer和isRecall经常变更的放到关系数据库
+		// answer经常变更的放到关系数据库；isRecall以关系数据库为准，元数据中的recalled只在METADATA召回过滤方式下使用
 		metadata.put(Constant.AGENT_ID, knowledge.getAgentId().toString());
 		metadata.put(DocumentMetadataConstant.VECTOR_TYPE, DocumentMetadataConstant.AGENT_KNOWLEDGE);
 		metadata.put(DocumentMetadataConstant.DB_AGENT_KNOWLEDGE_ID, knowledge.getId());
 		metadata.put(DocumentMetadataConstant.CONCRETE_AGENT_KNOWLEDGE_TYPE, knowledge.getType().getCode());
+		metadata.put(DocumentMetadataConstant.RECALLED, isRecalled(knowledge.getIsRecall()));
 
 		return new Document(content, metadata);
 	}
@@ -143,13 +145,14 @@ public class DocumentConverterUtil {
 		List<Document> documentsWithMetadata = new ArrayList<>();
 
 		for (Document doc : documents) {
-			// isRecall经常变更的放到关系数据库不放metadata中
+			// isRecall以关系数据库为准，元数据中的recalled只在METADATA召回过滤方式下使用
 			// 创建元数据
 			Map<String, Object> metadata = new HashMap<>(doc.getMetadata());
 			metadata.put(Constant.AGENT_ID, knowledge.getAgentId().toString());
 			metadata.put(DocumentMetadataConstant.DB_AGENT_KNOWLEDGE_ID, knowledge.getId());
 			metadata.put(DocumentMetadataConstant.VECTOR_TYPE, DocumentMetadataConstant.AGENT_KNOWLEDGE);
 			metadata.put(DocumentMetadataConstant.CONCRETE_AGENT_KNOWLEDGE_TYPE, knowledge.getType().getCode());
+			metadata.put(DocumentMetadataConstant.RECALLED, isRecalled(knowledge.getIsRecall()));
 
 			// 创建带有元数据的新文档
 			Document docWithMetadata = new Document(doc.getId(), doc.getText(), metadata);
@@ -158,6 +161,10 @@ public class DocumentConverterUtil {
 		return documentsWithMetadata;
 	}
 
+	private static boolean isRecalled(Integer isRecall) {
+		return Integer.valueOf(1).equals(isRecall);
+	}
+
 	/**
 	 * Private constructor to prevent instantiation.
 	 */
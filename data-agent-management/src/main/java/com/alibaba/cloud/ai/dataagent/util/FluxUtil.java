@@ -26,6 +26,7 @@ import java.util.function.Supplier;
 import org.springframework.ai.chat.model.ChatResponse;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
 
 /**
  * @author vlsmb
@@ -74,6 +75,7 @@ public final class FluxUtil {
 	 * Quickly create streaming generator with start and end messages
 	 * @param nodeClass node class
 	 * @param state state
+	 * @param blockingScheduler scheduler running the blocking result mapper
 	 * @param startMessage start message
 	 * @param completionMessage completion message
 	 * @param resultMapper result mapping function
@@ -81,8 +83,9 @@ public final class FluxUtil {
 	 * @return Flux instance
 	 */
 	public static Flux<GraphResponse<StreamingOutput>> createStreamingGeneratorWithMessages(
-			Class<? extends NodeAction> nodeClass, OverAllState state, String startMessage, String completionMessage,
-			Function<String, Map<String, Object>> resultMapper, Flux<ChatResponse> sourceFlux) {
+			Class<? extends NodeAction> nodeClass, OverAllState state, Scheduler blockingScheduler, String startMessage,
+			String completionMessage, Function<String, Map<String, Object>> resultMapper,
+			Flux<ChatResponse> sourceFlux) {
 		String nodeName = nodeClass.getSimpleName();
 
 		// Used to collect actual processing results
@@ -98,20 +101,22 @@ public final class FluxUtil {
 		if (completionMessage != null) {
 			wrapperFlux = wrapperFlux.concatWith(Flux.just(ChatResponseUtil.createResponse(completionMessage)));
 		}
-		return toStreamingResponseFlux(nodeName, state, wrapperFlux,
+		return toStreamingResponseFlux(nodeName, state, blockingScheduler, wrapperFlux,
 				() -> resultMapper.apply(collectedResult.toString()));
 	}
 
 	public static Flux<GraphResponse<StreamingOutput>> createStreamingGeneratorWithMessages(
-			Class<? extends NodeAction> nodeClass, OverAllState state,
+			Class<? extends NodeAction> nodeClass, OverAllState state, Scheduler blockingScheduler,
 			Function<String, Map<String, Object>> resultMapper, Flux<ChatResponse> sourceFlux) {
-		return createStreamingGeneratorWithMessages(nodeClass, state, null, null, resultMapper, sourceFlux);
+		return createStreamingGeneratorWithMessages(nodeClass, state, blockingScheduler, null, null, resultMapper,
+				sourceFlux);
 	}
 
 	/**
 	 * create streaming generator with start and end flux
 	 * @param nodeClass node class
 	 * @param state state
+	 * @param blockingScheduler scheduler running the blocking source mapper
 	 * @param sourceFlux source data stream
 	 * @param preFlux preFlux
 	 * @param sufFlux sufFlux
@@ -119,25 +124,28 @@ public final class FluxUtil {
 	 * @return Flux instance
 	 */
 	public static Flux<GraphResponse<StreamingOutput>> createStreamingGenerator(Class<? extends NodeAction> nodeClass,
-			OverAllState state, Flux<ChatResponse> sourceFlux, Flux<ChatResponse> preFlux, Flux<ChatResponse> sufFlux,
-			Function<String, Map<String, Object>> sourceMapper) {
+			OverAllState state, Scheduler blockingScheduler, Flux<ChatResponse> sourceFlux, Flux<ChatResponse> preFlux,
+			Flux<ChatResponse> sufFlux, Function<String, Map<String, Object>> sourceMapper) {
 		String nodeName = nodeClass.getSimpleName();
 		// Used to collect actual processing results
 		final StringBuilder collectedResult = new StringBuilder();
 		sourceFlux = sourceFlux.doOnNext(r -> collectedResult.append(ChatResponseUtil.getText(r)));
-		return toStreamingResponseFlux(nodeName, state, Flux.concat(preFlux, sourceFlux, sufFlux),
+		return toStreamingResponseFlux(nodeName, state, blockingScheduler, Flux.concat(preFlux, sourceFlux, sufFlux),
 				() -> sourceMapper.apply(collectedResult.toString()));
 	}
 
 	private static Flux<GraphResponse<StreamingOutput>> toStreamingResponseFlux(String nodeName, OverAllState state,
-			Flux<ChatResponse> sourceFlux, Supplier<Map<String, Object>> resultSupplier) {
+			Scheduler blockingScheduler, Flux<ChatResponse> sourceFlux, Supplier<Map<String, Object>> resultSupplier) {
 		Flux<GraphResponse<StreamingOutput>> streamingFlux = sourceFlux
 			.filter(response -> response != null && response.getResult() != null
 					&& response.getResult().getOutput() != null)
 			.map(response -> GraphResponse.of(new StreamingOutput<>(response.getResult().getOutput(), response,
 					nodeName, "", state, OutputType.from(true, nodeName))));
 
-		return streamingFlux.concatWith(Mono.fromSupplier(() -> GraphResponse.done(resultSupplier.get())))
+		// 结果映射中常包含阻塞调用（JDBC、向量检索、阻塞式 LLM 修复等），转移到图执行调度器上执行
+		return streamingFlux
+			.concatWith(Mono.fromSupplier(() -> GraphResponse.<StreamingOutput>done(resultSupplier.get()))
+				.subscribeOn(blockingScheduler))
 			.onErrorResume(error -> Flux.just(GraphResponse.error(error)));
 	}
 
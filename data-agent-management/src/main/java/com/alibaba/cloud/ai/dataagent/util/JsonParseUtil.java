@@ -17,6 +17,7 @@ package com.alibaba.cloud.ai.dataagent.util;
 
 import com.alibaba.cloud.ai.dataagent.prompt.PromptConstant;
 import com.alibaba.cloud.ai.dataagent.service.llm.LlmService;
+import com.alibaba.cloud.ai.dataagent.service.metrics.LlmMetrics;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -39,6 +40,8 @@ public class JsonParseUtil {
 
 	private LlmService llmService;
 
+	private LlmMetrics metrics;
+
 	private static final int MAX_RETRY_COUNT = 3;
 
 	private static final String THINK_END_TAG = "</think>";
@@ -63,6 +66,39 @@ public class JsonParseUtil {
 		return tryConvertToObjectInternal(json, (mapper, currentJson) -> mapper.readValue(currentJson, typeReference));
 	}
 
+	/**
+	 * 判断模型输出能否不经任何修复直接解析为指定类型，用于决定响应是否可以写入缓存
+	 * @param content 模型输出，可以包含 think 标签和 Markdown 代码块
+	 * @param clazz 目标类型
+	 * @return 是否可以直接解析
+	 */
+	public boolean isParsable(String content, Class<?> clazz) {
+		return isParsable(content, (mapper, json) -> mapper.readValue(json, clazz));
+	}
+
+	/**
+	 * 判断模型输出能否不经任何修复直接解析为指定类型，用于决定响应是否可以写入缓存
+	 * @param content 模型输出，可以包含 think 标签和 Markdown 代码块
+	 * @param typeReference 类型引用
+	 * @return 是否可以直接解析
+	 */
+	public boolean isParsable(String content, TypeReference<?> typeReference) {
+		return isParsable(content, (mapper, json) -> mapper.readValue(json, typeReference));
+	}
+
+	private boolean isParsable(String content, JsonParserFunction<?> parser) {
+		if (content == null || content.isBlank()) {
+			return false;
+		}
+		try {
+			return parser.parse(JsonUtil.getObjectMapper(),
+					removeThinkTags(MarkdownParserUtil.extractText(content.trim()))) != null;
+		}
+		catch (JsonProcessingException e) {
+			return false;
+		}
+	}
+
 	/**
 	 * 内部通用方法，用于JSON解析和修复
 	 * @param json JSON字符串
@@ -79,15 +115,34 @@ public class JsonParseUtil {
 			return parser.parse(objectMapper, currentJson);
 		}
 		catch (JsonProcessingException e) {
-			log.warn("Initial parsing failed, preparing to call LLM: {}", e.getMessage());
+			log.warn("Initial parsing failed, trying local repair: {}", e.getMessage());
+			lastException = e;
+		}
+
+		// 先在本地修复常见的结构问题，避免一次完整的 LLM 调用
+		String repairedJson = JsonRepairUtil.repair(currentJson);
+		if (repairedJson != null && !repairedJson.equals(currentJson)) {
+			try {
+				T result = parser.parse(objectMapper, repairedJson);
+				metrics.recordJsonRepair("local", true);
+				log.info("JSON repaired locally");
+				return result;
+			}
+			catch (JsonProcessingException e) {
+				log.warn("Local repair failed, preparing to call LLM: {}", e.getMessage());
+				lastException = e;
+			}
 		}
+		metrics.recordJsonRepair("local", false);
 
 		for (int i = 0; i < MAX_RETRY_COUNT; i++) {
 			try {
 				currentJson = callLlmToFix(currentJson,
 						lastException != null ? lastException.getMessage() : "Unknown error");
 
-				return parser.parse(objectMapper, currentJson);
+				T result = parser.parse(objectMapper, currentJson);
+				metrics.recordJsonRepair("llm", true);
+				return result;
 			}
 			catch (JsonProcessingException e) {
 				lastException = e;
@@ -99,6 +154,7 @@ public class JsonParseUtil {
 				}
 			}
 		}
+		metrics.recordJsonRepair("llm", false);
 
 		throw new IllegalArgumentException(
 				String.format("Failed to parse JSON after %d LLM fix attempts", MAX_RETRY_COUNT), lastException);
@@ -119,6 +175,7 @@ public class JsonParseUtil {
 			String prompt = PromptConstant.getJsonFixPromptTemplate()
 				.render(Map.of("json_string", json, "error_message", errorMessage));
 
+			// 修复结果未经校验，不写入响应缓存
 			Flux<ChatResponse> responseFlux = llmService.callUser(prompt);
 			String fixedJson = llmService.toStringFlux(responseFlux)
 				.collect(StringBuilder::new, StringBuilder::append)
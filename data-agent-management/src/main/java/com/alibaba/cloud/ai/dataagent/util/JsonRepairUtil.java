@@ -0,0 +1,211 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.dataagent.util;
+
+import java.util.Arrays;
+
+/**
+ * 本地 JSON 结构修复工具，用于在调用 LLM 修复之前处理常见的格式问题：
+ * <ul>
+ * <li>Markdown 代码块包裹、JSON 前后的多余文本</li>
+ * <li>单引号字符串、字符串中未转义的换行符</li>
+ * <li>对象和数组中的尾随逗号</li>
+ * <li>流式输出被截断导致的未闭合字符串、对象和数组</li>
+ * </ul>
+ * 修复过程为单次线性扫描，不构建语法树。
+ */
+public final class JsonRepairUtil {
+
+	private JsonRepairUtil() {
+	}
+
+	/**
+	 * 尝试在本地修复 JSON 文本
+	 * @param text 待修复的文本
+	 * @return 修复后的 JSON 文本；找不到 JSON 起始位置时返回 null
+	 */
+	public static String repair(String text) {
+		if (text == null || text.isBlank()) {
+			return null;
+		}
+		String content = text;
+		if (content.contains("```")) {
+			content = MarkdownParserUtil.extractRawText(content);
+		}
+		int start = findJsonStart(content);
+		if (start < 0) {
+			return null;
+		}
+
+		StringBuilder out = new StringBuilder(content.length() + 8);
+		// 未闭合的括号对应的闭合字符
+		char[] closers = new char[16];
+		int depth = 0;
+		boolean inString = false;
+		char quote = 0;
+
+		for (int i = start; i < content.length(); i++) {
+			char c = content.charAt(i);
+			if (inString) {
+				if (c == '\\' && i + 1 < content.length()) {
+					char next = content.charAt(++i);
+					// 单引号字符串中的 \' 在 JSON 中不需要转义
+					if (next == '\'') {
+						out.append('\'');
+					}
+					else {
+						out.append('\\').append(next);
+					}
+				}
+				else if (c == quote) {
+					out.append('"');
+					inString = false;
+				}
+				else if (c == '"') {
+					out.append("\\\"");
+				}
+				else if (c == '\n') {
+					out.append("\\n");
+				}
+				else if (c == '\r') {
+					out.append("\\r");
+				}
+				else if (c == '\t') {
+					out.append("\\t");
+				}
+				else {
+					out.append(c);
+				}
+				continue;
+			}
+
+			switch (c) {
+				case '"', '\'' -> {
+					inString = true;
+					quote = c;
+					out.append('"');
+				}
+				case '{', '[' -> {
+					if (depth == closers.length) {
+						closers = Arrays.copyOf(closers, depth * 2);
+					}
+					closers[depth++] = c == '{' ? '}' : ']';
+					out.append(c);
+				}
+				case '}', ']' -> {
+					if (depth == 0) {
+						return out.toString();
+					}
+					// 括号不匹配时按已打开的括号闭合，忽略多余的闭合字符
+					if (closers[depth - 1] != c && !containsCloser(closers, depth, c)) {
+						continue;
+					}
+					while (depth > 0) {
+						trimDangling(out);
+						char closer = closers[--depth];
+						out.append(closer);
+						if (closer == c) {
+							break;
+						}
+					}
+					if (depth == 0) {
+						return out.toString();
+					}
+				}
+				default -> out.append(c);
+			}
+		}
+
+		// 输入在字符串或容器内部结束，说明被截断，补齐闭合字符
+		if (inString) {
+			out.append('"');
+		}
+		while (depth > 0) {
+			trimDangling(out);
+			if (closers[depth - 1] == '}' && endsWithKey(out)) {
+				out.append(":null");
+			}
+			out.append(closers[--depth]);
+		}
+		return out.toString();
+	}
+
+	private static int findJsonStart(String content) {
+		for (int i = 0; i < content.length(); i++) {
+			char c = content.charAt(i);
+			if (c == '{' || c == '[') {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private static boolean containsCloser(char[] closers, int depth, char c) {
+		for (int i = depth - 1; i >= 0; i--) {
+			if (closers[i] == c) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * 移除闭合前的空白、尾随逗号和没有值的冒号
+	 */
+	private static void trimDangling(StringBuilder out) {
+		int len = out.length();
+		while (len > 0) {
+			char c = out.charAt(len - 1);
+			if (Character.isWhitespace(c) || c == ',') {
+				len--;
+			}
+			else if (c == ':') {
+				// 键已写出但值缺失，补 null 以保留键
+				out.setLength(len);
+				out.append("null");
+				return;
+			}
+			else {
+				break;
+			}
+		}
+		out.setLength(len);
+	}
+
+	/**
+	 * 判断对象末尾是否是一个没有冒号的键，例如 {"a":1,"b"
+	 */
+	private static boolean endsWithKey(StringBuilder out) {
+		int i = out.length() - 1;
+		if (i < 0 || out.charAt(i) != '"') {
+			return false;
+		}
+		// 找到该字符串的起始引号
+		for (i--; i >= 0; i--) {
+			if (out.charAt(i) == '"' && (i == 0 || out.charAt(i - 1) != '\\')) {
+				break;
+			}
+		}
+		for (i--; i >= 0; i--) {
+			char c = out.charAt(i);
+			if (!Character.isWhitespace(c)) {
+				return c == '{' || c == ',';
+			}
+		}
+		return false;
+	}
+
+}
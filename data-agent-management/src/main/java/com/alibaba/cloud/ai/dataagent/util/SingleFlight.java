@@ -0,0 +1,104 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.dataagent.util;
+
+import reactor.core.publisher.Flux;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * 请求合并（single-flight）：相同键的并发请求只执行一次上游调用，其余请求共享该调用的结果。上游结束后立即移除，不缓存结果。
+ *
+ * @param <K> 请求键类型，需要正确实现 equals/hashCode
+ * @param <V> 结果类型
+ */
+public class SingleFlight<K, V> {
+
+	private final Map<K, Flux<V>> inflightFluxes = new ConcurrentHashMap<>();
+
+	private final Map<K, CompletableFuture<V>> inflightCalls = new ConcurrentHashMap<>();
+
+	// 请求被合并到已有调用时的回调，用于计数
+	private final Runnable onCoalesced;
+
+	public SingleFlight(Runnable onCoalesced) {
+		this.onCoalesced = onCoalesced;
+	}
+
+	/**
+	 * 合并流式调用。共享的上游按订阅重放全部元素，后加入的订阅方也能收到完整响应；所有订阅方取消后上游随之取消。
+	 * @param key 请求键
+	 * @param call 上游调用，只在没有相同键的进行中调用时执行
+	 * @return 共享的响应流
+	 */
+	public Flux<V> flux(K key, Supplier<Flux<V>> call) {
+		return Flux.defer(() -> {
+			AtomicReference<Flux<V>> self = new AtomicReference<>();
+			Flux<V> shared = Flux.defer(call)
+				.doFinally(signal -> inflightFluxes.remove(key, self.get()))
+				.replay()
+				.refCount();
+			self.set(shared);
+			Flux<V> existing = inflightFluxes.putIfAbsent(key, shared);
+			if (existing != null) {
+				onCoalesced.run();
+				return existing;
+			}
+			return shared;
+		});
+	}
+
+	/**
+	 * 合并同步调用。首个请求在自身线程执行上游调用，其余请求阻塞等待同一结果，异常同样传递给所有请求。
+	 * @param key 请求键
+	 * @param call 上游调用
+	 * @return 调用结果
+	 */
+	public V call(K key, Supplier<V> call) {
+		CompletableFuture<V> mine = new CompletableFuture<>();
+		CompletableFuture<V> existing = inflightCalls.putIfAbsent(key, mine);
+		if (existing != null) {
+			onCoalesced.run();
+			try {
+				return existing.join();
+			}
+			catch (CompletionException e) {
+				if (e.getCause() instanceof RuntimeException runtimeException) {
+					throw runtimeException;
+				}
+				throw e;
+			}
+		}
+		try {
+			V result = call.get();
+			mine.complete(result);
+			return result;
+		}
+		catch (RuntimeException | Error e) {
+			mine.completeExceptionally(e);
+			throw e;
+		}
+		finally {
+			inflightCalls.remove(key, mine);
+		}
+	}
+
+}
@@ -0,0 +1,279 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.dataagent.util;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.chat.model.ChatResponse;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * 增量 JSON 解析器。按块接收 LLM 流式输出的文本，在目标数组的每个元素解析完成时立即回调， 使下游工作无需等待整个输出结束即可开始。
+ * <p>
+ * 目标数组为根数组（arrayField 为 null），或根对象中指定字段的数组。根值之前的文本（如 Markdown 代码块标记）会被跳过，
+ * 根值结束后的文本会被忽略。输入格式错误时停止解析，不抛出异常，调用方仍应以完整输出的解析结果为准。
+ * <p>
+ * {@code <think>...</think>} 推理块中的文本不参与解析。若出现没有对应开始标签的 {@code </think>}，说明此前的文本均为推理内容，
+ * 解析器放弃本次解析，{@link #isCompleted()} 返回 false，调用方应回退到完整输出的解析。
+ * <p>
+ * 非线程安全，一个实例只对应一次流式输出。
+ *
+ * @param <T> 数组元素类型
+ */
+@Slf4j
+public class StreamingJsonParser<T> {
+
+	private static final String THINK_START_TAG = "<think>";
+
+	private static final String THINK_END_TAG = "</think>";
+
+	private final ObjectMapper objectMapper = JsonUtil.getObjectMapper();
+
+	private final JsonParser parser;
+
+	private final String arrayField;
+
+	private final JavaType elementType;
+
+	private final Consumer<T> elementConsumer;
+
+	private final List<T> elements = new ArrayList<>();
+
+	// 上一块末尾可能是被截断的 think 标签，留到下一块一起处理
+	private String pendingTag = "";
+
+	private boolean inThink;
+
+	private boolean started;
+
+	private boolean completed;
+
+	private boolean failed;
+
+	private int depth;
+
+	private String rootField;
+
+	// 目标数组所在深度，0 表示尚未进入，-1 表示已结束
+	private int targetDepth;
+
+	// 正在收集的数组元素
+	private TokenBuffer elementBuffer;
+
+	public StreamingJsonParser(String arrayField, Class<T> elementType, Consumer<T> elementConsumer) {
+		this.arrayField = arrayField;
+		this.elementType = objectMapper.constructType(elementType);
+		this.elementConsumer = elementConsumer;
+		try {
+			this.parser = objectMapper.getFactory().createNonBlockingByteArrayParser();
+		}
+		catch (IOException e) {
+			throw new IllegalStateException("Failed to create non-blocking JSON parser", e);
+		}
+	}
+
+	/**
+	 * 在流式响应上挂接解析器，响应内容本身不做修改
+	 * @param flux LLM 流式响应
+	 * @return 挂接后的响应流
+	 */
+	public Flux<ChatResponse> tap(Flux<ChatResponse> flux) {
+		return flux.doOnNext(response -> feed(ChatResponseUtil.getText(response)));
+	}
+
+	/**
+	 * 输入一段文本
+	 * @param chunk 文本块
+	 */
+	public void feed(String chunk) {
+		if (chunk == null || chunk.isEmpty() || failed) {
+			return;
+		}
+		String text = pendingTag + chunk;
+		pendingTag = "";
+		while (!text.isEmpty()) {
+			if (inThink) {
+				int end = text.indexOf(THINK_END_TAG);
+				if (end < 0) {
+					pendingTag = partialTagSuffix(text);
+					return;
+				}
+				inThink = false;
+				text = text.substring(end + THINK_END_TAG.length());
+				continue;
+			}
+			int start = text.indexOf(THINK_START_TAG);
+			int end = text.indexOf(THINK_END_TAG);
+			if (end >= 0 && (start < 0 || end < start)) {
+				// 缺少开始标签的推理块，已解析的内容可能来自推理过程
+				log.debug("Stop incremental JSON parsing: unmatched {}", THINK_END_TAG);
+				failed = true;
+				return;
+			}
+			if (start >= 0) {
+				feedJson(text.substring(0, start));
+				inThink = true;
+				text = text.substring(start + THINK_START_TAG.length());
+				continue;
+			}
+			pendingTag = partialTagSuffix(text);
+			feedJson(text.substring(0, text.length() - pendingTag.length()));
+			return;
+		}
+	}
+
+	private void feedJson(String chunk) {
+		if (chunk.isEmpty() || completed || failed) {
+			return;
+		}
+		if (!started) {
+			int start = findRootStart(chunk);
+			if (start < 0) {
+				return;
+			}
+			started = true;
+			chunk = chunk.substring(start);
+		}
+		byte[] bytes = chunk.getBytes(StandardCharsets.UTF_8);
+		try {
+			((ByteArrayFeeder) parser.getNonBlockingInputFeeder()).feedInput(bytes, 0, bytes.length);
+			JsonToken token;
+			while (!completed && (token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+				handle(token);
+			}
+		}
+		catch (IOException e) {
+			log.debug("Stop incremental JSON parsing: {}", e.getMessage());
+			failed = true;
+		}
+	}
+
+	/**
+	 * @return 根值是否已完整解析
+	 */
+	public boolean isCompleted() {
+		return completed && !failed;
+	}
+
+	/**
+	 * @return 已解析完成的数组元素
+	 */
+	public List<T> getElements() {
+		return Collections.unmodifiableList(elements);
+	}
+
+	private void handle(JsonToken token) throws IOException {
+		if (elementBuffer != null) {
+			elementBuffer.copyCurrentEvent(parser);
+			if (token.isStructStart()) {
+				depth++;
+			}
+			else if (token.isStructEnd()) {
+				depth--;
+			}
+			if (depth == targetDepth) {
+				emit();
+			}
+			return;
+		}
+
+		boolean inTarget = targetDepth > 0 && depth == targetDepth;
+		if (inTarget && token != JsonToken.END_ARRAY) {
+			elementBuffer = new TokenBuffer(parser);
+			elementBuffer.copyCurrentEvent(parser);
+			if (token.isStructStart()) {
+				depth++;
+			}
+			else {
+				emit();
+			}
+			return;
+		}
+
+		if (token.isStructStart()) {
+			depth++;
+			if (token == JsonToken.START_ARRAY && targetDepth == 0 && isTargetArray()) {
+				targetDepth = depth;
+			}
+		}
+		else if (token.isStructEnd()) {
+			if (inTarget) {
+				targetDepth = -1;
+			}
+			depth--;
+			if (depth == 0) {
+				completed = true;
+			}
+		}
+		else if (token == JsonToken.FIELD_NAME && depth == 1) {
+			rootField = parser.currentName();
+		}
+	}
+
+	private boolean isTargetArray() {
+		return arrayField == null ? depth == 1 : depth == 2 && arrayField.equals(rootField);
+	}
+
+	private void emit() throws IOException {
+		TokenBuffer buffer = elementBuffer;
+		elementBuffer = null;
+		T element;
+		try (JsonParser elementParser = buffer.asParser(objectMapper)) {
+			element = objectMapper.readValue(elementParser, elementType);
+		}
+		catch (IOException e) {
+			log.debug("Skip array element that cannot be converted: {}", e.getMessage());
+			return;
+		}
+		elements.add(element);
+		elementConsumer.accept(element);
+	}
+
+	// 文本末尾可能是 think 标签前缀的部分
+	private static String partialTagSuffix(String text) {
+		int lt = text.lastIndexOf('<');
+		if (lt < 0) {
+			return "";
+		}
+		String suffix = text.substring(lt);
+		boolean partial = (suffix.length() < THINK_START_TAG.length() && THINK_START_TAG.startsWith(suffix))
+				|| (suffix.length() < THINK_END_TAG.length() && THINK_END_TAG.startsWith(suffix));
+		return partial ? suffix : "";
+	}
+
+	private static int findRootStart(String chunk) {
+		for (int i = 0; i < chunk.length(); i++) {
+			char c = chunk.charAt(i);
+			if (c == '{' || c == '[') {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+}
@@ -33,9 +33,9 @@ public class IntentRecognitionDispatcher implements EdgeAction {
 
 	@Override
 	public String apply(OverAllState state) throws Exception {
-		// 获取意图识别结果
+		// 获取意图识别结果，解析失败时节点不写入该键
 		IntentRecognitionOutputDTO intentResult = StateUtil.getObjectValue(state, INTENT_RECOGNITION_NODE_OUTPUT,
-				IntentRecognitionOutputDTO.class);
+				IntentRecognitionOutputDTO.class, (IntentRecognitionOutputDTO) null);
 
 		if (intentResult == null || intentResult.getClassification() == null
 				|| intentResult.getClassification().trim().isEmpty()) {
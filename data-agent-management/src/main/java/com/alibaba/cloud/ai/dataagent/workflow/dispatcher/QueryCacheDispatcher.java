@@ -0,0 +1,44 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.dataagent.workflow.dispatcher;
+
+import com.alibaba.cloud.ai.graph.OverAllState;
+import com.alibaba.cloud.ai.graph.action.EdgeAction;
+import lombok.extern.slf4j.Slf4j;
+
+import static com.alibaba.cloud.ai.dataagent.constant.Constant.*;
+
+/**
+ * 根据查询结果缓存是否命中决定下一个节点：未命中进入 Schema 召回；命中时仅NL2SQL模式直接执行缓存的 SQL，否则进入计划执行。
+ * <p>
+ * 两条命中路径都会经过 PlanExecutorNode 的计划校验：缓存的 SQL 只在同一召回范围指纹下执行成功过才会写入缓存，执行成功后回到
+ * PlanExecutorNode，执行失败则由 SQLExecutorDispatcher 转入 SQL 重新生成。
+ */
+@Slf4j
+public class QueryCacheDispatcher implements EdgeAction {
+
+	@Override
+	public String apply(OverAllState state) throws Exception {
+		boolean cacheHit = state.value(QUERY_CACHE_HIT, false);
+		if (!cacheHit) {
+			return SCHEMA_RECALL_NODE;
+		}
+		boolean onlyNl2sql = state.value(IS_ONLY_NL2SQL, false);
+		log.info("Query cache hit, skipping schema recall and planning");
+		return onlyNl2sql ? SQL_EXECUTE_NODE : PLAN_EXECUTOR_NODE;
+	}
+
+}
@@ -21,8 +21,8 @@ import com.alibaba.cloud.ai.graph.action.EdgeAction;
 import com.alibaba.cloud.ai.dataagent.util.StateUtil;
 import lombok.extern.slf4j.Slf4j;
 
+import static com.alibaba.cloud.ai.dataagent.constant.Constant.QUERY_CACHE_NODE;
 import static com.alibaba.cloud.ai.dataagent.constant.Constant.QUERY_ENHANCE_NODE_OUTPUT;
-import static com.alibaba.cloud.ai.dataagent.constant.Constant.SCHEMA_RECALL_NODE;
 import static com.alibaba.cloud.ai.graph.StateGraph.END;
 
 /**
@@ -55,8 +55,8 @@ public class QueryEnhanceDispatcher implements EdgeAction {
 			return END;
 		}
 		else {
-			log.info("Query process output is valid, proceeding to schema recall");
-			return SCHEMA_RECALL_NODE;
+			log.info("Query process output is valid, proceeding to query cache lookup");
+			return QUERY_CACHE_NODE;
 		}
 	}
 
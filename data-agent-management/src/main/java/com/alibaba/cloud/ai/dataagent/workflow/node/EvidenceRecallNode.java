@@ -19,10 +19,18 @@ import com.alibaba.cloud.ai.dataagent.constant.DocumentMetadataConstant;
 import com.alibaba.cloud.ai.dataagent.enums.KnowledgeType;
 import com.alibaba.cloud.ai.dataagent.enums.TextType;
 import com.alibaba.cloud.ai.dataagent.dto.prompt.EvidenceQueryRewriteDTO;
+import com.alibaba.cloud.ai.dataagent.dto.prompt.QueryEnhanceOutputDTO;
+import com.alibaba.cloud.ai.dataagent.dto.search.VectorSearchSpec;
 import com.alibaba.cloud.ai.dataagent.entity.AgentKnowledge;
 import com.alibaba.cloud.ai.dataagent.mapper.AgentKnowledgeMapper;
+import com.alibaba.cloud.ai.dataagent.prompt.PromptBudgetAllocator;
 import com.alibaba.cloud.ai.dataagent.prompt.PromptHelper;
+import com.alibaba.cloud.ai.dataagent.properties.DataAgentProperties;
+import com.alibaba.cloud.ai.dataagent.service.graph.SpeculativePreprocessService;
+import com.alibaba.cloud.ai.dataagent.service.graph.SpeculativePreprocessService.Speculation;
+import com.alibaba.cloud.ai.dataagent.service.schema.SchemaRecallPrefetchService;
 import com.alibaba.cloud.ai.dataagent.service.llm.LlmService;
+import com.alibaba.cloud.ai.dataagent.service.stream.StreamOutputSupport;
 import com.alibaba.cloud.ai.dataagent.service.vectorstore.AgentVectorStoreService;
 import com.alibaba.cloud.ai.dataagent.util.*;
 import com.alibaba.cloud.ai.graph.GraphResponse;
@@ -33,15 +41,23 @@ import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.ai.chat.model.ChatResponse;
 import org.springframework.ai.document.Document;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
 import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Scheduler;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 
 import static com.alibaba.cloud.ai.dataagent.constant.Constant.*;
 
@@ -58,6 +74,19 @@ public class EvidenceRecallNode implements NodeAction {
 
 	private final AgentKnowledgeMapper agentKnowledgeMapper;
 
+	private final SchemaRecallPrefetchService schemaRecallPrefetchService;
+
+	private final DataAgentProperties properties;
+
+	private final StreamOutputSupport streamOutputSupport;
+
+	private final SpeculativePreprocessService speculativePreprocessService;
+
+	private final PromptBudgetAllocator promptBudgetAllocator;
+
+	@Qualifier("nodeBlockingScheduler")
+	private final Scheduler blockingScheduler;
+
 	@Override
 	public Map<String, Object> apply(OverAllState state) throws Exception {
 
@@ -66,6 +95,19 @@ public class EvidenceRecallNode implements NodeAction {
 		String agentId = StateUtil.getStringValue(state, AGENT_ID);
 		Assert.hasText(agentId, "Agent ID cannot be empty.");
 
+		// 融合预处理已给出检索查询时，跳过 LLM 重写直接召回证据
+		String standaloneQuery = StateUtil.getStringValue(state, EVIDENCE_STANDALONE_QUERY, null);
+		if (StringUtils.hasText(standaloneQuery)) {
+			Flux<GraphResponse<StreamingOutput>> evidenceGenerator = recallWithoutRewrite(state, agentId,
+					standaloneQuery);
+			// 融合预处理已给出增强后的问题，并行模式下按该问题预取 Schema，SchemaRecallNode 汇合时可以直接采用
+			if (properties.isSchemaRecallParallelEnabled()) {
+				String prefetchId = schemaRecallPrefetchService.submit(agentId, fusedCanonicalQuery(state, question));
+				return Map.of(EVIDENCE, evidenceGenerator, SCHEMA_RECALL_PREFETCH_ID, prefetchId);
+			}
+			return Map.of(EVIDENCE, evidenceGenerator);
+		}
+
 		log.info("Rewriting query before getting evidence in question: {}", question);
 		log.debug("Agent ID: {}", agentId);
 
@@ -76,13 +118,16 @@ public class EvidenceRecallNode implements NodeAction {
 		String prompt = PromptHelper.buildEvidenceQueryRewritePrompt(multiTurn, question);
 		log.debug("Built evidence-query-rewrite prompt as follows \n {} \n", prompt);
 
-		// 调用LLM进行查询重写
-		Flux<ChatResponse> responseFlux = llmService.callUser(prompt);
-		Sinks.Many<String> evidenceDisplaySink = Sinks.many().multicast().onBackpressureBuffer();
+		// 调用LLM进行查询重写，推测执行模式下接管意图识别期间已启动的调用
+		Optional<Speculation> speculation = speculativePreprocessService
+			.take(StateUtil.getStringValue(state, SPECULATION_ID, null));
+		Flux<ChatResponse> responseFlux = speculation.map(Speculation::rewriteFlux)
+			.orElseGet(() -> llmService.callUser(prompt));
+		Sinks.Many<String> evidenceDisplaySink = streamOutputSupport.newUnboundedUnicastSink();
 
 		final Map<String, Object> resultMap = new HashMap<>();
 		Flux<GraphResponse<StreamingOutput>> generator = FluxUtil.createStreamingGenerator(this.getClass(), state,
-				responseFlux,
+				blockingScheduler, responseFlux,
 				Flux.just(ChatResponseUtil.createResponse("正在查询重写以更好召回evidence..."),
 						ChatResponseUtil.createPureResponse(TextType.JSON.getStartSign())),
 				Flux.just(ChatResponseUtil.createPureResponse(TextType.JSON.getEndSign()),
@@ -93,18 +138,56 @@ public class EvidenceRecallNode implements NodeAction {
 				});
 
 		Flux<GraphResponse<StreamingOutput>> evidenceFlux = FluxUtil.createStreamingGenerator(this.getClass(), state,
-				evidenceDisplaySink.asFlux().map(ChatResponseUtil::createPureResponse), Flux.empty(), Flux.empty(),
+				blockingScheduler, evidenceDisplaySink.asFlux().map(ChatResponseUtil::createPureResponse), Flux.empty(),
+				Flux.empty(), result -> resultMap);
+		Flux<GraphResponse<StreamingOutput>> evidenceGenerator = generator.concatWith(evidenceFlux);
+
+		// 推测执行已按相同问题启动 Schema 召回，与并行模式的预取等价，直接沿用
+		String speculativePrefetchId = speculation.map(Speculation::schemaPrefetchId).orElse(null);
+		if (speculativePrefetchId != null) {
+			if (properties.isSchemaRecallParallelEnabled() && question.equals(speculation.get().question())) {
+				return Map.of(EVIDENCE, evidenceGenerator, SCHEMA_RECALL_PREFETCH_ID, speculativePrefetchId);
+			}
+			schemaRecallPrefetchService.cancel(speculativePrefetchId);
+		}
+		// 并行模式：Schema 召回只依赖问题本身，与证据召回、问题增强同时进行
+		if (properties.isSchemaRecallParallelEnabled()) {
+			String prefetchId = schemaRecallPrefetchService.submit(agentId, question);
+			return Map.of(EVIDENCE, evidenceGenerator, SCHEMA_RECALL_PREFETCH_ID, prefetchId);
+		}
+		return Map.of(EVIDENCE, evidenceGenerator);
+	}
+
+	private static String fusedCanonicalQuery(OverAllState state, String question) {
+		QueryEnhanceOutputDTO queryEnhance = StateUtil.getObjectValue(state, QUERY_ENHANCE_NODE_OUTPUT,
+				QueryEnhanceOutputDTO.class, (QueryEnhanceOutputDTO) null);
+		return queryEnhance != null && StringUtils.hasText(queryEnhance.getCanonicalQuery())
+				? queryEnhance.getCanonicalQuery() : question;
+	}
+
+	private Flux<GraphResponse<StreamingOutput>> recallWithoutRewrite(OverAllState state, String agentId,
+			String standaloneQuery) {
+		Sinks.Many<String> evidenceDisplaySink = streamOutputSupport.newUnboundedUnicastSink();
+		final Map<String, Object> resultMap = new HashMap<>();
+		// 订阅时才执行召回，与 LLM 重写路径一样在图执行线程上完成检索
+		Flux<ChatResponse> recallFlux = Flux.defer(() -> {
+			resultMap.putAll(recallEvidences(standaloneQuery, agentId, evidenceDisplaySink));
+			return evidenceDisplaySink.asFlux().map(ChatResponseUtil::createPureResponse);
+		});
+		return FluxUtil.createStreamingGenerator(this.getClass(), state, blockingScheduler, recallFlux,
+				Flux.just(ChatResponseUtil.createResponse("使用预处理得到的查询召回evidence...")), Flux.empty(),
 				result -> resultMap);
-		return Map.of(EVIDENCE, generator.concatWith(evidenceFlux));
 	}
 
 	private Map<String, Object> getEvidences(String llmOutput, String agentId, Sinks.Many<String> sink) {
-		try {
-			String standaloneQuery = extractStandaloneQuery(llmOutput);
+		return recallEvidences(extractStandaloneQuery(llmOutput), agentId, sink);
+	}
 
+	private Map<String, Object> recallEvidences(String standaloneQuery, String agentId, Sinks.Many<String> sink) {
+		try {
 			if (null == standaloneQuery || standaloneQuery.isEmpty()) {
 				log.debug("No standalone query from LLM output");
-				sink.tryEmitNext("未能进行查询重写！\n");
+				display(sink, "未能进行查询重写！\n");
 				return Map.of(EVIDENCE, "无");
 			}
 
@@ -117,7 +200,7 @@ public class EvidenceRecallNode implements NodeAction {
 			// 检查是否有证据文档
 			if (retrievalResult.allDocuments().isEmpty()) {
 				log.debug("No evidence documents found for agent: {} with query: {}", agentId, standaloneQuery);
-				sink.tryEmitNext("未找到证据！\n");
+				display(sink, "未找到证据！\n");
 				return Map.of(EVIDENCE, "无");
 			}
 
@@ -141,25 +224,29 @@ public class EvidenceRecallNode implements NodeAction {
 		}
 	}
 
+	/**
+	 * 输出展示信息。展示信息在召回完成后才被订阅，条数受召回文档数限制，使用无界 Sink，不会溢出
+	 */
+	private void display(Sinks.Many<String> sink, String text) {
+		streamOutputSupport.emit(sink, text, StreamOutputSupport.EVIDENCE_STREAM);
+	}
+
 	private void outputRewrittenQuery(String standaloneQuery, Sinks.Many<String> sink) {
-		sink.tryEmitNext("重写后查询：\n");
-		sink.tryEmitNext(standaloneQuery + "\n");
+		display(sink, "重写后查询：\n");
+		display(sink, standaloneQuery + "\n");
 		log.debug("Using standalone query for evidence recall: {}", standaloneQuery);
-		sink.tryEmitNext("正在获取证据...");
+		display(sink, "正在获取证据...");
 	}
 
 	private DocumentRetrievalResult retrieveDocuments(String agentId, String standaloneQuery) {
-		// 获取业务知识文档
-		List<Document> businessTermDocuments = vectorStoreService
-			.getDocumentsForAgent(agentId, standaloneQuery, DocumentMetadataConstant.BUSINESS_TERM)
-			.stream()
-			.toList();
-
-		// 获取智能体知识文档
-		List<Document> agentKnowledgeDocuments = vectorStoreService
-			.getDocumentsForAgent(agentId, standaloneQuery, DocumentMetadataConstant.AGENT_KNOWLEDGE)
-			.stream()
-			.toList();
+		// 业务知识与智能体知识一次批量检索，查询只向量化一次
+		int topK = properties.getVectorStore().getDefaultTopkLimit();
+		double threshold = properties.getVectorStore().getDefaultSimilarityThreshold();
+		Map<String, List<Document>> documents = vectorStoreService.searchBatch(agentId, standaloneQuery,
+				List.of(new VectorSearchSpec(DocumentMetadataConstant.BUSINESS_TERM, topK, threshold),
+						new VectorSearchSpec(DocumentMetadataConstant.AGENT_KNOWLEDGE, topK, threshold)));
+		List<Document> businessTermDocuments = documents.get(DocumentMetadataConstant.BUSINESS_TERM);
+		List<Document> agentKnowledgeDocuments = documents.get(DocumentMetadataConstant.AGENT_KNOWLEDGE);
 
 		// 合并所有证据文档
 		List<Document> allDocuments = new ArrayList<>();
@@ -180,11 +267,41 @@ public class EvidenceRecallNode implements NodeAction {
 	// 2. [来源: 客服FAQ] Q: 退款怎么算? A: 只统计已入库退货...
 	private String buildFormattedEvidenceContent(List<Document> businessTermDocuments,
 			List<Document> agentKnowledgeDocuments) {
-		// 构建业务知识内容
-		String businessKnowledgeContent = buildBusinessKnowledgeContent(businessTermDocuments);
+		List<EvidenceEntry> entries = new ArrayList<>();
+		for (Document doc : businessTermDocuments) {
+			entries.add(new EvidenceEntry(doc, false, doc.getText()));
+		}
+		for (Document doc : agentKnowledgeDocuments) {
+			entries.add(new EvidenceEntry(doc, true, buildAgentKnowledgeEntry(doc)));
+		}
+		// 按召回得分从高到低保留，超出 Token 预算的低分文档被裁剪
+		List<EvidenceEntry> ranked = entries.stream()
+			.sorted(Comparator.comparing((EvidenceEntry entry) -> entry.document().getScore(),
+					Comparator.nullsLast(Comparator.reverseOrder())))
+			.toList();
+		// 按引用比较，内容相同的文档各自计入
+		Set<EvidenceEntry> kept = Collections.newSetFromMap(new IdentityHashMap<>());
+		kept.addAll(
+				promptBudgetAllocator.fitRanked(PromptBudgetAllocator.SECTION_EVIDENCE, ranked, EvidenceEntry::text));
 
+		// 构建业务知识内容，直接使用Document的完整内容，每行一个Document
+		StringBuilder businessKnowledge = new StringBuilder();
 		// 构建智能体知识内容
-		String agentKnowledgeContent = buildAgentKnowledgeContent(agentKnowledgeDocuments);
+		StringBuilder agentKnowledge = new StringBuilder();
+		int agentIndex = 0;
+		for (EvidenceEntry entry : entries) {
+			if (!kept.contains(entry) || entry.text().isEmpty()) {
+				continue;
+			}
+			if (entry.agentKnowledge()) {
+				agentKnowledge.append(++agentIndex).append(". ").append(entry.text()).append("\n");
+			}
+			else {
+				businessKnowledge.append(entry.text()).append("\n");
+			}
+		}
+		String businessKnowledgeContent = businessKnowledge.toString();
+		String agentKnowledgeContent = agentKnowledge.toString();
 
 		// 使用PromptHelper的模板方法进行渲染
 		String businessPrompt = PromptHelper.buildBusinessKnowledgePrompt(businessKnowledgeContent);
@@ -199,49 +316,21 @@ public class EvidenceRecallNode implements NodeAction {
 				: businessPrompt + (agentKnowledgeContent.isEmpty() ? "" : "\n\n" + agentPrompt);
 	}
 
-	private String buildBusinessKnowledgeContent(List<Document> businessTermDocuments) {
-		if (businessTermDocuments.isEmpty()) {
-			return "";
-		}
-
-		StringBuilder result = new StringBuilder();
-
-		// 直接使用Document的完整内容，每行一个Document
-		for (Document doc : businessTermDocuments) {
-			result.append(doc.getText()).append("\n");
-		}
-
-		return result.toString();
-	}
-
-	private String buildAgentKnowledgeContent(List<Document> agentKnowledgeDocuments) {
-		if (agentKnowledgeDocuments.isEmpty()) {
-			return "";
-		}
-
-		StringBuilder result = new StringBuilder();
-
-		for (int i = 0; i < agentKnowledgeDocuments.size(); i++) {
-			Document doc = agentKnowledgeDocuments.get(i);
-			Map<String, Object> metadata = doc.getMetadata();
-			String knowledgeType = (String) metadata.get(DocumentMetadataConstant.CONCRETE_AGENT_KNOWLEDGE_TYPE);
+	private String buildAgentKnowledgeEntry(Document doc) {
+		Map<String, Object> metadata = doc.getMetadata();
+		String knowledgeType = (String) metadata.get(DocumentMetadataConstant.CONCRETE_AGENT_KNOWLEDGE_TYPE);
 
-			// 根据知识类型调用不同的处理方法
-			if (KnowledgeType.FAQ.getCode().equals(knowledgeType) || KnowledgeType.QA.getCode().equals(knowledgeType)) {
-				processFaqOrQaKnowledge(doc, i, result);
-			}
-			else {
-				processDocumentKnowledge(doc, i, result);
-			}
+		// 根据知识类型调用不同的处理方法
+		if (KnowledgeType.FAQ.getCode().equals(knowledgeType) || KnowledgeType.QA.getCode().equals(knowledgeType)) {
+			return processFaqOrQaKnowledge(doc);
 		}
-
-		return result.toString();
+		return processDocumentKnowledge(doc);
 	}
 
 	/**
 	 * 处理FAQ或QA类型的知识
 	 */
-	private void processFaqOrQaKnowledge(Document doc, int index, StringBuilder result) {
+	private String processFaqOrQaKnowledge(Document doc) {
 		Map<String, Object> metadata = doc.getMetadata();
 		String content = doc.getText();
 		Integer knowledgeId = ((Number) metadata.get(DocumentMetadataConstant.DB_AGENT_KNOWLEDGE_ID)).intValue();
@@ -254,34 +343,31 @@ public class EvidenceRecallNode implements NodeAction {
 				AgentKnowledge knowledge = agentKnowledgeMapper.selectById(knowledgeId);
 				if (knowledge != null) {
 					String title = knowledge.getTitle();
-					// 格式：[来源: xxx] Q: xxx A: xxx
-					result.append(index + 1).append(". [来源: ");
-					result.append(title.isEmpty() ? "知识库" : title);
-					result.append("] Q: ").append(content).append(" A: ").append(knowledge.getContent()).append("\n");
-
 					log.debug("Successfully processed {} knowledge with title: {}", knowledgeType, title);
+					// 格式：[来源: xxx] Q: xxx A: xxx
+					return "[来源: " + (title.isEmpty() ? "知识库" : title) + "] Q: " + content + " A: "
+							+ knowledge.getContent();
 				}
 				else {
 					log.warn("Knowledge not found for id: {}", knowledgeId);
+					return "";
 				}
 			}
 			catch (Exception e) {
 				log.error("Error getting knowledge by id: {}", knowledgeId, e);
 				// 如果获取失败，使用原始内容
-				result.append(index + 1).append(". [来源: 知识库] ").append(content).append("\n");
+				return "[来源: 知识库] " + content;
 			}
 		}
-		else {
-			// 如果没有知识ID，使用原始内容
-			log.error("No knowledge id found for agent knowledge document: {}", doc.getId());
-			result.append(index + 1).append(". [来源: 知识库] ").append(content).append("\n");
-		}
+		// 如果没有知识ID，使用原始内容
+		log.error("No knowledge id found for agent knowledge document: {}", doc.getId());
+		return "[来源: 知识库] " + content;
 	}
 
 	/**
 	 * 处理DOCUMENT类型的知识
 	 */
-	private void processDocumentKnowledge(Document doc, int index, StringBuilder result) {
+	private String processDocumentKnowledge(Document doc) {
 		Map<String, Object> metadata = doc.getMetadata();
 		String content = doc.getText();
 		Integer knowledgeId = ((Number) metadata.get(DocumentMetadataConstant.DB_AGENT_KNOWLEDGE_ID)).intValue();
@@ -315,10 +401,10 @@ public class EvidenceRecallNode implements NodeAction {
 		if (!sourceFilename.isEmpty()) {
 			sourceInfo += "-" + sourceFilename;
 		}
+		return "[来源: " + sourceInfo + "] " + content;
+	}
 
-		result.append(index + 1).append(". [来源: ");
-		result.append(sourceInfo);
-		result.append("] ").append(content).append("\n");
+	private record EvidenceEntry(Document document, boolean agentKnowledge, String text) {
 	}
 
 	private void outputEvidenceContent(List<Document> allDocuments, Sinks.Many<String> sink) {
@@ -327,7 +413,7 @@ public class EvidenceRecallNode implements NodeAction {
 		}
 
 		log.info("Outputting evidence content for {} documents", allDocuments.size());
-		sink.tryEmitNext("已找到 " + allDocuments.size() + " 条相关证据文档，如下是文档的部分信息\n");
+		display(sink, "已找到 " + allDocuments.size() + " 条相关证据文档，如下是文档的部分信息\n");
 
 		// 只输出文档的摘要信息，而不是完整内容
 		for (int i = 0; i < allDocuments.size(); i++) {
@@ -337,7 +423,7 @@ public class EvidenceRecallNode implements NodeAction {
 			// 限制每个文档摘要的长度，最多显示100个字符
 			String summary = content.length() > 100 ? content.substring(0, 100) + "..." : content;
 
-			sink.tryEmitNext(String.format("证据%d: %s\n", i + 1, summary));
+			display(sink, String.format("证据%d: %s\n", i + 1, summary));
 		}
 	}
 
@@ -27,8 +27,10 @@ import com.alibaba.cloud.ai.dataagent.util.StateUtil;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
 
 import java.util.Map;
 
@@ -42,6 +44,9 @@ public class FeasibilityAssessmentNode implements NodeAction {
 
 	private final LlmService llmService;
 
+	@Qualifier("nodeBlockingScheduler")
+	private final Scheduler blockingScheduler;
+
 	@Override
 	public Map<String, Object> apply(OverAllState state) throws Exception {
 		// 获取canonical_query
@@ -64,7 +69,7 @@ public class FeasibilityAssessmentNode implements NodeAction {
 		Flux<ChatResponse> responseFlux = llmService.callUser(prompt);
 
 		Flux<GraphResponse<StreamingOutput>> generator = FluxUtil.createStreamingGeneratorWithMessages(this.getClass(),
-				state, "正在进行可行性评估...", "可行性评估完成！", llmOutput -> {
+				state, blockingScheduler, "正在进行可行性评估...", "可行性评估完成！", llmOutput -> {
 					// 获取评估结果
 					String assessmentResult = llmOutput.trim();
 					log.info("Feasibility assessment result: {}", assessmentResult);
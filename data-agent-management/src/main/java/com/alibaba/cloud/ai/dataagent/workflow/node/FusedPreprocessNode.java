@@ -0,0 +1,107 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.dataagent.workflow.node;
+
+import com.alibaba.cloud.ai.dataagent.dto.prompt.FusedPreprocessOutputDTO;
+import com.alibaba.cloud.ai.dataagent.enums.TextType;
+import com.alibaba.cloud.ai.dataagent.prompt.PromptHelper;
+import com.alibaba.cloud.ai.dataagent.service.llm.LlmService;
+import com.alibaba.cloud.ai.dataagent.util.*;
+import com.alibaba.cloud.ai.graph.GraphResponse;
+import com.alibaba.cloud.ai.graph.OverAllState;
+import com.alibaba.cloud.ai.graph.action.NodeAction;
+import com.alibaba.cloud.ai.graph.streaming.StreamingOutput;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import static com.alibaba.cloud.ai.dataagent.constant.Constant.*;
+
+/**
+ * 融合预处理节点，一次 LLM 调用同时输出意图识别结果、证据检索查询与查询增强结果，分别写入
+ * IntentRecognitionNode、EvidenceRecallNode、QueryEnhanceNode 原有的状态键，后续分发器的路由逻辑保持不变
+ */
+@Slf4j
+@Component
+@AllArgsConstructor
+public class FusedPreprocessNode implements NodeAction {
+
+	private final LlmService llmService;
+
+	private final JsonParseUtil jsonParseUtil;
+
+	@Qualifier("nodeBlockingScheduler")
+	private final Scheduler blockingScheduler;
+
+	@Override
+	public Map<String, Object> apply(OverAllState state) throws Exception {
+
+		// 获取用户输入
+		String userInput = StateUtil.getStringValue(state, INPUT_KEY);
+		log.info("User input for fused preprocess: {}", userInput);
+
+		String multiTurn = StateUtil.getStringValue(state, MULTI_TURN_CONTEXT, "(无)");
+
+		// 构建融合预处理提示
+		String prompt = PromptHelper.buildFusedPreprocessPrompt(multiTurn, userInput);
+		log.debug("Built fused preprocess prompt as follows \n {} \n", prompt);
+
+		// 调用LLM一次完成意图识别、查询重写与问题增强
+		Flux<ChatResponse> responseFlux = llmService.callUser(prompt);
+
+		Flux<GraphResponse<StreamingOutput>> generator = FluxUtil.createStreamingGenerator(this.getClass(), state,
+				blockingScheduler, responseFlux,
+				Flux.just(ChatResponseUtil.createResponse("正在进行意图识别与问题增强..."),
+						ChatResponseUtil.createPureResponse(TextType.JSON.getStartSign())),
+				Flux.just(ChatResponseUtil.createPureResponse(TextType.JSON.getEndSign()),
+						ChatResponseUtil.createResponse("\n意图识别与问题增强完成！")),
+				this::handleFusedPreprocess);
+
+		return Map.of(INTENT_RECOGNITION_NODE_OUTPUT, generator);
+	}
+
+	private Map<String, Object> handleFusedPreprocess(String llmOutput) {
+		String content = MarkdownParserUtil.extractRawText(llmOutput.trim());
+		FusedPreprocessOutputDTO output = null;
+		try {
+			output = jsonParseUtil.tryConvertToObject(content, FusedPreprocessOutputDTO.class);
+			log.info("Successfully parsed fused preprocess result: {}", output);
+		}
+		catch (Exception e) {
+			log.error("Failed to parse fused preprocess result: {}", content, e);
+		}
+
+		// 解析失败时不写入意图识别结果，由 IntentRecognitionDispatcher 结束流程
+		if (output == null) {
+			return Map.of();
+		}
+		Map<String, Object> result = new HashMap<>();
+		result.put(INTENT_RECOGNITION_NODE_OUTPUT, output.toIntentRecognitionOutput());
+		result.put(QUERY_ENHANCE_NODE_OUTPUT, output.toQueryEnhanceOutput());
+		// 总是覆盖，避免同一线程上一轮的检索查询残留在状态中
+		result.put(EVIDENCE_STANDALONE_QUERY, Objects.toString(output.getStandaloneQuery(), ""));
+		return result;
+	}
+
+}
@@ -17,6 +17,8 @@ package com.alibaba.cloud.ai.dataagent.workflow.node;
 
 import com.alibaba.cloud.ai.dataagent.dto.prompt.IntentRecognitionOutputDTO;
 import com.alibaba.cloud.ai.dataagent.enums.TextType;
+import com.alibaba.cloud.ai.dataagent.properties.DataAgentProperties;
+import com.alibaba.cloud.ai.dataagent.service.graph.SpeculativePreprocessService;
 import com.alibaba.cloud.ai.dataagent.util.JsonParseUtil;
 import com.alibaba.cloud.ai.graph.GraphResponse;
 import com.alibaba.cloud.ai.graph.OverAllState;
@@ -30,10 +32,14 @@ import com.alibaba.cloud.ai.dataagent.util.StateUtil;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
 
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static com.alibaba.cloud.ai.dataagent.constant.Constant.*;
 
@@ -45,10 +51,21 @@ import static com.alibaba.cloud.ai.dataagent.constant.Constant.*;
 @AllArgsConstructor
 public class IntentRecognitionNode implements NodeAction {
 
+	private static final String CHAT_CLASSIFICATION = "《闲聊或无关指令》";
+
+	private static final String DATA_ANALYSIS_CLASSIFICATION = "可能的数据分析请求";
+
 	private final LlmService llmService;
 
 	private final JsonParseUtil jsonParseUtil;
 
+	private final DataAgentProperties properties;
+
+	private final SpeculativePreprocessService speculativePreprocessService;
+
+	@Qualifier("nodeBlockingScheduler")
+	private final Scheduler blockingScheduler;
+
 	@Override
 	public Map<String, Object> apply(OverAllState state) throws Exception {
 
@@ -65,8 +82,25 @@ public class IntentRecognitionNode implements NodeAction {
 		// 调用LLM进行意图识别
 		Flux<ChatResponse> responseFlux = llmService.callUser(prompt);
 
+		// 推测执行模式：流式输出出现数据分析信号时提前启动后续预处理
+		String speculationId = properties.isSpeculativePreprocessEnabled() ? UUID.randomUUID().toString() : null;
+		if (speculationId != null) {
+			String agentId = StateUtil.getStringValue(state, AGENT_ID);
+			StringBuilder streamed = new StringBuilder();
+			AtomicBoolean started = new AtomicBoolean(false);
+			responseFlux = responseFlux.doOnNext(response -> {
+				if (started.get()) {
+					return;
+				}
+				streamed.append(ChatResponseUtil.getText(response));
+				if (streamed.indexOf(DATA_ANALYSIS_CLASSIFICATION) >= 0 && started.compareAndSet(false, true)) {
+					speculativePreprocessService.start(speculationId, agentId, userInput, multiTurn);
+				}
+			}).doOnError(e -> speculativePreprocessService.cancel(speculationId));
+		}
+
 		Flux<GraphResponse<StreamingOutput>> generator = FluxUtil.createStreamingGenerator(this.getClass(), state,
-				responseFlux,
+				blockingScheduler, responseFlux,
 				Flux.just(ChatResponseUtil.createResponse("正在进行意图识别..."),
 						ChatResponseUtil.createPureResponse(TextType.JSON.getStartSign())),
 				Flux.just(ChatResponseUtil.createPureResponse(TextType.JSON.getEndSign()),
@@ -75,9 +109,21 @@ public class IntentRecognitionNode implements NodeAction {
 					// 使用JsonParseUtil解析JSON并转换为IntentRecognitionOutputDTO对象
 					IntentRecognitionOutputDTO intentRecognitionOutput = jsonParseUtil.tryConvertToObject(result,
 							IntentRecognitionOutputDTO.class);
+					if (speculationId != null && !isDataAnalysisRequest(intentRecognitionOutput)) {
+						speculativePreprocessService.cancel(speculationId);
+					}
 					return Map.of(INTENT_RECOGNITION_NODE_OUTPUT, intentRecognitionOutput);
 				});
+		if (speculationId != null) {
+			return Map.of(INTENT_RECOGNITION_NODE_OUTPUT, generator, SPECULATION_ID, speculationId);
+		}
 		return Map.of(INTENT_RECOGNITION_NODE_OUTPUT, generator);
 	}
 
+	// 与 IntentRecognitionDispatcher 的判定保持一致：非空且不是闲聊即进入后续流程
+	private static boolean isDataAnalysisRequest(IntentRecognitionOutputDTO output) {
+		return output != null && output.getClassification() != null && !output.getClassification().isBlank()
+				&& !CHAT_CLASSIFICATION.equals(output.getClassification());
+	}
+
 }
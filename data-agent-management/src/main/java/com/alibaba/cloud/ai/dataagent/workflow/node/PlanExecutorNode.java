@@ -20,8 +20,12 @@ import com.alibaba.cloud.ai.graph.StateGraph;
 import com.alibaba.cloud.ai.graph.action.NodeAction;
 import com.alibaba.cloud.ai.dataagent.dto.planner.ExecutionStep;
 import com.alibaba.cloud.ai.dataagent.dto.planner.Plan;
+import com.alibaba.cloud.ai.dataagent.dto.schema.SchemaDTO;
+import com.alibaba.cloud.ai.dataagent.service.cache.CachedQueryResult;
+import com.alibaba.cloud.ai.dataagent.service.cache.QueryResultCacheService;
 import com.alibaba.cloud.ai.dataagent.util.PlanProcessUtil;
 import com.alibaba.cloud.ai.dataagent.util.StateUtil;
+import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
@@ -40,16 +44,25 @@ import static com.alibaba.cloud.ai.dataagent.constant.Constant.*;
  */
 @Slf4j
 @Component
+@AllArgsConstructor
 public class PlanExecutorNode implements NodeAction {
 
 	// Supported node types
 	private static final Set<String> SUPPORTED_NODES = Set.of(SQL_GENERATE_NODE, PYTHON_GENERATE_NODE,
 			REPORT_GENERATOR_NODE);
 
+	private final QueryResultCacheService queryResultCacheService;
+
 	@Override
 	public Map<String, Object> apply(OverAllState state) throws Exception {
 		// TODO 待优化，校验应该在生成计划之后而不是这里，这里导致每次运行一个计划都校验一次
 		// 1. Validate the Plan
+		// 计划生成过程中已发现无效步骤，生成被提前终止，直接进入修复
+		String streamValidationError = StateUtil.getStringValue(state, PLAN_STREAM_VALIDATION_ERROR, "");
+		if (StringUtils.hasText(streamValidationError)) {
+			return buildValidationResult(state, false, streamValidationError);
+		}
+
 		Plan plan;
 		try {
 			plan = PlanProcessUtil.getPlan(state);
@@ -90,6 +103,7 @@ public class PlanExecutorNode implements NodeAction {
 		// Check if the plan is completed
 		if (currentStep > executionPlan.size()) {
 			log.info("Plan completed, current step: {}, total steps: {}", currentStep, executionPlan.size());
+			cacheQueryResult(state, isOnlyNl2Sql);
 			return Map.of(PLAN_CURRENT_STEP, 1, PLAN_NEXT_NODE, isOnlyNl2Sql ? StateGraph.END : REPORT_GENERATOR_NODE,
 					PLAN_VALIDATION_STATUS, true);
 		}
@@ -101,6 +115,33 @@ public class PlanExecutorNode implements NodeAction {
 		return determineNextNode(toolToUse);
 	}
 
+	/**
+	 * 计划成功执行完毕后写入查询结果缓存，命中缓存的执行不重复写入
+	 */
+	private void cacheQueryResult(OverAllState state, boolean isOnlyNl2Sql) {
+		if (state.value(QUERY_CACHE_HIT, false) || !state.value(QUERY_ENHANCE_NODE_OUTPUT).isPresent()) {
+			return;
+		}
+		try {
+			String sql = StateUtil.getStringValue(state, SQL_GENERATE_OUTPUT, null);
+			if (isOnlyNl2Sql && (!StringUtils.hasText(sql) || StateGraph.END.equals(sql))) {
+				return;
+			}
+			CachedQueryResult cachedResult = CachedQueryResult.builder()
+				.schema(StateUtil.getObjectValue(state, TABLE_RELATION_OUTPUT, SchemaDTO.class))
+				.semanticModelPrompt(StateUtil.getStringValue(state, GENEGRATED_SEMANTIC_MODEL_PROMPT, null))
+				.dialectType(StateUtil.getStringValue(state, DB_DIALECT_TYPE, null))
+				.plan(StateUtil.getStringValue(state, PLANNER_NODE_OUTPUT))
+				.sql(isOnlyNl2Sql ? sql : null)
+				.build();
+			queryResultCacheService.put(StateUtil.getStringValue(state, AGENT_ID), StateUtil.getCanonicalQuery(state),
+					isOnlyNl2Sql, cachedResult);
+		}
+		catch (Exception e) {
+			log.warn("Failed to cache query result: {}", e.getMessage());
+		}
+	}
+
 	/**
 	 * Determine the next node to execute
 	 */
@@ -131,7 +172,7 @@ public class PlanExecutorNode implements NodeAction {
 	 * Validate a single execution step
 	 * @return error message if validation fails, null if validation passes
 	 */
-	private String validateExecutionStep(ExecutionStep step) {
+	static String validateExecutionStep(ExecutionStep step) {
 		// Validate tool name
 		if (step.getToolToUse() == null || !SUPPORTED_NODES.contains(step.getToolToUse())) {
 			return "Validation failed: Plan contains an invalid tool name: '" + step.getToolToUse() + "' in step "
@@ -17,7 +17,9 @@ package com.alibaba.cloud.ai.dataagent.workflow.node;
 
 import com.alibaba.cloud.ai.dataagent.dto.schema.SchemaDTO;
 import com.alibaba.cloud.ai.dataagent.enums.TextType;
+import com.alibaba.cloud.ai.dataagent.dto.planner.ExecutionStep;
 import com.alibaba.cloud.ai.dataagent.dto.planner.Plan;
+import com.alibaba.cloud.ai.dataagent.properties.DataAgentProperties;
 import com.alibaba.cloud.ai.graph.GraphResponse;
 import com.alibaba.cloud.ai.graph.OverAllState;
 import com.alibaba.cloud.ai.graph.action.NodeAction;
@@ -28,14 +30,17 @@ import com.alibaba.cloud.ai.dataagent.service.llm.LlmService;
 import com.alibaba.cloud.ai.dataagent.util.ChatResponseUtil;
 import com.alibaba.cloud.ai.dataagent.util.FluxUtil;
 import com.alibaba.cloud.ai.dataagent.util.StateUtil;
+import com.alibaba.cloud.ai.dataagent.util.StreamingJsonParser;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.ai.chat.model.ChatResponse;
-import org.springframework.ai.converter.BeanOutputConverter;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
 
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static com.alibaba.cloud.ai.dataagent.constant.Constant.*;
 
@@ -49,6 +54,11 @@ public class PlannerNode implements NodeAction {
 
 	private final LlmService llmService;
 
+	private final DataAgentProperties properties;
+
+	@Qualifier("nodeBlockingScheduler")
+	private final Scheduler blockingScheduler;
+
 	@Override
 	public Map<String, Object> apply(OverAllState state) throws Exception {
 		// 是否为NL2SQL模式
@@ -56,12 +66,23 @@ public class PlannerNode implements NodeAction {
 
 		Flux<ChatResponse> flux = onlyNl2sql ? handleNl2SqlOnly() : handlePlanGenerate(state);
 
+		// 逐步解析流式输出，每个步骤生成完毕即校验，发现无效步骤时停止生成
+		AtomicReference<String> streamValidationError = new AtomicReference<>("");
+		if (!onlyNl2sql && properties.isPlanStreamValidationEnabled()) {
+			StreamingJsonParser<ExecutionStep> stepParser = new StreamingJsonParser<>("execution_plan",
+					ExecutionStep.class, step -> validateStreamingStep(step, streamValidationError));
+			flux = stepParser.tap(flux).takeUntil(response -> !streamValidationError.get().isEmpty());
+		}
+
 		Flux<ChatResponse> chatResponseFlux = Flux.concat(
 				Flux.just(ChatResponseUtil.createPureResponse(TextType.JSON.getStartSign())), flux,
 				Flux.just(ChatResponseUtil.createPureResponse(TextType.JSON.getEndSign())));
 		Flux<GraphResponse<StreamingOutput>> generator = FluxUtil.createStreamingGeneratorWithMessages(this.getClass(),
-				state, v -> Map.of(PLANNER_NODE_OUTPUT, v.substring(TextType.JSON.getStartSign().length(),
-						v.length() - TextType.JSON.getEndSign().length())),
+				state, blockingScheduler,
+				v -> Map.of(PLANNER_NODE_OUTPUT,
+						v.substring(TextType.JSON.getStartSign().length(),
+								v.length() - TextType.JSON.getEndSign().length()),
+						PLAN_STREAM_VALIDATION_ERROR, streamValidationError.get()),
 				chatResponseFlux);
 
 		return Map.of(PLANNER_NODE_OUTPUT, generator);
@@ -91,10 +112,9 @@ public class PlannerNode implements NodeAction {
 		String evidence = StateUtil.getStringValue(state, EVIDENCE);
 
 		// 构建模板参数
-		BeanOutputConverter<Plan> beanOutputConverter = new BeanOutputConverter<>(Plan.class);
 		Map<String, Object> params = Map.of("user_question", userPrompt, "schema", schemaStr, "evidence", evidence,
 				"semantic_model", semanticModel, "plan_validation_error", formatValidationError(validationError),
-				"format", beanOutputConverter.getFormat());
+				"format", PromptHelper.outputFormat(Plan.class));
 		// 生成计划
 		String plannerPrompt = PromptConstant.getPlannerPromptTemplate().render(params);
 		log.debug("Planner prompt: as follows \n{}\n", plannerPrompt);
@@ -103,6 +123,13 @@ public class PlannerNode implements NodeAction {
 		return llmService.callUser(plannerPrompt);
 	}
 
+	private void validateStreamingStep(ExecutionStep step, AtomicReference<String> streamValidationError) {
+		String error = PlanExecutorNode.validateExecutionStep(step);
+		if (error != null && streamValidationError.compareAndSet("", error)) {
+			log.warn("Invalid plan step detected while streaming, stopping generation: {}", error);
+		}
+	}
+
 	private Flux<ChatResponse> handleNl2SqlOnly() {
 		return Flux.just(ChatResponseUtil.createPureResponse(Plan.nl2SqlPlan()));
 	}
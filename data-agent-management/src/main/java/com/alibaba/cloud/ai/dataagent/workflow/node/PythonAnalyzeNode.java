@@ -28,8 +28,10 @@ import com.alibaba.cloud.ai.dataagent.util.ChatResponseUtil;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -49,6 +51,9 @@ public class PythonAnalyzeNode implements NodeAction {
 
 	private final LlmService llmService;
 
+	@Qualifier("nodeBlockingScheduler")
+	private final Scheduler blockingScheduler;
+
 	@Override
 	public Map<String, Object> apply(OverAllState state) throws Exception {
 
@@ -71,7 +76,7 @@ public class PythonAnalyzeNode implements NodeAction {
 			Flux<ChatResponse> fallbackFlux = Flux.just(ChatResponseUtil.createResponse(fallbackMessage));
 
 			Flux<GraphResponse<StreamingOutput>> generator = FluxUtil.createStreamingGeneratorWithMessages(
-					this.getClass(), state, "正在处理分析结果...\n", "\n处理完成。", aiResponse -> {
+					this.getClass(), state, blockingScheduler, "正在处理分析结果...\n", "\n处理完成。", aiResponse -> {
 						Map<String, String> updatedSqlResult = PlanProcessUtil.addStepResult(sqlExecuteResult,
 								currentStep, fallbackMessage);
 						log.info("python fallback message: {}", fallbackMessage);
@@ -87,7 +92,7 @@ public class PythonAnalyzeNode implements NodeAction {
 		Flux<ChatResponse> pythonAnalyzeFlux = llmService.callSystem(systemPrompt);
 
 		Flux<GraphResponse<StreamingOutput>> generator = FluxUtil.createStreamingGeneratorWithMessages(this.getClass(),
-				state, "正在分析代码运行结果...\n", "\n结果分析完成。", aiResponse -> {
+				state, blockingScheduler, "正在分析代码运行结果...\n", "\n结果分析完成。", aiResponse -> {
 					Map<String, String> updatedSqlResult = PlanProcessUtil.addStepResult(sqlExecuteResult, currentStep,
 							aiResponse);
 					log.info("python analyze result: {}", aiResponse);
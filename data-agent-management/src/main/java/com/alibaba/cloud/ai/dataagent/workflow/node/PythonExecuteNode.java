@@ -30,8 +30,10 @@ import com.alibaba.cloud.ai.dataagent.util.StateUtil;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -57,12 +59,16 @@ public class PythonExecuteNode implements NodeAction {
 
 	private final CodeExecutorProperties codeExecutorProperties;
 
+	private final Scheduler blockingScheduler;
+
 	public PythonExecuteNode(CodePoolExecutorService codePoolExecutor, JsonParseUtil jsonParseUtil,
-			CodeExecutorProperties codeExecutorProperties) {
+			CodeExecutorProperties codeExecutorProperties,
+			@Qualifier("nodeBlockingScheduler") Scheduler blockingScheduler) {
 		this.codePoolExecutor = codePoolExecutor;
 		this.objectMapper = JsonUtil.getObjectMapper();
 		this.jsonParseUtil = jsonParseUtil;
 		this.codeExecutorProperties = codeExecutorProperties;
+		this.blockingScheduler = blockingScheduler;
 	}
 
 	@Override
@@ -100,9 +106,9 @@ public class PythonExecuteNode implements NodeAction {
 					});
 
 					Flux<GraphResponse<StreamingOutput>> fallbackGenerator = FluxUtil
-						.createStreamingGeneratorWithMessages(this.getClass(), state,
-								v -> Map.of(PYTHON_EXECUTE_NODE_OUTPUT, fallbackOutput, PYTHON_IS_SUCCESS, false,
-										PYTHON_FALLBACK_MODE, true),
+						.createStreamingGeneratorWithMessages(
+								this.getClass(), state, blockingScheduler, v -> Map.of(PYTHON_EXECUTE_NODE_OUTPUT,
+										fallbackOutput, PYTHON_IS_SUCCESS, false, PYTHON_FALLBACK_MODE, true),
 								fallbackDisplayFlux);
 
 					return Map.of(PYTHON_EXECUTE_NODE_OUTPUT, fallbackGenerator);
@@ -135,7 +141,7 @@ public class PythonExecuteNode implements NodeAction {
 			// Create generator using utility class, returning pre-computed business logic
 			// result
 			Flux<GraphResponse<StreamingOutput>> generator = FluxUtil.createStreamingGeneratorWithMessages(
-					this.getClass(), state,
+					this.getClass(), state, blockingScheduler,
 					v -> Map.of(PYTHON_EXECUTE_NODE_OUTPUT, finalStdout, PYTHON_IS_SUCCESS, true), displayFlux);
 
 			return Map.of(PYTHON_EXECUTE_NODE_OUTPUT, generator);
@@ -156,8 +162,8 @@ public class PythonExecuteNode implements NodeAction {
 			});
 
 			// Create error generator using utility class
-			var generator = FluxUtil.createStreamingGeneratorWithMessages(this.getClass(), state, v -> errorResult,
-					errorDisplayFlux);
+			var generator = FluxUtil.createStreamingGeneratorWithMessages(this.getClass(), state, blockingScheduler,
+					v -> errorResult, errorDisplayFlux);
 
 			return Map.of(PYTHON_EXECUTE_NODE_OUTPUT, generator);
 		}
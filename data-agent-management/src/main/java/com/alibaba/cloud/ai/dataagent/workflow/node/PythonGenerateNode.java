@@ -34,8 +34,10 @@ import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -61,10 +63,14 @@ public class PythonGenerateNode implements NodeAction {
 
 	private final LlmService llmService;
 
-	public PythonGenerateNode(CodeExecutorProperties codeExecutorProperties, LlmService llmService) {
+	private final Scheduler blockingScheduler;
+
+	public PythonGenerateNode(CodeExecutorProperties codeExecutorProperties, LlmService llmService,
+			@Qualifier("nodeBlockingScheduler") Scheduler blockingScheduler) {
 		this.codeExecutorProperties = codeExecutorProperties;
 		this.llmService = llmService;
 		this.objectMapper = new ObjectMapper().setSerializationInclusion(JsonInclude.Include.NON_NULL);
+		this.blockingScheduler = blockingScheduler;
 	}
 
 	@Override
@@ -111,7 +117,7 @@ public class PythonGenerateNode implements NodeAction {
 		Flux<ChatResponse> pythonGenerateFlux = llmService.call(systemPrompt, userPrompt);
 
 		Flux<GraphResponse<StreamingOutput>> generator = FluxUtil.createStreamingGeneratorWithMessages(this.getClass(),
-				state, aiResponse -> {
+				state, blockingScheduler, aiResponse -> {
 					// Some AI models still output Markdown markup (even though Prompt has
 					// emphasized this)
 					aiResponse = aiResponse.substring(TextType.PYTHON.getStartSign().length(),
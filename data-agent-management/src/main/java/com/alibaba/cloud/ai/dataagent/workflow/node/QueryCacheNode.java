@@ -0,0 +1,105 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.dataagent.workflow.node;
+
+import com.alibaba.cloud.ai.dataagent.enums.TextType;
+import com.alibaba.cloud.ai.dataagent.service.cache.CachedQueryResult;
+import com.alibaba.cloud.ai.dataagent.service.cache.QueryResultCacheService;
+import com.alibaba.cloud.ai.dataagent.service.schema.SchemaRecallPrefetchService;
+import com.alibaba.cloud.ai.dataagent.util.ChatResponseUtil;
+import com.alibaba.cloud.ai.dataagent.util.FluxUtil;
+import com.alibaba.cloud.ai.dataagent.util.StateUtil;
+import com.alibaba.cloud.ai.graph.GraphResponse;
+import com.alibaba.cloud.ai.graph.OverAllState;
+import com.alibaba.cloud.ai.graph.action.NodeAction;
+import com.alibaba.cloud.ai.graph.streaming.StreamingOutput;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.alibaba.cloud.ai.dataagent.constant.Constant.*;
+
+/**
+ * 查询结果缓存节点，位于 QueryEnhanceNode 之后。命中缓存时直接将缓存的 Schema、语义模型与执行计划写回状态， 跳过 Schema
+ * 召回、表关系、可行性评估与规划节点；仅NL2SQL模式下还会直接复用缓存的 SQL。命中时取消已提交的 Schema 召回预取。
+ * <p>
+ * 缓存的计划不会跳过校验：命中后由 PlanExecutorNode 重新校验计划结构与步骤，仅NL2SQL模式下先执行缓存的 SQL， SQL 执行成功后同样回到
+ * PlanExecutorNode 校验，执行失败则进入 SQL 重新生成。
+ */
+@Slf4j
+@Component
+@AllArgsConstructor
+public class QueryCacheNode implements NodeAction {
+
+	private final QueryResultCacheService queryResultCacheService;
+
+	private final SchemaRecallPrefetchService schemaRecallPrefetchService;
+
+	@Qualifier("nodeBlockingScheduler")
+	private final Scheduler blockingScheduler;
+
+	@Override
+	public Map<String, Object> apply(OverAllState state) throws Exception {
+		String agentId = StateUtil.getStringValue(state, AGENT_ID);
+		String canonicalQuery = StateUtil.getCanonicalQuery(state);
+		boolean onlyNl2sql = state.value(IS_ONLY_NL2SQL, false);
+
+		Optional<CachedQueryResult> cached = queryResultCacheService.get(agentId, canonicalQuery, onlyNl2sql);
+		if (cached.isEmpty()) {
+			return Map.of(QUERY_CACHE_HIT, false);
+		}
+
+		// 命中后不再经过 SchemaRecallNode，预取结果不会被消费
+		schemaRecallPrefetchService.cancel(StateUtil.getStringValue(state, SCHEMA_RECALL_PREFETCH_ID, null));
+
+		CachedQueryResult cachedResult = cached.get();
+		Map<String, Object> result = new HashMap<>();
+		result.put(QUERY_CACHE_HIT, true);
+		result.put(TABLE_RELATION_OUTPUT, cachedResult.getSchema());
+		result.put(PLANNER_NODE_OUTPUT, cachedResult.getPlan());
+		result.put(PLAN_STREAM_VALIDATION_ERROR, "");
+		if (cachedResult.getSemanticModelPrompt() != null) {
+			result.put(GENEGRATED_SEMANTIC_MODEL_PROMPT, cachedResult.getSemanticModelPrompt());
+		}
+		if (cachedResult.getDialectType() != null) {
+			result.put(DB_DIALECT_TYPE, cachedResult.getDialectType());
+		}
+		if (onlyNl2sql) {
+			result.put(SQL_GENERATE_OUTPUT, cachedResult.getSql());
+		}
+
+		Flux<ChatResponse> displayFlux = onlyNl2sql
+				? Flux.just(ChatResponseUtil.createPureResponse(TextType.SQL.getStartSign()),
+						ChatResponseUtil.createPureResponse(cachedResult.getSql()),
+						ChatResponseUtil.createPureResponse(TextType.SQL.getEndSign()))
+				: Flux.just(ChatResponseUtil.createPureResponse(TextType.JSON.getStartSign()),
+						ChatResponseUtil.createPureResponse(cachedResult.getPlan()),
+						ChatResponseUtil.createPureResponse(TextType.JSON.getEndSign()));
+		Flux<GraphResponse<StreamingOutput>> generator = FluxUtil.createStreamingGeneratorWithMessages(this.getClass(),
+				state, blockingScheduler, "命中查询缓存，复用已有的分析结果...", "\n缓存结果加载完成！", v -> result, displayFlux);
+
+		return Map.of(QUERY_CACHE_HIT, generator);
+	}
+
+}
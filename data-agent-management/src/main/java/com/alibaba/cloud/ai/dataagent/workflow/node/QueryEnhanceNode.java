@@ -27,8 +27,10 @@ import com.alibaba.cloud.ai.dataagent.service.llm.LlmService;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
 
 import java.util.Map;
 
@@ -46,6 +48,9 @@ public class QueryEnhanceNode implements NodeAction {
 
 	private final JsonParseUtil jsonParseUtil;
 
+	@Qualifier("nodeBlockingScheduler")
+	private final Scheduler blockingScheduler;
+
 	@Override
 	public Map<String, Object> apply(OverAllState state) throws Exception {
 
@@ -64,7 +69,7 @@ public class QueryEnhanceNode implements NodeAction {
 		Flux<ChatResponse> responseFlux = llmService.callUser(prompt);
 
 		Flux<GraphResponse<StreamingOutput>> generator = FluxUtil.createStreamingGenerator(this.getClass(), state,
-				responseFlux,
+				blockingScheduler, responseFlux,
 				Flux.just(ChatResponseUtil.createResponse("正在进行问题增强..."),
 						ChatResponseUtil.createPureResponse(TextType.JSON.getStartSign())),
 				Flux.just(ChatResponseUtil.createPureResponse(TextType.JSON.getEndSign()),
@@ -32,9 +32,11 @@ import com.alibaba.cloud.ai.dataagent.util.StateUtil;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.ai.chat.model.ChatResponse;
 import org.springframework.ai.converter.BeanOutputConverter;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
 
 import java.util.HashMap;
 import java.util.List;
@@ -62,11 +64,15 @@ public class ReportGeneratorNode implements NodeAction {
 
 	private final UserPromptService promptConfigService;
 
-	public ReportGeneratorNode(LlmService llmService, UserPromptService promptConfigService) {
+	private final Scheduler blockingScheduler;
+
+	public ReportGeneratorNode(LlmService llmService, UserPromptService promptConfigService,
+			@Qualifier("nodeBlockingScheduler") Scheduler blockingScheduler) {
 		this.llmService = llmService;
 		this.converter = new BeanOutputConverter<>(new ParameterizedTypeReference<>() {
 		});
 		this.promptConfigService = promptConfigService;
+		this.blockingScheduler = blockingScheduler;
 	}
 
 	@Override
@@ -105,7 +111,7 @@ public class ReportGeneratorNode implements NodeAction {
 
 		// Use utility class to create streaming generator with content collection
 		Flux<GraphResponse<StreamingOutput>> generator = FluxUtil.createStreamingGeneratorWithMessages(this.getClass(),
-				state, "开始生成报告...", "报告生成完成！", reportContent -> {
+				state, blockingScheduler, "开始生成报告...", "报告生成完成！", reportContent -> {
 					log.info("Generated report content: {}", reportContent);
 					Map<String, Object> result = new HashMap<>();
 					result.put(RESULT, reportContent);
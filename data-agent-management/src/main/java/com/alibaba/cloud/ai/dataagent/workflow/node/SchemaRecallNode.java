@@ -20,6 +20,8 @@ import com.alibaba.cloud.ai.graph.GraphResponse;
 import com.alibaba.cloud.ai.graph.OverAllState;
 import com.alibaba.cloud.ai.graph.action.NodeAction;
 import com.alibaba.cloud.ai.graph.streaming.StreamingOutput;
+import com.alibaba.cloud.ai.dataagent.service.schema.SchemaRecallPrefetchService;
+import com.alibaba.cloud.ai.dataagent.service.schema.SchemaRecallPrefetchService.SchemaRecallResult;
 import com.alibaba.cloud.ai.dataagent.service.schema.SchemaService;
 import com.alibaba.cloud.ai.dataagent.util.ChatResponseUtil;
 import com.alibaba.cloud.ai.dataagent.util.FluxUtil;
@@ -28,12 +30,15 @@ import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.ai.chat.model.ChatResponse;
 import org.springframework.ai.document.Document;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 import static com.alibaba.cloud.ai.dataagent.constant.Constant.*;
 
@@ -54,6 +59,11 @@ public class SchemaRecallNode implements NodeAction {
 
 	private final SchemaService schemaService;
 
+	private final SchemaRecallPrefetchService schemaRecallPrefetchService;
+
+	@Qualifier("nodeBlockingScheduler")
+	private final Scheduler blockingScheduler;
+
 	@Override
 	public Map<String, Object> apply(OverAllState state) throws Exception {
 
@@ -63,11 +73,18 @@ public class SchemaRecallNode implements NodeAction {
 		String input = queryEnhanceOutputDTO.getCanonicalQuery();
 		String agentId = StateUtil.getStringValue(state, AGENT_ID);
 
+		// 并行模式下汇合预取分支的结果，未召回到表时回退为按增强后的问题召回
+		Optional<SchemaRecallResult> prefetched = schemaRecallPrefetchService
+			.await(StateUtil.getStringValue(state, SCHEMA_RECALL_PREFETCH_ID, null), input)
+			.filter(result -> !result.tableDocuments().isEmpty());
+
 		// Execute business logic first - recall schema information immediately
-		List<Document> tableDocuments = new ArrayList<>(schemaService.getTableDocumentsForAgent(agentId, input));
+		List<Document> tableDocuments = prefetched.map(SchemaRecallResult::tableDocuments)
+			.orElseGet(() -> new ArrayList<>(schemaService.getTableDocumentsForAgent(agentId, input)));
 		// extract table names
 		List<String> recalledTableNames = extractTableName(tableDocuments);
-		List<Document> columnDocuments = schemaService.getColumnDocumentsByTableName(agentId, recalledTableNames);
+		List<Document> columnDocuments = prefetched.map(SchemaRecallResult::columnDocuments)
+			.orElseGet(() -> schemaService.getColumnDocumentsByTableName(agentId, recalledTableNames));
 
 		String failMessage = """
 				\n 未检索到相关数据表
@@ -92,7 +109,7 @@ public class SchemaRecallNode implements NodeAction {
 		});
 
 		Flux<GraphResponse<StreamingOutput>> generator = FluxUtil.createStreamingGeneratorWithMessages(this.getClass(),
-				state, currentState -> {
+				state, blockingScheduler, currentState -> {
 					return Map.of(TABLE_DOCUMENTS_FOR_SCHEMA_OUTPUT, tableDocuments,
 							COLUMN_DOCUMENTS__FOR_SCHEMA_OUTPUT, columnDocuments);
 				}, displayFlux);
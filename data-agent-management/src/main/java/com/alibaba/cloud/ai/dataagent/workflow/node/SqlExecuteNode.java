@@ -35,6 +35,7 @@ import com.alibaba.cloud.ai.dataagent.enums.TextType;
 import com.alibaba.cloud.ai.dataagent.prompt.PromptHelper;
 import com.alibaba.cloud.ai.dataagent.properties.DataAgentProperties;
 import com.alibaba.cloud.ai.dataagent.service.llm.LlmService;
+import com.alibaba.cloud.ai.dataagent.service.metrics.SqlMetrics;
 import com.alibaba.cloud.ai.dataagent.service.nl2sql.Nl2SqlService;
 import com.alibaba.cloud.ai.dataagent.util.ChatResponseUtil;
 import com.alibaba.cloud.ai.dataagent.util.DatabaseUtil;
@@ -55,8 +56,10 @@ import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
 
 /**
  * SQL execution node that executes SQL queries against the database.
@@ -83,6 +86,11 @@ public class SqlExecuteNode implements NodeAction {
 
 	private final JsonParseUtil jsonParseUtil;
 
+	private final SqlMetrics metrics;
+
+	@Qualifier("nodeBlockingScheduler")
+	private final Scheduler blockingScheduler;
+
 	private static final int SAMPLE_DATA_NUMBER = 20;
 
 	@Override
@@ -109,6 +117,20 @@ public class SqlExecuteNode implements NodeAction {
 		return executeSqlQuery(state, currentStep, sqlQuery, dbConfig, agentId);
 	}
 
+	private ResultSetBO executeWithMetrics(Accessor dbAccessor, DbConfigBO dbConfig, DbQueryParameter dbQueryParameter)
+			throws Exception {
+		long start = System.nanoTime();
+		boolean success = false;
+		try {
+			ResultSetBO resultSetBO = dbAccessor.executeSqlAndReturnObject(dbConfig, dbQueryParameter);
+			success = true;
+			return resultSetBO;
+		}
+		finally {
+			metrics.recordSqlExecution(System.nanoTime() - start, success);
+		}
+	}
+
 	/**
 	 * Executes the SQL query against the database and handles the results.
 	 *
@@ -135,7 +157,7 @@ public class SqlExecuteNode implements NodeAction {
 		final Map<String, Object> result = new HashMap<>();
 
 		// 先返回流式数据，在执行数据库查询
-		Flux<ChatResponse> displayFlux = Flux.create(emitter -> {
+		Flux<ChatResponse> displayFlux = Flux.<ChatResponse>create(emitter -> {
 			emitter.next(ChatResponseUtil.createResponse("开始执行SQL..."));
 			emitter.next(ChatResponseUtil.createResponse("执行SQL查询："));
 			emitter.next(ChatResponseUtil.createPureResponse(TextType.SQL.getStartSign()));
@@ -145,7 +167,7 @@ public class SqlExecuteNode implements NodeAction {
 
 			try {
 				// Execute SQL query and get results immediately
-				ResultSetBO resultSetBO = dbAccessor.executeSqlAndReturnObject(dbConfig, dbQueryParameter);
+				ResultSetBO resultSetBO = executeWithMetrics(dbAccessor, dbConfig, dbQueryParameter);
 				// 调用大模型获取图表配置信息并填充到ResultSetBO中
 				DisplayStyleBO displayStyleBO = enrichResultSetWithChartConfig(state, resultSetBO);
 				resultBO.setResultSet(resultSetBO);
@@ -191,12 +213,12 @@ public class SqlExecuteNode implements NodeAction {
 			finally {
 				emitter.complete();
 			}
-		});
+		}).subscribeOn(blockingScheduler);
 
 		// Create generator using utility class, returning pre-computed business logic
 		// result
 		Flux<GraphResponse<StreamingOutput>> generator = FluxUtil.createStreamingGeneratorWithMessages(this.getClass(),
-				state, v -> result, displayFlux);
+				state, blockingScheduler, v -> result, displayFlux);
 		return Map.of(SQL_EXECUTE_NODE_OUTPUT, generator);
 	}
 
@@ -244,7 +266,9 @@ public class SqlExecuteNode implements NodeAction {
 			log.debug("Built chart config generation user prompt as follows \n {} \n", userPrompt);
 
 			// 调用LLM生成图表配置（使用系统提示词和用户提示词）
-			String chartConfigJson = llmService.toStringFlux(llmService.call(systemPrompt, userPrompt))
+			String chartConfigJson = llmService
+				.toStringFlux(llmService.cacheable(content -> jsonParseUtil.isParsable(content, DisplayStyleBO.class))
+					.call(systemPrompt, userPrompt))
 				.collect(StringBuilder::new, StringBuilder::append)
 				.map(StringBuilder::toString)
 				.block(Duration.ofMillis(properties.getEnrichSqlResultTimeout()));
@@ -34,8 +34,10 @@ import com.alibaba.cloud.ai.graph.streaming.StreamingOutput;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -62,6 +64,9 @@ public class SqlGenerateNode implements NodeAction {
 
 	private final DataAgentProperties properties;
 
+	@Qualifier("nodeBlockingScheduler")
+	private final Scheduler blockingScheduler;
+
 	@Override
 	public Map<String, Object> apply(OverAllState state) throws Exception {
 		// 判断是否达到最大尝试次数
@@ -74,7 +79,7 @@ public class SqlGenerateNode implements NodeAction {
 			log.error("SQL generation failed, reason: {}", sqlGenerateOutput);
 			Flux<ChatResponse> preFlux = Flux.just(ChatResponseUtil.createResponse(sqlGenerateOutput));
 			Flux<GraphResponse<StreamingOutput>> generator = FluxUtil.createStreamingGeneratorWithMessages(
-					this.getClass(), state, "正在进行重试评估...", "重试评估完成！",
+					this.getClass(), state, blockingScheduler, "正在进行重试评估...", "重试评估完成！",
 					retryOutput -> Map.of(SQL_GENERATE_OUTPUT, StateGraph.END, SQL_GENERATE_COUNT, 0), preFlux);
 			// reset the sql generate count
 			return Map.of(SQL_GENERATE_OUTPUT, generator);
@@ -119,7 +124,7 @@ public class SqlGenerateNode implements NodeAction {
 					ChatResponseUtil.createResponse("SQL生成完成，准备执行")));
 
 		Flux<GraphResponse<StreamingOutput>> generator = FluxUtil.createStreamingGeneratorWithMessages(this.getClass(),
-				state, v -> {
+				state, blockingScheduler, v -> {
 					String sql = nl2SqlService.sqlTrim(sqlCollector.toString());
 					result.put(SQL_GENERATE_OUTPUT, sql);
 					return result;
@@ -134,6 +139,7 @@ public class SqlGenerateNode implements NodeAction {
 		SchemaDTO schemaDTO = StateUtil.getObjectValue(state, TABLE_RELATION_OUTPUT, SchemaDTO.class);
 		String userQuery = StateUtil.getCanonicalQuery(state);
 		String dialect = StateUtil.getStringValue(state, DB_DIALECT_TYPE);
+		String semanticModel = StateUtil.getStringValue(state, GENEGRATED_SEMANTIC_MODEL_PROMPT, "");
 
 		SqlGenerationDTO sqlGenerationDTO = SqlGenerationDTO.builder()
 			.evidence(evidence)
@@ -143,6 +149,7 @@ public class SqlGenerateNode implements NodeAction {
 			.exceptionMessage(errorMsg)
 			.executionDescription(executionDescription)
 			.dialect(dialect)
+			.semanticModel(semanticModel)
 			.build();
 
 		return nl2SqlService.generateSql(sqlGenerationDTO);
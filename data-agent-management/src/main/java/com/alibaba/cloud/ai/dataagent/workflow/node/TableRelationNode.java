@@ -34,6 +34,7 @@ import com.alibaba.cloud.ai.dataagent.entity.AgentDatasource;
 import com.alibaba.cloud.ai.dataagent.entity.LogicalRelation;
 import com.alibaba.cloud.ai.dataagent.entity.SemanticModel;
 import com.alibaba.cloud.ai.dataagent.enums.TextType;
+import com.alibaba.cloud.ai.dataagent.prompt.PromptBudgetAllocator;
 import com.alibaba.cloud.ai.dataagent.service.datasource.AgentDatasourceService;
 import com.alibaba.cloud.ai.dataagent.service.datasource.DatasourceService;
 import com.alibaba.cloud.ai.dataagent.service.nl2sql.Nl2SqlService;
@@ -59,8 +60,10 @@ import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.ai.chat.model.ChatResponse;
 import org.springframework.ai.document.Document;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
 
 /**
  * Table relationship inference node that automatically completes complex structures like
@@ -90,6 +93,11 @@ public class TableRelationNode implements NodeAction {
 
 	private final AgentDatasourceService agentDatasourceService;
 
+	private final PromptBudgetAllocator promptBudgetAllocator;
+
+	@Qualifier("nodeBlockingScheduler")
+	private final Scheduler blockingScheduler;
+
 	@Override
 	public Map<String, Object> apply(OverAllState state) throws Exception {
 
@@ -119,6 +127,8 @@ public class TableRelationNode implements NodeAction {
 		Flux<ChatResponse> schemaFlux = processSchemaSelection(initialSchema, canonicalQuery, evidence, state,
 				agentDbConfig, result -> {
 					log.info("[{}] Schema processing result: {}", this.getClass().getSimpleName(), result);
+					// 压缩到 Schema 的 Token 预算以内，后续规划与 SQL 生成均使用压缩后的 Schema
+					promptBudgetAllocator.compactSchema(result, canonicalQuery);
 					resultMap.put(TABLE_RELATION_OUTPUT, result);
 
 					// 从最终的SchemaDTO中获取表名列表
@@ -148,7 +158,7 @@ public class TableRelationNode implements NodeAction {
 		// Use utility class to create generator, directly return business logic computed
 		// result
 		Flux<GraphResponse<StreamingOutput>> generator = FluxUtil.createStreamingGeneratorWithMessages(this.getClass(),
-				state, v -> resultMap, displayFlux);
+				state, blockingScheduler, v -> resultMap, displayFlux);
 
 		// Return generator and essential state values that need to be available
 		// immediately
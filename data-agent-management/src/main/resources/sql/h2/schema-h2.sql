@@ -254,6 +254,7 @@ CREATE TABLE IF NOT EXISTS `model_config` (
   `is_active` tinyint(1) DEFAULT '0' COMMENT '是否激活',
   `max_tokens` int(11) DEFAULT '2000' COMMENT '输出响应最大令牌数',
   `model_type` varchar(20) NOT NULL DEFAULT 'CHAT' COMMENT '模型类型 (CHAT/EMBEDDING)',
+  `model_tier` varchar(32) NOT NULL DEFAULT 'DEFAULT' COMMENT '对话模型层级 (DEFAULT/FAST/REASONING/LONG_CONTEXT)',
   `completions_path` varchar(255) DEFAULT NULL COMMENT 'Chat模型专用。附加到 Base URL 的路径。例如OpenAi的/v1/chat/completions',
   `embeddings_path` varchar(255) DEFAULT NULL COMMENT '嵌入模型专用。附加到 Base URL 的路径。',
   `created_time` datetime DEFAULT NULL COMMENT '创建时间',
@@ -261,3 +262,13 @@ CREATE TABLE IF NOT EXISTS `model_config` (
   `is_deleted` int(11) DEFAULT '0' COMMENT '0=未删除, 1=已删除',
   PRIMARY KEY (`id`)
 ) ENGINE=InnoDB;
+
+-- 图线程状态表（检查点、多轮上下文、停止信号），多实例部署时共享
+CREATE TABLE IF NOT EXISTS `graph_thread_state` (
+  `thread_id` varchar(128) NOT NULL COMMENT '线程ID',
+  `state_type` varchar(32) NOT NULL COMMENT '状态类型 (HISTORY/PENDING_TURN/STOP_SIGNAL/CHECKPOINT)',
+  `payload` longtext COMMENT '状态内容',
+  `update_time` datetime NOT NULL COMMENT '更新时间',
+  PRIMARY KEY (`thread_id`, `state_type`),
+  INDEX idx_graph_thread_state_type_update_time (`state_type`, `update_time`)
+) ENGINE=InnoDB;
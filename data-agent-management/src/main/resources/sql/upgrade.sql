@@ -0,0 +1,24 @@
+-- 旧版本升级脚本，可重复执行。管理库默认不自动执行 schema.sql，已有部署在升级后执行一次即可；应用启动时也会自动检查并补齐
+
+-- model_config 新增 model_tier 列（对话模型层级）
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.TABLES t
+    WHERE t.TABLE_SCHEMA = DATABASE() AND t.TABLE_NAME = 'model_config'
+    AND NOT EXISTS (SELECT 1 FROM information_schema.COLUMNS c
+        WHERE c.TABLE_SCHEMA = t.TABLE_SCHEMA AND c.TABLE_NAME = t.TABLE_NAME AND c.COLUMN_NAME = 'model_tier')) > 0,
+    'ALTER TABLE model_config ADD COLUMN model_tier varchar(32) NOT NULL DEFAULT ''DEFAULT'' COMMENT ''对话模型层级 (DEFAULT/FAST/REASONING/LONG_CONTEXT)'' AFTER model_type',
+    'SELECT 1');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+-- graph_thread_state 新增过期清理索引
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.TABLES t
+    WHERE t.TABLE_SCHEMA = DATABASE() AND t.TABLE_NAME = 'graph_thread_state'
+    AND NOT EXISTS (SELECT 1 FROM information_schema.STATISTICS s
+        WHERE s.TABLE_SCHEMA = t.TABLE_SCHEMA AND s.TABLE_NAME = t.TABLE_NAME
+        AND s.INDEX_NAME = 'idx_graph_thread_state_type_update_time')) > 0,
+    'CREATE INDEX idx_graph_thread_state_type_update_time ON graph_thread_state (state_type, update_time)',
+    'SELECT 1');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
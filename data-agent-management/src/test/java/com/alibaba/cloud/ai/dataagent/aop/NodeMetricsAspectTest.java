@@ -0,0 +1,141 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.dataagent.aop;
+
+import com.alibaba.cloud.ai.dataagent.service.metrics.GraphMetrics;
+import com.alibaba.cloud.ai.dataagent.service.metrics.MetricTags;
+import com.alibaba.cloud.ai.dataagent.workflow.node.SqlGenerateNode;
+import com.alibaba.cloud.ai.graph.OverAllState;
+import com.alibaba.cloud.ai.graph.state.strategy.ReplaceStrategy;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.util.Map;
+
+import static com.alibaba.cloud.ai.dataagent.constant.Constant.*;
+import static com.alibaba.cloud.ai.dataagent.service.metrics.GraphMetrics.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * NodeMetricsAspect 单元测试
+ */
+class NodeMetricsAspectTest {
+
+	private SimpleMeterRegistry registry;
+
+	private NodeMetricsAspect aspect;
+
+	private OverAllState state;
+
+	@BeforeEach
+	void setUp() {
+		registry = new SimpleMeterRegistry();
+		aspect = new NodeMetricsAspect(new GraphMetrics(registry));
+		state = new OverAllState();
+		state.registerKeyAndStrategy(AGENT_ID, new ReplaceStrategy());
+		state.registerKeyAndStrategy(SQL_GENERATE_COUNT, new ReplaceStrategy());
+		state.updateState(Map.of(AGENT_ID, "1"));
+	}
+
+	@Test
+	void durationIsRecordedWhenGeneratorCompletes() throws Throwable {
+		Sinks.Many<String> chunks = Sinks.many().unicast().onBackpressureBuffer();
+		Map<?, ?> output = (Map<?, ?>) aspect
+			.recordNodeMetrics(joinPoint(new StubNode(), Map.of("output", chunks.asFlux(), "plain", "v")));
+		Flux<?> generator = (Flux<?>) output.get("output");
+		assertEquals("v", output.get("plain"));
+
+		generator.subscribe();
+		// 节点方法已返回，但生成器尚未结束，不应记录耗时
+		assertNull(registry.find(NODE_DURATION).timer());
+
+		chunks.tryEmitNext("a");
+		chunks.tryEmitNext("b");
+		assertEquals(1, registry.get(NODE_FIRST_CHUNK).tag(MetricTags.TAG_NODE, "StubNode").timer().count());
+
+		chunks.tryEmitComplete();
+		Timer duration = registry.get(NODE_DURATION)
+			.tags(MetricTags.TAG_NODE, "StubNode", MetricTags.TAG_OUTCOME, "success")
+			.timer();
+		assertEquals(1, duration.count());
+		// 耗时指标只按节点汇总，不携带智能体标签
+		assertNull(duration.getId().getTag(MetricTags.TAG_AGENT));
+	}
+
+	@Test
+	void failedGeneratorRecordsErrorOutcome() throws Throwable {
+		Map<?, ?> output = (Map<?, ?>) aspect.recordNodeMetrics(
+				joinPoint(new StubNode(), Map.of("output", Flux.error(new IllegalStateException("boom")))));
+
+		assertThrows(IllegalStateException.class, () -> ((Flux<?>) output.get("output")).blockLast());
+		assertEquals(1, registry.get(NODE_DURATION).tag(MetricTags.TAG_OUTCOME, "error").timer().count());
+	}
+
+	@Test
+	void thrownExceptionRecordsErrorOutcome() throws Throwable {
+		ProceedingJoinPoint joinPoint = joinPoint(new StubNode(), null);
+		when(joinPoint.proceed()).thenThrow(new IllegalArgumentException("bad state"));
+
+		assertThrows(IllegalArgumentException.class, () -> aspect.recordNodeMetrics(joinPoint));
+		assertEquals(1, registry.get(NODE_DURATION).tag(MetricTags.TAG_OUTCOME, "error").timer().count());
+	}
+
+	@Test
+	void generatorCarriesNodeAndAgentInContext() throws Throwable {
+		Flux<String> contextFlux = Flux.deferContextual(
+				ctx -> Flux.just(ctx.get(MetricTags.NODE_CONTEXT_KEY), ctx.get(MetricTags.AGENT_CONTEXT_KEY)));
+		Map<?, ?> output = (Map<?, ?>) aspect
+			.recordNodeMetrics(joinPoint(new StubNode(), Map.of("output", contextFlux)));
+
+		assertEquals("StubNode,1",
+				String.join(",", ((Flux<?>) output.get("output")).map(String::valueOf).collectList().block()));
+	}
+
+	@Test
+	void retryableNodeRecordsAttempt() throws Throwable {
+		state.updateState(Map.of(SQL_GENERATE_COUNT, 2));
+
+		aspect.recordNodeMetrics(joinPoint(new SqlGenerateNode(null, null, null), Map.of()));
+
+		DistributionSummary attempts = registry.get(NODE_RETRY_ATTEMPTS)
+			.tag(MetricTags.TAG_NODE, "SqlGenerateNode")
+			.summary();
+		assertEquals(1, attempts.count());
+		assertEquals(2, attempts.totalAmount());
+		assertEquals(1, registry.get(NODE_DURATION).tag(MetricTags.TAG_NODE, "SqlGenerateNode").timer().count());
+	}
+
+	private ProceedingJoinPoint joinPoint(Object target, Object result) throws Throwable {
+		ProceedingJoinPoint joinPoint = mock(ProceedingJoinPoint.class);
+		when(joinPoint.getTarget()).thenReturn(target);
+		when(joinPoint.getArgs()).thenReturn(new Object[] { state });
+		when(joinPoint.proceed()).thenReturn(result);
+		return joinPoint;
+	}
+
+	private static class StubNode {
+
+	}
+
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.dataagent.node;
+
+import com.alibaba.cloud.ai.dataagent.dto.prompt.QueryEnhanceOutputDTO;
+import com.alibaba.cloud.ai.dataagent.mapper.AgentKnowledgeMapper;
+import com.alibaba.cloud.ai.dataagent.prompt.PromptBudgetAllocator;
+import com.alibaba.cloud.ai.dataagent.properties.DataAgentProperties;
+import com.alibaba.cloud.ai.dataagent.service.graph.SpeculativePreprocessService;
+import com.alibaba.cloud.ai.dataagent.service.llm.LlmService;
+import com.alibaba.cloud.ai.dataagent.service.schema.SchemaRecallPrefetchService;
+import com.alibaba.cloud.ai.dataagent.service.stream.StreamOutputSupport;
+import com.alibaba.cloud.ai.dataagent.service.vectorstore.AgentVectorStoreService;
+import com.alibaba.cloud.ai.dataagent.util.JsonParseUtil;
+import com.alibaba.cloud.ai.dataagent.workflow.node.EvidenceRecallNode;
+import com.alibaba.cloud.ai.graph.OverAllState;
+import com.alibaba.cloud.ai.graph.state.strategy.ReplaceStrategy;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.Map;
+
+import static com.alibaba.cloud.ai.dataagent.constant.Constant.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * EvidenceRecallNode 在融合预处理模式下的单元测试
+ */
+@ExtendWith(MockitoExtension.class)
+class EvidenceRecallNodeTest {
+
+	@Mock
+	private LlmService llmService;
+
+	@Mock
+	private AgentVectorStoreService vectorStoreService;
+
+	@Mock
+	private JsonParseUtil jsonParseUtil;
+
+	@Mock
+	private AgentKnowledgeMapper agentKnowledgeMapper;
+
+	@Mock
+	private SchemaRecallPrefetchService schemaRecallPrefetchService;
+
+	@Mock
+	private StreamOutputSupport streamOutputSupport;
+
+	@Mock
+	private SpeculativePreprocessService speculativePreprocessService;
+
+	@Mock
+	private PromptBudgetAllocator promptBudgetAllocator;
+
+	private DataAgentProperties properties;
+
+	private EvidenceRecallNode node;
+
+	private OverAllState state;
+
+	@BeforeEach
+	void setUp() {
+		properties = new DataAgentProperties();
+		node = new EvidenceRecallNode(llmService, vectorStoreService, jsonParseUtil, agentKnowledgeMapper,
+				schemaRecallPrefetchService, properties, streamOutputSupport, speculativePreprocessService,
+				promptBudgetAllocator, Schedulers.immediate());
+		state = new OverAllState();
+		for (String key : new String[] { INPUT_KEY, AGENT_ID, EVIDENCE_STANDALONE_QUERY, QUERY_ENHANCE_NODE_OUTPUT }) {
+			state.registerKeyAndStrategy(key, new ReplaceStrategy());
+		}
+		QueryEnhanceOutputDTO queryEnhance = new QueryEnhanceOutputDTO();
+		queryEnhance.setCanonicalQuery("统计2026年9月各部门的销售额");
+		state.updateState(Map.of(INPUT_KEY, "上个月各部门的销售额", AGENT_ID, "1", EVIDENCE_STANDALONE_QUERY, "上个月各部门销售额",
+				QUERY_ENHANCE_NODE_OUTPUT, queryEnhance));
+	}
+
+	@Test
+	void testFusedModePrefetchesSchemaWithCanonicalQuery() throws Exception {
+		properties.setSchemaRecallParallelEnabled(true);
+		when(schemaRecallPrefetchService.submit(anyString(), anyString())).thenReturn("prefetch-1");
+
+		Map<String, Object> result = node.apply(state);
+
+		// SchemaRecallNode 按增强后的问题汇合预取结果，提交时必须使用同一个问题
+		verify(schemaRecallPrefetchService).submit("1", "统计2026年9月各部门的销售额");
+		assertEquals("prefetch-1", result.get(SCHEMA_RECALL_PREFETCH_ID));
+		assertTrue(result.containsKey(EVIDENCE));
+		verifyNoInteractions(llmService, speculativePreprocessService);
+	}
+
+	@Test
+	void testFusedModeSkipsPrefetchWithoutParallelMode() throws Exception {
+		Map<String, Object> result = node.apply(state);
+
+		verify(schemaRecallPrefetchService, never()).submit(anyString(), anyString());
+		assertFalse(result.containsKey(SCHEMA_RECALL_PREFETCH_ID));
+		assertTrue(result.containsKey(EVIDENCE));
+		verifyNoInteractions(llmService, speculativePreprocessService);
+	}
+
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.dataagent.node;
+
+import com.alibaba.cloud.ai.dataagent.dto.prompt.IntentRecognitionOutputDTO;
+import com.alibaba.cloud.ai.dataagent.dto.prompt.QueryEnhanceOutputDTO;
+import com.alibaba.cloud.ai.dataagent.service.llm.LlmService;
+import com.alibaba.cloud.ai.dataagent.service.metrics.LlmMetrics;
+import com.alibaba.cloud.ai.dataagent.util.ChatResponseUtil;
+import com.alibaba.cloud.ai.dataagent.util.JsonParseUtil;
+import com.alibaba.cloud.ai.dataagent.workflow.dispatcher.IntentRecognitionDispatcher;
+import com.alibaba.cloud.ai.dataagent.workflow.node.FusedPreprocessNode;
+import com.alibaba.cloud.ai.graph.GraphResponse;
+import com.alibaba.cloud.ai.graph.OverAllState;
+import com.alibaba.cloud.ai.graph.state.strategy.ReplaceStrategy;
+import com.alibaba.cloud.ai.graph.streaming.StreamingOutput;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+import java.util.Map;
+
+import static com.alibaba.cloud.ai.dataagent.constant.Constant.*;
+import static com.alibaba.cloud.ai.graph.StateGraph.END;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+/**
+ * FusedPreprocessNode 输出约定的单元测试：结果写入意图识别、查询增强与证据检索查询原有的状态键
+ */
+@ExtendWith(MockitoExtension.class)
+class FusedPreprocessNodeTest {
+
+	@Mock
+	private LlmService llmService;
+
+	private FusedPreprocessNode node;
+
+	private OverAllState state;
+
+	@BeforeEach
+	void setUp() {
+		JsonParseUtil jsonParseUtil = new JsonParseUtil(llmService, new LlmMetrics(new SimpleMeterRegistry()));
+		node = new FusedPreprocessNode(llmService, jsonParseUtil, Schedulers.immediate());
+		state = new OverAllState();
+		for (String key : new String[] { INPUT_KEY, MULTI_TURN_CONTEXT, INTENT_RECOGNITION_NODE_OUTPUT,
+				QUERY_ENHANCE_NODE_OUTPUT, EVIDENCE_STANDALONE_QUERY }) {
+			state.registerKeyAndStrategy(key, new ReplaceStrategy());
+		}
+		state.updateState(Map.of(INPUT_KEY, "上个月各部门的销售额"));
+	}
+
+	@Test
+	void testWritesEachSubStepUnderOriginalStateKeys() throws Exception {
+		when(llmService.callUser(anyString())).thenReturn(Flux.just(
+				ChatResponseUtil.createPureResponse("{\"classification\":\"《可能的数据分析请求》\","),
+				ChatResponseUtil.createPureResponse("\"standalone_query\":\"上个月各部门销售额\","),
+				ChatResponseUtil.createPureResponse(
+						"\"canonical_query\":\"统计2026年9月各部门的销售额\",\"expanded_queries\":[\"9月部门销售额\"]}")));
+
+		Map<String, Object> result = run();
+
+		IntentRecognitionOutputDTO intent = (IntentRecognitionOutputDTO) result.get(INTENT_RECOGNITION_NODE_OUTPUT);
+		QueryEnhanceOutputDTO queryEnhance = (QueryEnhanceOutputDTO) result.get(QUERY_ENHANCE_NODE_OUTPUT);
+		assertEquals("《可能的数据分析请求》", intent.getClassification());
+		assertEquals("统计2026年9月各部门的销售额", queryEnhance.getCanonicalQuery());
+		assertEquals(List.of("9月部门销售额"), queryEnhance.getExpandedQueries());
+		assertEquals("上个月各部门销售额", result.get(EVIDENCE_STANDALONE_QUERY));
+
+		state.updateState(result);
+		assertEquals(EVIDENCE_RECALL_NODE, new IntentRecognitionDispatcher().apply(state));
+	}
+
+	@Test
+	void testMissingStandaloneQueryOverwritesStaleValue() throws Exception {
+		state.updateState(Map.of(EVIDENCE_STANDALONE_QUERY, "上一轮的检索查询"));
+		when(llmService.callUser(anyString())).thenReturn(Flux.just(ChatResponseUtil
+			.createPureResponse("{\"classification\":\"《可能的数据分析请求》\",\"canonical_query\":\"统计2026年9月各部门的销售额\"}")));
+
+		Map<String, Object> result = run();
+
+		// 检索查询缺失时写入空串，证据召回节点回退为 LLM 重写，其余子步骤的结果照常写入
+		assertEquals("", result.get(EVIDENCE_STANDALONE_QUERY));
+		assertEquals("统计2026年9月各部门的销售额",
+				((QueryEnhanceOutputDTO) result.get(QUERY_ENHANCE_NODE_OUTPUT)).getCanonicalQuery());
+		state.updateState(result);
+		assertEquals("", state.value(EVIDENCE_STANDALONE_QUERY).orElseThrow());
+	}
+
+	@Test
+	void testUnparsableOutputEndsFlow() throws Exception {
+		when(llmService.callUser(anyString()))
+			.thenReturn(Flux.just(ChatResponseUtil.createPureResponse("抱歉，我无法处理这个请求")));
+		when(llmService.toStringFlux(any())).thenCallRealMethod();
+
+		Map<String, Object> result = run();
+
+		// 解析失败时不写入任何结果，IntentRecognitionDispatcher 结束流程
+		assertTrue(result.isEmpty());
+		state.updateState(result);
+		assertEquals(END, new IntentRecognitionDispatcher().apply(state));
+	}
+
+	@SuppressWarnings("unchecked")
+	private Map<String, Object> run() throws Exception {
+		Flux<GraphResponse<StreamingOutput>> generator = (Flux<GraphResponse<StreamingOutput>>) node.apply(state)
+			.get(INTENT_RECOGNITION_NODE_OUTPUT);
+		GraphResponse<StreamingOutput> done = generator.filter(GraphResponse::isDone).blockLast();
+		return (Map<String, Object>) done.resultValue().orElseThrow();
+	}
+
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.dataagent.node;
+
+import com.alibaba.cloud.ai.dataagent.dto.prompt.QueryEnhanceOutputDTO;
+import com.alibaba.cloud.ai.dataagent.service.cache.CachedQueryResult;
+import com.alibaba.cloud.ai.dataagent.service.cache.QueryResultCacheService;
+import com.alibaba.cloud.ai.dataagent.service.schema.SchemaRecallPrefetchService;
+import com.alibaba.cloud.ai.dataagent.workflow.dispatcher.QueryCacheDispatcher;
+import com.alibaba.cloud.ai.dataagent.workflow.node.PlanExecutorNode;
+import com.alibaba.cloud.ai.dataagent.workflow.node.QueryCacheNode;
+import com.alibaba.cloud.ai.graph.OverAllState;
+import com.alibaba.cloud.ai.graph.state.strategy.ReplaceStrategy;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.Map;
+import java.util.Optional;
+
+import static com.alibaba.cloud.ai.dataagent.constant.Constant.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class QueryCacheNodeTest {
+
+	private static final String VALID_PLAN = """
+			{"thought_process":"t","execution_plan":[{"step":1,"tool_to_use":"SQL_GENERATE_NODE",
+			"tool_parameters":{"instruction":"count employees"}}]}
+			""";
+
+	@Mock
+	private QueryResultCacheService queryResultCacheService;
+
+	@Mock
+	private SchemaRecallPrefetchService schemaRecallPrefetchService;
+
+	private QueryCacheNode node;
+
+	private OverAllState state;
+
+	@BeforeEach
+	void setUp() {
+		node = new QueryCacheNode(queryResultCacheService, schemaRecallPrefetchService, Schedulers.immediate());
+		state = new OverAllState();
+		for (String key : new String[] { AGENT_ID, QUERY_ENHANCE_NODE_OUTPUT, IS_ONLY_NL2SQL, SCHEMA_RECALL_PREFETCH_ID,
+				QUERY_CACHE_HIT, PLANNER_NODE_OUTPUT, PLAN_STREAM_VALIDATION_ERROR, PLAN_CURRENT_STEP,
+				PLAN_REPAIR_COUNT }) {
+			state.registerKeyAndStrategy(key, new ReplaceStrategy());
+		}
+		QueryEnhanceOutputDTO queryEnhanceOutput = new QueryEnhanceOutputDTO();
+		queryEnhanceOutput.setCanonicalQuery("统计每个部门的员工数量");
+		state.updateState(Map.of(AGENT_ID, "1", QUERY_ENHANCE_NODE_OUTPUT, queryEnhanceOutput,
+				SCHEMA_RECALL_PREFETCH_ID, "prefetch-1"));
+	}
+
+	@Test
+	void testHitCancelsSchemaRecallPrefetch() throws Exception {
+		when(queryResultCacheService.get("1", "统计每个部门的员工数量", false))
+			.thenReturn(Optional.of(CachedQueryResult.builder().plan(VALID_PLAN).build()));
+
+		node.apply(state);
+
+		verify(schemaRecallPrefetchService).cancel("prefetch-1");
+	}
+
+	@Test
+	void testMissKeepsSchemaRecallPrefetch() throws Exception {
+		when(queryResultCacheService.get(anyString(), anyString(), anyBoolean())).thenReturn(Optional.empty());
+
+		Map<String, Object> result = node.apply(state);
+
+		assertEquals(false, result.get(QUERY_CACHE_HIT));
+		verify(schemaRecallPrefetchService, never()).cancel(anyString());
+	}
+
+	@Test
+	void testCachedPlanIsValidatedOnHitPath() throws Exception {
+		PlanExecutorNode planExecutorNode = new PlanExecutorNode(queryResultCacheService);
+		state.updateState(Map.of(QUERY_CACHE_HIT, true, PLAN_STREAM_VALIDATION_ERROR, "", PLANNER_NODE_OUTPUT,
+				"{\"thought_process\":\"t\",\"execution_plan\":[]}"));
+
+		assertEquals(PLAN_EXECUTOR_NODE, new QueryCacheDispatcher().apply(state));
+		assertEquals(false, planExecutorNode.apply(state).get(PLAN_VALIDATION_STATUS));
+
+		state.updateState(Map.of(PLANNER_NODE_OUTPUT, VALID_PLAN));
+		Map<String, Object> result = planExecutorNode.apply(state);
+
+		assertEquals(true, result.get(PLAN_VALIDATION_STATUS));
+		assertEquals(SQL_GENERATE_NODE, result.get(PLAN_NEXT_NODE));
+		verify(queryResultCacheService, never()).put(anyString(), anyString(), anyBoolean(), any());
+	}
+
+}
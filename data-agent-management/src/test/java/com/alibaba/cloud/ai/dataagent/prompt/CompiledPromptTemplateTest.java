@@ -0,0 +1,71 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.dataagent.prompt;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.prompt.PromptTemplate;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * CompiledPromptTemplate 与 Spring AI PromptTemplate 渲染一致性测试
+ */
+class CompiledPromptTemplateTest {
+
+	@Test
+	void rendersAllBundledPromptsLikePromptTemplate() throws Exception {
+		Resource[] resources = new PathMatchingResourcePatternResolver().getResources("classpath*:prompts/*.txt");
+		assertTrue(resources.length > 0);
+		for (Resource resource : resources) {
+			String name = resource.getFilename().replace(".txt", "");
+			CompiledPromptTemplate compiled = PromptLoader.loadCompiled(name);
+			Map<String, Object> params = new HashMap<>();
+			for (String variable : compiled.getVariableNames()) {
+				params.put(variable, "值 " + variable + "\r\n第二行 {x} \\ $");
+			}
+			String expected = new PromptTemplate(PromptLoader.loadPrompt(name)).render(params);
+			assertEquals(expected, compiled.render(params), name);
+		}
+	}
+
+	@Test
+	void handlesEscapesNullsAndIterables() {
+		String template = "a \\{b\\} \\\\ {x}-{ y }-{x}\n";
+		Map<String, Object> params = new HashMap<>();
+		params.put("x", List.of("1", "2"));
+		params.put("y", null);
+		String expected = new PromptTemplate(template).render(params);
+		CompiledPromptTemplate compiled = CompiledPromptTemplate.compile("test", template);
+		assertEquals(expected, compiled.render(params));
+		assertEquals(expected, compiled.bind().set("x", List.of("1", "2")).set("y", null).render());
+	}
+
+	@Test
+	void rejectsMissingVariablesAndUnsupportedExpressions() {
+		CompiledPromptTemplate compiled = CompiledPromptTemplate.compile("test", "{a}{b}");
+		assertThrows(IllegalStateException.class, () -> compiled.bind().set("a", "1").render());
+		assertThrows(IllegalArgumentException.class, () -> CompiledPromptTemplate.compile("test", "{a.b}"));
+	}
+
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.dataagent.prompt;
+
+import com.alibaba.cloud.ai.dataagent.dto.schema.ColumnDTO;
+import com.alibaba.cloud.ai.dataagent.dto.schema.SchemaDTO;
+import com.alibaba.cloud.ai.dataagent.dto.schema.TableDTO;
+import com.alibaba.cloud.ai.dataagent.properties.DataAgentProperties;
+import com.alibaba.cloud.ai.dataagent.service.metrics.PromptMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * PromptBudgetAllocator 单元测试
+ */
+class PromptBudgetAllocatorTest {
+
+	@Test
+	void schemaOverBudgetDropsSamplesThenIrrelevantColumns() {
+		DataAgentProperties properties = new DataAgentProperties();
+		properties.getPromptBudget().setSchemaColumnPruningEnabled(true);
+		PromptBudgetAllocator allocator = new PromptBudgetAllocator(properties,
+				new PromptMetrics(new SimpleMeterRegistry()));
+
+		TableDTO table = new TableDTO();
+		table.setName("t_order");
+		table.setPrimaryKeys(List.of("id"));
+		List<ColumnDTO> columns = new ArrayList<>();
+		columns.add(column("id", "订单ID"));
+		columns.add(column("user_id", "用户ID"));
+		columns.add(column("amount", "订单金额"));
+		for (int i = 0; i < 40; i++) {
+			columns.add(column("ext_field_" + i, "扩展字段" + i));
+		}
+		table.setColumn(columns);
+		SchemaDTO schema = new SchemaDTO();
+		schema.setName("shop");
+		schema.setTable(List.of(table));
+		schema.setForeignKeys(List.of("t_order.user_id=t_user.id"));
+
+		int original = allocator.countTokens(PromptHelper.buildMixMacSqlDbPrompt(schema, true));
+		properties.getPromptBudget().setSchemaTokens(original / 3);
+		allocator.compactSchema(schema, "统计每个用户的订单金额");
+
+		assertTrue(allocator.countTokens(PromptHelper.buildMixMacSqlDbPrompt(schema, true)) <= original / 3);
+		List<String> kept = table.getColumn().stream().map(ColumnDTO::getName).toList();
+		assertTrue(kept.containsAll(List.of("id", "user_id", "amount")));
+		assertTrue(kept.size() < 43);
+		// 示例值先于列被裁剪
+		assertTrue(table.getColumn().stream().allMatch(column -> column.getData() == null));
+	}
+
+	@Test
+	void columnsAreKeptByDefaultAndOnlySamplesAreTrimmed() {
+		DataAgentProperties properties = new DataAgentProperties();
+		PromptBudgetAllocator allocator = new PromptBudgetAllocator(properties,
+				new PromptMetrics(new SimpleMeterRegistry()));
+		TableDTO table = wideTable("t_order", "buyer_ref", "买家");
+		SchemaDTO schema = schema(List.of(table), "t_order.buyer_ref=t_user.uid");
+
+		int original = allocator.countTokens(PromptHelper.buildMixMacSqlDbPrompt(schema, true));
+		properties.getPromptBudget().setSchemaTokens(original / 3);
+		allocator.compactSchema(schema, "统计各用户的订单金额");
+
+		assertEquals(43, table.getColumn().size());
+		assertTrue(table.getColumn().stream().allMatch(column -> column.getData() == null));
+	}
+
+	@Test
+	void joinColumnWithoutLexicalOverlapIsKeptWhenPruning() {
+		DataAgentProperties properties = new DataAgentProperties();
+		properties.getPromptBudget().setSchemaColumnPruningEnabled(true);
+		PromptBudgetAllocator allocator = new PromptBudgetAllocator(properties,
+				new PromptMetrics(new SimpleMeterRegistry()));
+		// 关联列的名称与描述都与问题没有共同词项
+		TableDTO order = wideTable("t_order", "buyer_ref", "买家");
+		order.getColumn().add(column("cust_no", "编号"));
+		TableDTO customer = new TableDTO();
+		customer.setName("t_customer");
+		customer.setColumn(new ArrayList<>(List.of(column("name", "名称"), column("cust_no", "编号"))));
+		SchemaDTO schema = schema(List.of(order, customer), "`shop`.`t_order`.`buyer_ref` = shop.t_user.uid");
+
+		int original = allocator.countTokens(PromptHelper.buildMixMacSqlDbPrompt(schema, true));
+		properties.getPromptBudget().setSchemaTokens(original / 3);
+		allocator.compactSchema(schema, "统计各用户的订单金额");
+
+		List<String> kept = order.getColumn().stream().map(ColumnDTO::getName).toList();
+		assertTrue(kept.containsAll(List.of("id", "buyer_ref", "cust_no", "amount")));
+		assertTrue(kept.size() < 44);
+	}
+
+	@Test
+	void fitRankedKeepsHighestRankedItemsWithinBudget() {
+		DataAgentProperties properties = new DataAgentProperties();
+		properties.getPromptBudget().setEvidenceTokens(10);
+		PromptBudgetAllocator allocator = new PromptBudgetAllocator(properties,
+				new PromptMetrics(new SimpleMeterRegistry()));
+
+		List<String> kept = allocator.fitRanked(PromptBudgetAllocator.SECTION_EVIDENCE,
+				List.of("one two three", "four five six seven eight nine ten eleven", "twelve"), text -> text);
+
+		assertEquals(List.of("one two three", "twelve"), kept);
+	}
+
+	@Test
+	void schemaWithinBudgetIsUntouched() {
+		PromptBudgetAllocator allocator = new PromptBudgetAllocator(new DataAgentProperties(),
+				new PromptMetrics(new SimpleMeterRegistry()));
+		TableDTO table = new TableDTO();
+		table.setName("t_user");
+		table.setColumn(new ArrayList<>(List.of(column("name", "姓名"))));
+		SchemaDTO schema = new SchemaDTO();
+		schema.setTable(List.of(table));
+
+		allocator.compactSchema(schema, "用户");
+
+		assertEquals(List.of("a", "b", "c"), table.getColumn().get(0).getData());
+		assertNull(schema.getForeignKeys());
+	}
+
+	private static TableDTO wideTable(String name, String joinColumn, String joinDescription) {
+		TableDTO table = new TableDTO();
+		table.setName(name);
+		table.setPrimaryKeys(List.of("id"));
+		List<ColumnDTO> columns = new ArrayList<>();
+		columns.add(column("id", "订单ID"));
+		columns.add(column(joinColumn, joinDescription));
+		columns.add(column("amount", "订单金额"));
+		for (int i = 0; i < 40; i++) {
+			columns.add(column("ext_field_" + i, "扩展字段" + i));
+		}
+		table.setColumn(columns);
+		return table;
+	}
+
+	private static SchemaDTO schema(List<TableDTO> tables, String foreignKey) {
+		SchemaDTO schema = new SchemaDTO();
+		schema.setName("shop");
+		schema.setTable(tables);
+		schema.setForeignKeys(List.of(foreignKey));
+		return schema;
+	}
+
+	private static ColumnDTO column(String name, String description) {
+		ColumnDTO column = new ColumnDTO();
+		column.setName(name);
+		column.setDescription(description);
+		column.setType("varchar");
+		column.setData(List.of("a", "b", "c"));
+		return column;
+	}
+
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.dataagent.prompt;
+
+import com.alibaba.cloud.ai.dataagent.dto.prompt.SqlGenerationDTO;
+import com.alibaba.cloud.ai.dataagent.dto.schema.SchemaDTO;
+import com.alibaba.cloud.ai.dataagent.dto.schema.TableDTO;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * PromptHelper SQL 提示词前缀单元测试
+ */
+class PromptHelperTest {
+
+	@Test
+	void sqlContextPrefixIsStableAcrossStepsAndRetries() {
+		SqlGenerationDTO generate = dto("统计每月订单数", null, null);
+		SqlGenerationDTO retry = dto("统计每月销售额", "select 1", "Unknown column 'amount'");
+
+		String prefix = PromptHelper.buildSqlContextPrefix(generate);
+		assertEquals(prefix, PromptHelper.buildSqlContextPrefix(retry));
+		assertTrue(prefix.contains("t_order"));
+		assertTrue(prefix.contains("订单金额字段为 total"));
+
+		String fixPrompt = PromptHelper.buildSqlErrorFixerPrompt(retry);
+		assertTrue(fixPrompt.contains("Unknown column 'amount'"));
+		assertTrue(fixPrompt.contains("统计每月销售额"));
+		assertFalse(fixPrompt.contains("t_order"));
+		assertFalse(PromptHelper.buildNewSqlGeneratorPrompt(generate).contains("t_order"));
+	}
+
+	private static SqlGenerationDTO dto(String step, String sql, String error) {
+		TableDTO table = new TableDTO();
+		table.setName("t_order");
+		table.setDescription("订单表");
+		SchemaDTO schema = new SchemaDTO();
+		schema.setName("shop");
+		schema.setTable(List.of(table));
+		return SqlGenerationDTO.builder()
+			.dialect("MySQL")
+			.schemaDTO(schema)
+			.evidence("订单金额字段为 total")
+			.query("最近一年的销售趋势")
+			.executionDescription(step)
+			.sql(sql)
+			.exceptionMessage(error)
+			.build();
+	}
+
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.dataagent.prompt;
+
+import com.alibaba.cloud.ai.dataagent.dto.prompt.QueryEnhanceOutputDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.ai.chat.prompt.PromptTemplate;
+import org.springframework.ai.converter.BeanOutputConverter;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 提示词渲染基准：StringTemplate 逐次解析与预编译模板对比，以及结构化输出格式说明逐次生成与缓存对比。
+ * <p>
+ * 不随单元测试执行，需要时直接运行 main 方法。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PromptRenderBenchmark {
+
+	private String template;
+
+	private CompiledPromptTemplate compiled;
+
+	private Map<String, Object> params;
+
+	@Setup
+	public void setup() {
+		template = PromptLoader.loadPrompt("planner");
+		compiled = PromptLoader.loadCompiled("planner");
+		params = new HashMap<>();
+		for (String variable : compiled.getVariableNames()) {
+			params.put(variable,
+					"CREATE TABLE t_order (id BIGINT, total DECIMAL(10,2), created_at DATETIME);\n".repeat(50));
+		}
+	}
+
+	@Benchmark
+	public String promptTemplate() {
+		return new PromptTemplate(template).render(params);
+	}
+
+	@Benchmark
+	public String compiledTemplate() {
+		return compiled.render(params);
+	}
+
+	@Benchmark
+	public String outputFormatPerCall() {
+		return new BeanOutputConverter<>(QueryEnhanceOutputDTO.class).getFormat();
+	}
+
+	@Benchmark
+	public String outputFormatCached() {
+		return PromptHelper.outputFormat(QueryEnhanceOutputDTO.class);
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(PromptRenderBenchmark.class.getSimpleName()).build()).run();
+	}
+
+}
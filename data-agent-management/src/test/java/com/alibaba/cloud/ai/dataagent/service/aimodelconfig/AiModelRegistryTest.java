@@ -0,0 +1,88 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.dataagent.service.aimodelconfig;
+
+import com.alibaba.cloud.ai.dataagent.dto.ModelConfigDTO;
+import com.alibaba.cloud.ai.dataagent.enums.ModelTier;
+import com.alibaba.cloud.ai.dataagent.enums.ModelType;
+import com.alibaba.cloud.ai.dataagent.properties.DataAgentProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.context.ApplicationEventPublisher;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+/**
+ * AiModelRegistry 模型层级路由单元测试
+ */
+class AiModelRegistryTest {
+
+	private ModelConfigDataService modelConfigDataService;
+
+	private DataAgentProperties properties;
+
+	private AiModelRegistry registry;
+
+	@BeforeEach
+	void setUp() {
+		DynamicModelFactory modelFactory = mock(DynamicModelFactory.class);
+		when(modelFactory.createChatModel(any())).thenReturn(mock(ChatModel.class));
+		modelConfigDataService = mock(ModelConfigDataService.class);
+		when(modelConfigDataService.getActiveConfig(ModelType.CHAT, ModelTier.DEFAULT)).thenReturn(config("qwen-max"));
+		when(modelConfigDataService.getActiveConfig(ModelType.CHAT, ModelTier.FAST)).thenReturn(config("qwen-turbo"));
+		properties = new DataAgentProperties();
+		registry = new AiModelRegistry(modelFactory, modelConfigDataService, mock(ApplicationEventPublisher.class),
+				properties);
+	}
+
+	@Test
+	void routesNodeToConfiguredTier() {
+		assertEquals(ModelTier.FAST, registry.resolveTier("IntentRecognitionNode"));
+		assertEquals(ModelTier.DEFAULT, registry.resolveTier("SqlGenerateNode"));
+		assertEquals("openai|http://localhost|null|qwen-turbo|0.0|2000",
+				registry.getChatModelFingerprint(ModelTier.FAST));
+	}
+
+	@Test
+	void fallsBackToDefaultWhenTierHasNoActiveModel() {
+		assertEquals(ModelTier.DEFAULT, registry.resolveTier("PlannerNode"));
+		assertEquals(registry.getChatModelFingerprint(), registry.getChatModelFingerprint(ModelTier.REASONING));
+
+		// 层级的查询结果被缓存，直到对话模型刷新
+		registry.resolveTier("PlannerNode");
+		verify(modelConfigDataService, times(1)).getActiveConfig(ModelType.CHAT, ModelTier.REASONING);
+	}
+
+	@Test
+	void routesEverythingToDefaultWhenDisabled() {
+		properties.getModelRouting().setEnabled(false);
+		assertEquals(ModelTier.DEFAULT, registry.resolveTier("IntentRecognitionNode"));
+	}
+
+	private static ModelConfigDTO config(String modelName) {
+		return ModelConfigDTO.builder()
+			.provider("openai")
+			.baseUrl("http://localhost")
+			.modelName(modelName)
+			.modelType(ModelType.CHAT.getCode())
+			.temperature(0.0)
+			.maxTokens(2000)
+			.build();
+	}
+
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.dataagent.service.aimodelconfig;
+
+import com.alibaba.cloud.ai.dataagent.exception.LlmConcurrencyLimitException;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * ProviderConcurrencyLimiter 单元测试
+ */
+class ProviderConcurrencyLimiterTest {
+
+	@Test
+	void queuedRequestsAreAdmittedInArrivalOrder() {
+		ProviderConcurrencyLimiter limiter = new ProviderConcurrencyLimiter("test", 1, 10, Duration.ofMillis(100));
+		ProviderConcurrencyLimiter.Permit first = limiter.acquire().block();
+		List<Integer> admitted = new ArrayList<>();
+		List<ProviderConcurrencyLimiter.Permit> permits = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			int order = i;
+			limiter.acquire().subscribe(permit -> {
+				admitted.add(order);
+				permits.add(permit);
+			});
+		}
+		assertEquals(3, limiter.getQueued());
+
+		first.release();
+		permits.get(0).release();
+		permits.get(1).release();
+
+		assertEquals(List.of(0, 1, 2), admitted);
+		assertEquals(1, limiter.getActive());
+	}
+
+	@Test
+	void cancelledWaiterLeavesQueue() {
+		ProviderConcurrencyLimiter limiter = new ProviderConcurrencyLimiter("test", 1, 10, Duration.ofMillis(100));
+		ProviderConcurrencyLimiter.Permit first = limiter.acquire().block();
+		Disposable waiting = limiter.acquire().subscribe();
+		waiting.dispose();
+		assertEquals(0, limiter.getQueued());
+
+		first.release();
+		first.release();
+		assertEquals(0, limiter.getActive());
+	}
+
+	@Test
+	void rejectsWhenQueueIsFull() {
+		ProviderConcurrencyLimiter limiter = new ProviderConcurrencyLimiter("test", 1, 1, Duration.ofMillis(100));
+		limiter.acquire().block();
+		limiter.acquire().subscribe();
+
+		assertThrows(LlmConcurrencyLimitException.class, () -> limiter.acquire().block());
+		assertEquals(1, limiter.getRejectedCount());
+		assertThrows(LlmConcurrencyLimitException.class, () -> limiter.acquireBlocking(Duration.ofMillis(10)));
+	}
+
+	@Test
+	void throttlingHalvesLimitPausesAndRecovers() {
+		ProviderConcurrencyLimiter limiter = new ProviderConcurrencyLimiter("test", 4, 10, Duration.ofMillis(100));
+		limiter.onThrottled(Duration.ofMillis(200));
+		assertEquals(2, limiter.getLimit());
+
+		// 暂停期间排队，暂停结束后自动放行
+		long start = System.nanoTime();
+		limiter.acquire().block(Duration.ofSeconds(5));
+		assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() >= 150);
+
+		for (int i = 0; i < 2; i++) {
+			limiter.onSuccess();
+		}
+		assertEquals(3, limiter.getLimit());
+	}
+
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.dataagent.service.aimodelconfig;
+
+import com.alibaba.cloud.ai.dataagent.event.EmbeddingModelChangedEvent;
+import com.alibaba.cloud.ai.dataagent.properties.DataAgentProperties;
+import com.alibaba.cloud.ai.dataagent.service.metrics.CacheMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingRequest;
+import org.springframework.ai.embedding.EmbeddingResponse;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * QueryEmbeddingCache 单元测试
+ */
+class QueryEmbeddingCacheTest {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	private final QueryEmbeddingCache cache = new QueryEmbeddingCache(new DataAgentProperties(),
+			new CacheMetrics(meterRegistry));
+
+	private final CountingEmbeddingModel delegate = new CountingEmbeddingModel();
+
+	@Test
+	void repeatedQueryIsEmbeddedOnce() {
+		EmbeddingModel model = cache.wrap(delegate, () -> "1|openai|text-embedding-v4");
+
+		float[] first = model.embed("上个月 订单数");
+		first[0] = -1;
+		assertArrayEquals(new float[] { 7f, 1f }, model.embed("  上个月\n订单数 "));
+		assertEquals(1, delegate.calls.get());
+		assertEquals(1, meterRegistry.counter(CacheMetrics.EMBEDDING_CACHE_REQUESTS, "outcome", "hit").count());
+		assertEquals(1, meterRegistry.counter(CacheMetrics.EMBEDDING_CACHE_REQUESTS, "outcome", "miss").count());
+	}
+
+	@Test
+	void modelSwitchBypassesAndFlushesEntries() {
+		AtomicReference<String> fingerprint = new AtomicReference<>("1|openai|a");
+		EmbeddingModel model = cache.wrap(delegate, fingerprint::get);
+		model.embed("订单");
+
+		fingerprint.set("2|openai|b");
+		model.embed("订单");
+		assertEquals(2, delegate.calls.get());
+		assertEquals(2, cache.size());
+
+		cache.onEmbeddingModelChanged(new EmbeddingModelChangedEvent(this));
+		assertEquals(0, cache.size());
+
+		fingerprint.set(null);
+		model.embed("订单");
+		model.embed("订单");
+		assertEquals(4, delegate.calls.get());
+		assertEquals(0, cache.size());
+	}
+
+	private static class CountingEmbeddingModel implements EmbeddingModel {
+
+		private final AtomicInteger calls = new AtomicInteger();
+
+		@Override
+		public float[] embed(String text) {
+			calls.incrementAndGet();
+			return new float[] { text.strip().length(), 1f };
+		}
+
+		@Override
+		public EmbeddingResponse call(EmbeddingRequest request) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public float[] embed(Document document) {
+			return embed(document.getText());
+		}
+
+	}
+
+}
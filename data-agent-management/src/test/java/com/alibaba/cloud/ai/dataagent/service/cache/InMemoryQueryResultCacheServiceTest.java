@@ -0,0 +1,193 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.dataagent.service.cache;
+
+import com.alibaba.cloud.ai.dataagent.mapper.AgentRecallScopeMapper;
+import com.alibaba.cloud.ai.dataagent.properties.DataAgentProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.ai.embedding.EmbeddingModel;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * InMemoryQueryResultCacheService 单元测试
+ */
+@ExtendWith(MockitoExtension.class)
+class InMemoryQueryResultCacheServiceTest {
+
+	@Mock
+	private EmbeddingModel embeddingModel;
+
+	@Mock
+	private AgentRecallScopeMapper agentRecallScopeMapper;
+
+	private DataAgentProperties properties;
+
+	private InMemoryQueryResultCacheService cacheService;
+
+	@BeforeEach
+	void setUp() {
+		properties = new DataAgentProperties();
+		properties.getQueryCache().setEnabled(true);
+		properties.getQueryCache().setSimilarityEnabled(false);
+		lenient().when(agentRecallScopeMapper.selectFingerprintRows(anyLong()))
+			.thenReturn(List.of(Map.of("source", "business_knowledge", "row_count", 1L)));
+		cacheService = new InMemoryQueryResultCacheService(properties, embeddingModel, agentRecallScopeMapper);
+	}
+
+	@Test
+	void testExactHitIgnoresCaseAndTrailingPunctuation() {
+		cacheService.put("1", "统计每个部门的员工数量", false, CachedQueryResult.builder().plan("plan").build());
+
+		Optional<CachedQueryResult> result = cacheService.get("1", " 统计每个部门的员工数量？", false);
+
+		assertTrue(result.isPresent());
+		assertEquals("plan", result.get().getPlan());
+		assertTrue(cacheService.get("1", "统计每个部门的员工数量", true).isEmpty());
+		assertTrue(cacheService.get("2", "统计每个部门的员工数量", false).isEmpty());
+	}
+
+	@Test
+	void testInvalidateAgent() {
+		cacheService.put("1", "query", false, CachedQueryResult.builder().plan("plan").build());
+		cacheService.put("2", "query", false, CachedQueryResult.builder().plan("plan").build());
+
+		cacheService.invalidate("1");
+
+		assertTrue(cacheService.get("1", "query", false).isEmpty());
+		assertTrue(cacheService.get("2", "query", false).isPresent());
+	}
+
+	@Test
+	void testSkipPutWhenInvalidatedDuringExecution() {
+		// 查找未命中时记录指纹，执行期间召回范围发生变更后不应写入旧结果
+		assertTrue(cacheService.get("1", "query", false).isEmpty());
+		when(agentRecallScopeMapper.selectFingerprintRows(1L))
+			.thenReturn(List.of(Map.of("source", "business_knowledge", "row_count", 2L)));
+		cacheService.invalidate("1");
+		cacheService.put("1", "query", false, CachedQueryResult.builder().plan("stale").build());
+
+		assertTrue(cacheService.get("1", "query", false).isEmpty());
+	}
+
+	@Test
+	void testPersistedFingerprintChangeInvalidatesEntries() {
+		// 其他实例修改了知识，本实例没有收到事件，指纹复用时间过后从数据库读到新的指纹
+		properties.getQueryCache().setFingerprintRefreshSeconds(0);
+		cacheService.put("1", "query", false, CachedQueryResult.builder().plan("plan").build());
+		assertTrue(cacheService.get("1", "query", false).isPresent());
+
+		when(agentRecallScopeMapper.selectFingerprintRows(1L))
+			.thenReturn(List.of(Map.of("source", "business_knowledge", "row_count", 2L)));
+
+		assertTrue(cacheService.get("1", "query", false).isEmpty());
+	}
+
+	@Test
+	void testInvalidateReloadsFingerprint() {
+		properties.getQueryCache().setFingerprintRefreshSeconds(3600);
+		cacheService.put("1", "query", false, CachedQueryResult.builder().plan("old").build());
+		when(agentRecallScopeMapper.selectFingerprintRows(1L))
+			.thenReturn(List.of(Map.of("source", "agent_knowledge", "row_count", 1L)));
+
+		// 本实例的变更事件立即丢弃本地指纹，新写入的条目使用数据库中的新指纹
+		cacheService.invalidate("1");
+		cacheService.put("1", "query", false, CachedQueryResult.builder().plan("new").build());
+
+		assertEquals("new", cacheService.get("1", "query", false).orElseThrow().getPlan());
+		verify(agentRecallScopeMapper, times(2)).selectFingerprintRows(1L);
+	}
+
+	@Test
+	void testBypassWhenFingerprintUnavailable() {
+		when(agentRecallScopeMapper.selectFingerprintRows(1L)).thenThrow(new IllegalStateException("db down"));
+
+		cacheService.put("1", "query", false, CachedQueryResult.builder().plan("plan").build());
+
+		assertTrue(cacheService.get("1", "query", false).isEmpty());
+	}
+
+	@Test
+	void testLruEviction() {
+		properties.getQueryCache().setMaxEntries(2);
+		cacheService.put("1", "q1", false, CachedQueryResult.builder().plan("p1").build());
+		cacheService.put("1", "q2", false, CachedQueryResult.builder().plan("p2").build());
+		// 访问 q1，使 q2 成为最久未使用的条目
+		assertTrue(cacheService.get("1", "q1", false).isPresent());
+		cacheService.put("1", "q3", false, CachedQueryResult.builder().plan("p3").build());
+
+		assertTrue(cacheService.get("1", "q1", false).isPresent());
+		assertTrue(cacheService.get("1", "q2", false).isEmpty());
+		assertTrue(cacheService.get("1", "q3", false).isPresent());
+	}
+
+	@Test
+	void testSimilarityHit() {
+		properties.getQueryCache().setSimilarityEnabled(true);
+		lenient().when(embeddingModel.embed(anyString())).thenAnswer(invocation -> {
+			String text = invocation.getArgument(0);
+			return text.contains("销售额") ? new float[] { 1f, 0.01f } : new float[] { 0f, 1f };
+		});
+		cacheService.put("1", "查询上个月的销售额", false, CachedQueryResult.builder().plan("plan").build());
+
+		assertTrue(cacheService.get("1", "上个月销售额是多少", false).isPresent());
+		assertTrue(cacheService.get("1", "查询用户数量", false).isEmpty());
+	}
+
+	@Test
+	void testSimilarityRequiresSameLiterals() {
+		properties.getQueryCache().setSimilarityEnabled(true);
+		lenient().when(embeddingModel.embed(anyString())).thenReturn(new float[] { 1f, 0.01f });
+		cacheService.put("1", "2023年销售额", false, CachedQueryResult.builder().plan("plan").build());
+		cacheService.put("1", "查询客户 C1001 的订单", false, CachedQueryResult.builder().plan("plan").build());
+
+		assertTrue(cacheService.get("1", "2023年的销售额", false).isPresent());
+		assertTrue(cacheService.get("1", "2024年销售额", false).isEmpty());
+		assertTrue(cacheService.get("1", "查询客户 C1002 的订单", false).isEmpty());
+		assertTrue(cacheService.get("1", "查询'华东'地区的订单", false).isEmpty());
+	}
+
+	@Test
+	void testExtractLiterals() {
+		assertEquals(List.of("2023-01-01", "c1001"),
+				InMemoryQueryResultCacheService.extractLiterals("客户C1001在2023-01-01之后的订单"));
+		assertEquals(List.of("'华东'", "去年"), InMemoryQueryResultCacheService.extractLiterals("去年'华东'地区的销售额"));
+		assertEquals(List.of("三"), InMemoryQueryResultCacheService.extractLiterals("销量前三的商品"));
+	}
+
+	@Test
+	void testDisabled() {
+		properties.getQueryCache().setEnabled(false);
+		cacheService.put("1", "query", false, CachedQueryResult.builder().plan("plan").build());
+
+		assertTrue(cacheService.get("1", "query", false).isEmpty());
+	}
+
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.dataagent.service.chat;
+
+import com.alibaba.cloud.ai.dataagent.service.llm.LlmService;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * SessionTitleService 单元测试
+ */
+class SessionTitleServiceTest {
+
+	@Test
+	void rejectedSubmissionDoesNotBlockLaterAttempts() {
+		ExecutorService executor = mock(ExecutorService.class);
+		doThrow(new RejectedExecutionException("busy")).when(executor).execute(any());
+		SessionTitleService service = new SessionTitleService(mock(ChatSessionService.class),
+				mock(SessionEventPublisher.class), mock(LlmService.class), executor);
+
+		service.scheduleTitleGeneration("s1", "查询上月销售额");
+		service.scheduleTitleGeneration("s1", "查询上月销售额");
+
+		verify(executor, times(2)).execute(any());
+	}
+
+}
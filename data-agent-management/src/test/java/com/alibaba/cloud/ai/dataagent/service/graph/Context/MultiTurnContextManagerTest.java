@@ -0,0 +1,118 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.dataagent.service.graph.Context;
+
+import com.alibaba.cloud.ai.dataagent.prompt.PromptBudgetAllocator;
+import com.alibaba.cloud.ai.dataagent.properties.DataAgentProperties;
+import com.alibaba.cloud.ai.dataagent.service.graph.state.InMemoryThreadStateStore;
+import com.alibaba.cloud.ai.dataagent.service.graph.state.ThreadStateStore;
+import com.alibaba.cloud.ai.dataagent.service.metrics.PromptMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * MultiTurnContextManager 单元测试
+ */
+class MultiTurnContextManagerTest {
+
+	private DataAgentProperties properties;
+
+	private ThreadStateStore store;
+
+	@BeforeEach
+	void setUp() {
+		properties = new DataAgentProperties();
+		properties.getPromptBudget().setEnabled(false);
+		store = new InMemoryThreadStateStore();
+	}
+
+	private MultiTurnContextManager newManager() {
+		return new MultiTurnContextManager(properties, store,
+				new PromptBudgetAllocator(properties, new PromptMetrics(new SimpleMeterRegistry())));
+	}
+
+	@Test
+	void pendingPlanIsVisibleToAnotherInstance() {
+		newManager().beginTurn("t1", "上月销售额");
+		newManager().appendPlannerChunk("t1", "按月汇总");
+
+		// 模拟另一个实例：本地没有进行中的轮次，从存储中接续
+		newManager().finishTurn("t1");
+
+		assertEquals("用户: 上月销售额\nAI计划: 按月汇总", newManager().buildContext("t1"));
+	}
+
+	@Test
+	void concurrentTurnsDoNotOverwriteHistory() throws Exception {
+		properties.setMaxturnhistory(100);
+		int turns = 8;
+		ExecutorService executor = Executors.newFixedThreadPool(turns);
+		try {
+			CountDownLatch start = new CountDownLatch(1);
+			List<Future<?>> futures = new ArrayList<>();
+			for (int i = 0; i < turns; i++) {
+				String question = "问题" + i;
+				MultiTurnContextManager manager = newManager();
+				// 每个线程使用独立的实例，本地进行中轮次互不可见，只共享存储
+				futures.add(executor.submit(() -> {
+					start.await();
+					manager.beginTurn("t2", question);
+					manager.appendPlannerChunk("t2", "计划");
+					manager.finishTurn("t2");
+					return null;
+				}));
+			}
+			start.countDown();
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		}
+		finally {
+			executor.shutdownNow();
+		}
+
+		String context = newManager().buildContext("t2");
+		for (int i = 0; i < turns; i++) {
+			assertTrue(context.contains("用户: 问题" + i + "\n"), "missing turn " + i);
+		}
+	}
+
+	@Test
+	void restartLastTurnReusesQuestion() {
+		MultiTurnContextManager manager = newManager();
+		manager.beginTurn("t3", "上月销售额");
+		manager.appendPlannerChunk("t3", "计划A");
+		manager.finishTurn("t3");
+
+		manager.restartLastTurn("t3");
+		assertEquals("(无)", manager.buildContext("t3"));
+		manager.appendPlannerChunk("t3", "计划B");
+		manager.finishTurn("t3");
+
+		assertEquals("用户: 上月销售额\nAI计划: 计划B", manager.buildContext("t3"));
+	}
+
+}
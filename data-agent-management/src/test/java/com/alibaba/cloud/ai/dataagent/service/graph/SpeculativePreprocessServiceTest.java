@@ -0,0 +1,140 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.dataagent.service.graph;
+
+import com.alibaba.cloud.ai.dataagent.properties.DataAgentProperties;
+import com.alibaba.cloud.ai.dataagent.service.llm.LlmService;
+import com.alibaba.cloud.ai.dataagent.service.metrics.GraphMetrics;
+import com.alibaba.cloud.ai.dataagent.service.schema.SchemaRecallPrefetchService;
+import com.alibaba.cloud.ai.dataagent.service.schema.SchemaService;
+import com.alibaba.cloud.ai.dataagent.util.ChatResponseUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.document.Document;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * SpeculativePreprocessService 单元测试
+ */
+class SpeculativePreprocessServiceTest {
+
+	private LlmService llmService;
+
+	private SchemaRecallPrefetchService prefetchService;
+
+	private DataAgentProperties properties;
+
+	private SpeculativePreprocessService service;
+
+	@BeforeEach
+	void setUp() {
+		llmService = mock(LlmService.class);
+		prefetchService = mock(SchemaRecallPrefetchService.class);
+		when(prefetchService.submit(anyString(), anyString())).thenReturn("prefetch-1");
+		properties = new DataAgentProperties();
+		properties.setSchemaRecallParallelEnabled(true);
+		service = new SpeculativePreprocessService(llmService, prefetchService, properties,
+				new GraphMetrics(new SimpleMeterRegistry()));
+	}
+
+	@Test
+	void takenSpeculationReplaysRewriteOutput() {
+		when(llmService.callUser(anyString())).thenReturn(Flux.just(ChatResponseUtil.createPureResponse("{\"a\":"),
+				ChatResponseUtil.createPureResponse("1}")));
+
+		service.start("s1", "1", "上月销售额", "(无)");
+		service.start("s1", "1", "上月销售额", "(无)");
+
+		SpeculativePreprocessService.Speculation speculation = service.take("s1").orElseThrow();
+		String text = speculation.rewriteFlux().map(ChatResponseUtil::getText).reduce(String::concat).block();
+		assertEquals("{\"a\":1}", text);
+		assertEquals("prefetch-1", speculation.schemaPrefetchId());
+		assertTrue(service.take("s1").isEmpty());
+		verify(llmService, times(1)).callUser(anyString());
+	}
+
+	@Test
+	void cancelDisposesRewriteAndSchemaPrefetch() {
+		AtomicBoolean llmCancelled = new AtomicBoolean(false);
+		Sinks.Many<ChatResponse> pending = Sinks.many().unicast().onBackpressureBuffer();
+		when(llmService.callUser(anyString())).thenReturn(pending.asFlux().doOnCancel(() -> llmCancelled.set(true)));
+
+		service.start("s2", "1", "你好", "(无)");
+		service.cancel("s2");
+
+		assertTrue(llmCancelled.get());
+		verify(prefetchService).cancel("prefetch-1");
+		assertTrue(service.take("s2").isEmpty());
+	}
+
+	@Test
+	void schemaIsNotPrefetchedWithoutParallelMode() {
+		when(llmService.callUser(anyString())).thenReturn(Flux.empty());
+		properties.setSchemaRecallParallelEnabled(false);
+
+		service.start("s3", "1", "上月销售额", "(无)");
+
+		// 非并行模式下 SchemaRecallNode 按增强后的问题召回，与串行执行一致
+		assertNull(service.take("s3").orElseThrow().schemaPrefetchId());
+		verify(prefetchService, never()).submit(anyString(), anyString());
+	}
+
+	@Test
+	void speculativeAndSerialPathsRecallSameTables() {
+		SchemaService schemaService = mock(SchemaService.class);
+		when(schemaService.getTableDocumentsForAgent(anyString(), anyString()))
+			.thenAnswer(invocation -> List.of(new Document("table", Map.of("name", "t_" + invocation.getArgument(1)))));
+		when(schemaService.getColumnDocumentsByTableName(anyString(), anyList())).thenReturn(List.of());
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			SchemaRecallPrefetchService realPrefetch = new SchemaRecallPrefetchService(schemaService, executor,
+					properties, new GraphMetrics(new SimpleMeterRegistry()));
+			SpeculativePreprocessService speculative = new SpeculativePreprocessService(llmService, realPrefetch,
+					properties, new GraphMetrics(new SimpleMeterRegistry()));
+			when(llmService.callUser(anyString())).thenReturn(Flux.empty());
+
+			speculative.start("s4", "1", "上月销售额", "(无)");
+			String speculativeId = speculative.take("s4").orElseThrow().schemaPrefetchId();
+			// 串行路径在并行模式下按相同问题提交预取
+			String serialId = realPrefetch.submit("1", "上月销售额");
+
+			assertEquals(tableNames(realPrefetch.await(serialId, "上月销售额").orElseThrow()),
+					tableNames(realPrefetch.await(speculativeId, "上月销售额").orElseThrow()));
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private static List<Object> tableNames(SchemaRecallPrefetchService.SchemaRecallResult result) {
+		return result.tableDocuments().stream().map(document -> document.getMetadata().get("name")).toList();
+	}
+
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.dataagent.service.graph.state;
+
+import com.alibaba.cloud.ai.graph.OverAllState;
+import com.alibaba.cloud.ai.graph.RunnableConfig;
+import com.alibaba.cloud.ai.graph.StateGraph;
+import com.alibaba.cloud.ai.graph.checkpoint.Checkpoint;
+import com.alibaba.cloud.ai.graph.serializer.StateSerializer;
+import com.alibaba.cloud.ai.graph.serializer.plain_text.jackson.SpringAIJacksonStateSerializer;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ThreadStateCheckpointSaver 单元测试
+ */
+class ThreadStateCheckpointSaverTest {
+
+	private final ThreadStateStore store = new InMemoryThreadStateStore();
+
+	private final StateSerializer serializer = new SpringAIJacksonStateSerializer(OverAllState::new);
+
+	private ThreadStateCheckpointSaver newSaver() {
+		return new ThreadStateCheckpointSaver(store, serializer, List.of("HumanFeedbackNode"));
+	}
+
+	@Test
+	void checkpointIsVisibleToAnotherSaverInstance() throws Exception {
+		RunnableConfig config = RunnableConfig.builder().threadId("thread-1").build();
+		ThreadStateCheckpointSaver writer = newSaver();
+		writer.put(config,
+				Checkpoint.builder()
+					.nodeId("PlanExecutorNode")
+					.nextNodeId("HumanFeedbackNode")
+					.state(Map.of("input", "查询销售额", "plan_current_step", 2))
+					.build());
+
+		// 模拟另一个实例：内存中没有该线程的检查点，从共享存储加载
+		ThreadStateCheckpointSaver reader = newSaver();
+		Optional<Checkpoint> loaded = reader.get(config);
+
+		assertTrue(loaded.isPresent());
+		assertEquals("HumanFeedbackNode", loaded.get().getNextNodeId());
+		assertEquals("查询销售额", loaded.get().getState().get("input"));
+		assertEquals(2, loaded.get().getState().get("plan_current_step"));
+	}
+
+	@Test
+	void evictedThreadIsRehydratedWithLatestCheckpoint() throws Exception {
+		RunnableConfig config = RunnableConfig.builder().threadId("thread-3").build();
+		ThreadStateCheckpointSaver saver = newSaver();
+		saver.put(config, Checkpoint.builder().nodeId("a").nextNodeId("b").state(Map.of("step", 1)).build());
+		saver.put(config,
+				Checkpoint.builder().nodeId("b").nextNodeId("HumanFeedbackNode").state(Map.of("step", 2)).build());
+		assertEquals(2, saver.list(config).size());
+
+		saver.evict("thread-3");
+
+		// 只保留最新检查点，按需从存储加载
+		assertEquals(1, saver.list(config).size());
+		Checkpoint latest = saver.get(config).orElseThrow();
+		assertEquals("HumanFeedbackNode", latest.getNextNodeId());
+		assertEquals(2, latest.getState().get("step"));
+	}
+
+	@Test
+	void onlyInterruptAndCompletionCheckpointsArePersisted() throws Exception {
+		RunnableConfig config = RunnableConfig.builder().threadId("thread-5").build();
+		ThreadStateCheckpointSaver saver = newSaver();
+		saver.put(config, Checkpoint.builder().nodeId("a").nextNodeId("b").state(Map.of("step", 1)).build());
+		saver.put(config, Checkpoint.builder().nodeId("b").nextNodeId("c").state(Map.of("step", 2)).build());
+		assertTrue(store.get("thread-5", ThreadStateType.CHECKPOINT).isEmpty());
+
+		saver.put(config, Checkpoint.builder().nodeId("c").nextNodeId(StateGraph.END).state(Map.of("step", 3)).build());
+
+		Checkpoint stored = newSaver().get(config).orElseThrow();
+		assertEquals(StateGraph.END, stored.getNextNodeId());
+		assertEquals(3, stored.getState().get("step"));
+	}
+
+	@Test
+	void expiredCheckpointsAreRemoved() throws Exception {
+		RunnableConfig config = RunnableConfig.builder().threadId("thread-4").build();
+		newSaver().put(config,
+				Checkpoint.builder().nodeId("a").nextNodeId("HumanFeedbackNode").state(Map.of("input", "x")).build());
+
+		assertEquals(0, store.removeExpired(ThreadStateType.CHECKPOINT, LocalDateTime.now().minusMinutes(1)));
+		assertEquals(1, store.removeExpired(ThreadStateType.CHECKPOINT, LocalDateTime.now().plusMinutes(1)));
+		assertTrue(newSaver().get(config).isEmpty());
+	}
+
+	@Test
+	void releaseRemovesStoredCheckpoints() throws Exception {
+		RunnableConfig config = RunnableConfig.builder().threadId("thread-2").build();
+		ThreadStateCheckpointSaver saver = newSaver();
+		saver.put(config,
+				Checkpoint.builder().nodeId("a").nextNodeId("HumanFeedbackNode").state(Map.of("input", "x")).build());
+		assertTrue(store.get("thread-2", ThreadStateType.CHECKPOINT).isPresent());
+
+		saver.release(config);
+
+		assertTrue(store.get("thread-2", ThreadStateType.CHECKPOINT).isEmpty());
+		assertTrue(newSaver().get(config).isEmpty());
+	}
+
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.dataagent.service.graph.state;
+
+import com.alibaba.cloud.ai.dataagent.properties.DataAgentProperties;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ThreadStateExpirationTask 单元测试
+ */
+class ThreadStateExpirationTaskTest {
+
+	@Test
+	void historyUsesItsOwnTtl() {
+		Map<ThreadStateType, LocalDateTime> cutoffs = new EnumMap<>(ThreadStateType.class);
+		ThreadStateStore store = new InMemoryThreadStateStore() {
+			@Override
+			public int removeExpired(ThreadStateType type, LocalDateTime expireBefore) {
+				cutoffs.put(type, expireBefore);
+				return 0;
+			}
+		};
+		DataAgentProperties properties = new DataAgentProperties();
+		properties.getThreadState().setTtlMinutes(60);
+		properties.getThreadState().setHistoryTtlMinutes(7 * 24 * 60);
+
+		new ThreadStateExpirationTask(store, properties).removeExpiredStates();
+
+		LocalDateTime now = LocalDateTime.now();
+		assertTrue(cutoffs.get(ThreadStateType.HISTORY).isBefore(now.minusDays(6)));
+		for (ThreadStateType type : new ThreadStateType[] { ThreadStateType.CHECKPOINT, ThreadStateType.STOP_SIGNAL,
+				ThreadStateType.PENDING_TURN }) {
+			assertTrue(cutoffs.get(type).isAfter(now.minusHours(2)), type.name());
+		}
+	}
+
+	@Test
+	void keepsHistoryWhenHistoryTtlDisabled() {
+		Map<ThreadStateType, LocalDateTime> cutoffs = new EnumMap<>(ThreadStateType.class);
+		ThreadStateStore store = new InMemoryThreadStateStore() {
+			@Override
+			public int removeExpired(ThreadStateType type, LocalDateTime expireBefore) {
+				cutoffs.put(type, expireBefore);
+				return 0;
+			}
+		};
+		DataAgentProperties properties = new DataAgentProperties();
+		properties.getThreadState().setHistoryTtlMinutes(0);
+
+		new ThreadStateExpirationTask(store, properties).removeExpiredStates();
+
+		assertFalse(cutoffs.containsKey(ThreadStateType.HISTORY));
+		assertTrue(cutoffs.containsKey(ThreadStateType.CHECKPOINT));
+	}
+
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.dataagent.service.llm;
+
+import com.alibaba.cloud.ai.dataagent.enums.ModelTier;
+import com.alibaba.cloud.ai.dataagent.event.ChatModelChangedEvent;
+import com.alibaba.cloud.ai.dataagent.properties.DataAgentProperties;
+import com.alibaba.cloud.ai.dataagent.service.aimodelconfig.AiModelRegistry;
+import com.alibaba.cloud.ai.dataagent.service.llm.impls.AbstractRoutedLlmService;
+import com.alibaba.cloud.ai.dataagent.service.llm.impls.CachingLlmService;
+import com.alibaba.cloud.ai.dataagent.service.metrics.LlmMetrics;
+import com.alibaba.cloud.ai.dataagent.util.ChatResponseUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.ai.chat.model.ChatResponse;
+import reactor.core.publisher.Flux;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * CachingLlmService 与 LlmResponseCache 单元测试
+ */
+class CachingLlmServiceTest {
+
+	@TempDir
+	Path cacheDir;
+
+	private LlmService delegate;
+
+	private AiModelRegistry aiModelRegistry;
+
+	private DataAgentProperties properties;
+
+	@BeforeEach
+	void setUp() {
+		delegate = mock(LlmService.class);
+		aiModelRegistry = mock(AiModelRegistry.class);
+		when(aiModelRegistry.resolveTier(any())).thenReturn(ModelTier.DEFAULT);
+		when(aiModelRegistry.getChatModelFingerprint(ModelTier.DEFAULT)).thenReturn("openai|qwen-max");
+		when(delegate.callUser(anyString())).thenAnswer(invocation -> Flux
+			.just(ChatResponseUtil.createPureResponse("{\"a\":"), ChatResponseUtil.createPureResponse("1}")));
+		properties = new DataAgentProperties();
+		properties.getLlmCache().setEnabled(true);
+		properties.getLlmCache().setDiskPath(cacheDir.toString());
+	}
+
+	private CachingLlmService newService(LlmResponseCache cache) {
+		return new CachingLlmService(delegate, cache, aiModelRegistry, new LlmMetrics(new SimpleMeterRegistry()));
+	}
+
+	private static List<String> texts(Flux<ChatResponse> flux) {
+		return flux.map(ChatResponseUtil::getText).collectList().block();
+	}
+
+	@Test
+	void cacheableCallReplaysChunksOnHit() {
+		CachingLlmService service = newService(new LlmResponseCache(properties));
+
+		assertEquals(List.of("{\"a\":", "1}"), texts(service.cacheable(content -> true).callUser("prompt")));
+		assertEquals(List.of("{\"a\":", "1}"), texts(service.cacheable(content -> true).callUser("prompt")));
+
+		verify(delegate, times(1)).callUser("prompt");
+	}
+
+	@Test
+	void responseFailingValidationIsNotCached() {
+		CachingLlmService service = newService(new LlmResponseCache(properties));
+
+		texts(service.cacheable(content -> content.startsWith("[")).callUser("prompt"));
+		texts(service.cacheable(content -> content.startsWith("[")).callUser("prompt"));
+
+		verify(delegate, times(2)).callUser("prompt");
+	}
+
+	@Test
+	void responseAnsweredByOtherTierIsNotCached() {
+		// 对冲或故障转移时由备用层级作答
+		when(delegate.callUser(anyString())).thenAnswer(invocation -> Flux.just(ChatResponse.builder()
+			.from(ChatResponseUtil.createPureResponse("{\"a\":1}"))
+			.metadata(AbstractRoutedLlmService.MODEL_TIER_METADATA_KEY, ModelTier.FAST.getCode())
+			.build()));
+		CachingLlmService service = newService(new LlmResponseCache(properties));
+
+		texts(service.cacheable(content -> true).callUser("prompt"));
+		texts(service.cacheable(content -> true).callUser("prompt"));
+
+		verify(delegate, times(2)).callUser("prompt");
+	}
+
+	@Test
+	void plainCallsBypassCache() {
+		CachingLlmService service = newService(new LlmResponseCache(properties));
+
+		texts(service.callUser("prompt"));
+		texts(service.callUser("prompt"));
+
+		verify(delegate, times(2)).callUser("prompt");
+	}
+
+	@Test
+	void diskTierSurvivesNewInstanceAndIsClearedOnModelChange() {
+		properties.getLlmCache().setDiskEnabled(true);
+		texts(newService(new LlmResponseCache(properties)).cacheable(content -> true).callUser("prompt"));
+
+		LlmResponseCache restarted = new LlmResponseCache(properties);
+		texts(newService(restarted).cacheable(content -> true).callUser("prompt"));
+		verify(delegate, times(1)).callUser("prompt");
+
+		restarted.onChatModelChanged(new ChatModelChangedEvent(this));
+		texts(newService(restarted).cacheable(content -> true).callUser("prompt"));
+		verify(delegate, times(2)).callUser("prompt");
+	}
+
+}
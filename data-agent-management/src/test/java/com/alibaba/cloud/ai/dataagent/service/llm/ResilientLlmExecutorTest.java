@@ -0,0 +1,155 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.dataagent.service.llm;
+
+import com.alibaba.cloud.ai.dataagent.enums.ModelTier;
+import com.alibaba.cloud.ai.dataagent.exception.LlmCircuitOpenException;
+import com.alibaba.cloud.ai.dataagent.properties.DataAgentProperties;
+import com.alibaba.cloud.ai.dataagent.service.aimodelconfig.AiModelRegistry;
+import com.alibaba.cloud.ai.dataagent.service.metrics.LlmMetrics;
+import com.alibaba.cloud.ai.dataagent.util.ChatResponseUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.model.ChatResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * ResilientLlmExecutor 单元测试
+ */
+class ResilientLlmExecutorTest {
+
+	private DataAgentProperties properties;
+
+	private ResilientLlmExecutor executor;
+
+	@BeforeEach
+	void setUp() {
+		properties = new DataAgentProperties();
+		properties.getLlmResilience().setFirstTokenTimeoutMillis(100);
+		properties.getLlmResilience().setCircuitFailureThreshold(2);
+		AiModelRegistry registry = mock(AiModelRegistry.class);
+		when(registry.getChatModelFingerprint(any())).thenAnswer(invocation -> invocation.getArgument(0).toString());
+		when(registry.resolveAvailableTier(any())).thenAnswer(invocation -> invocation.getArgument(0));
+		executor = new ResilientLlmExecutor(registry, properties, new LlmMetrics(new SimpleMeterRegistry()));
+	}
+
+	@Test
+	void missingFirstTokenFailsWithoutHedge() {
+		Flux<ChatResponse> result = executor.execute("node", ModelTier.DEFAULT, tier -> Flux.never());
+		assertThrows(RuntimeException.class, () -> result.blockLast(Duration.ofSeconds(5)));
+	}
+
+	@Test
+	void nonStreamingCallIsNotSubjectToFirstTokenTimeout() {
+		// 非流式调用在完整回答生成后才产生唯一一次输出
+		Flux<ChatResponse> result = executor.execute("node", ModelTier.DEFAULT, false,
+				tier -> Mono.delay(Duration.ofMillis(300)).map(i -> response("done")).flux());
+		assertEquals("done", text(result.blockLast(Duration.ofSeconds(5))));
+	}
+
+	@Test
+	void nonStreamingCallDoesNotHedgeOnSlowResponse() {
+		enableHedge();
+		AtomicInteger hedgeCalls = new AtomicInteger();
+		Flux<ChatResponse> result = executor.execute("node", ModelTier.REASONING, false, tier -> {
+			if (tier == ModelTier.REASONING) {
+				return Mono.delay(Duration.ofMillis(300)).map(i -> response("primary")).flux();
+			}
+			hedgeCalls.incrementAndGet();
+			return Flux.just(response("hedge"));
+		});
+		assertEquals("primary", text(result.blockLast(Duration.ofSeconds(5))));
+		assertEquals(0, hedgeCalls.get());
+	}
+
+	@Test
+	void hedgedRequestWinsWhenPrimaryIsSlow() {
+		enableHedge();
+		Flux<ChatResponse> result = executor.execute("node", ModelTier.REASONING,
+				tier -> tier == ModelTier.REASONING ? Flux.never() : Flux.just(response("hedge")));
+		assertEquals("hedge", text(result.blockFirst(Duration.ofSeconds(5))));
+	}
+
+	@Test
+	void primaryErrorFailsOverImmediately() {
+		enableHedge();
+		properties.getLlmResilience().setFirstTokenTimeoutMillis(60_000);
+		long start = System.currentTimeMillis();
+		Flux<ChatResponse> result = executor.execute("node", ModelTier.REASONING, tier -> tier == ModelTier.REASONING
+				? Flux.error(new IllegalStateException("boom")) : Flux.just(response("hedge")));
+		assertEquals("hedge", text(result.blockFirst(Duration.ofSeconds(5))));
+		assertEquals(true, System.currentTimeMillis() - start < 5_000);
+	}
+
+	@Test
+	void tricklingStreamFailsAtOverallBudget() {
+		properties.getLlmResilience().setOverallTimeoutMillis(500);
+		// 每个数据块都在首 Token 超时内到达，但总耗时超过整体超时
+		Flux<ChatResponse> result = executor.execute("node", ModelTier.DEFAULT,
+				tier -> Flux.interval(Duration.ofMillis(50)).take(40).map(i -> response("x")));
+		AtomicInteger received = new AtomicInteger();
+		long start = System.currentTimeMillis();
+		assertThrows(RuntimeException.class,
+				() -> result.doOnNext(response -> received.incrementAndGet()).blockLast(Duration.ofSeconds(5)));
+		long elapsed = System.currentTimeMillis() - start;
+		assertTrue(elapsed < 1_500, "should fail at the overall budget, took " + elapsed + " ms");
+		assertTrue(received.get() > 0 && received.get() < 40);
+	}
+
+	@Test
+	void openCircuitRejectsWithoutCallingModel() {
+		AtomicInteger calls = new AtomicInteger();
+		for (int i = 0; i < 2; i++) {
+			Flux<ChatResponse> failing = executor.execute("node", ModelTier.DEFAULT, tier -> {
+				calls.incrementAndGet();
+				return Flux.error(new IllegalStateException("boom"));
+			});
+			assertThrows(IllegalStateException.class, failing::blockLast);
+		}
+		Flux<ChatResponse> rejected = executor.execute("node", ModelTier.DEFAULT, tier -> {
+			calls.incrementAndGet();
+			return Flux.just(response("ok"));
+		});
+		assertThrows(LlmCircuitOpenException.class, rejected::blockLast);
+		assertEquals(2, calls.get());
+	}
+
+	private void enableHedge() {
+		properties.getLlmResilience().setHedgeEnabled(true);
+		properties.getLlmResilience().setHedgeTier(ModelTier.FAST);
+	}
+
+	private static ChatResponse response(String text) {
+		return ChatResponseUtil.createPureResponse(text);
+	}
+
+	private static String text(ChatResponse response) {
+		return response.getResult().getOutput().getText();
+	}
+
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.dataagent.service.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * GraphMetricsEndpoint 单元测试
+ */
+class GraphMetricsEndpointTest {
+
+	private GraphMetrics graphMetrics;
+
+	private LlmMetrics llmMetrics;
+
+	private SqlMetrics sqlMetrics;
+
+	private GraphMetricsEndpoint endpoint;
+
+	@BeforeEach
+	void setUp() {
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		graphMetrics = new GraphMetrics(registry);
+		llmMetrics = new LlmMetrics(registry);
+		sqlMetrics = new SqlMetrics(registry);
+		endpoint = new GraphMetricsEndpoint(registry);
+	}
+
+	@Test
+	void timersAreSummarizedPerNodeWithoutAgent() {
+		graphMetrics.recordNodeDuration("SqlGenerateNode", 3_000_000, true);
+		graphMetrics.recordNodeDuration("SqlGenerateNode", 5_000_000, true);
+		graphMetrics.recordNodeDuration("PlannerNode", 1_000_000, false);
+		graphMetrics.recordRetryAttempt("SqlGenerateNode", 1);
+		llmMetrics.recordLlmCall("PlannerNode", 2_000_000, true);
+		sqlMetrics.recordSqlExecution(4_000_000, true);
+
+		Map<String, Object> summary = endpoint.graphMetrics();
+
+		List<Map<String, Object>> nodeDuration = items(summary, "nodeDuration");
+		assertEquals(2, nodeDuration.size());
+		assertEquals("PlannerNode", nodeDuration.get(0).get(MetricTags.TAG_NODE));
+		assertEquals("error", nodeDuration.get(0).get(MetricTags.TAG_OUTCOME));
+		Map<String, Object> sqlGenerate = nodeDuration.get(1);
+		assertEquals("SqlGenerateNode", sqlGenerate.get(MetricTags.TAG_NODE));
+		assertEquals(2L, sqlGenerate.get("count"));
+		assertEquals(5.0, (double) sqlGenerate.get("maxMs"), 0.001);
+		assertTrue(sqlGenerate.containsKey("p95Ms"));
+		assertFalse(sqlGenerate.containsKey(MetricTags.TAG_AGENT));
+		assertEquals(1, items(summary, "llmCallDuration").size());
+		assertEquals(1, items(summary, "sqlExecutionDuration").size());
+		assertEquals(1.0, items(summary, "retryAttempts").get(0).get("totalAttempts"));
+	}
+
+	@Test
+	void agentSelectorReturnsOnlyThatAgentsCounters() {
+		llmMetrics.recordLlmTokens("1", "PlannerNode", 100, 20);
+		llmMetrics.recordLlmTokens("2", "PlannerNode", 300, 40);
+		llmMetrics.recordLlmCache("1", "PlannerNode", "hit");
+		llmMetrics.recordLlmCache("2", "PlannerNode", "miss");
+		graphMetrics.recordNodeDuration("PlannerNode", 1_000_000, true);
+
+		Map<String, Object> summary = endpoint.agentGraphMetrics("1");
+
+		assertEquals(List.of("llmTokens", "llmCacheRequests"), List.copyOf(summary.keySet()));
+		List<Map<String, Object>> tokens = items(summary, "llmTokens");
+		assertEquals(2, tokens.size());
+		assertTrue(tokens.stream().allMatch(item -> "1".equals(item.get(MetricTags.TAG_AGENT))));
+		assertEquals(120.0, tokens.stream().mapToDouble(item -> (double) item.get("tokens")).sum(), 0.001);
+		List<Map<String, Object>> cache = items(summary, "llmCacheRequests");
+		assertEquals(1, cache.size());
+		assertEquals("hit", cache.get(0).get(MetricTags.TAG_OUTCOME));
+
+		// 全量视图包含所有智能体的计数器
+		assertEquals(4, items(endpoint.graphMetrics(), "llmTokens").size());
+	}
+
+	@SuppressWarnings("unchecked")
+	private static List<Map<String, Object>> items(Map<String, Object> summary, String key) {
+		return (List<Map<String, Object>>) summary.get(key);
+	}
+
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.dataagent.service.schema;
+
+import com.alibaba.cloud.ai.dataagent.properties.DataAgentProperties;
+import com.alibaba.cloud.ai.dataagent.service.metrics.GraphMetrics;
+import com.alibaba.cloud.ai.dataagent.service.metrics.MetricTags;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.document.Document;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * SchemaRecallPrefetchService 单元测试
+ */
+class SchemaRecallPrefetchServiceTest {
+
+	private SchemaService schemaService;
+
+	private ExecutorService executor;
+
+	private DataAgentProperties properties;
+
+	private SimpleMeterRegistry meterRegistry;
+
+	private SchemaRecallPrefetchService prefetchService;
+
+	@BeforeEach
+	void setUp() {
+		schemaService = mock(SchemaService.class);
+		executor = Executors.newSingleThreadExecutor();
+		properties = new DataAgentProperties();
+		meterRegistry = new SimpleMeterRegistry();
+		prefetchService = new SchemaRecallPrefetchService(schemaService, executor, properties,
+				new GraphMetrics(meterRegistry));
+	}
+
+	@AfterEach
+	void tearDown() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	void testSameQueryUsesPrefetchedResult() {
+		when(schemaService.getTableDocumentsForAgent("1", "各部门员工数")).thenReturn(List.of(table("employee")));
+		when(schemaService.getColumnDocumentsByTableName("1", List.of("employee")))
+			.thenReturn(List.of(column("employee", "dept_id")));
+
+		String prefetchId = prefetchService.submit("1", "各部门员工数");
+		SchemaRecallPrefetchService.SchemaRecallResult result = prefetchService.await(prefetchId, "各部门员工数 ")
+			.orElseThrow();
+
+		assertEquals(List.of("employee"), names(result.tableDocuments()));
+		assertEquals(1.0, prefetchCount(SchemaRecallPrefetchService.EXACT));
+		assertEquals(1, branchTimerCount(SchemaRecallPrefetchService.SCHEMA_RECALL_BRANCH));
+		assertEquals(1, branchTimerCount(SchemaRecallPrefetchService.EVIDENCE_BRANCH));
+	}
+
+	@Test
+	void testDifferentQueryMergesWithCanonicalRecall() {
+		when(schemaService.getTableDocumentsForAgent("1", "他们的工资呢")).thenReturn(List.of(table("employee")));
+		when(schemaService.getColumnDocumentsByTableName("1", List.of("employee")))
+			.thenReturn(List.of(column("employee", "dept_id")));
+		when(schemaService.getTableDocumentsForAgent("1", "查询各部门员工的平均工资"))
+			.thenReturn(List.of(table("employee"), table("salary")));
+		when(schemaService.getColumnDocumentsByTableName("1", List.of("salary")))
+			.thenReturn(List.of(column("salary", "amount")));
+
+		String prefetchId = prefetchService.submit("1", "他们的工资呢");
+		SchemaRecallPrefetchService.SchemaRecallResult result = prefetchService.await(prefetchId, "查询各部门员工的平均工资")
+			.orElseThrow();
+
+		// 表以规范化问题的召回为准，已预取的列复用，只为新出现的表查询列
+		assertEquals(List.of("employee", "salary"), names(result.tableDocuments()));
+		assertEquals(List.of("dept_id", "amount"), names(result.columnDocuments()));
+		verify(schemaService, never()).getColumnDocumentsByTableName("1", List.of("employee", "salary"));
+		assertEquals(1.0, prefetchCount(SchemaRecallPrefetchService.MERGED));
+	}
+
+	@Test
+	void testMergeDropsTablesOnlyRecalledByRawQuestion() {
+		when(schemaService.getTableDocumentsForAgent("1", "它呢")).thenReturn(List.of(table("orders")));
+		when(schemaService.getColumnDocumentsByTableName("1", List.of("orders")))
+			.thenReturn(List.of(column("orders", "amount")));
+		when(schemaService.getTableDocumentsForAgent("1", "查询员工数量")).thenReturn(List.of(table("employee")));
+		when(schemaService.getColumnDocumentsByTableName("1", List.of("employee")))
+			.thenReturn(List.of(column("employee", "id")));
+
+		String prefetchId = prefetchService.submit("1", "它呢");
+		SchemaRecallPrefetchService.SchemaRecallResult result = prefetchService.await(prefetchId, "查询员工数量")
+			.orElseThrow();
+
+		assertEquals(List.of("employee"), names(result.tableDocuments()));
+		assertEquals(List.of("id"), names(result.columnDocuments()));
+	}
+
+	@Test
+	void testTimeoutReturnsEmpty() throws Exception {
+		properties.setSchemaRecallPrefetchTimeout(50L);
+		CountDownLatch release = new CountDownLatch(1);
+		when(schemaService.getTableDocumentsForAgent(anyString(), anyString())).thenAnswer(invocation -> {
+			release.await();
+			return List.of(table("employee"));
+		});
+
+		String prefetchId = prefetchService.submit("1", "各部门员工数");
+
+		assertTrue(prefetchService.await(prefetchId, "各部门员工数").isEmpty());
+		assertEquals(1.0, prefetchCount(SchemaRecallPrefetchService.TIMEOUT));
+		release.countDown();
+	}
+
+	@Test
+	void testCancelledPrefetchIsNotAvailable() {
+		when(schemaService.getTableDocumentsForAgent(anyString(), anyString())).thenReturn(List.of());
+
+		String prefetchId = prefetchService.submit("1", "各部门员工数");
+		prefetchService.cancel(prefetchId);
+
+		assertTrue(prefetchService.await(prefetchId, "各部门员工数").isEmpty());
+		assertTrue(prefetchService.await(null, "各部门员工数").isEmpty());
+	}
+
+	private double prefetchCount(String outcome) {
+		return meterRegistry.get(GraphMetrics.SCHEMA_PREFETCHES).tag(MetricTags.TAG_OUTCOME, outcome).counter().count();
+	}
+
+	private long branchTimerCount(String branch) {
+		return meterRegistry.get(GraphMetrics.PREPROCESS_BRANCH_DURATION)
+			.tag(MetricTags.TAG_BRANCH, branch)
+			.timer()
+			.count();
+	}
+
+	private static List<Object> names(List<Document> documents) {
+		return documents.stream().map(document -> document.getMetadata().get("name")).toList();
+	}
+
+	private static Document table(String name) {
+		return new Document("table " + name, Map.of("name", name));
+	}
+
+	private static Document column(String table, String name) {
+		return new Document("column " + table + "." + name, Map.of("name", name, "tableName", table));
+	}
+
+}
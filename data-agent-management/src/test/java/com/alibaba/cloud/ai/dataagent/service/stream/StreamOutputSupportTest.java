@@ -0,0 +1,244 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.dataagent.service.stream;
+
+import com.alibaba.cloud.ai.dataagent.enums.TextType;
+import com.alibaba.cloud.ai.dataagent.properties.DataAgentProperties;
+import com.alibaba.cloud.ai.dataagent.properties.DataAgentProperties.StreamOutput.OverflowPolicy;
+import com.alibaba.cloud.ai.dataagent.service.metrics.StreamMetrics;
+import com.alibaba.cloud.ai.dataagent.service.metrics.MetricTags;
+import com.alibaba.cloud.ai.dataagent.vo.GraphNodeResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Subscription;
+import org.springframework.http.codec.ServerSentEvent;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * StreamOutputSupport 单元测试
+ */
+class StreamOutputSupportTest {
+
+	private DataAgentProperties properties;
+
+	private SimpleMeterRegistry meterRegistry;
+
+	private StreamOutputSupport support;
+
+	@BeforeEach
+	void setUp() {
+		properties = new DataAgentProperties();
+		properties.getStreamOutput().setBufferSize(4);
+		meterRegistry = new SimpleMeterRegistry();
+		support = new StreamOutputSupport(properties, new StreamMetrics(meterRegistry));
+	}
+
+	@Test
+	void testMergeConsecutiveChunksOfSameNodeAndType() {
+		List<ServerSentEvent<GraphNodeResponse>> frames = StreamOutputSupport.merge(List.of(chunk("A", "a"),
+				chunk("A", "b"), chunk("B", "c"), chunk("B", "d"), complete(), chunk("B", "e")), 4096);
+
+		assertEquals(4, frames.size());
+		assertEquals("ab", frames.get(0).data().getText());
+		assertEquals("cd", frames.get(1).data().getText());
+		assertTrue(frames.get(2).data().isComplete());
+		assertEquals("e", frames.get(3).data().getText());
+	}
+
+	@Test
+	void testMergeRespectsMaxChars() {
+		List<ServerSentEvent<GraphNodeResponse>> frames = StreamOutputSupport
+			.merge(List.of(chunk("A", "aa"), chunk("A", "bb"), chunk("A", "cc")), 4);
+
+		assertEquals(2, frames.size());
+		assertEquals("aabb", frames.get(0).data().getText());
+		assertEquals("cc", frames.get(1).data().getText());
+	}
+
+	@Test
+	void testCoalesceReducesFrameCount() {
+		Flux<ServerSentEvent<GraphNodeResponse>> chunks = Flux.range(0, 100).map(i -> chunk("A", "x"));
+
+		List<ServerSentEvent<GraphNodeResponse>> frames = support.coalesce(chunks).collectList().block();
+
+		assertNotNull(frames);
+		assertTrue(frames.size() < 100);
+		assertEquals(100, frames.stream().mapToInt(frame -> frame.data().getText().length()).sum());
+	}
+
+	@Test
+	void testOverflowPolicy() {
+		Sinks.Many<String> sink = support.newUnicastSink();
+		// 订阅但不请求数据，模拟慢客户端
+		sink.asFlux().subscribe(new BaseSubscriber<>() {
+			@Override
+			protected void hookOnSubscribe(Subscription subscription) {
+			}
+		});
+		// 队列容量会向上取整，写满为止
+		int emitted = 0;
+		while (support.emit(sink, "chunk", StreamOutputSupport.GRAPH_STREAM, OverflowPolicy.DISCONNECT)) {
+			emitted++;
+			assertTrue(emitted <= 64, "buffer should be bounded");
+		}
+
+		assertTrue(emitted >= 4);
+		assertEquals(1.0,
+				meterRegistry.get(StreamMetrics.STREAM_FRAMES)
+					.tag(MetricTags.TAG_OUTCOME, StreamOutputSupport.DISCONNECTED)
+					.counter()
+					.count());
+		// 通知类消息溢出时丢弃，流本身继续
+		assertTrue(support.emitDroppable(sink, "title", StreamOutputSupport.SESSION_STREAM));
+		assertEquals(1.0,
+				meterRegistry.get(StreamMetrics.STREAM_FRAMES)
+					.tag(MetricTags.TAG_OUTCOME, StreamOutputSupport.DROPPED)
+					.counter()
+					.count());
+	}
+
+	@Test
+	void testBlockPolicyWaitsForSlowConsumer() {
+		Sinks.Many<String> sink = support.newUnicastSink();
+		List<String> received = new CopyOnWriteArrayList<>();
+		BaseSubscriber<String> subscriber = new BaseSubscriber<>() {
+			@Override
+			protected void hookOnSubscribe(Subscription subscription) {
+			}
+
+			@Override
+			protected void hookOnNext(String value) {
+				received.add(value);
+			}
+		};
+		sink.asFlux().subscribe(subscriber);
+		int emitted = 0;
+		while (support.emit(sink, "chunk", StreamOutputSupport.GRAPH_STREAM, OverflowPolicy.DISCONNECT)) {
+			emitted++;
+		}
+		// 慢客户端稍后开始消费，BLOCK 策略在排空线程上等待空间而不是断开或丢弃
+		Schedulers.parallel().schedule(() -> subscriber.request(Long.MAX_VALUE), 100, TimeUnit.MILLISECONDS);
+
+		assertEquals(Boolean.TRUE, emitOnDrainThread(sink, "last"));
+		assertEquals(emitted + 1, received.size());
+		assertEquals("last", received.get(emitted));
+	}
+
+	@Test
+	void testBlockPolicyDisconnectsAfterTimeout() {
+		properties.getStreamOutput().setOverflowPolicy(OverflowPolicy.BLOCK);
+		properties.getStreamOutput().setBlockTimeoutMillis(50);
+		Sinks.Many<String> sink = support.newUnicastSink();
+		sink.asFlux().subscribe(new BaseSubscriber<>() {
+			@Override
+			protected void hookOnSubscribe(Subscription subscription) {
+			}
+		});
+		while (support.emit(sink, "chunk", StreamOutputSupport.GRAPH_STREAM, OverflowPolicy.DISCONNECT)) {
+		}
+
+		assertEquals(Boolean.FALSE, emitOnDrainThread(sink, "chunk"));
+	}
+
+	@Test
+	void testBlockPolicyNeverParksOutsideDrainThreads() {
+		properties.getStreamOutput().setBlockTimeoutMillis(10_000);
+		Sinks.Many<String> sink = support.newUnicastSink();
+		sink.asFlux().subscribe(new BaseSubscriber<>() {
+			@Override
+			protected void hookOnSubscribe(Subscription subscription) {
+			}
+		});
+		while (support.emit(sink, "chunk", StreamOutputSupport.GRAPH_STREAM, OverflowPolicy.DISCONNECT)) {
+		}
+
+		long start = System.nanoTime();
+		assertFalse(support.emit(sink, "chunk", StreamOutputSupport.GRAPH_STREAM, OverflowPolicy.BLOCK));
+		assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1000);
+	}
+
+	@Test
+	void testSlowSubscriberDoesNotBlockGraphWork() throws Exception {
+		properties.getStreamOutput().setOverflowPolicy(OverflowPolicy.BLOCK);
+		ExecutorService interactive = Executors.newSingleThreadExecutor();
+		try {
+			Sinks.Many<String> sink = support.newUnicastSink();
+			List<String> received = new CopyOnWriteArrayList<>();
+			BaseSubscriber<String> subscriber = new BaseSubscriber<>() {
+				@Override
+				protected void hookOnSubscribe(Subscription subscription) {
+				}
+
+				@Override
+				protected void hookOnNext(String value) {
+					received.add(value);
+				}
+			};
+			sink.asFlux().subscribe(subscriber);
+			// 图输出在交互线程池上产生，写入交给排空线程，慢客户端只阻塞排空线程
+			support.drainOn(Flux.range(0, 100).map(String::valueOf).subscribeOn(Schedulers.fromExecutor(interactive)))
+				.subscribe(value -> support.emit(sink, value, StreamOutputSupport.GRAPH_STREAM, OverflowPolicy.BLOCK));
+
+			assertEquals("free", interactive.submit(() -> "free").get(1, TimeUnit.SECONDS));
+
+			subscriber.request(Long.MAX_VALUE);
+			long deadline = System.currentTimeMillis() + 5000;
+			while (received.size() < 100 && System.currentTimeMillis() < deadline) {
+				Thread.sleep(10);
+			}
+			assertEquals(100, received.size());
+		}
+		finally {
+			interactive.shutdownNow();
+		}
+	}
+
+	private Boolean emitOnDrainThread(Sinks.Many<String> sink, String value) {
+		properties.getStreamOutput().setOverflowPolicy(OverflowPolicy.BLOCK);
+		return support.drainOn(Flux.just(value))
+			.map(v -> support.emit(sink, v, StreamOutputSupport.GRAPH_STREAM, OverflowPolicy.BLOCK))
+			.blockFirst();
+	}
+
+	private static ServerSentEvent<GraphNodeResponse> chunk(String node, String text) {
+		return ServerSentEvent
+			.builder(GraphNodeResponse.builder()
+				.agentId("1")
+				.threadId("t")
+				.nodeName(node)
+				.textType(TextType.TEXT)
+				.text(text)
+				.build())
+			.build();
+	}
+
+	private static ServerSentEvent<GraphNodeResponse> complete() {
+		return ServerSentEvent.builder(GraphNodeResponse.complete("1", "t")).event("complete").build();
+	}
+
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.dataagent.service.vectorstore;
+
+import com.alibaba.cloud.ai.dataagent.constant.DocumentMetadataConstant;
+import com.alibaba.cloud.ai.dataagent.dto.search.VectorSearchSpec;
+import com.alibaba.cloud.ai.dataagent.properties.DataAgentProperties;
+import com.alibaba.cloud.ai.dataagent.service.metrics.CacheMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.ai.vectorstore.filter.Filter;
+import org.springframework.ai.vectorstore.filter.FilterExpressionBuilder;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+
+import static com.alibaba.cloud.ai.dataagent.constant.DocumentMetadataConstant.AGENT_KNOWLEDGE;
+import static com.alibaba.cloud.ai.dataagent.constant.DocumentMetadataConstant.BUSINESS_TERM;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * AgentVectorStoreServiceImpl 批量检索单元测试
+ */
+@ExtendWith(MockitoExtension.class)
+class AgentVectorStoreServiceImplTest {
+
+	@Mock
+	private VectorStore vectorStore;
+
+	@Mock
+	private DynamicFilterService dynamicFilterService;
+
+	private AgentVectorStoreServiceImpl service;
+
+	@BeforeEach
+	void setUp() {
+		service = new AgentVectorStoreServiceImpl(vectorStore, Optional.empty(), new DataAgentProperties(),
+				dynamicFilterService, new CacheMetrics(new SimpleMeterRegistry()), Executors.newSingleThreadExecutor());
+		when(dynamicFilterService.buildDynamicFilter("1", BUSINESS_TERM)).thenReturn(filter(BUSINESS_TERM));
+	}
+
+	@Test
+	void combinesVectorTypesIntoOneSearchAndPartitionsResults() {
+		when(dynamicFilterService.buildDynamicFilter("1", AGENT_KNOWLEDGE)).thenReturn(filter(AGENT_KNOWLEDGE));
+		when(vectorStore.similaritySearch(any(SearchRequest.class)))
+			.thenReturn(List.of(doc("b1", BUSINESS_TERM, 0.9), doc("k1", AGENT_KNOWLEDGE, 0.8),
+					doc("b2", BUSINESS_TERM, 0.7), doc("b3", BUSINESS_TERM, 0.6), doc("k2", AGENT_KNOWLEDGE, 0.3)));
+
+		Map<String, List<Document>> results = service.searchBatch("1", "退款怎么算",
+				List.of(new VectorSearchSpec(BUSINESS_TERM, 2, 0.2), new VectorSearchSpec(AGENT_KNOWLEDGE, 4, 0.5)));
+
+		ArgumentCaptor<SearchRequest> request = ArgumentCaptor.forClass(SearchRequest.class);
+		verify(vectorStore, times(1)).similaritySearch(request.capture());
+		assertEquals(6, request.getValue().getTopK());
+		assertEquals(0.2, request.getValue().getSimilarityThreshold());
+		assertEquals(Filter.ExpressionType.OR, request.getValue().getFilterExpression().type());
+		assertEquals(List.of("b1", "b2"), ids(results.get(BUSINESS_TERM)));
+		assertEquals(List.of("k1"), ids(results.get(AGENT_KNOWLEDGE)));
+	}
+
+	@Test
+	void searchesStarvedTypeSeparatelyWhenCombinedResultIsFull() {
+		when(dynamicFilterService.buildDynamicFilter("1", AGENT_KNOWLEDGE)).thenReturn(filter(AGENT_KNOWLEDGE));
+		when(vectorStore.similaritySearch(any(SearchRequest.class)))
+			.thenReturn(List.of(doc("b1", BUSINESS_TERM, 0.9), doc("b2", BUSINESS_TERM, 0.8)))
+			.thenReturn(List.of(doc("k1", AGENT_KNOWLEDGE, 0.4)));
+
+		Map<String, List<Document>> results = service.searchBatch("1", "query",
+				List.of(new VectorSearchSpec(BUSINESS_TERM, 1, 0.2), new VectorSearchSpec(AGENT_KNOWLEDGE, 1, 0.2)));
+
+		verify(vectorStore, times(2)).similaritySearch(any(SearchRequest.class));
+		assertEquals(List.of("b1"), ids(results.get(BUSINESS_TERM)));
+		assertEquals(List.of("k1"), ids(results.get(AGENT_KNOWLEDGE)));
+	}
+
+	@Test
+	void skipsTypesWithoutRecalledDocuments() {
+		when(vectorStore.similaritySearch(any(SearchRequest.class)))
+			.thenReturn(List.of(doc("b1", BUSINESS_TERM, 0.9)));
+
+		Map<String, List<Document>> results = service.searchBatch("1", "query",
+				List.of(new VectorSearchSpec(BUSINESS_TERM, 2, 0.2), new VectorSearchSpec(AGENT_KNOWLEDGE, 2, 0.2)));
+
+		assertEquals(List.of("b1"), ids(results.get(BUSINESS_TERM)));
+		assertTrue(results.get(AGENT_KNOWLEDGE).isEmpty());
+	}
+
+	private static Filter.Expression filter(String vectorType) {
+		return new FilterExpressionBuilder().eq(DocumentMetadataConstant.VECTOR_TYPE, vectorType).build();
+	}
+
+	private static Document doc(String id, String vectorType, double score) {
+		return Document.builder()
+			.id(id)
+			.text(id)
+			.metadata(Map.of(DocumentMetadataConstant.VECTOR_TYPE, vectorType))
+			.score(score)
+			.build();
+	}
+
+	private static List<String> ids(List<Document> documents) {
+		return documents.stream().map(Document::getId).toList();
+	}
+
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.dataagent.service.vectorstore;
+
+import com.alibaba.cloud.ai.dataagent.event.AgentRecallScopeChangedEvent;
+import com.alibaba.cloud.ai.dataagent.mapper.AgentKnowledgeMapper;
+import com.alibaba.cloud.ai.dataagent.mapper.BusinessKnowledgeMapper;
+import com.alibaba.cloud.ai.dataagent.properties.DataAgentProperties;
+import com.alibaba.cloud.ai.dataagent.properties.DataAgentProperties.VectorStoreProperties.RecallFilterMode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.ai.vectorstore.filter.Filter;
+
+import java.util.List;
+
+import static com.alibaba.cloud.ai.dataagent.constant.DocumentMetadataConstant.AGENT_KNOWLEDGE;
+import static com.alibaba.cloud.ai.dataagent.constant.DocumentMetadataConstant.BUSINESS_TERM;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * DynamicFilterService 召回 ID 缓存单元测试
+ */
+@ExtendWith(MockitoExtension.class)
+class DynamicFilterServiceTest {
+
+	@Mock
+	private AgentKnowledgeMapper agentKnowledgeMapper;
+
+	@Mock
+	private BusinessKnowledgeMapper businessKnowledgeMapper;
+
+	private DataAgentProperties properties;
+
+	private DynamicFilterService service;
+
+	@BeforeEach
+	void setUp() {
+		properties = new DataAgentProperties();
+		service = new DynamicFilterService(agentKnowledgeMapper, businessKnowledgeMapper, properties);
+	}
+
+	@Test
+	void recalledIdsAreCachedUntilRecallScopeChanges() {
+		when(businessKnowledgeMapper.selectRecalledKnowledgeIds(1L)).thenReturn(List.of(9L, 3L, 5L));
+
+		Filter.Expression first = service.buildDynamicFilter("1", BUSINESS_TERM);
+		Filter.Expression second = service.buildDynamicFilter("1", BUSINESS_TERM);
+		assertNotNull(first);
+		assertTrue(second.toString().contains("businessTermId"));
+		assertSame(service.getRecalledIds("1", BUSINESS_TERM), service.getRecalledIds("1", BUSINESS_TERM));
+		assertEquals(3, service.getRecalledIds("1", BUSINESS_TERM).count());
+		verify(businessKnowledgeMapper, times(1)).selectRecalledKnowledgeIds(1L);
+
+		service.onRecallScopeChanged(
+				new AgentRecallScopeChangedEvent(this, "1", AgentRecallScopeChangedEvent.Scope.SCHEMA));
+		service.buildDynamicFilter("1", BUSINESS_TERM);
+		verify(businessKnowledgeMapper, times(1)).selectRecalledKnowledgeIds(1L);
+
+		service.onRecallScopeChanged(
+				new AgentRecallScopeChangedEvent(this, "1", AgentRecallScopeChangedEvent.Scope.BUSINESS_KNOWLEDGE));
+		service.buildDynamicFilter("1", BUSINESS_TERM);
+		verify(businessKnowledgeMapper, times(2)).selectRecalledKnowledgeIds(1L);
+	}
+
+	@Test
+	void recalledIdsExpireAfterTtl() throws InterruptedException {
+		properties.getVectorStore().setRecallIdsTtlMillis(50);
+		when(businessKnowledgeMapper.selectRecalledKnowledgeIds(1L)).thenReturn(List.of(3L));
+
+		service.buildDynamicFilter("1", BUSINESS_TERM);
+		service.buildDynamicFilter("1", BUSINESS_TERM);
+		verify(businessKnowledgeMapper, times(1)).selectRecalledKnowledgeIds(1L);
+
+		// 模拟其他实例上的变更：本实例收不到事件，只能等缓存过期
+		Thread.sleep(100);
+		service.buildDynamicFilter("1", BUSINESS_TERM);
+		verify(businessKnowledgeMapper, times(2)).selectRecalledKnowledgeIds(1L);
+	}
+
+	@Test
+	void nonPositiveTtlDisablesCache() {
+		properties.getVectorStore().setRecallIdsTtlMillis(0);
+		when(agentKnowledgeMapper.selectRecalledKnowledgeIds(2)).thenReturn(List.of(7));
+
+		service.buildDynamicFilter("2", AGENT_KNOWLEDGE);
+		service.buildDynamicFilter("2", AGENT_KNOWLEDGE);
+		verify(agentKnowledgeMapper, times(2)).selectRecalledKnowledgeIds(2);
+	}
+
+	@Test
+	void emptyRecalledIdsReturnNullFilter() {
+		when(agentKnowledgeMapper.selectRecalledKnowledgeIds(2)).thenReturn(List.of());
+
+		assertNull(service.buildDynamicFilter("2", AGENT_KNOWLEDGE));
+		assertNull(service.buildDynamicFilter("2", AGENT_KNOWLEDGE));
+		verify(agentKnowledgeMapper, times(1)).selectRecalledKnowledgeIds(2);
+	}
+
+	@Test
+	void metadataModeFiltersOnRecalledFlagWithoutDatabaseLookup() {
+		properties.getVectorStore().setRecallFilterMode(RecallFilterMode.METADATA);
+
+		Filter.Expression filter = service.buildDynamicFilter("1", AGENT_KNOWLEDGE);
+
+		assertTrue(filter.toString().contains("recalled"));
+		verifyNoInteractions(agentKnowledgeMapper, businessKnowledgeMapper);
+	}
+
+}
@@ -0,0 +1,309 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.dataagent.service.vectorstore.local;
+
+import com.alibaba.cloud.ai.dataagent.properties.DataAgentProperties.VectorStoreProperties.LocalStore;
+import com.alibaba.cloud.ai.dataagent.properties.DataAgentProperties.VectorStoreProperties.LocalStore.Quantization;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.Embedding;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingRequest;
+import org.springframework.ai.embedding.EmbeddingResponse;
+import org.springframework.ai.embedding.TokenCountBatchingStrategy;
+import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.ai.vectorstore.filter.FilterExpressionBuilder;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * LocalVectorStore 单元测试
+ */
+class LocalVectorStoreTest {
+
+	private final HashEmbeddingModel embeddingModel = new HashEmbeddingModel();
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void filtersByMetadataAndReopensWithoutReembedding() throws Exception {
+		LocalStore properties = properties(Quantization.FLOAT32);
+		try (LocalVectorStore store = open(properties)) {
+			store.add(List.of(doc("t1", "订单表 orders", "1", "table"), doc("t2", "用户表 users", "1", "table"),
+					doc("c1", "订单金额 amount", "1", "column"), doc("t3", "订单表 orders", "2", "table")));
+		}
+
+		try (LocalVectorStore store = open(properties)) {
+			assertEquals(4, store.size());
+			FilterExpressionBuilder b = new FilterExpressionBuilder();
+			List<Document> results = store.similaritySearch(SearchRequest.builder()
+				.query("订单表 orders")
+				.topK(5)
+				.filterExpression(b.and(b.eq("agentId", "1"), b.eq("vectorType", "table")).build())
+				.build());
+			assertEquals(List.of("t1", "t2"), results.stream().map(Document::getId).toList());
+			assertEquals(1.0, results.get(0).getScore(), 1e-5);
+			assertEquals("orders", results.get(0).getMetadata().get("tableName"));
+		}
+	}
+
+	@Test
+	void deletesByFilterAndReusesSlots() throws Exception {
+		LocalStore properties = properties(Quantization.FLOAT32);
+		try (LocalVectorStore store = open(properties)) {
+			store.add(List.of(doc("a", "订单表", "1", "table"), doc("b", "用户表", "1", "table"),
+					doc("c", "商品表", "2", "table")));
+			store.delete("agentId == '1' && vectorType == 'table'");
+			assertEquals(1, store.size());
+			store.add(List.of(doc("d", "库存表", "2", "table")));
+		}
+
+		try (LocalVectorStore store = open(properties)) {
+			assertEquals(2, store.size());
+			List<Document> results = store.similaritySearch(SearchRequest.builder()
+				.query("订单表")
+				.topK(10)
+				.similarityThresholdAll()
+				.filterExpression("agentId in ['1', '2']")
+				.build());
+			assertTrue(results.stream().map(Document::getId).toList().containsAll(List.of("c", "d")));
+			assertEquals(2, results.size());
+		}
+	}
+
+	@Test
+	void findsByPartitionFilterWithoutEmbedding() throws Exception {
+		try (LocalVectorStore store = open(properties(Quantization.FLOAT32))) {
+			store.add(List.of(doc("c1", "订单号 orders", "1", "column"), doc("c2", "用户名 users", "1", "column"),
+					doc("c3", "订单号 orders", "2", "column"), doc("t1", "订单表 orders", "1", "table")));
+			int calls = embeddingModel.calls.get();
+
+			FilterExpressionBuilder b = new FilterExpressionBuilder();
+			List<Document> columns = store.findByFilter(b
+				.and(b.and(b.eq("agentId", "1"), b.eq("vectorType", "column")), b.in("tableName", "orders", "items"))
+				.build(), 10);
+			assertEquals(List.of("c1"), columns.stream().map(Document::getId).toList());
+			assertTrue(store.findByFilter(b.and(b.eq("agentId", "3"), b.eq("vectorType", "column")).build(), 10)
+				.isEmpty());
+			assertEquals(1, store.findByFilter(b.eq("agentId", "1").build(), 1).size());
+			assertEquals(calls, embeddingModel.calls.get());
+		}
+	}
+
+	@Test
+	void updatesMetadataInPlaceWithoutReembedding() throws Exception {
+		LocalStore properties = properties(Quantization.FLOAT32);
+		FilterExpressionBuilder b = new FilterExpressionBuilder();
+		try (LocalVectorStore store = open(properties)) {
+			store.add(List.of(doc("k1", "订单知识 orders", "1", "knowledge"), doc("k2", "用户知识 users", "1", "knowledge")));
+			int calls = embeddingModel.calls.get();
+
+			assertEquals(1, store.updateMetadata(b.eq("tableName", "orders").build(), Map.of("recalled", false)));
+
+			assertEquals(calls, embeddingModel.calls.get());
+			assertEquals(List.of("k1"),
+					store.findByFilter(b.eq("recalled", false).build(), 10).stream().map(Document::getId).toList());
+		}
+
+		try (LocalVectorStore store = open(properties)) {
+			List<Document> results = store.similaritySearch(SearchRequest.builder()
+				.query("订单知识 orders")
+				.topK(2)
+				.filterExpression(b.and(b.eq("agentId", "1"), b.eq("recalled", false)).build())
+				.build());
+			assertEquals(List.of("k1"), results.stream().map(Document::getId).toList());
+			assertEquals(1.0, results.get(0).getScore(), 1e-5);
+		}
+	}
+
+	@Test
+	void int8WithIvfFindsExactMatch() throws Exception {
+		LocalStore properties = properties(Quantization.INT8);
+		properties.setIvfMinVectors(100);
+		properties.setExactScanLimit(0);
+		properties.setIvfProbes(4);
+		try (LocalVectorStore store = open(properties)) {
+			List<Document> documents = new ArrayList<>();
+			for (int i = 0; i < 300; i++) {
+				documents.add(doc("d" + i, "document-" + i + "-" + (i * 7919 % 1000), String.valueOf(i % 3), "column"));
+			}
+			store.add(documents);
+
+			List<Document> results = store.similaritySearch(SearchRequest.builder()
+				.query("document-42-" + (42 * 7919 % 1000))
+				.topK(3)
+				.similarityThresholdAll()
+				.filterExpression("agentId == '0'")
+				.build());
+			assertEquals("d42", results.get(0).getId());
+			assertEquals(1.0, results.get(0).getScore(), 0.02);
+			assertTrue(results.stream().allMatch(d -> "0".equals(d.getMetadata().get("agentId"))));
+		}
+	}
+
+	@Test
+	void retrainsIvfAsDataGrowsAndKeepsAssignments() throws Exception {
+		LocalStore properties = properties(Quantization.FLOAT32);
+		properties.setIvfMinVectors(100);
+		properties.setExactScanLimit(0);
+		properties.setIvfProbes(4);
+		String query = "document-250-" + (250 * 7919 % 1000);
+		try (LocalVectorStore store = open(properties)) {
+			// 首批达到阈值时训练，之后数据量翻倍时在锁外重新训练并替换索引
+			for (int batch = 0; batch < 4; batch++) {
+				List<Document> documents = new ArrayList<>();
+				for (int i = batch * 100; i < (batch + 1) * 100; i++) {
+					documents.add(doc("d" + i, "document-" + i + "-" + (i * 7919 % 1000), "1", "column"));
+				}
+				store.add(documents);
+			}
+			assertEquals("d250",
+					store.similaritySearch(SearchRequest.builder().query(query).topK(1).build()).get(0).getId());
+		}
+		try (LocalVectorStore store = open(properties)) {
+			assertEquals(400, store.size());
+			assertEquals("d250",
+					store.similaritySearch(SearchRequest.builder().query(query).topK(1).build()).get(0).getId());
+		}
+	}
+
+	@Test
+	void resetsWhenEmbeddingDimensionChanges() throws Exception {
+		LocalStore properties = properties(Quantization.FLOAT32);
+		try (LocalVectorStore store = open(properties)) {
+			store.add(List.of(doc("t1", "订单表 orders", "1", "table")));
+		}
+
+		// 切换到不同维度的嵌入模型后，搜索返回空结果但不清空数据，下一次写入时才清空旧向量
+		HashEmbeddingModel switched = new HashEmbeddingModel(16);
+		try (LocalVectorStore store = LocalVectorStore.open(switched, new TokenCountBatchingStrategy(), properties)) {
+			assertTrue(store.similaritySearch(SearchRequest.builder().query("订单").similarityThresholdAll().build())
+				.isEmpty());
+			assertEquals(1, store.size());
+			store.add(List.of(doc("t2", "用户表 users", "1", "table")));
+			assertEquals(1, store.size());
+			store.add(List.of(doc("t1", "订单表 orders", "1", "table")));
+			assertEquals("t1",
+					store.similaritySearch(SearchRequest.builder().query("订单表 orders").build()).get(0).getId());
+		}
+		try (LocalVectorStore store = LocalVectorStore.open(switched, new TokenCountBatchingStrategy(), properties)) {
+			assertEquals(2, store.size());
+		}
+	}
+
+	@Test
+	void resetsWhenEmbeddingModelFingerprintChanges() throws Exception {
+		LocalStore properties = properties(Quantization.FLOAT32);
+		AtomicReference<String> fingerprint = new AtomicReference<>("1|openai|text-embedding-v1");
+		try (LocalVectorStore store = LocalVectorStore.open(embeddingModel, new TokenCountBatchingStrategy(),
+				properties, fingerprint::get)) {
+			store.add(List.of(doc("t1", "订单表 orders", "1", "table")));
+			assertFalse(store.resetIfEmbeddingModelChanged());
+
+			fingerprint.set("2|openai|text-embedding-v2");
+			assertTrue(store.resetIfEmbeddingModelChanged());
+			assertEquals(0, store.size());
+		}
+	}
+
+	@Test
+	void failsWithActionableErrorWhenRebuildDisabled() throws Exception {
+		LocalStore properties = properties(Quantization.FLOAT32);
+		properties.setRebuildOnEmbeddingChange(false);
+		try (LocalVectorStore store = open(properties)) {
+			store.add(List.of(doc("t1", "订单表 orders", "1", "table")));
+		}
+
+		try (LocalVectorStore store = LocalVectorStore.open(new HashEmbeddingModel(16),
+				new TokenCountBatchingStrategy(), properties)) {
+			IllegalStateException e = assertThrows(IllegalStateException.class,
+					() -> store.similaritySearch(SearchRequest.builder().query("订单").build()));
+			assertTrue(e.getMessage().contains("rebuild-on-embedding-change"));
+			assertEquals(1, store.size());
+		}
+	}
+
+	private LocalVectorStore open(LocalStore properties) throws Exception {
+		return LocalVectorStore.open(embeddingModel, new TokenCountBatchingStrategy(), properties);
+	}
+
+	private LocalStore properties(Quantization quantization) {
+		LocalStore properties = new LocalStore();
+		properties.setPath(dir.toString());
+		properties.setQuantization(quantization);
+		return properties;
+	}
+
+	private static Document doc(String id, String text, String agentId, String vectorType) {
+		return new Document(id, text, Map.of("agentId", agentId, "vectorType", vectorType, "tableName",
+				text.contains("orders") ? "orders" : "other"));
+	}
+
+	/**
+	 * 按字符哈希生成确定性向量，相同文本得到相同向量
+	 */
+	private static class HashEmbeddingModel implements EmbeddingModel {
+
+		private final int dimensions;
+
+		private final AtomicInteger calls = new AtomicInteger();
+
+		private HashEmbeddingModel() {
+			this(32);
+		}
+
+		private HashEmbeddingModel(int dimensions) {
+			this.dimensions = dimensions;
+		}
+
+		@Override
+		public EmbeddingResponse call(EmbeddingRequest request) {
+			calls.incrementAndGet();
+			List<Embedding> embeddings = new ArrayList<>();
+			for (int i = 0; i < request.getInstructions().size(); i++) {
+				embeddings.add(new Embedding(vector(request.getInstructions().get(i)), i));
+			}
+			return new EmbeddingResponse(embeddings);
+		}
+
+		@Override
+		public float[] embed(Document document) {
+			return vector(document.getText());
+		}
+
+		private float[] vector(String text) {
+			float[] vector = new float[dimensions];
+			for (int i = 0; i < text.length(); i++) {
+				vector[(text.charAt(i) * 31 + i) % dimensions] += 1f;
+			}
+			return vector;
+		}
+
+	}
+
+}
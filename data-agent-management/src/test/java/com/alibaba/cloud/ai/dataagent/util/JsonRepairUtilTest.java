@@ -0,0 +1,76 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.dataagent.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * JsonRepairUtil 单元测试
+ */
+class JsonRepairUtilTest {
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	@Test
+	void removesTrailingCommas() throws Exception {
+		JsonNode node = parse("{\"a\": [1, 2, ], \"b\": 3, }");
+		assertEquals(2, node.get("a").size());
+		assertEquals(3, node.get("b").asInt());
+	}
+
+	@Test
+	void convertsSingleQuotedStrings() throws Exception {
+		JsonNode node = parse("{'name': 'it\\'s \"ok\"'}");
+		assertEquals("it's \"ok\"", node.get("name").asText());
+	}
+
+	@Test
+	void closesTruncatedOutput() throws Exception {
+		JsonNode node = parse("{\"steps\": [{\"id\": 1, \"desc\": \"查询销");
+		assertEquals("查询销", node.get("steps").get(0).get("desc").asText());
+
+		node = parse("{\"a\": 1, \"b\":");
+		assertEquals(1, node.get("a").asInt());
+		assertEquals(true, node.get("b").isNull());
+
+		node = parse("{\"a\": 1, \"b\"");
+		assertEquals(true, node.get("b").isNull());
+	}
+
+	@Test
+	void extractsJsonFromSurroundingText() throws Exception {
+		JsonNode node = parse("结果如下：\n```json\n{\"a\": \"line1\nline2\"}\n```\n以上");
+		assertEquals("line1\nline2", node.get("a").asText());
+
+		node = parse("Here you go: [1, 2] hope it helps]");
+		assertEquals(2, node.size());
+	}
+
+	@Test
+	void returnsNullWithoutJson() {
+		assertNull(JsonRepairUtil.repair("no json here"));
+	}
+
+	private JsonNode parse(String text) throws Exception {
+		return objectMapper.readTree(JsonRepairUtil.repair(text));
+	}
+
+}
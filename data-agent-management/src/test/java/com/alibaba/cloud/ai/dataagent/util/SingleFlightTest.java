@@ -0,0 +1,117 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.dataagent.util;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * SingleFlight 单元测试
+ */
+class SingleFlightTest {
+
+	@Test
+	void concurrentFluxSubscribersShareOneUpstream() {
+		AtomicInteger upstreamCalls = new AtomicInteger();
+		AtomicInteger coalesced = new AtomicInteger();
+		SingleFlight<String, String> singleFlight = new SingleFlight<>(coalesced::incrementAndGet);
+		Sinks.Many<String> upstream = Sinks.many().replay().all();
+
+		Flux<String> first = singleFlight.flux("k", () -> {
+			upstreamCalls.incrementAndGet();
+			return upstream.asFlux();
+		});
+		Flux<String> second = singleFlight.flux("k", () -> {
+			upstreamCalls.incrementAndGet();
+			return upstream.asFlux();
+		});
+
+		List<String> firstResult = new ArrayList<>();
+		List<String> secondResult = new ArrayList<>();
+		first.subscribe(firstResult::add);
+		upstream.tryEmitNext("a");
+		second.subscribe(secondResult::add);
+		upstream.tryEmitNext("b");
+		upstream.tryEmitComplete();
+
+		assertEquals(1, upstreamCalls.get());
+		assertEquals(1, coalesced.get());
+		assertEquals(List.of("a", "b"), firstResult);
+		assertEquals(List.of("a", "b"), secondResult);
+
+		// 上游结束后不再复用
+		singleFlight.flux("k", () -> {
+			upstreamCalls.incrementAndGet();
+			return Flux.just("c");
+		}).blockLast();
+		assertEquals(2, upstreamCalls.get());
+	}
+
+	@Test
+	void concurrentCallsShareOneResult() throws Exception {
+		AtomicInteger upstreamCalls = new AtomicInteger();
+		SingleFlight<String, Integer> singleFlight = new SingleFlight<>(() -> {
+		});
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			Future<Integer> leader = executor.submit(() -> singleFlight.call("k", () -> {
+				upstreamCalls.incrementAndGet();
+				started.countDown();
+				awaitQuietly(release);
+				return 42;
+			}));
+			started.await(5, TimeUnit.SECONDS);
+			Future<Integer> follower = executor.submit(() -> singleFlight.call("k", () -> {
+				upstreamCalls.incrementAndGet();
+				return -1;
+			}));
+			// 给跟随者时间加入进行中的调用
+			Thread.sleep(100);
+			release.countDown();
+
+			assertEquals(42, leader.get(5, TimeUnit.SECONDS));
+			assertEquals(42, follower.get(5, TimeUnit.SECONDS));
+			assertEquals(1, upstreamCalls.get());
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private static void awaitQuietly(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+}
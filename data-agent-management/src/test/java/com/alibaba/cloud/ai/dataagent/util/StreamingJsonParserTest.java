@@ -0,0 +1,98 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.dataagent.util;
+
+import com.alibaba.cloud.ai.dataagent.dto.planner.ExecutionStep;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * StreamingJsonParser 单元测试
+ */
+class StreamingJsonParserTest {
+
+	@Test
+	void emitsEachStepBeforeStreamEnds() {
+		List<ExecutionStep> steps = new ArrayList<>();
+		StreamingJsonParser<ExecutionStep> parser = new StreamingJsonParser<>("execution_plan", ExecutionStep.class,
+				steps::add);
+
+		parser.feed("```json\n{\"thought_process\": \"先查询[销量]\", \"execution_plan\": [{\"step\": 1, \"tool_to");
+		assertTrue(steps.isEmpty());
+		parser.feed("_use\": \"SQL_GENERATE_NODE\", \"tool_parameters\": {\"instruction\": \"统计销量\"}}, {\"st");
+		assertEquals(1, steps.size());
+		assertEquals("SQL_GENERATE_NODE", steps.get(0).getToolToUse());
+		assertEquals("统计销量", steps.get(0).getToolParameters().getInstruction());
+		assertFalse(parser.isCompleted());
+
+		parser.feed("ep\": 2, \"tool_to_use\": \"REPORT_GENERATOR_NODE\"}]}\n```");
+		assertEquals(2, steps.size());
+		assertEquals(2, steps.get(1).getStep());
+		assertTrue(parser.isCompleted());
+	}
+
+	@Test
+	void emitsRootArrayElements() {
+		List<String> tables = new ArrayList<>();
+		StreamingJsonParser<String> parser = new StreamingJsonParser<>(null, String.class, tables::add);
+
+		parser.feed("[\"orders\", \"us");
+		assertEquals(List.of("orders"), tables);
+		parser.feed("ers\"] trailing text");
+		assertEquals(List.of("orders", "users"), parser.getElements());
+		assertTrue(parser.isCompleted());
+	}
+
+	@Test
+	void stopsOnMalformedInput() {
+		StreamingJsonParser<String> parser = new StreamingJsonParser<>(null, String.class, table -> {
+		});
+
+		parser.feed("[\"orders\", oops]");
+		assertEquals(List.of("orders"), parser.getElements());
+		assertFalse(parser.isCompleted());
+	}
+
+	@Test
+	void skipsJsonInsideThinkBlock() {
+		StreamingJsonParser<String> parser = new StreamingJsonParser<>(null, String.class, table -> {
+		});
+
+		parser.feed("<thi");
+		parser.feed("nk>候选表可能是 [\"logs\"]，再确认一下</th");
+		parser.feed("ink>\n[\"orders\", \"users\"]");
+		assertEquals(List.of("orders", "users"), parser.getElements());
+		assertTrue(parser.isCompleted());
+	}
+
+	@Test
+	void givesUpOnUnmatchedThinkEndTag() {
+		StreamingJsonParser<String> parser = new StreamingJsonParser<>(null, String.class, table -> {
+		});
+
+		// 部分推理模型只输出结束标签，此前的 JSON 属于推理过程
+		parser.feed("候选表 [\"logs\"] </think>\n");
+		parser.feed("[\"orders\"]");
+		assertFalse(parser.isCompleted());
+	}
+
+}
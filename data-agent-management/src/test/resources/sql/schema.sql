@@ -220,6 +220,7 @@ CREATE TABLE IF NOT EXISTS `model_config` (
   `is_active` tinyint(1) DEFAULT '0' COMMENT '是否激活',
   `max_tokens` int(11) DEFAULT '2000' COMMENT '输出响应最大令牌数',
   `model_type` varchar(20) NOT NULL DEFAULT 'CHAT' COMMENT '模型类型 (CHAT/EMBEDDING)',
+  `model_tier` varchar(32) NOT NULL DEFAULT 'DEFAULT' COMMENT '对话模型层级 (DEFAULT/FAST/REASONING/LONG_CONTEXT)',
   `completions_path` varchar(255) DEFAULT NULL COMMENT 'Chat模型专用。附加到 Base URL 的路径。例如OpenAi的/v1/chat/completions',
   `embeddings_path` varchar(255) DEFAULT NULL COMMENT '嵌入模型专用。附加到 Base URL 的路径。',
   `created_time` datetime DEFAULT NULL COMMENT '创建时间',